@@ -0,0 +1,50 @@
+// per-request latency of the common read endpoints at a fixed request rate
+// run it once per configuration and compare the exported summaries, see README.md
+import http from 'k6/http';
+import { check } from 'k6';
+import { BASE_URL, login, pick, authHeaders } from './common.js';
+
+const RATE = parseInt(__ENV.RATE || '50');
+const DURATION = __ENV.DURATION || '2m';
+
+// one threshold per endpoint so the summary reports each of them on its own
+const ENDPOINTS = ['dashboard-summary', 'quick-stats', 'my-today', 'my-workouts', 'exercises', 'leaderboard'];
+const thresholds = { http_req_failed: ['rate<0.01'] };
+for (const name of ENDPOINTS) {
+    thresholds[`http_req_duration{name:${name}}`] = ['p(95)<1000'];
+}
+
+export const options = {
+    scenarios: {
+        requests: {
+            executor: 'constant-arrival-rate',
+            rate: RATE,
+            timeUnit: '1s',
+            duration: DURATION,
+            preAllocatedVUs: RATE,
+            maxVUs: RATE * 4,
+        },
+    },
+    thresholds,
+    summaryTrendStats: ['avg', 'p(50)', 'p(95)', 'p(99)', 'max'],
+};
+
+export function setup() {
+    return { users: login() };
+}
+
+export default function (data) {
+    const user = pick(data.users);
+    const params = authHeaders(user);
+    const name = ENDPOINTS[Math.floor(Math.random() * ENDPOINTS.length)];
+    const urls = {
+        'dashboard-summary': '/api/dashboard/summary',
+        'quick-stats': '/api/dashboard/quick-stats',
+        'my-today': '/api/scheduled-workouts/my-today',
+        'my-workouts': '/api/scheduled-workouts/my-workouts?limit=20',
+        'exercises': '/api/exercises?page=0&size=20',
+        'leaderboard': '/api/leaderboards/calories?period=week&size=20',
+    };
+    const res = http.get(`${BASE_URL}${urls[name]}`, Object.assign({ tags: { name } }, params));
+    check(res, { 'status is 200': (r) => r.status === 200 });
+}
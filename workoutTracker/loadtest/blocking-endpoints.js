@@ -0,0 +1,52 @@
+// the dashboard overview and recommendation endpoints under rising concurrency, both wait on the database
+// run it with spring.threads.virtual.enabled=false and =true and compare, see README.md
+import http from 'k6/http';
+import { check } from 'k6';
+import { BASE_URL, login, pick, authHeaders } from './common.js';
+
+// concurrent users per stage, each held for STAGE_DURATION
+const STAGES = (__ENV.STAGES || '50,200,400').split(',').map((vus) => parseInt(vus));
+const STAGE_DURATION = __ENV.STAGE_DURATION || '1m';
+const GOALS = ['WEIGHT_LOSS', 'MUSCLE_GAIN', 'MAINTENANCE'];
+
+const stages = [];
+for (const target of STAGES) {
+    stages.push({ duration: '15s', target });
+    stages.push({ duration: STAGE_DURATION, target });
+}
+
+export const options = {
+    scenarios: {
+        blocking: {
+            executor: 'ramping-vus',
+            startVUs: 0,
+            stages,
+            gracefulRampDown: '10s',
+        },
+    },
+    thresholds: {
+        http_req_failed: ['rate<0.01'],
+        'http_req_duration{name:dashboard-overview}': ['p(95)<2000'],
+        'http_req_duration{name:recommend}': ['p(95)<2000'],
+    },
+    summaryTrendStats: ['avg', 'p(50)', 'p(95)', 'p(99)', 'max'],
+};
+
+export function setup() {
+    return { users: login() };
+}
+
+// no think time, every VU keeps one request in flight
+export default function (data) {
+    const user = pick(data.users);
+    const params = authHeaders(user);
+
+    const overview = http.get(`${BASE_URL}/api/dashboard/overview?period=weekly&daysBack=30`,
+        Object.assign({ tags: { name: 'dashboard-overview' } }, params));
+    check(overview, { 'overview is 200': (r) => r.status === 200 });
+
+    const body = JSON.stringify({ userId: user.userId, goalType: GOALS[__ITER % GOALS.length] });
+    const recommend = http.post(`${BASE_URL}/api/workouts/recommend`, body,
+        Object.assign({ tags: { name: 'recommend' } }, params));
+    check(recommend, { 'recommend is 200': (r) => r.status === 200 });
+}
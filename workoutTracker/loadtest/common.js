@@ -0,0 +1,29 @@
+// shared by the k6 scripts in this directory, see README.md
+import http from 'k6/http';
+
+export const BASE_URL = __ENV.BASE_URL || 'http://localhost:8082';
+
+// LOADTEST_USERS is a comma separated list of existing accounts sharing LOADTEST_PASSWORD,
+// several users keep the per-user caches from turning every request into a hit
+export function login() {
+    const emails = (__ENV.LOADTEST_USERS || 'loadtest@example.com').split(',');
+    const password = __ENV.LOADTEST_PASSWORD || 'loadtest123';
+    return emails.map((email) => {
+        const res = http.post(`${BASE_URL}/api/auth/login`, JSON.stringify({ email: email.trim(), password }), {
+            headers: { 'Content-Type': 'application/json' },
+        });
+        if (res.status !== 200) {
+            throw new Error(`login failed for ${email}: ${res.status} ${res.body}`);
+        }
+        return { userId: res.json('userId'), token: res.json('token') };
+    });
+}
+
+// the user of this iteration, round robin over the logged in users
+export function pick(users) {
+    return users[(__VU + __ITER) % users.length];
+}
+
+export function authHeaders(user) {
+    return { headers: { Authorization: `Bearer ${user.token}`, 'Content-Type': 'application/json' } };
+}
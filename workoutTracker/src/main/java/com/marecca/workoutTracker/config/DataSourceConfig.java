@@ -0,0 +1,53 @@
+package com.marecca.workoutTracker.config;
+
+import com.marecca.workoutTracker.util.ConnectionLimitingDataSource;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+import javax.sql.DataSource;
+
+/**
+ * puts ConnectionLimitingDataSource (sized to the Hikari pool) in front of the pool
+ * on by default when running on virtual threads (never the case on the Java 17 runtime),
+ * datasource.connection-limit.enabled turns it on or off explicitly
+ */
+@Configuration
+public class DataSourceConfig {
+
+    @Bean
+    public static BeanPostProcessor connectionLimitPostProcessor(Environment environment) {
+        boolean enabled = environment.getProperty("datasource.connection-limit.enabled", Boolean.class,
+                Threading.VIRTUAL.isActive(environment));
+        long acquireTimeoutMs = environment.getProperty("datasource.connection-limit.acquire-timeout-ms", Long.class, 30000L);
+
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (enabled && bean instanceof HikariDataSource hikari) {
+                    return new ConnectionLimitingDataSource(hikari, hikari.getMaximumPoolSize(), acquireTimeoutMs);
+                }
+                return bean;
+            }
+        };
+    }
+
+    @Bean
+    public MeterBinder connectionLimitMetrics(DataSource dataSource) {
+        return registry -> {
+            if (dataSource instanceof ConnectionLimitingDataSource limited) {
+                Gauge.builder("datasource.connection-limit.waiting", limited, ConnectionLimitingDataSource::getWaitingThreads)
+                        .description("Callers waiting for a database connection permit")
+                        .register(registry);
+                Gauge.builder("datasource.connection-limit.available", limited, ConnectionLimitingDataSource::getAvailablePermits)
+                        .description("Database connection permits left")
+                        .register(registry);
+            }
+        };
+    }
+}
@@ -0,0 +1,100 @@
+package com.marecca.workoutTracker.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+
+/**
+ * logs the effective pool, driver, Hibernate and SQL logging settings once the app is up
+ * with the prod profile active, settings that slow down every request are logged as warnings
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class StartupSettingsReporter {
+
+    private static final String PROD_PROFILE = "prod";
+
+    private final Environment environment;
+    private final DataSource dataSource;
+    private final EntityManagerFactory entityManagerFactory;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void report() {
+        List<String> problems = new ArrayList<>();
+
+        HikariDataSource hikari = unwrapHikari();
+        if (hikari != null) {
+            Properties driver = hikari.getDataSourceProperties();
+            log.info("Connection pool {}: maximumPoolSize={}, minimumIdle={}, connectionTimeout={}ms, maxLifetime={}ms",
+                    hikari.getPoolName(), hikari.getMaximumPoolSize(), hikari.getMinimumIdle(),
+                    hikari.getConnectionTimeout(), hikari.getMaxLifetime());
+            log.info("JDBC driver: reWriteBatchedInserts={}, prepareThreshold={}, preparedStatementCacheQueries={}, preparedStatementCacheSizeMiB={}",
+                    driver.getProperty("reWriteBatchedInserts", "false"),
+                    driver.getProperty("prepareThreshold", "5"),
+                    driver.getProperty("preparedStatementCacheQueries", "256"),
+                    driver.getProperty("preparedStatementCacheSizeMiB", "5"));
+            if (!Boolean.parseBoolean(driver.getProperty("reWriteBatchedInserts", "false"))) {
+                problems.add("reWriteBatchedInserts is off");
+            }
+        }
+
+        Map<String, Object> hibernate = entityManagerFactory.getProperties();
+        String batchSize = setting(hibernate, "hibernate.jdbc.batch_size", "off");
+        log.info("Hibernate: batch_size={}, order_inserts={}, order_updates={}, plan_cache_max_size={}, in_clause_parameter_padding={}",
+                batchSize,
+                setting(hibernate, "hibernate.order_inserts", "false"),
+                setting(hibernate, "hibernate.order_updates", "false"),
+                setting(hibernate, "hibernate.query.plan_cache_max_size", "2048"),
+                setting(hibernate, "hibernate.query.in_clause_parameter_padding", "false"));
+        if (batchSize.equals("off") || batchSize.equals("0") || batchSize.equals("1")) {
+            problems.add("JDBC batching is off");
+        }
+
+        boolean showSql = Boolean.parseBoolean(setting(hibernate, "hibernate.show_sql", "false"));
+        boolean sqlLogged = LoggerFactory.getLogger("org.hibernate.SQL").isDebugEnabled();
+        boolean bindingsLogged = LoggerFactory.getLogger("org.hibernate.orm.jdbc.bind").isTraceEnabled()
+                || LoggerFactory.getLogger("org.hibernate.type.descriptor.sql.BasicBinder").isTraceEnabled();
+        log.info("SQL logging: show_sql={}, statements={}, bind parameters={}", showSql, sqlLogged, bindingsLogged);
+        if (showSql || sqlLogged || bindingsLogged) {
+            problems.add("SQL statements or bind parameters are logged");
+        }
+
+        boolean prod = Arrays.asList(environment.getActiveProfiles()).contains(PROD_PROFILE);
+        log.info("Active profiles: {}, virtual threads: {}", Arrays.toString(environment.getActiveProfiles()),
+                environment.getProperty("spring.threads.virtual.enabled", "false"));
+        if (prod) {
+            for (String problem : problems) {
+                log.warn("Production profile check: {}", problem);
+            }
+        }
+    }
+
+    //the pool may sit behind ConnectionLimitingDataSource
+    private HikariDataSource unwrapHikari() {
+        try {
+            return dataSource.isWrapperFor(HikariDataSource.class) ? dataSource.unwrap(HikariDataSource.class) : null;
+        } catch (SQLException e) {
+            return null;
+        }
+    }
+
+    private static String setting(Map<String, Object> properties, String key, String fallback) {
+        Object value = properties.get(key);
+        return value != null ? value.toString() : fallback;
+    }
+}
@@ -4,8 +4,11 @@ import com.marecca.workoutTracker.dto.request.CompleteProfileRequest;
 import com.marecca.workoutTracker.dto.request.LoginRequest;
 import com.marecca.workoutTracker.dto.request.RegisterRequest;
 import com.marecca.workoutTracker.entity.User;
+import com.marecca.workoutTracker.security.JwtPrincipal;
 import com.marecca.workoutTracker.service.UserService;
+import com.marecca.workoutTracker.service.exceptions.PasswordHashingUnavailableException;
 import com.marecca.workoutTracker.util.JwtUtil;
+import io.jsonwebtoken.JwtException;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
@@ -79,6 +82,8 @@ public class AuthController {
 
             return ResponseEntity.ok(response);
 
+        } catch (PasswordHashingUnavailableException e) {
+            return createErrorResponse(e.getMessage(), HttpStatus.SERVICE_UNAVAILABLE);
         } catch (Exception e) {
             return createErrorResponse("Registration failed: " + e.getMessage(), HttpStatus.INTERNAL_SERVER_ERROR);
         }
@@ -107,6 +112,8 @@ public class AuthController {
 
             return ResponseEntity.ok(response);
 
+        } catch (PasswordHashingUnavailableException e) {
+            return createErrorResponse(e.getMessage(), HttpStatus.SERVICE_UNAVAILABLE);
         } catch (Exception e) {
             return createErrorResponse("Login failed: " + e.getMessage(), HttpStatus.INTERNAL_SERVER_ERROR);
         }
@@ -157,14 +164,14 @@ public class AuthController {
             }
 
             String token = authHeader.substring(7);
-            if (!jwtUtil.validateToken(token)) {
+            JwtPrincipal principal;
+            try {
+                principal = jwtUtil.verify(token);
+            } catch (JwtException | IllegalArgumentException e) {
                 return createErrorResponse("Invalid token", HttpStatus.UNAUTHORIZED);
             }
 
-            String email = jwtUtil.getEmailFromToken(token);
-            Long userId = jwtUtil.getUserIdFromToken(token);
-
-            String newToken = jwtUtil.generateToken(email, userId);
+            String newToken = jwtUtil.generateToken(principal.getEmail(), principal.getUserId());
 
             Map<String, Object> response = new HashMap<>();
             response.put("token", newToken);
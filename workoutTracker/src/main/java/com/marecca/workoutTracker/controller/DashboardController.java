@@ -2,9 +2,8 @@ package com.marecca.workoutTracker.controller;
 
 import com.marecca.workoutTracker.dto.*;
 import com.marecca.workoutTracker.entity.Goal;
-import com.marecca.workoutTracker.entity.ScheduledWorkout;
 import com.marecca.workoutTracker.repository.GoalRepository;
-import com.marecca.workoutTracker.repository.ScheduledWorkoutRepository;
+import com.marecca.workoutTracker.service.DashboardOverviewService;
 import com.marecca.workoutTracker.service.DashboardService;
 import com.marecca.workoutTracker.util.JwtControllerUtils;
 import lombok.RequiredArgsConstructor;
@@ -19,10 +18,7 @@ import jakarta.servlet.http.HttpServletRequest;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
-import java.time.LocalDateTime;
 import java.time.temporal.ChronoUnit;
-import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -32,14 +28,12 @@ import java.util.Map;
 public class DashboardController {
 
     private final DashboardService dashboardService;
+    private final DashboardOverviewService dashboardOverviewService;
     private final JwtControllerUtils jwtUtils;
 
     @Autowired
     private GoalRepository goalRepository;
 
-    @Autowired
-    private ScheduledWorkoutRepository scheduledWorkoutRepository;
-
     /**
      * Get complete dashboard summary
      */
@@ -56,6 +50,57 @@ public class DashboardController {
         }
     }
 
+    /**
+     * Get summary, calendar, trends, workout types and achievements in one call
+     * the sections are loaded in parallel, a section that fails is returned empty
+     */
+    @GetMapping("/overview")
+    public ResponseEntity<?> getDashboardOverview(
+            HttpServletRequest request,
+            @RequestParam(defaultValue = "weekly") String period,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
+            @RequestParam(defaultValue = "30") Integer daysBack) {
+
+        try {
+            Long authenticatedUserId = jwtUtils.getUserIdFromToken(request);
+
+            if (!period.matches("daily|weekly|monthly")) {
+                return jwtUtils.createBadRequestResponse("Invalid period");
+            }
+
+            LocalDate today = LocalDate.now();
+            LocalDate calendarEnd = endDate != null ? endDate : today;
+            LocalDate calendarStart = startDate != null ? startDate : calendarEnd.minusDays(365);
+            if (ChronoUnit.DAYS.between(calendarStart, calendarEnd) > 730) {
+                return jwtUtils.createBadRequestResponse("Date range cannot exceed 730 days");
+            }
+
+            LocalDate trendStart;
+            switch (period) {
+                case "daily":
+                    trendStart = today.minusDays(30);
+                    break;
+                case "weekly":
+                    trendStart = today.minusWeeks(12);
+                    break;
+                default:
+                    trendStart = today.minusMonths(12);
+                    break;
+            }
+
+            DashboardOverviewDTO overview = dashboardOverviewService.getOverview(authenticatedUserId,
+                    calendarStart, calendarEnd,
+                    period, trendStart, today,
+                    today.minusDays(90), today,
+                    daysBack);
+            return ResponseEntity.ok(overview);
+
+        } catch (Exception e) {
+            return jwtUtils.createErrorResponse("Failed to get dashboard overview", HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+    }
+
     /**
      * Get workout calendar data
      */
@@ -152,50 +197,18 @@ public class DashboardController {
     }
 
     /**
-     * Get recent achievements
+     * Get recent achievements, one page at a time (most recent first)
      */
     @GetMapping("/achievements")
-    public ResponseEntity<?> getRecentAchievements(HttpServletRequest request, @RequestParam(defaultValue = "30") Integer daysBack) {
+    public ResponseEntity<?> getRecentAchievements(HttpServletRequest request,
+                                                   @RequestParam(defaultValue = "30") Integer daysBack,
+                                                   @RequestParam(defaultValue = "0") Integer page,
+                                                   @RequestParam(defaultValue = "50") Integer size) {
 
         try {
             Long authenticatedUserId = jwtUtils.getUserIdFromToken(request);
 
-            //computes startDate
-            LocalDateTime startDate = LocalDateTime.now().minusDays(daysBack);
-
-            List<Map<String, Object>> achievements = new ArrayList<>();
-
-            //recently completed workouts
-            try {
-                List<ScheduledWorkout> recentWorkouts = scheduledWorkoutRepository.findCompletedWorkoutsInDateRange(authenticatedUserId, startDate);
-
-                for (ScheduledWorkout workout : recentWorkouts) {
-                    Map<String, Object> achievement = new HashMap<>();
-                    achievement.put("id", "workout_" + workout.getScheduledWorkoutId());
-                    achievement.put("type", "COMPLETED_WORKOUT");
-                    achievement.put("title", "Workout Completed!");
-                    achievement.put("description", "You completed a " +
-                            (workout.getActualDurationMinutes() != null ? workout.getActualDurationMinutes() + " minute " : "") +
-                            "workout session");
-                    achievement.put("achievedAt", workout.getActualEndTime());
-                    achievement.put("points", 25);
-                    achievements.add(achievement);
-                }
-            } catch (Exception e) {
-                System.out.println("An error occurred: " + e.getMessage());
-            }
-
-            //sorting after recency
-            achievements.sort((a, b) -> {
-                LocalDateTime dateA = (LocalDateTime) a.get("achievedAt");
-                LocalDateTime dateB = (LocalDateTime) b.get("achievedAt");
-
-                if (dateA == null && dateB == null) return 0;
-                if (dateA == null) return 1;
-                if (dateB == null) return -1;
-
-                return dateB.compareTo(dateA);
-            });
+            List<Map<String, Object>> achievements = dashboardService.getRecentAchievements(authenticatedUserId, daysBack, page, size);
 
             return ResponseEntity.ok(achievements);
 
@@ -212,14 +225,7 @@ public class DashboardController {
         try {
             Long authenticatedUserId = jwtUtils.getUserIdFromToken(request);
 
-            DashboardSummaryDTO summary = dashboardService.getDashboardSummary(authenticatedUserId);
-
-            QuickStatsDTO quickStats = QuickStatsDTO.builder()
-                    .weeklyWorkouts(summary.getWeeklyWorkouts())
-                    .weeklyCalories(summary.getWeeklyCalories())
-                    .currentStreak(summary.getCurrentStreak())
-                    .totalWorkouts(summary.getTotalWorkouts())
-                    .build();
+            QuickStatsDTO quickStats = dashboardService.getQuickStats(authenticatedUserId);
 
             return ResponseEntity.ok(quickStats);
 
@@ -2,18 +2,17 @@ package com.marecca.workoutTracker.controller;
 
 import com.marecca.workoutTracker.dto.request.CreateGoalRequest;
 import com.marecca.workoutTracker.entity.Goal;
-import com.marecca.workoutTracker.repository.GoalRepository;
+import com.marecca.workoutTracker.security.OwnershipGuard;
+import com.marecca.workoutTracker.service.AchievementService;
 import com.marecca.workoutTracker.service.GoalService;
 import com.marecca.workoutTracker.util.JwtControllerUtils;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import jakarta.servlet.http.HttpServletRequest;
-import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.*;
 
@@ -26,9 +25,8 @@ public class GoalController {
 
     private final GoalService goalService;
     private final JwtControllerUtils jwtUtils;
-
-    @Autowired
-    private GoalRepository goalRepository;
+    private final OwnershipGuard ownershipGuard;
+    private final AchievementService achievementService;
 
     /**
      * Create a new goal
@@ -81,21 +79,16 @@ public class GoalController {
         try {
             Long authenticatedUserId = jwtUtils.getUserIdFromToken(request);
 
-            Optional<Goal> goalOptional = goalService.getGoalById(goalId);
+            Optional<Goal> goalOptional = goalService.getUserGoal(goalId, authenticatedUserId);
             if (goalOptional.isEmpty()) {
+                //only a miss needs to tell "not yours" from "not there"
+                if (ownershipGuard.goalAccess(goalId, authenticatedUserId) == OwnershipGuard.Access.FORBIDDEN) {
+                    return jwtUtils.createErrorResponse("You can only access your own goals", HttpStatus.FORBIDDEN);
+                }
                 return jwtUtils.createErrorResponse("Goal not found", HttpStatus.NOT_FOUND);
             }
 
-            Goal goal = goalOptional.get();
-
-            List<Goal> userGoals = goalService.getUserGoals(authenticatedUserId);
-            boolean isUserGoal = userGoals.stream().anyMatch(g -> g.getGoalId().equals(goalId));
-
-            if (!isUserGoal) {
-                return jwtUtils.createErrorResponse("You can only access your own goals", HttpStatus.FORBIDDEN);
-            }
-
-            Map<String, Object> response = createGoalResponse(goal);
+            Map<String, Object> response = createGoalResponse(goalOptional.get());
             return ResponseEntity.ok(response);
 
         } catch (Exception e) {
@@ -119,16 +112,12 @@ public class GoalController {
             }
 
             // Verify goal ownership before updating
-            Optional<Goal> goalOptional = goalService.getGoalById(goalId);
-            if (goalOptional.isEmpty()) {
+            OwnershipGuard.Access access = ownershipGuard.goalAccess(goalId, authenticatedUserId);
+            if (access == OwnershipGuard.Access.NOT_FOUND) {
                 return jwtUtils.createErrorResponse("Goal not found", HttpStatus.NOT_FOUND);
             }
 
-            // Check ownership
-            List<Goal> userGoals = goalService.getUserGoals(authenticatedUserId);
-            boolean isUserGoal = userGoals.stream().anyMatch(g -> g.getGoalId().equals(goalId));
-
-            if (!isUserGoal) {
+            if (access == OwnershipGuard.Access.FORBIDDEN) {
                 return jwtUtils.createErrorResponse("You can only update your own goals", HttpStatus.FORBIDDEN);
             }
 
@@ -154,16 +143,12 @@ public class GoalController {
             Long authenticatedUserId = jwtUtils.getUserIdFromToken(request);
 
             // Verify goal ownership before deleting
-            Optional<Goal> goalOptional = goalService.getGoalById(goalId);
-            if (goalOptional.isEmpty()) {
+            OwnershipGuard.Access access = ownershipGuard.goalAccess(goalId, authenticatedUserId);
+            if (access == OwnershipGuard.Access.NOT_FOUND) {
                 return jwtUtils.createErrorResponse("Goal not found", HttpStatus.NOT_FOUND);
             }
 
-            // Check ownership
-            List<Goal> userGoals = goalService.getUserGoals(authenticatedUserId);
-            boolean isUserGoal = userGoals.stream().anyMatch(g -> g.getGoalId().equals(goalId));
-
-            if (!isUserGoal) {
+            if (access == OwnershipGuard.Access.FORBIDDEN) {
 
                 return jwtUtils.createErrorResponse("You can only delete your own goals", HttpStatus.FORBIDDEN);
             }
@@ -183,41 +168,22 @@ public class GoalController {
     }
 
     /**
-     * Get completed goals as achievements for authenticated user
+     * Get completed goals as achievements for authenticated user, one page at a time (most recent first)
      */
     @GetMapping("/achievements/completed-goals")
     public ResponseEntity<?> getCompletedGoalsAchievements(
             HttpServletRequest request,
-            @RequestParam(defaultValue = "30") Integer daysBack) {
+            @RequestParam(defaultValue = "30") Integer daysBack,
+            @RequestParam(defaultValue = "0") Integer page,
+            @RequestParam(defaultValue = "50") Integer size) {
 
         try {
             Long authenticatedUserId = jwtUtils.getUserIdFromToken(request);
 
             LocalDateTime startDate = LocalDateTime.now().minusDays(daysBack);
 
-            List<Map<String, Object>> achievements = new ArrayList<>();
-
-            try {
-                List<Goal> completedGoals = goalRepository.findCompletedGoalsInDateRange(
-                        authenticatedUserId, startDate, LocalDateTime.now());
-
-                for (Goal goal : completedGoals) {
-                    Map<String, Object> achievement = new HashMap<>();
-                    achievement.put("id", goal.getGoalId());
-                    achievement.put("type", "COMPLETED_GOAL");
-                    achievement.put("title", getGoalAchievementTitle(goal));
-                    achievement.put("description", getGoalAchievementDescription(goal));
-                    achievement.put("achievedAt", goal.getCompletedAt());
-                    achievement.put("goalType", goal.getGoalType().getValue());
-                    achievement.put("originalGoal", convertGoalToMap(goal));
-                    achievement.put("icon", getGoalAchievementIcon(goal.getGoalType()));
-                    achievement.put("points", calculateAchievementPoints(goal));
-                    achievements.add(achievement);
-                }
-            } catch (Exception e) {
-                System.out.println("An error occurred: " + e.getMessage());
-            }
-
+            List<Map<String, Object>> achievements = achievementService.getCompletedGoalAchievements(
+                    authenticatedUserId, startDate, page, size);
 
             Map<String, Object> response = new HashMap<>();
             response.put("completedGoals", achievements);
@@ -230,21 +196,6 @@ public class GoalController {
         }
     }
 
-    private Map<String, Object> convertGoalToMap(Goal goal) {
-        Map<String, Object> goalMap = new HashMap<>();
-        goalMap.put("goalId", goal.getGoalId());
-        goalMap.put("goalType", goal.getGoalType().getValue());
-        goalMap.put("targetWeightLoss", goal.getTargetWeightLoss());
-        goalMap.put("targetWeightGain", goal.getTargetWeightGain());
-        goalMap.put("currentWeight", goal.getCurrentWeight());
-        goalMap.put("timeframeMonths", goal.getTimeframeMonths());
-        goalMap.put("status", goal.getStatus().toString());
-        goalMap.put("createdAt", goal.getCreatedAt());
-        goalMap.put("completedAt", goal.getCompletedAt());
-        return goalMap;
-    }
-
-
     /**
      * Get current user's goals
      */
@@ -267,84 +218,6 @@ public class GoalController {
         }
     }
 
-    /**
-     * Generates achievements title
-     */
-    private String getGoalAchievementTitle(Goal goal) {
-        String goalTypeValue = goal.getGoalType().getValue().toLowerCase();
-
-        if (goalTypeValue.contains("lose_weight")) {
-            return "Weight Loss Goal Achieved!";
-        } else if (goalTypeValue.contains("gain_muscle")) {
-            return "Muscle Gain Goal Achieved!";
-        } else if (goalTypeValue.contains("maintain_health")) {
-            return "Health Maintenance Goal Achieved!";
-        } else {
-            return "Goal Completed!";
-        }
-    }
-
-    /**
-     * Generates description for achievement
-     */
-    private String getGoalAchievementDescription(Goal goal) {
-        String goalTypeValue = goal.getGoalType().getValue().toLowerCase();
-        StringBuilder description = new StringBuilder();
-
-        if (goalTypeValue.contains("lose_weight") && goal.getTargetWeightLoss() != null && goal.getTargetWeightLoss().compareTo(BigDecimal.ZERO) > 0) {
-            description.append("You lost ").append(goal.getTargetWeightLoss()).append(" kg");
-        } else if (goalTypeValue.contains("gain_muscle") && goal.getTargetWeightGain() != null && goal.getTargetWeightGain().compareTo(BigDecimal.ZERO) > 0) {
-            description.append("You gained ").append(goal.getTargetWeightGain()).append(" kg of muscle");
-        } else if (goalTypeValue.contains("maintain_health")) {
-            description.append("You successfully maintained your health goals");
-        } else {
-            description.append("You achieved your fitness goal");
-        }
-
-        if (goal.getTimeframeMonths() != null) {
-            String months = goal.getTimeframeMonths() == 1 ? "month" : "months";
-            description.append(" in ").append(goal.getTimeframeMonths()).append(" ").append(months);
-        }
-
-        description.append("!");
-        return description.toString();
-    }
-
-    private String getGoalAchievementIcon(Goal.GoalType goalType) {
-        String goalTypeValue = goalType.getValue().toLowerCase();
-
-        if (goalTypeValue.contains("lose_weight")) {
-            return "🎯";
-        } else if (goalTypeValue.contains("gain_muscle")) {
-            return "💪";
-        } else if (goalTypeValue.contains("maintain_health")) {
-            return "⚖️";
-        } else {
-            return "🏆";
-        }
-    }
-
-    /**
-     * Calculates points for achievement based on goal difficulty
-     */
-    private Integer calculateAchievementPoints(Goal goal) {
-        int basePoints = 100;
-
-        if (goal.getTargetWeightLoss() != null) {
-            basePoints += goal.getTargetWeightLoss().intValue() * 10;
-        }
-        if (goal.getTargetWeightGain() != null) {
-            basePoints += goal.getTargetWeightGain().intValue() * 10;
-        }
-
-        // Points based on duration
-        if (goal.getTimeframeMonths() != null) {
-            basePoints += Math.max(0, (12 - goal.getTimeframeMonths()) * 5); // More points for faster goals
-        }
-
-        return basePoints;
-    }
-
     private Map<String, Object> createGoalResponse(Goal goal) {
         Map<String, Object> response = new HashMap<>();
         response.put("goalId", goal.getGoalId());
@@ -0,0 +1,107 @@
+package com.marecca.workoutTracker.controller;
+
+import com.marecca.workoutTracker.service.LeaderboardService;
+import com.marecca.workoutTracker.util.JwtControllerUtils;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import jakarta.servlet.http.HttpServletRequest;
+
+@RestController
+@RequestMapping("/api/leaderboards")
+@RequiredArgsConstructor
+public class LeaderboardController {
+
+    private final LeaderboardService leaderboardService;
+    private final JwtControllerUtils jwtUtils;
+
+    /**
+     * Get one page of a leaderboard (calories, workouts or streak), best first
+     * period defaults to week, streak only has an all-time board
+     */
+    @GetMapping("/{metric}")
+    public ResponseEntity<?> getLeaderboard(HttpServletRequest request,
+                                            @PathVariable String metric,
+                                            @RequestParam(required = false) String period,
+                                            @RequestParam(defaultValue = "0") Integer page,
+                                            @RequestParam(defaultValue = "20") Integer size) {
+        try {
+            jwtUtils.getUserIdFromToken(request);
+
+            LeaderboardService.Metric boardMetric = parseMetric(metric);
+            LeaderboardService.Period boardPeriod = boardMetric != null ? parsePeriod(boardMetric, period) : null;
+            if (boardMetric == null || boardPeriod == null) {
+                return jwtUtils.createBadRequestResponse("Invalid leaderboard");
+            }
+
+            return ResponseEntity.ok(leaderboardService.getPage(boardMetric, boardPeriod, page, size));
+
+        } catch (IllegalArgumentException e) {
+            return jwtUtils.createBadRequestResponse(e.getMessage());
+        } catch (IllegalStateException e) {
+            return jwtUtils.createErrorResponse(e.getMessage(), HttpStatus.SERVICE_UNAVAILABLE);
+        } catch (Exception e) {
+            return jwtUtils.createErrorResponse("Failed to get leaderboard", HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+    }
+
+    /**
+     * Get the rank and score of the authenticated user on a leaderboard
+     */
+    @GetMapping("/{metric}/me")
+    public ResponseEntity<?> getMyPosition(HttpServletRequest request,
+                                           @PathVariable String metric,
+                                           @RequestParam(required = false) String period) {
+        try {
+            Long authenticatedUserId = jwtUtils.getUserIdFromToken(request);
+
+            LeaderboardService.Metric boardMetric = parseMetric(metric);
+            LeaderboardService.Period boardPeriod = boardMetric != null ? parsePeriod(boardMetric, period) : null;
+            if (boardMetric == null || boardPeriod == null) {
+                return jwtUtils.createBadRequestResponse("Invalid leaderboard");
+            }
+
+            return ResponseEntity.ok(leaderboardService.getPosition(boardMetric, boardPeriod, authenticatedUserId));
+
+        } catch (IllegalArgumentException e) {
+            return jwtUtils.createBadRequestResponse(e.getMessage());
+        } catch (IllegalStateException e) {
+            return jwtUtils.createErrorResponse(e.getMessage(), HttpStatus.SERVICE_UNAVAILABLE);
+        } catch (Exception e) {
+            return jwtUtils.createErrorResponse("Failed to get leaderboard position", HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+    }
+
+    //calories, workouts, streak
+    private LeaderboardService.Metric parseMetric(String metric) {
+        switch (metric.toLowerCase()) {
+            case "calories":
+                return LeaderboardService.Metric.CALORIES;
+            case "workouts":
+                return LeaderboardService.Metric.WORKOUTS;
+            case "streak":
+                return LeaderboardService.Metric.STREAK;
+            default:
+                return null;
+        }
+    }
+
+    //week, month, all-time, when missing the metric's default (all-time for streak, week otherwise)
+    private LeaderboardService.Period parsePeriod(LeaderboardService.Metric metric, String period) {
+        if (period == null) {
+            return metric == LeaderboardService.Metric.STREAK ? LeaderboardService.Period.ALL_TIME : LeaderboardService.Period.WEEK;
+        }
+        switch (period.toLowerCase()) {
+            case "week":
+                return LeaderboardService.Period.WEEK;
+            case "month":
+                return LeaderboardService.Period.MONTH;
+            case "all-time":
+                return LeaderboardService.Period.ALL_TIME;
+            default:
+                return null;
+        }
+    }
+}
@@ -1,10 +1,13 @@
 package com.marecca.workoutTracker.controller;
 
 import com.fasterxml.jackson.annotation.JsonFormat;
+import com.marecca.workoutTracker.dto.ScheduledWorkoutHistoryDTO;
 import com.marecca.workoutTracker.dto.response.AvailabilityResponse;
 import com.marecca.workoutTracker.dto.request.RescheduleWorkoutRequest;
 import com.marecca.workoutTracker.dto.response.SuccessResponse;
+import com.marecca.workoutTracker.dto.response.WorkoutHistoryPageResponse;
 import com.marecca.workoutTracker.entity.ScheduledWorkout;
+import com.marecca.workoutTracker.security.OwnershipGuard;
 import com.marecca.workoutTracker.service.ScheduledWorkoutService;
 import com.marecca.workoutTracker.service.exceptions.UserNotFoundException;
 import com.marecca.workoutTracker.service.exceptions.WorkoutAlreadyScheduledException;
@@ -13,18 +16,23 @@ import com.marecca.workoutTracker.util.JwtControllerUtils;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Positive;
+import java.time.DayOfWeek;
 import java.time.LocalDate;
 import java.time.LocalTime;
 import java.util.List;
-import java.util.Optional;
+import java.util.Set;
 
 
 @RestController
@@ -34,6 +42,10 @@ public class ScheduledWorkoutController {
 
     private final ScheduledWorkoutService scheduledWorkoutService;
     private final JwtControllerUtils jwtUtils;
+    private final OwnershipGuard ownershipGuard;
+
+    private static final MediaType NDJSON = MediaType.parseMediaType("application/x-ndjson");
+    private static final int DEFAULT_HISTORY_PAGE_SIZE = 50;
 
     /**
      * Schedule a new workout
@@ -83,10 +95,63 @@ public class ScheduledWorkoutController {
     }
 
     /**
-     * Find all scheduled workouts for a user
+     * Schedule a plan on several days of week over a date range, e.g. Mon/Wed/Fri at 07:00 for 12 weeks
+     * dates that overlap an existing workout are skipped and listed in the conflicts
+     */
+    @PostMapping("/schedule/recurring")
+    public ResponseEntity<?> scheduleRecurringWorkouts(@Valid @RequestBody ScheduleRecurringWorkoutRequest request, HttpServletRequest httpRequest) {
+        try {
+            Long authenticatedUserId = jwtUtils.getUserIdFromToken(httpRequest);
+
+            ScheduledWorkoutService.RecurringScheduleResult result = scheduledWorkoutService.scheduleRecurringWorkouts(
+                    authenticatedUserId,
+                    request.getWorkoutPlanId(),
+                    request.getStartDate(),
+                    request.getEndDate(),
+                    request.getDaysOfWeek(),
+                    request.getScheduledTime()
+            );
+
+            //nothing could be scheduled because every date was taken or already past
+            if (result.getScheduled().isEmpty()
+                    && (!result.getConflicts().isEmpty() || !result.getAlreadyStarted().isEmpty())) {
+                return ResponseEntity.status(HttpStatus.CONFLICT).body(result);
+            }
+            return ResponseEntity.status(HttpStatus.CREATED).body(result);
+
+        } catch (UserNotFoundException e) {
+            return jwtUtils.createErrorResponse("User not found", HttpStatus.NOT_FOUND);
+
+        } catch (WorkoutPlanNotFoundException e) {
+            return jwtUtils.createErrorResponse("Workout plan not found", HttpStatus.NOT_FOUND);
+
+        } catch (WorkoutAlreadyScheduledException e) {
+            return jwtUtils.createErrorResponse(e.getMessage(), HttpStatus.CONFLICT);
+
+        } catch (IllegalArgumentException e) {
+            return jwtUtils.createBadRequestResponse(e.getMessage());
+
+        } catch (RuntimeException e) {
+            return jwtUtils.createErrorResponse("Database error: " + e.getMessage(), HttpStatus.INTERNAL_SERVER_ERROR);
+
+        } catch (Exception e) {
+            return jwtUtils.createUnauthorizedResponse("Authentication required to schedule workouts");
+        }
+    }
+
+    /**
+     * Find the scheduled workouts of a user, newest first
+     * with limit (and the nextCursor of the previous page as cursor) one page is returned,
+     * with format=ndjson (or Accept: application/x-ndjson) the whole history is streamed one json object per line,
+     * without either the whole history is returned as one array
      */
     @GetMapping("/user/{userId}")
-    public ResponseEntity<?> getUserWorkouts(@PathVariable Long userId, HttpServletRequest request) {
+    public ResponseEntity<?> getUserWorkouts(
+            @PathVariable Long userId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(required = false) String format,
+            HttpServletRequest request) {
         try {
             Long authenticatedUserId = jwtUtils.getUserIdFromToken(request);
 
@@ -94,8 +159,24 @@ public class ScheduledWorkoutController {
                 return jwtUtils.createErrorResponse("You can only access your own workouts", HttpStatus.FORBIDDEN);
             }
 
-            List<ScheduledWorkout> workouts = scheduledWorkoutService.findByUserId(authenticatedUserId);
+            if (wantsNdjson(format, request)) {
+                StreamingResponseBody body = outputStream ->
+                        scheduledWorkoutService.writeHistoryNdjson(authenticatedUserId, outputStream);
+                return ResponseEntity.ok()
+                        .contentType(NDJSON)
+                        .body(body);
+            }
+
+            if (limit != null || cursor != null) {
+                WorkoutHistoryPageResponse page = scheduledWorkoutService.getHistoryPage(
+                        authenticatedUserId, cursor, limit != null ? limit : DEFAULT_HISTORY_PAGE_SIZE);
+                return ResponseEntity.ok(page);
+            }
+
+            List<ScheduledWorkoutHistoryDTO> workouts = scheduledWorkoutService.findHistory(authenticatedUserId);
             return ResponseEntity.ok(workouts);
+        } catch (IllegalArgumentException e) {
+            return jwtUtils.createBadRequestResponse(e.getMessage());
         } catch (Exception e) {
             return jwtUtils.createUnauthorizedResponse("Authentication required to access workouts");
         }
@@ -113,7 +194,7 @@ public class ScheduledWorkoutController {
                 return jwtUtils.createErrorResponse("You can only access your own workouts", HttpStatus.FORBIDDEN);
             }
 
-            List<ScheduledWorkout> workouts = scheduledWorkoutService.MissedWorkouts(authenticatedUserId);
+            List<ScheduledWorkout> workouts = scheduledWorkoutService.findTodaysWorkouts(authenticatedUserId);
             return ResponseEntity.ok(workouts);
         } catch (Exception e) {
             return jwtUtils.createUnauthorizedResponse("Authentication required to access today's workouts");
@@ -128,14 +209,12 @@ public class ScheduledWorkoutController {
         try {
             Long authenticatedUserId = jwtUtils.getUserIdFromToken(request);
 
-            Optional<ScheduledWorkout> workoutOpt = scheduledWorkoutService.findById(workoutId);
-            if (workoutOpt.isEmpty()) {
+            OwnershipGuard.Access access = ownershipGuard.scheduledWorkoutAccess(workoutId, authenticatedUserId);
+            if (access == OwnershipGuard.Access.NOT_FOUND) {
                 return ResponseEntity.notFound().build();
             }
 
-            ScheduledWorkout workout = workoutOpt.get();
-            if (!workout.getUser().getUserId().equals(authenticatedUserId)) {
-
+            if (access == OwnershipGuard.Access.FORBIDDEN) {
                 return jwtUtils.createErrorResponse("You can only start your own workouts", HttpStatus.FORBIDDEN);
             }
 
@@ -163,13 +242,12 @@ public class ScheduledWorkoutController {
         try {
             Long authenticatedUserId = jwtUtils.getUserIdFromToken(httpRequest);
 
-            Optional<ScheduledWorkout> workoutOpt = scheduledWorkoutService.findById(workoutId);
-            if (workoutOpt.isEmpty()) {
+            OwnershipGuard.Access access = ownershipGuard.scheduledWorkoutAccess(workoutId, authenticatedUserId);
+            if (access == OwnershipGuard.Access.NOT_FOUND) {
                 return ResponseEntity.notFound().build();
             }
 
-            ScheduledWorkout workout = workoutOpt.get();
-            if (!workout.getUser().getUserId().equals(authenticatedUserId)) {
+            if (access == OwnershipGuard.Access.FORBIDDEN) {
                 return jwtUtils.createErrorResponse("You can only complete your own workouts", HttpStatus.FORBIDDEN);
             }
 
@@ -199,13 +277,12 @@ public class ScheduledWorkoutController {
         try {
             Long authenticatedUserId = jwtUtils.getUserIdFromToken(request);
 
-            Optional<ScheduledWorkout> workoutOpt = scheduledWorkoutService.findById(workoutId);
-            if (workoutOpt.isEmpty()) {
+            OwnershipGuard.Access access = ownershipGuard.scheduledWorkoutAccess(workoutId, authenticatedUserId);
+            if (access == OwnershipGuard.Access.NOT_FOUND) {
                 return ResponseEntity.notFound().build();
             }
 
-            ScheduledWorkout workout = workoutOpt.get();
-            if (!workout.getUser().getUserId().equals(authenticatedUserId)) {
+            if (access == OwnershipGuard.Access.FORBIDDEN) {
                 return jwtUtils.createErrorResponse("You can only cancel your own workouts", HttpStatus.FORBIDDEN);
             }
 
@@ -224,12 +301,14 @@ public class ScheduledWorkoutController {
 
     /**
      * Check if a user can schedule a workout at a specific date/time
+     * durationMinutes is the length of the workout to fit in, one hour when missing
      */
     @GetMapping("/user/{userId}/availability")
     public ResponseEntity<?> checkAvailability(
             @PathVariable Long userId,
             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date,
             @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.TIME) LocalTime time,
+            @RequestParam(required = false) Integer durationMinutes,
             HttpServletRequest request) {
         try {
             Long authenticatedUserId = jwtUtils.getUserIdFromToken(request);
@@ -238,7 +317,7 @@ public class ScheduledWorkoutController {
                 return jwtUtils.createErrorResponse("You can only check your own availability", HttpStatus.FORBIDDEN);
             }
 
-            boolean available = scheduledWorkoutService.canScheduleWorkoutAt(authenticatedUserId, date, time);
+            boolean available = scheduledWorkoutService.canScheduleWorkoutAt(authenticatedUserId, date, time, durationMinutes);
 
             AvailabilityResponse response = AvailabilityResponse.builder()
                     .available(available)
@@ -303,13 +382,12 @@ public class ScheduledWorkoutController {
             Long authenticatedUserId = jwtUtils.getUserIdFromToken(httpRequest);
 
             // Verify workout ownership before rescheduling
-            Optional<ScheduledWorkout> workoutOpt = scheduledWorkoutService.findById(workoutId);
-            if (workoutOpt.isEmpty()) {
+            OwnershipGuard.Access access = ownershipGuard.scheduledWorkoutAccess(workoutId, authenticatedUserId);
+            if (access == OwnershipGuard.Access.NOT_FOUND) {
                 return ResponseEntity.notFound().build();
             }
 
-            ScheduledWorkout workout = workoutOpt.get();
-            if (!workout.getUser().getUserId().equals(authenticatedUserId)) {
+            if (access == OwnershipGuard.Access.FORBIDDEN) {
                 return jwtUtils.createErrorResponse("You can only reschedule your own workouts", HttpStatus.FORBIDDEN);
             }
 
@@ -324,6 +402,8 @@ public class ScheduledWorkoutController {
                             .message("Workout rescheduled successfully")
                             .build());
 
+        } catch (WorkoutAlreadyScheduledException e) {
+            return jwtUtils.createErrorResponse(e.getMessage(), HttpStatus.CONFLICT);
         } catch (IllegalArgumentException | IllegalStateException e) {
             return jwtUtils.createBadRequestResponse(e.getMessage());
         } catch (Exception e) {
@@ -335,11 +415,15 @@ public class ScheduledWorkoutController {
      * Get current user's workouts
      */
     @GetMapping("/my-workouts")
-    public ResponseEntity<?> getMyWorkouts(HttpServletRequest request) {
+    public ResponseEntity<?> getMyWorkouts(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(required = false) String format,
+            HttpServletRequest request) {
         try {
             Long authenticatedUserId = jwtUtils.getUserIdFromToken(request);
 
-            return getUserWorkouts(authenticatedUserId, request);
+            return getUserWorkouts(authenticatedUserId, cursor, limit, format, request);
         } catch (Exception e) {
             return jwtUtils.createUnauthorizedResponse("Authentication required to access workouts");
         }
@@ -380,16 +464,25 @@ public class ScheduledWorkoutController {
     public ResponseEntity<?> checkMyAvailability(
             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date,
             @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.TIME) LocalTime time,
+            @RequestParam(required = false) Integer durationMinutes,
             HttpServletRequest request) {
         try {
             Long authenticatedUserId = jwtUtils.getUserIdFromToken(request);
 
-            return checkAvailability(authenticatedUserId, date, time, request);
+            return checkAvailability(authenticatedUserId, date, time, durationMinutes, request);
         } catch (Exception e) {
             return jwtUtils.createUnauthorizedResponse("Authentication required to check availability");
         }
     }
 
+    private boolean wantsNdjson(String format, HttpServletRequest request) {
+        if ("ndjson".equalsIgnoreCase(format)) {
+            return true;
+        }
+        String accept = request.getHeader(HttpHeaders.ACCEPT);
+        return accept != null && accept.contains(NDJSON.toString());
+    }
+
     /**
      * Exception handlers for error handling
      */
@@ -430,6 +523,30 @@ public class ScheduledWorkoutController {
         private LocalTime scheduledTime;
     }
 
+    @lombok.Data
+    @lombok.Builder
+    @lombok.NoArgsConstructor
+    @lombok.AllArgsConstructor
+    public static class ScheduleRecurringWorkoutRequest {
+        @NotNull(message = "Workout plan ID is required")
+        @Positive(message = "Workout plan ID must be positive")
+        private Long workoutPlanId;
+
+        @NotNull(message = "Start date is required")
+        @JsonFormat(pattern = "yyyy-MM-dd")
+        private LocalDate startDate;
+
+        @NotNull(message = "End date is required")
+        @JsonFormat(pattern = "yyyy-MM-dd")
+        private LocalDate endDate;
+
+        @NotEmpty(message = "At least one day of week is required")
+        private Set<DayOfWeek> daysOfWeek;
+
+        @JsonFormat(pattern = "HH:mm")
+        private LocalTime scheduledTime;
+    }
+
     @lombok.Data
     @lombok.Builder
     @lombok.NoArgsConstructor
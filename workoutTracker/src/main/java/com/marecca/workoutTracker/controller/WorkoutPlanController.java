@@ -9,6 +9,7 @@ import com.marecca.workoutTracker.dto.response.SuccessResponse;
 import com.marecca.workoutTracker.dto.response.WorkoutPlanDetailsResponse;
 import com.marecca.workoutTracker.entity.User;
 import com.marecca.workoutTracker.entity.WorkoutPlan;
+import com.marecca.workoutTracker.security.OwnershipGuard;
 import com.marecca.workoutTracker.service.WorkoutPlanService;
 import com.marecca.workoutTracker.util.JwtControllerUtils;
 import lombok.RequiredArgsConstructor;
@@ -29,6 +30,7 @@ public class WorkoutPlanController {
 
     private final WorkoutPlanService workoutPlanService;
     private final JwtControllerUtils jwtUtils;
+    private final OwnershipGuard ownershipGuard;
 
     /**
      * Create a new workout plan
@@ -108,19 +110,18 @@ public class WorkoutPlanController {
         try {
             Long authenticatedUserId = jwtUtils.getUserIdFromToken(request);
 
-            Optional<WorkoutPlan> planOpt = workoutPlanService.findById(planId);
+            // Only plans owned by the user are loaded
+            Optional<WorkoutPlan> planOpt = workoutPlanService.findUserPlan(planId, authenticatedUserId);
 
             if (planOpt.isEmpty()) {
+                if (ownershipGuard.workoutPlanAccess(planId, authenticatedUserId) == OwnershipGuard.Access.FORBIDDEN) {
+                    return jwtUtils.createErrorResponse("You can only access your own workout plans", HttpStatus.FORBIDDEN);
+                }
                 return ResponseEntity.notFound().build();
             }
 
             WorkoutPlan plan = planOpt.get();
 
-            // Verify that the user owns this plan
-            if (!plan.getUser().getUserId().equals(authenticatedUserId)) {
-                return jwtUtils.createErrorResponse("You can only access your own workout plans", HttpStatus.FORBIDDEN);
-            }
-
             WorkoutPlanDetailsResponse response = WorkoutPlanDetailsResponse.builder()
                     .workoutPlan(plan)
                     .totalExercises(0)
@@ -144,10 +145,12 @@ public class WorkoutPlanController {
             Long authenticatedUserId = jwtUtils.getUserIdFromToken(httpRequest);
 
             // Find existing plan and verify ownership
-            WorkoutPlan existingPlan = workoutPlanService.findById(planId)
-                    .orElseThrow(() -> new IllegalArgumentException("Plan not found"));
+            OwnershipGuard.Access access = ownershipGuard.workoutPlanAccess(planId, authenticatedUserId);
+            if (access == OwnershipGuard.Access.NOT_FOUND) {
+                return jwtUtils.createBadRequestResponse("Plan not found");
+            }
 
-            if (!existingPlan.getUser().getUserId().equals(authenticatedUserId)) {
+            if (access == OwnershipGuard.Access.FORBIDDEN) {
                 return jwtUtils.createErrorResponse("You can only update your own workout plans", HttpStatus.FORBIDDEN);
             }
 
@@ -183,10 +186,12 @@ public class WorkoutPlanController {
         try {
             Long authenticatedUserId = jwtUtils.getUserIdFromToken(request);
 
-            WorkoutPlan existingPlan = workoutPlanService.findById(planId)
-                    .orElseThrow(() -> new IllegalArgumentException("Plan not found"));
+            OwnershipGuard.Access access = ownershipGuard.workoutPlanAccess(planId, authenticatedUserId);
+            if (access == OwnershipGuard.Access.NOT_FOUND) {
+                return jwtUtils.createBadRequestResponse("Plan not found");
+            }
 
-            if (!existingPlan.getUser().getUserId().equals(authenticatedUserId)) {
+            if (access == OwnershipGuard.Access.FORBIDDEN) {
                 return jwtUtils.createErrorResponse("You can only delete your own workout plans", HttpStatus.FORBIDDEN);
             }
 
@@ -216,10 +221,12 @@ public class WorkoutPlanController {
             Long authenticatedUserId = jwtUtils.getUserIdFromToken(httpRequest);
 
             // Find existing plan and verify ownership
-            WorkoutPlan existingPlan = workoutPlanService.findById(planId)
-                    .orElseThrow(() -> new IllegalArgumentException("Plan not found"));
+            OwnershipGuard.Access access = ownershipGuard.workoutPlanAccess(planId, authenticatedUserId);
+            if (access == OwnershipGuard.Access.NOT_FOUND) {
+                return jwtUtils.createBadRequestResponse("Plan not found");
+            }
 
-            if (!existingPlan.getUser().getUserId().equals(authenticatedUserId)) {
+            if (access == OwnershipGuard.Access.FORBIDDEN) {
                 return jwtUtils.createErrorResponse("You can only modify your own workout plans", HttpStatus.FORBIDDEN);
             }
 
@@ -247,10 +254,12 @@ public class WorkoutPlanController {
             Long authenticatedUserId = jwtUtils.getUserIdFromToken(request);
 
             // Find existing plan and verify ownership
-            WorkoutPlan existingPlan = workoutPlanService.findById(planId)
-                    .orElseThrow(() -> new IllegalArgumentException("Plan not found"));
+            OwnershipGuard.Access access = ownershipGuard.workoutPlanAccess(planId, authenticatedUserId);
+            if (access == OwnershipGuard.Access.NOT_FOUND) {
+                return jwtUtils.createBadRequestResponse("Plan not found");
+            }
 
-            if (!existingPlan.getUser().getUserId().equals(authenticatedUserId)) {
+            if (access == OwnershipGuard.Access.FORBIDDEN) {
                 return jwtUtils.createErrorResponse("You can only modify your own workout plans", HttpStatus.FORBIDDEN);
             }
 
@@ -58,7 +58,7 @@ public class WorkoutRecommendationController {
             }
 
             List<WorkoutRecommendationDTO> recommendations = workoutRecommendationService
-                    .getRecommendations(authenticatedUserId, request.getGoalType()); // Use authenticated user ID
+                    .getRecommendations(authenticatedUserId, request.getGoalType(), request.getLimit()); // Use authenticated user ID
 
 
             // Response
@@ -0,0 +1,26 @@
+package com.marecca.workoutTracker.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * all dashboard sections in one response
+ * a section that failed or timed out is empty and listed in unavailableSections
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class DashboardOverviewDTO {
+    private DashboardSummaryDTO summary;
+    private List<WorkoutCalendarDTO> calendar;
+    private List<WorkoutTrendDTO> trends;
+    private List<WorkoutTypeBreakdownDTO> workoutTypes;
+    private List<Map<String, Object>> achievements;
+    private List<String> unavailableSections;
+}
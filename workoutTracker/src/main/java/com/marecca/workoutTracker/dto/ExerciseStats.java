@@ -3,6 +3,7 @@ package com.marecca.workoutTracker.dto;
 import lombok.Setter;
 
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
 
 /**
  * class for storing exercise statistics used in workout recommendations
@@ -38,6 +39,12 @@ public class ExerciseStats {
     @Setter
     private double avgDifficulty = 3.0;
 
+    /**
+     * Start time of the most recent workout in which the user logged this exercise
+     */
+    @Setter
+    private LocalDateTime lastPerformedAt;
+
     public ExerciseStats() {}
 
     public ExerciseStats(int timesPerformed, BigDecimal avgWeightUsed,
@@ -73,6 +80,10 @@ public class ExerciseStats {
         return avgDifficulty;
     }
 
+    public LocalDateTime getLastPerformedAt() {
+        return lastPerformedAt;
+    }
+
 
     /**
      * Check if the user has any experience with this exercise
@@ -81,6 +92,13 @@ public class ExerciseStats {
         return timesPerformed > 0;
     }
 
+    /**
+     * Check if the user performed this exercise at or after the given moment
+     */
+    public boolean wasPerformedSince(LocalDateTime since) {
+        return lastPerformedAt != null && !lastPerformedAt.isBefore(since);
+    }
+
     /**
      * Check if the user has weight data for this exercise
      */
@@ -113,6 +131,7 @@ public class ExerciseStats {
                 ", avgReps=" + avgReps +
                 ", avgSets=" + avgSets +
                 ", avgDifficulty=" + avgDifficulty +
+                ", lastPerformedAt=" + lastPerformedAt +
                 '}';
     }
 }
\ No newline at end of file
@@ -0,0 +1,68 @@
+package com.marecca.workoutTracker.dto;
+
+import com.marecca.workoutTracker.entity.enums.WorkoutStatusType;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+
+/**
+ * one row of a user's workout history, read as a projection instead of ScheduledWorkout entities
+ * keeps the field names of the entity json so existing clients read it the same way
+ */
+@Data
+@NoArgsConstructor
+public class ScheduledWorkoutHistoryDTO {
+    private Long scheduledWorkoutId;
+    private LocalDate scheduledDate;
+    private LocalTime scheduledTime;
+    private WorkoutStatusType status;
+    private Integer plannedDurationMinutes;
+    private LocalDateTime actualStartTime;
+    private LocalDateTime actualEndTime;
+    private Integer actualDurationMinutes;
+    private Integer caloriesBurned;
+    private Integer overallRating;
+    private String notes;
+    private WorkoutPlanSummary workoutPlan;
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class WorkoutPlanSummary {
+        private Long workoutPlanId;
+        private String planName;
+        private String description;
+        private Integer estimatedDurationMinutes;
+        private Integer difficultyLevel;
+    }
+
+    //used by the JPQL constructor expression of ScheduledWorkoutRepository
+    public ScheduledWorkoutHistoryDTO(Long scheduledWorkoutId, LocalDate scheduledDate, LocalTime scheduledTime,
+                                      WorkoutStatusType status, Integer plannedDurationMinutes,
+                                      LocalDateTime actualStartTime, LocalDateTime actualEndTime, Integer actualDurationMinutes,
+                                      Integer caloriesBurned, Integer overallRating, String notes,
+                                      Long workoutPlanId, String planName, String description,
+                                      Integer estimatedDurationMinutes, Integer difficultyLevel) {
+        this.scheduledWorkoutId = scheduledWorkoutId;
+        this.scheduledDate = scheduledDate;
+        this.scheduledTime = scheduledTime;
+        this.status = status;
+        this.plannedDurationMinutes = plannedDurationMinutes;
+        this.actualStartTime = actualStartTime;
+        this.actualEndTime = actualEndTime;
+        this.actualDurationMinutes = actualDurationMinutes;
+        this.caloriesBurned = caloriesBurned;
+        this.overallRating = overallRating;
+        this.notes = notes;
+        //the plan may have been deleted (ON DELETE SET NULL)
+        this.workoutPlan = workoutPlanId != null
+                ? new WorkoutPlanSummary(workoutPlanId, planName, description, estimatedDurationMinutes, difficultyLevel)
+                : null;
+    }
+}
@@ -1,11 +1,16 @@
 package com.marecca.workoutTracker.dto.request;
 
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Positive;
 import jakarta.validation.constraints.Pattern;
 
 public class WorkoutRecommendationRequest {
 
+    public static final int DEFAULT_LIMIT = 8;
+    public static final int MAX_LIMIT = 20;
+
     @NotNull(message = "User ID is required")
     @Positive(message = "User ID must be positive")
     private Long userId;
@@ -15,6 +20,13 @@ public class WorkoutRecommendationRequest {
             message = "Goal type must be WEIGHT_LOSS, MUSCLE_GAIN, or MAINTENANCE")
     private String goalType;
 
+    /**
+     * how many exercises to recommend, defaults to 8
+     */
+    @Min(value = 1, message = "Limit must be at least 1")
+    @Max(value = MAX_LIMIT, message = "Limit must be at most " + MAX_LIMIT)
+    private Integer limit;
+
     public WorkoutRecommendationRequest() {}
 
     public WorkoutRecommendationRequest(Long userId, String goalType) {
@@ -38,11 +50,20 @@ public class WorkoutRecommendationRequest {
         this.goalType = goalType;
     }
 
+    public Integer getLimit() {
+        return limit;
+    }
+
+    public void setLimit(Integer limit) {
+        this.limit = limit;
+    }
+
     @Override
     public String toString() {
         return "WorkoutRecommendationRequest{" +
                 "userId=" + userId +
                 ", goalType='" + goalType + '\'' +
+                ", limit=" + limit +
                 '}';
     }
 }
\ No newline at end of file
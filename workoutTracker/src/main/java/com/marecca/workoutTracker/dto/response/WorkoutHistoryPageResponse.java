@@ -0,0 +1,14 @@
+package com.marecca.workoutTracker.dto.response;
+
+import com.marecca.workoutTracker.dto.ScheduledWorkoutHistoryDTO;
+
+import java.util.List;
+
+@lombok.Data
+@lombok.Builder
+public class WorkoutHistoryPageResponse {
+    private List<ScheduledWorkoutHistoryDTO> items;
+    //pass as cursor to get the next page, null on the last page
+    private String nextCursor;
+    private boolean hasMore;
+}
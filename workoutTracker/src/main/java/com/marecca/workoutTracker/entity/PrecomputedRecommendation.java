@@ -0,0 +1,44 @@
+package com.marecca.workoutTracker.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * recommendations computed ahead of time by the precompute job, one row per user and goal type
+ * the list is stored as JSON, best exercise first
+ */
+@Entity
+@Table(name = "precomputed_recommendations")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class PrecomputedRecommendation {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "precomputed_recommendation_id")
+    private Long precomputedRecommendationId;
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    @Column(name = "goal_type", length = 20, nullable = false)
+    private String goalType;
+
+    @Column(name = "recommendations", columnDefinition = "TEXT", nullable = false)
+    private String recommendations;
+
+    @Column(name = "recommendation_count", nullable = false)
+    private Integer recommendationCount;
+
+    @Column(name = "catalog_version", nullable = false)
+    private Long catalogVersion;
+
+    @Column(name = "computed_at", nullable = false)
+    private LocalDateTime computedAt;
+}
@@ -0,0 +1,68 @@
+package com.marecca.workoutTracker.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * progress of one run of the recommendation precompute job
+ * lastUserId is the keyset checkpoint, a RUNNING row left behind by a crash is resumed from there
+ */
+@Entity
+@Table(name = "recommendation_job_runs")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class RecommendationJobRun {
+
+    public static final String RUNNING = "RUNNING";
+    public static final String COMPLETED = "COMPLETED";
+    public static final String FAILED = "FAILED";
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "run_id")
+    private Long runId;
+
+    @Column(name = "status", length = 20, nullable = false)
+    private String status;
+
+    @Column(name = "last_user_id", nullable = false)
+    @Builder.Default
+    private Long lastUserId = 0L;
+
+    @Column(name = "processed_users", nullable = false)
+    @Builder.Default
+    private Integer processedUsers = 0;
+
+    @Column(name = "failed_users", nullable = false)
+    @Builder.Default
+    private Integer failedUsers = 0;
+
+    @Column(name = "total_users")
+    private Long totalUsers;
+
+    @Column(name = "started_at", nullable = false)
+    private LocalDateTime startedAt;
+
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+
+    @Column(name = "finished_at")
+    private LocalDateTime finishedAt;
+
+    @PrePersist
+    protected void onCreate() {
+        updatedAt = LocalDateTime.now();
+    }
+
+    @PreUpdate
+    protected void onUpdate() {
+        updatedAt = LocalDateTime.now();
+    }
+}
@@ -26,7 +26,10 @@ import org.hibernate.type.SqlTypes;
 public class ScheduledWorkout {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "scheduled_workout_seq")
+    @SequenceGenerator(name = "scheduled_workout_seq",
+            sequenceName = "scheduled_workouts_scheduled_workout_id_seq",
+            allocationSize = 50)
     @Column(name = "scheduled_workout_id")
     private Long scheduledWorkoutId;
 
@@ -72,6 +75,10 @@ public class ScheduledWorkout {
     @Column(name = "notes", columnDefinition = "TEXT")
     private String notes;
 
+    //length of the slot the workout occupies, copied from the plan when scheduled
+    @Column(name = "planned_duration_minutes", nullable = false)
+    private Integer plannedDurationMinutes;
+
     @Column(name = "created_at")
     private LocalDateTime createdAt;
 
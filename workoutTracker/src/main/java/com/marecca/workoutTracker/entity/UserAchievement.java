@@ -0,0 +1,60 @@
+package com.marecca.workoutTracker.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * achievement awarded to a user by the AchievementRules
+ * achievementKey is unique per user (workout_42, workouts_10, streak_7, goal_3...), awarding it again does nothing
+ */
+@Entity
+@Table(name = "user_achievements")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserAchievement {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "achievement_id")
+    private Long achievementId;
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    @Column(name = "achievement_type", length = 30, nullable = false)
+    private String achievementType;
+
+    @Column(name = "achievement_key", length = 100, nullable = false)
+    private String achievementKey;
+
+    @Column(name = "title", length = 100, nullable = false)
+    private String title;
+
+    @Column(name = "description", length = 500)
+    private String description;
+
+    @Column(name = "icon", length = 20)
+    private String icon;
+
+    @Column(name = "points", nullable = false)
+    @Builder.Default
+    private Integer points = 0;
+
+    //workout or goal the achievement was earned with
+    @Column(name = "source_id")
+    private Long sourceId;
+
+    //JSON snapshot shown with the achievement (the completed goal...)
+    @Column(name = "details", columnDefinition = "TEXT")
+    private String details;
+
+    @Column(name = "achieved_at", nullable = false)
+    private LocalDateTime achievedAt;
+}
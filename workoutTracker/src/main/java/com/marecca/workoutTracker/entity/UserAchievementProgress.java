@@ -0,0 +1,46 @@
+package com.marecca.workoutTracker.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * running totals of a user that the milestone achievements are evaluated against
+ */
+@Entity
+@Table(name = "user_achievement_progress")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserAchievementProgress {
+
+    @Id
+    @Column(name = "user_id")
+    private Long userId;
+
+    @Column(name = "completed_workouts", nullable = false)
+    @Builder.Default
+    private Integer completedWorkouts = 0;
+
+    @Column(name = "total_calories", nullable = false)
+    @Builder.Default
+    private Long totalCalories = 0L;
+
+    @Column(name = "longest_streak", nullable = false)
+    @Builder.Default
+    private Integer longestStreak = 0;
+
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+
+    @PrePersist
+    @PreUpdate
+    protected void onUpdate() {
+        updatedAt = LocalDateTime.now();
+    }
+}
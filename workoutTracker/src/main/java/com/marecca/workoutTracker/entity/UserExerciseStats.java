@@ -0,0 +1,71 @@
+package com.marecca.workoutTracker.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * running totals of a user's completed logs for one exercise
+ * maintained when a workout is completed, averages are derived from sums and counts
+ */
+@Entity
+@Table(name = "user_exercise_stats")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserExerciseStats {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "stats_id")
+    private Long statsId;
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    @Column(name = "exercise_id", nullable = false)
+    private Long exerciseId;
+
+    @Column(name = "times_performed")
+    @Builder.Default
+    private Integer timesPerformed = 0;
+
+    @Column(name = "weight_sum", precision = 12, scale = 2)
+    @Builder.Default
+    private BigDecimal weightSum = BigDecimal.ZERO;
+
+    @Column(name = "reps_sum")
+    @Builder.Default
+    private Long repsSum = 0L;
+
+    @Column(name = "reps_count")
+    @Builder.Default
+    private Integer repsCount = 0;
+
+    @Column(name = "sets_sum")
+    @Builder.Default
+    private Long setsSum = 0L;
+
+    @Column(name = "sets_count")
+    @Builder.Default
+    private Integer setsCount = 0;
+
+    @Column(name = "difficulty_sum")
+    @Builder.Default
+    private Long difficultySum = 0L;
+
+    @Column(name = "difficulty_count")
+    @Builder.Default
+    private Integer difficultyCount = 0;
+
+    @Column(name = "last_performed_at")
+    private LocalDateTime lastPerformedAt;
+
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+}
@@ -18,8 +18,12 @@ import lombok.Builder;
 @Builder
 public class WorkoutExerciseDetail {
 
+    //sequence ids (50 per round trip) instead of IDENTITY so the inserts of a plan can be batched
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "workout_exercise_detail_seq")
+    @SequenceGenerator(name = "workout_exercise_detail_seq",
+            sequenceName = "workout_exercise_details_workout_exercise_detail_id_seq",
+            allocationSize = 50)
     @Column(name = "workout_exercise_detail_id")
     private Long workoutExerciseDetailId;
 
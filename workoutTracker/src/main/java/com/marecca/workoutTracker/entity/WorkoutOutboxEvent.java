@@ -0,0 +1,74 @@
+package com.marecca.workoutTracker.entity;
+
+import com.marecca.workoutTracker.event.WorkoutLifecycleEvent;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * one workout state change recorded in the transaction that made it (transactional outbox)
+ * the WorkoutOutboxRelay delivers it to the WorkoutEventSubscribers after commit, at least once
+ */
+@Entity
+@Table(name = "workout_outbox_events")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class WorkoutOutboxEvent {
+
+    //one id per insert, not pooled, so ids of one node do not run ahead of the others
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "workout_outbox_event_seq")
+    @SequenceGenerator(name = "workout_outbox_event_seq",
+            sequenceName = "workout_outbox_events_event_id_seq",
+            allocationSize = 1)
+    @Column(name = "event_id")
+    private Long eventId;
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    @Column(name = "scheduled_workout_id", nullable = false)
+    private Long scheduledWorkoutId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "transition", length = 20, nullable = false)
+    private WorkoutLifecycleEvent.Transition transition;
+
+    //date of the workout after the transition
+    @Column(name = "scheduled_date", nullable = false)
+    private LocalDate scheduledDate;
+
+    @Column(name = "occurred_at", nullable = false)
+    private LocalDateTime occurredAt;
+
+    //claim lease while being delivered, retry time after a failure
+    @Column(name = "next_attempt_at", nullable = false)
+    private LocalDateTime nextAttemptAt;
+
+    @Column(name = "attempts", nullable = false)
+    @Builder.Default
+    private Integer attempts = 0;
+
+    @Column(name = "last_error", length = 500)
+    private String lastError;
+
+    @Column(name = "processed_at")
+    private LocalDateTime processedAt;
+
+    @PrePersist
+    protected void onCreate() {
+        if (occurredAt == null) {
+            occurredAt = LocalDateTime.now();
+        }
+        if (nextAttemptAt == null) {
+            nextAttemptAt = occurredAt;
+        }
+    }
+}
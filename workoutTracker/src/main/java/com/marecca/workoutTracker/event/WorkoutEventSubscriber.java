@@ -0,0 +1,21 @@
+package com.marecca.workoutTracker.event;
+
+import com.marecca.workoutTracker.entity.WorkoutOutboxEvent;
+
+/**
+ * consumer of the workout outbox, called by the WorkoutOutboxRelay after the state change committed
+ * handle runs in its own transaction together with the consumption record of the event, so an event
+ * redelivered after a crash or after another subscriber failed is not applied twice
+ * a subscriber that throws gets the event again later, subscribers are called in @Order
+ */
+public interface WorkoutEventSubscriber {
+
+    /**
+     * stable name, stored with every consumed event (max 50 characters)
+     */
+    String getName();
+
+    boolean supports(WorkoutLifecycleEvent.Transition transition);
+
+    void handle(WorkoutOutboxEvent event);
+}
@@ -0,0 +1,32 @@
+package com.marecca.workoutTracker.event;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.ToString;
+
+import java.time.LocalDate;
+
+/**
+ * published by ScheduledWorkoutService whenever a scheduled workout changes state
+ * listeners that keep derived data in memory should react after the transaction commits
+ */
+@Getter
+@RequiredArgsConstructor
+@ToString
+public class WorkoutLifecycleEvent {
+
+    public enum Transition {
+        SCHEDULED,
+        STARTED,
+        COMPLETED,
+        CANCELLED,
+        RESCHEDULED,
+        MISSED
+    }
+
+    private final Long userId;
+    private final Long scheduledWorkoutId;
+    private final Transition transition;
+    //date of the workout after the transition
+    private final LocalDate scheduledDate;
+}
@@ -0,0 +1,19 @@
+package com.marecca.workoutTracker.event;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.ToString;
+
+/**
+ * published by an outbox subscriber after it changed data derived from the workouts of a user (streak...)
+ * the WorkoutLifecycleEvent of the change fired before, so caches of that data are dropped again on this one
+ */
+@Getter
+@RequiredArgsConstructor
+@ToString
+public class WorkoutProjectionUpdatedEvent {
+
+    private final Long userId;
+    //subscriber that updated it
+    private final String projection;
+}
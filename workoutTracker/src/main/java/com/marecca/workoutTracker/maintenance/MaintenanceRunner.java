@@ -0,0 +1,109 @@
+package com.marecca.workoutTracker.maintenance;
+
+import com.marecca.workoutTracker.service.AchievementService;
+import com.marecca.workoutTracker.service.DailyWorkoutRollupService;
+import com.marecca.workoutTracker.service.ExerciseStatsService;
+import com.marecca.workoutTracker.service.RecommendationPrecomputeJob;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * one-off maintenance commands, triggered from the command line at startup
+ * e.g. --maintenance.exercise-stats=rebuild or --maintenance.exercise-stats=verify
+ * add --maintenance.user-id=42 to limit the command to one user
+ * --maintenance.daily-rollup=rebuild or --maintenance.daily-rollup=verify does the same for the daily workout rollups
+ * --maintenance.recommendations=precompute runs (or resumes) the recommendation precompute job
+ * --maintenance.achievements=rebuild recomputes the achievements (of one user with maintenance.user-id)
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class MaintenanceRunner implements ApplicationRunner {
+
+    private final ExerciseStatsService exerciseStatsService;
+    private final RecommendationPrecomputeJob recommendationPrecomputeJob;
+    private final DailyWorkoutRollupService dailyWorkoutRollupService;
+    private final AchievementService achievementService;
+
+    @Value("${maintenance.exercise-stats:}")
+    private String exerciseStatsCommand;
+
+    @Value("${maintenance.daily-rollup:}")
+    private String dailyRollupCommand;
+
+    @Value("${maintenance.recommendations:}")
+    private String recommendationsCommand;
+
+    @Value("${maintenance.achievements:}")
+    private String achievementsCommand;
+
+    @Value("${maintenance.user-id:#{null}}")
+    private Long userId;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (dailyRollupCommand != null && !dailyRollupCommand.isBlank()) {
+            runDailyRollupCommand(dailyRollupCommand.trim().toLowerCase());
+        }
+
+        if (recommendationsCommand != null && !recommendationsCommand.isBlank()) {
+            if ("precompute".equalsIgnoreCase(recommendationsCommand.trim())) {
+                recommendationPrecomputeJob.run();
+            } else {
+                log.warn("Unknown maintenance.recommendations command '{}', expected precompute", recommendationsCommand);
+            }
+        }
+
+        if (achievementsCommand != null && !achievementsCommand.isBlank()) {
+            if ("rebuild".equalsIgnoreCase(achievementsCommand.trim())) {
+                achievementService.rebuild(userId);
+            } else {
+                log.warn("Unknown maintenance.achievements command '{}', expected rebuild", achievementsCommand);
+            }
+        }
+
+        if (exerciseStatsCommand == null || exerciseStatsCommand.isBlank()) {
+            return;
+        }
+
+        switch (exerciseStatsCommand.trim().toLowerCase()) {
+            case "rebuild":
+                exerciseStatsService.rebuild(userId);
+                break;
+            case "verify":
+                List<String> mismatches = exerciseStatsService.findInconsistencies(userId);
+                if (mismatches.isEmpty()) {
+                    log.info("user_exercise_stats is consistent with workout_exercise_logs");
+                } else {
+                    log.warn("user_exercise_stats has {} inconsistent rows (userId:exerciseId): {}", mismatches.size(), mismatches);
+                }
+                break;
+            default:
+                log.warn("Unknown maintenance.exercise-stats command '{}', expected rebuild or verify", exerciseStatsCommand);
+        }
+    }
+
+    private void runDailyRollupCommand(String command) {
+        switch (command) {
+            case "rebuild":
+                dailyWorkoutRollupService.rebuild(userId);
+                break;
+            case "verify":
+                List<String> mismatches = dailyWorkoutRollupService.findInconsistencies(userId);
+                if (mismatches.isEmpty()) {
+                    log.info("Daily workout rollups are consistent with scheduled_workouts");
+                } else {
+                    log.warn("Daily workout rollups have {} inconsistent rows (rollup:userId:date[:category]): {}", mismatches.size(), mismatches);
+                }
+                break;
+            default:
+                log.warn("Unknown maintenance.daily-rollup command '{}', expected rebuild or verify", command);
+        }
+    }
+}
@@ -7,13 +7,18 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
-import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface GoalRepository extends JpaRepository<Goal, Long> {
 
+    @Query("SELECT g.user.userId FROM Goal g WHERE g.goalId = :goalId")
+    Optional<Long> findOwnerIdByGoalId(@Param("goalId") Long goalId);
+
+    @Query("SELECT g FROM Goal g WHERE g.goalId = :goalId AND g.user.userId = :userId")
+    Optional<Goal> findByGoalIdAndUserId(@Param("goalId") Long goalId, @Param("userId") Long userId);
+
     //find all goals for a user by id
     @Query("SELECT g FROM Goal g WHERE g.user.userId = :userId ORDER BY g.createdAt DESC")
     List<Goal> findByUserIdOrderByCreatedAtDesc(@Param("userId") Long userId);
@@ -21,10 +26,7 @@ public interface GoalRepository extends JpaRepository<Goal, Long> {
 
     @Query("SELECT g FROM Goal g WHERE g.user.userId = :userId " +
             "AND g.status = 'COMPLETED' " +
-            "AND g.completedAt BETWEEN :startDate AND :endDate " +
-            "ORDER BY g.completedAt DESC")
-    List<Goal> findCompletedGoalsInDateRange(@Param("userId") Long userId,
-                                             @Param("startDate") LocalDateTime startDate,
-                                             @Param("endDate") LocalDateTime endDate);
+            "ORDER BY g.completedAt")
+    List<Goal> findCompletedGoals(@Param("userId") Long userId);
 
 }
\ No newline at end of file
@@ -0,0 +1,46 @@
+package com.marecca.workoutTracker.repository;
+
+import com.marecca.workoutTracker.entity.PrecomputedRecommendation;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+@Repository
+public interface PrecomputedRecommendationRepository extends JpaRepository<PrecomputedRecommendation, Long> {
+
+    Optional<PrecomputedRecommendation> findByUserIdAndGoalType(Long userId, String goalType);
+
+    /**
+     * Inserts or replaces the stored recommendations of a user for one goal type
+     * Skipped when the user completed a workout or changed the profile after computedAt,
+     * so a result computed before an invalidation cannot be written back afterwards
+     */
+    @Modifying
+    @Query(value = "INSERT INTO precomputed_recommendations (user_id, goal_type, recommendations, " +
+            "recommendation_count, catalog_version, computed_at) " +
+            "SELECT :userId, :goalType, :recommendations, :recommendationCount, :catalogVersion, :computedAt " +
+            "WHERE NOT EXISTS (SELECT 1 FROM scheduled_workouts sw WHERE sw.user_id = :userId " +
+            "AND sw.status = 'COMPLETED' AND sw.actual_end_time >= :computedAt) " +
+            "AND NOT EXISTS (SELECT 1 FROM users u WHERE u.user_id = :userId AND u.updated_at >= :computedAt) " +
+            "ON CONFLICT (user_id, goal_type) DO UPDATE SET " +
+            "recommendations = EXCLUDED.recommendations, " +
+            "recommendation_count = EXCLUDED.recommendation_count, " +
+            "catalog_version = EXCLUDED.catalog_version, " +
+            "computed_at = EXCLUDED.computed_at",
+            nativeQuery = true)
+    int upsert(@Param("userId") Long userId,
+                @Param("goalType") String goalType,
+                @Param("recommendations") String recommendations,
+                @Param("recommendationCount") int recommendationCount,
+                @Param("catalogVersion") long catalogVersion,
+                @Param("computedAt") LocalDateTime computedAt);
+
+    @Modifying
+    @Query("DELETE FROM PrecomputedRecommendation pr WHERE pr.userId = :userId")
+    int deleteByUserId(@Param("userId") Long userId);
+}
@@ -0,0 +1,13 @@
+package com.marecca.workoutTracker.repository;
+
+import com.marecca.workoutTracker.entity.RecommendationJobRun;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface RecommendationJobRunRepository extends JpaRepository<RecommendationJobRun, Long> {
+
+    Optional<RecommendationJobRun> findFirstByStatusOrderByRunIdDesc(String status);
+}
@@ -1,7 +1,9 @@
 package com.marecca.workoutTracker.repository;
 
+import com.marecca.workoutTracker.dto.ScheduledWorkoutHistoryDTO;
 import com.marecca.workoutTracker.entity.ScheduledWorkout;
 import com.marecca.workoutTracker.entity.enums.WorkoutStatusType;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
@@ -13,17 +15,50 @@ import java.time.LocalDateTime;
 import java.time.LocalTime;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 
 @Repository
 public interface ScheduledWorkoutRepository extends JpaRepository<ScheduledWorkout, Long> {
 
-    @Query("SELECT sw FROM ScheduledWorkout sw " +
-            "JOIN FETCH sw.user u " +
-            "LEFT JOIN FETCH sw.workoutPlan wp " +
-            "WHERE u.userId = :userId " +
-            "ORDER BY sw.scheduledDate DESC")
-    List<ScheduledWorkout> findByUserUserIdOrderByScheduledDateDesc(@Param("userId") Long userId);
+    //no unprocessed COMPLETED outbox event of the workout is still waiting for :subscriber
+    String NOT_PENDING_FOR_SUBSCRIBER = "NOT EXISTS (SELECT 1 FROM workout_outbox_events e " +
+            "WHERE e.user_id = sw.user_id AND e.processed_at IS NULL " +
+            "AND e.scheduled_workout_id = sw.scheduled_workout_id AND e.transition = 'COMPLETED' " +
+            "AND NOT EXISTS (SELECT 1 FROM workout_outbox_consumptions c " +
+            "WHERE c.event_id = e.event_id AND c.subscriber = :subscriber))";
+
+    String HISTORY_SELECT = "SELECT new com.marecca.workoutTracker.dto.ScheduledWorkoutHistoryDTO(" +
+            "sw.scheduledWorkoutId, sw.scheduledDate, sw.scheduledTime, sw.status, sw.plannedDurationMinutes, " +
+            "sw.actualStartTime, sw.actualEndTime, sw.actualDurationMinutes, sw.caloriesBurned, sw.overallRating, sw.notes, " +
+            "wp.workoutPlanId, wp.planName, wp.description, wp.estimatedDurationMinutes, wp.difficultyLevel) " +
+            "FROM ScheduledWorkout sw LEFT JOIN sw.workoutPlan wp ";
+
+    String HISTORY_ORDER = "ORDER BY sw.scheduledDate DESC, sw.scheduledWorkoutId DESC";
+
+    /**
+     * newest page of a user's history, the page size comes from the pageable
+     */
+    @Query(HISTORY_SELECT +
+            "WHERE sw.user.userId = :userId " +
+            HISTORY_ORDER)
+    List<ScheduledWorkoutHistoryDTO> findHistoryFirstPage(@Param("userId") Long userId, Pageable pageable);
+
+    /**
+     * page of a user's history after the (date, id) keyset of the last row of the previous page
+     */
+    @Query(HISTORY_SELECT +
+            "WHERE sw.user.userId = :userId " +
+            "AND (sw.scheduledDate < :afterDate " +
+            "OR (sw.scheduledDate = :afterDate AND sw.scheduledWorkoutId < :afterId)) " +
+            HISTORY_ORDER)
+    List<ScheduledWorkoutHistoryDTO> findHistoryPageAfter(
+            @Param("userId") Long userId,
+            @Param("afterDate") LocalDate afterDate,
+            @Param("afterId") Long afterId,
+            Pageable pageable);
 
+    @Query("SELECT sw.user.userId FROM ScheduledWorkout sw WHERE sw.scheduledWorkoutId = :scheduledWorkoutId")
+    Optional<Long> findOwnerIdByScheduledWorkoutId(@Param("scheduledWorkoutId") Long scheduledWorkoutId);
 
     @Query("SELECT sw FROM ScheduledWorkout sw WHERE sw.user.userId = :userId AND sw.scheduledDate = CURRENT_DATE")
     List<ScheduledWorkout> findTodaysWorkoutsForUser(@Param("userId") Long userId);
@@ -60,80 +95,165 @@ public interface ScheduledWorkoutRepository extends JpaRepository<ScheduledWorko
 
     List<ScheduledWorkout> findTop5ByUserUserIdAndStatusOrderByActualEndTimeDesc(Long userId, WorkoutStatusType status);
 
-    @Query("SELECT sw FROM ScheduledWorkout sw " +
-            "WHERE sw.user.userId = :userId " +
-            "AND sw.scheduledDate = :date " +
-            "AND sw.scheduledTime = :scheduledTime " +
-            "AND sw.scheduledWorkoutId != :excludeWorkoutId " +
-            "AND sw.status IN :activeStatuses")
-    List<ScheduledWorkout> findExactTimeConflictsForReschedule(
+    /**
+     * true when an active workout of the user overlaps [slotStart, slotEnd)
+     * served by the gist index behind the ex_scheduled_workouts_no_overlap constraint
+     */
+    @Query(value = "SELECT EXISTS (SELECT 1 FROM scheduled_workouts " +
+            "WHERE user_id = :userId " +
+            "AND status IN ('PLANNED', 'IN_PROGRESS') " +
+            "AND scheduled_slot && tsrange(CAST(:slotStart AS TIMESTAMP), CAST(:slotEnd AS TIMESTAMP)) " +
+            "AND scheduled_workout_id <> COALESCE(CAST(:excludeWorkoutId AS BIGINT), -1))",
+            nativeQuery = true)
+    boolean existsOverlappingWorkout(
             @Param("userId") Long userId,
-            @Param("date") LocalDate date,
-            @Param("scheduledTime") LocalTime scheduledTime,
-            @Param("excludeWorkoutId") Long excludeWorkoutId,
-            @Param("activeStatuses") List<WorkoutStatusType> activeStatuses
+            @Param("slotStart") LocalDateTime slotStart,
+            @Param("slotEnd") LocalDateTime slotEnd,
+            @Param("excludeWorkoutId") Long excludeWorkoutId
     );
 
-    @Query("SELECT sw FROM ScheduledWorkout sw " +
-            "WHERE sw.user.userId = :userId " +
-            "AND sw.scheduledDate = :date " +
-            "AND sw.scheduledWorkoutId != :excludeWorkoutId " +
-            "AND sw.status IN :activeStatuses " +
-            "AND sw.scheduledTime IS NOT NULL")
-    List<ScheduledWorkout> findWorkoutsForDateExcluding(
+    /**
+     * id, slot start and slot end of the user's active workouts overlapping [rangeStart, rangeEnd)
+     */
+    @Query(value = "SELECT scheduled_workout_id, lower(scheduled_slot), upper(scheduled_slot) " +
+            "FROM scheduled_workouts " +
+            "WHERE user_id = :userId " +
+            "AND status IN ('PLANNED', 'IN_PROGRESS') " +
+            "AND scheduled_slot && tsrange(CAST(:rangeStart AS TIMESTAMP), CAST(:rangeEnd AS TIMESTAMP))",
+            nativeQuery = true)
+    List<Object[]> findActiveSlotsOverlapping(
             @Param("userId") Long userId,
-            @Param("date") LocalDate date,
-            @Param("excludeWorkoutId") Long excludeWorkoutId,
-            @Param("activeStatuses") List<WorkoutStatusType> activeStatuses
+            @Param("rangeStart") LocalDateTime rangeStart,
+            @Param("rangeEnd") LocalDateTime rangeEnd
     );
 
-    @Query("SELECT COUNT(sw) > 0 FROM ScheduledWorkout sw " +
-            "WHERE sw.user.userId = :userId " +
-            "AND sw.scheduledDate = :scheduledDate " +
-            "AND sw.scheduledTime = :scheduledTime " +
-            "AND sw.status IN :statuses")
-    boolean hasWorkoutScheduledAtSpecificTime(
-            @Param("userId") Long userId,
-            @Param("scheduledDate") LocalDate scheduledDate,
-            @Param("scheduledTime") LocalTime scheduledTime,
-            @Param("statuses") List<WorkoutStatusType> statuses
+    /**
+     * marks up to batchSize planned workouts whose slot ended by the cutoff as MISSED
+     * (timed ones once start time + planned duration has passed, the others once their day is over),
+     * a user running a bit late can still start the workout until then
+     * rows locked by a concurrent sweep are skipped instead of waited for
+     * returns id, user id, date, time and slot end of every row that was marked
+     */
+    @Query(value = "WITH overdue AS (" +
+            "SELECT scheduled_workout_id FROM scheduled_workouts " +
+            "WHERE status = 'PLANNED' " +
+            "AND upper(scheduled_slot) <= CAST(:cutoff AS TIMESTAMP) " +
+            "ORDER BY upper(scheduled_slot) " +
+            "LIMIT :batchSize " +
+            "FOR UPDATE SKIP LOCKED) " +
+            "UPDATE scheduled_workouts sw SET status = 'MISSED' " +
+            "FROM overdue " +
+            "WHERE sw.scheduled_workout_id = overdue.scheduled_workout_id " +
+            "RETURNING sw.scheduled_workout_id, sw.user_id, sw.scheduled_date, sw.scheduled_time, upper(sw.scheduled_slot)",
+            nativeQuery = true)
+    List<Object[]> markOverdueWorkoutsMissed(
+            @Param("cutoff") LocalDateTime cutoff,
+            @Param("batchSize") int batchSize
     );
 
-    @Query("SELECT COUNT(sw) > 0 FROM ScheduledWorkout sw " +
-            "WHERE sw.user.userId = :userId " +
-            "AND sw.scheduledDate = :scheduledDate " +
-            "AND sw.scheduledTime IS NULL " +
-            "AND sw.status IN :statuses")
-    boolean hasWorkoutScheduledOnDate(
-            @Param("userId") Long userId,
-            @Param("scheduledDate") LocalDate scheduledDate,
-            @Param("statuses") List<WorkoutStatusType> statuses
-    );
+    /**
+     * count and calories of the completed workouts of a user the given outbox subscriber has applied, plus the given
+     * workout, workouts whose COMPLETED event is still waiting for the subscriber are left to it
+     */
+    @Query(value = "SELECT COUNT(*), COALESCE(SUM(sw.calories_burned), 0) " +
+            "FROM scheduled_workouts sw " +
+            "WHERE sw.user_id = :userId AND sw.status = 'COMPLETED' " +
+            "AND (sw.scheduled_workout_id = :scheduledWorkoutId OR " + NOT_PENDING_FOR_SUBSCRIBER + ")",
+            nativeQuery = true)
+    List<Object[]> getAppliedWorkoutTotals(@Param("userId") Long userId,
+                                           @Param("scheduledWorkoutId") Long scheduledWorkoutId,
+                                           @Param("subscriber") String subscriber);
 
-    @Query("SELECT COUNT(sw), " +
-            "COALESCE(SUM(sw.caloriesBurned), 0), " +
-            "AVG(CASE WHEN sw.actualDurationMinutes > 0 THEN sw.actualDurationMinutes ELSE NULL END), " +
-            "AVG(sw.overallRating), " +
-            "COUNT(DISTINCT sw.scheduledDate) " +
-            "FROM ScheduledWorkout sw " +
-            "WHERE sw.user.userId = :userId " +
-            "AND sw.status = 'COMPLETED' " +
-            "AND sw.scheduledDate BETWEEN :startDate AND :endDate")
-    List<Object[]> getWorkoutStatsForPeriod(
-            @Param("userId") Long userId,
-            @Param("startDate") LocalDate startDate,
-            @Param("endDate") LocalDate endDate
-    );
+    /**
+     * Weekly, monthly and lifetime stats of the completed workouts in one scan, plus the streak
+     * 0-4 week: count, calories, avg duration, avg rating, workout days
+     * 5-9 month: count, calories, avg duration, avg rating, workout days
+     * 10-14 lifetime: count, calories, workout days, avg duration, first workout date
+     * 15-17 streak: current, longest, last workout date
+     */
+    @Query(value = "SELECT " +
+            "COUNT(*) FILTER (WHERE sw.scheduled_date BETWEEN :weekStart AND :weekEnd), " +
+            "COALESCE(SUM(sw.calories_burned) FILTER (WHERE sw.scheduled_date BETWEEN :weekStart AND :weekEnd), 0), " +
+            "AVG(sw.actual_duration_minutes) FILTER (WHERE sw.scheduled_date BETWEEN :weekStart AND :weekEnd AND sw.actual_duration_minutes > 0), " +
+            "AVG(sw.overall_rating) FILTER (WHERE sw.scheduled_date BETWEEN :weekStart AND :weekEnd), " +
+            "COUNT(DISTINCT sw.scheduled_date) FILTER (WHERE sw.scheduled_date BETWEEN :weekStart AND :weekEnd), " +
+            "COUNT(*) FILTER (WHERE sw.scheduled_date BETWEEN :monthStart AND :monthEnd), " +
+            "COALESCE(SUM(sw.calories_burned) FILTER (WHERE sw.scheduled_date BETWEEN :monthStart AND :monthEnd), 0), " +
+            "AVG(sw.actual_duration_minutes) FILTER (WHERE sw.scheduled_date BETWEEN :monthStart AND :monthEnd AND sw.actual_duration_minutes > 0), " +
+            "AVG(sw.overall_rating) FILTER (WHERE sw.scheduled_date BETWEEN :monthStart AND :monthEnd), " +
+            "COUNT(DISTINCT sw.scheduled_date) FILTER (WHERE sw.scheduled_date BETWEEN :monthStart AND :monthEnd), " +
+            "COUNT(*), " +
+            "COALESCE(SUM(sw.calories_burned), 0), " +
+            "COUNT(DISTINCT sw.scheduled_date), " +
+            "AVG(sw.actual_duration_minutes) FILTER (WHERE sw.actual_duration_minutes > 0), " +
+            "MIN(sw.scheduled_date), " +
+            "(SELECT s.current_streak FROM user_workout_streaks s WHERE s.user_id = :userId), " +
+            "(SELECT s.longest_streak FROM user_workout_streaks s WHERE s.user_id = :userId), " +
+            "(SELECT s.last_workout_date FROM user_workout_streaks s WHERE s.user_id = :userId) " +
+            "FROM scheduled_workouts sw " +
+            "WHERE sw.user_id = :userId AND sw.status = 'COMPLETED'",
+            nativeQuery = true)
+    List<Object[]> getDashboardAggregates(@Param("userId") Long userId,
+                                          @Param("weekStart") LocalDate weekStart,
+                                          @Param("weekEnd") LocalDate weekEnd,
+                                          @Param("monthStart") LocalDate monthStart,
+                                          @Param("monthEnd") LocalDate monthEnd);
 
-    @Query("SELECT COUNT(sw), " +
-            "COALESCE(SUM(sw.caloriesBurned), 0), " +
-            "COUNT(DISTINCT sw.scheduledDate), " +
-            "AVG(CASE WHEN sw.actualDurationMinutes > 0 THEN sw.actualDurationMinutes ELSE NULL END), " +
-            "MIN(sw.scheduledDate) " +
-            "FROM ScheduledWorkout sw " +
-            "WHERE sw.user.userId = :userId " +
-            "AND sw.status = 'COMPLETED'")
-    List<Object[]> getLifetimeWorkoutStats(@Param("userId") Long userId);
+    /**
+     * Just the quick stats: weekly count and calories, lifetime count and the current streak
+     */
+    @Query(value = "SELECT " +
+            "COUNT(*) FILTER (WHERE sw.scheduled_date BETWEEN :weekStart AND :weekEnd), " +
+            "COALESCE(SUM(sw.calories_burned) FILTER (WHERE sw.scheduled_date BETWEEN :weekStart AND :weekEnd), 0), " +
+            "COUNT(*), " +
+            "(SELECT s.current_streak FROM user_workout_streaks s WHERE s.user_id = :userId) " +
+            "FROM scheduled_workouts sw " +
+            "WHERE sw.user_id = :userId AND sw.status = 'COMPLETED'",
+            nativeQuery = true)
+    List<Object[]> getQuickStatsAggregates(@Param("userId") Long userId,
+                                           @Param("weekStart") LocalDate weekStart,
+                                           @Param("weekEnd") LocalDate weekEnd);
+
+    // Daily rollups (user_daily_workout_rollup and user_daily_category_rollup)
+    @Query(value = "SELECT rebuild_daily_workout_rollups(CAST(:userId AS BIGINT))", nativeQuery = true)
+    Integer rebuildDailyWorkoutRollups(@Param("userId") Long userId);
+
+    @Query(value = "SELECT * FROM verify_daily_workout_rollups(CAST(:userId AS BIGINT))", nativeQuery = true)
+    List<Object[]> verifyDailyWorkoutRollups(@Param("userId") Long userId);
+
+    /**
+     * completed workouts and calories per active user with workouts in the date range, from the daily rollups
+     */
+    @Query(value = "SELECT r.user_id, SUM(r.workout_count), SUM(r.calories_sum) " +
+            "FROM user_daily_workout_rollup r " +
+            "JOIN users u ON u.user_id = r.user_id AND u.is_active = true " +
+            "WHERE r.workout_date BETWEEN CAST(:startDate AS DATE) AND CAST(:endDate AS DATE) " +
+            "GROUP BY r.user_id", nativeQuery = true)
+    List<Object[]> getWorkoutTotalsPerUser(@Param("startDate") LocalDate startDate,
+                                           @Param("endDate") LocalDate endDate);
+
+    @Query(value = "SELECT r.user_id, SUM(r.workout_count), SUM(r.calories_sum) " +
+            "FROM user_daily_workout_rollup r " +
+            "JOIN users u ON u.user_id = r.user_id AND u.is_active = true " +
+            "GROUP BY r.user_id", nativeQuery = true)
+    List<Object[]> getLifetimeWorkoutTotalsPerUser();
+
+    /**
+     * one row: workouts and calories of the user in the week, in the month and in total
+     */
+    @Query(value = "SELECT " +
+            "COALESCE(SUM(r.workout_count) FILTER (WHERE r.workout_date BETWEEN CAST(:weekStart AS DATE) AND CAST(:weekEnd AS DATE)), 0), " +
+            "COALESCE(SUM(r.calories_sum) FILTER (WHERE r.workout_date BETWEEN CAST(:weekStart AS DATE) AND CAST(:weekEnd AS DATE)), 0), " +
+            "COALESCE(SUM(r.workout_count) FILTER (WHERE r.workout_date BETWEEN CAST(:monthStart AS DATE) AND CAST(:monthEnd AS DATE)), 0), " +
+            "COALESCE(SUM(r.calories_sum) FILTER (WHERE r.workout_date BETWEEN CAST(:monthStart AS DATE) AND CAST(:monthEnd AS DATE)), 0), " +
+            "COALESCE(SUM(r.workout_count), 0), " +
+            "COALESCE(SUM(r.calories_sum), 0) " +
+            "FROM user_daily_workout_rollup r WHERE r.user_id = :userId", nativeQuery = true)
+    List<Object[]> getUserWorkoutTotals(@Param("userId") Long userId,
+                                        @Param("weekStart") LocalDate weekStart,
+                                        @Param("weekEnd") LocalDate weekEnd,
+                                        @Param("monthStart") LocalDate monthStart,
+                                        @Param("monthEnd") LocalDate monthEnd);
 
     // Workout Calendar
     @Query(value = "SELECT * FROM get_workout_calendar(:userId, :startDate, :endDate)", nativeQuery = true)
@@ -161,16 +281,28 @@ public interface ScheduledWorkoutRepository extends JpaRepository<ScheduledWorko
                                           @Param("status") WorkoutStatusType status,
                                           @Param("startDate") LocalDateTime startDate);
 
+    /**
+     * End time of the user's most recently completed workout, used as an activity watermark
+     */
+    @Query("SELECT MAX(sw.actualEndTime) FROM ScheduledWorkout sw " +
+            "WHERE sw.user.userId = :userId AND sw.status = 'COMPLETED'")
+    LocalDateTime findLastCompletedWorkoutTime(@Param("userId") Long userId);
+
     @Query("SELECT sw FROM ScheduledWorkout sw " +
             "WHERE sw.user.userId = :userId " +
             "AND sw.actualStartTime >= :startDate")
     List<ScheduledWorkout> findWorkoutsByUserAndDate(@Param("userId") Long userId,
                                                      @Param("startDate") LocalDateTime startDate);
 
-    @Query("SELECT sw FROM ScheduledWorkout sw WHERE sw.user.userId = :userId " +
-            "AND sw.status = 'COMPLETED' " +
-            "AND sw.actualEndTime >= :startDate " +
-            "ORDER BY sw.actualEndTime DESC")
-    List<ScheduledWorkout> findCompletedWorkoutsInDateRange(@Param("userId") Long userId,
-                                                            @Param("startDate") LocalDateTime startDate);
+    /**
+     * id, end time, calories and duration of the completed workouts of a user the given outbox subscriber has
+     * applied, in completion order
+     */
+    @Query(value = "SELECT sw.scheduled_workout_id, sw.actual_end_time, sw.calories_burned, sw.actual_duration_minutes " +
+            "FROM scheduled_workouts sw " +
+            "WHERE sw.user_id = :userId AND sw.status = 'COMPLETED' " +
+            "AND " + NOT_PENDING_FOR_SUBSCRIBER + " " +
+            "ORDER BY sw.actual_end_time, sw.scheduled_workout_id",
+            nativeQuery = true)
+    List<Object[]> findCompletedWorkoutFacts(@Param("userId") Long userId, @Param("subscriber") String subscriber);
 }
\ No newline at end of file
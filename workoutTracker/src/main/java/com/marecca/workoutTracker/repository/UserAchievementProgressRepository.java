@@ -0,0 +1,9 @@
+package com.marecca.workoutTracker.repository;
+
+import com.marecca.workoutTracker.entity.UserAchievementProgress;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface UserAchievementProgressRepository extends JpaRepository<UserAchievementProgress, Long> {
+}
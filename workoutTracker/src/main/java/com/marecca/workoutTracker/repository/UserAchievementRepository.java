@@ -0,0 +1,65 @@
+package com.marecca.workoutTracker.repository;
+
+import com.marecca.workoutTracker.entity.UserAchievement;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface UserAchievementRepository extends JpaRepository<UserAchievement, Long> {
+
+    /**
+     * returns 1 when the achievement was awarded, 0 when the user already had it
+     */
+    @Modifying
+    @Query(value = "INSERT INTO user_achievements (user_id, achievement_type, achievement_key, title, description, " +
+            "icon, points, source_id, details, achieved_at) " +
+            "VALUES (:userId, :type, :key, :title, :description, :icon, :points, :sourceId, :details, :achievedAt) " +
+            "ON CONFLICT (user_id, achievement_key) DO NOTHING",
+            nativeQuery = true)
+    int award(@Param("userId") Long userId,
+              @Param("type") String type,
+              @Param("key") String key,
+              @Param("title") String title,
+              @Param("description") String description,
+              @Param("icon") String icon,
+              @Param("points") int points,
+              @Param("sourceId") Long sourceId,
+              @Param("details") String details,
+              @Param("achievedAt") LocalDateTime achievedAt);
+
+    @Modifying
+    @Query("DELETE FROM UserAchievement a WHERE a.userId = :userId AND a.achievementKey = :key")
+    int revoke(@Param("userId") Long userId, @Param("key") String key);
+
+    @Modifying
+    @Query("DELETE FROM UserAchievement a WHERE a.userId = :userId")
+    int deleteByUserId(@Param("userId") Long userId);
+
+    /**
+     * achievements earned since the given time, most recent first, except the given type
+     */
+    @Query("SELECT a FROM UserAchievement a WHERE a.userId = :userId " +
+            "AND a.achievedAt >= :since " +
+            "AND a.achievementType <> :excludedType " +
+            "ORDER BY a.achievedAt DESC, a.achievementId DESC")
+    List<UserAchievement> findRecent(@Param("userId") Long userId,
+                                     @Param("since") LocalDateTime since,
+                                     @Param("excludedType") String excludedType,
+                                     Pageable pageable);
+
+    @Query("SELECT a FROM UserAchievement a WHERE a.userId = :userId " +
+            "AND a.achievementType = :type " +
+            "AND a.achievedAt >= :since " +
+            "ORDER BY a.achievedAt DESC, a.achievementId DESC")
+    List<UserAchievement> findRecentByType(@Param("userId") Long userId,
+                                           @Param("type") String type,
+                                           @Param("since") LocalDateTime since,
+                                           Pageable pageable);
+}
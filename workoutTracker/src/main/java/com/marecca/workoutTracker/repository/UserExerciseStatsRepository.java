@@ -0,0 +1,113 @@
+package com.marecca.workoutTracker.repository;
+
+import com.marecca.workoutTracker.entity.UserExerciseStats;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface UserExerciseStatsRepository extends JpaRepository<UserExerciseStats, Long> {
+
+    //leaves out completed workouts whose COMPLETED outbox event ExerciseStatsSubscriber has not consumed yet,
+    //the subscriber adds those itself, a rebuild while the relay is behind must not count them twice
+    String STATS_APPLIED = "AND NOT EXISTS (SELECT 1 FROM workout_outbox_events e " +
+            "WHERE e.user_id = sw.user_id AND e.processed_at IS NULL " +
+            "AND e.scheduled_workout_id = sw.scheduled_workout_id AND e.transition = 'COMPLETED' " +
+            "AND NOT EXISTS (SELECT 1 FROM workout_outbox_consumptions c " +
+            "WHERE c.event_id = e.event_id AND c.subscriber = 'exercise-stats')) ";
+
+    List<UserExerciseStats> findByUserId(Long userId);
+
+    /**
+     * Adds the logs of one completed workout to the user's running totals
+     */
+    @Modifying
+    @Query(value = "INSERT INTO user_exercise_stats (user_id, exercise_id, times_performed, weight_sum, " +
+            "reps_sum, reps_count, sets_sum, sets_count, difficulty_sum, difficulty_count, last_performed_at, updated_at) " +
+            "SELECT sw.user_id, wel.exercise_id, COUNT(*), COALESCE(SUM(wel.weight_used_kg), 0), " +
+            "COALESCE(SUM(wel.reps_completed), 0), COUNT(wel.reps_completed), " +
+            "COALESCE(SUM(wel.sets_completed), 0), COUNT(wel.sets_completed), " +
+            "COALESCE(SUM(wel.difficulty_rating), 0), COUNT(wel.difficulty_rating), " +
+            "MAX(sw.actual_start_time), CURRENT_TIMESTAMP " +
+            "FROM workout_exercise_logs wel " +
+            "JOIN scheduled_workouts sw ON sw.scheduled_workout_id = wel.scheduled_workout_id " +
+            "WHERE sw.scheduled_workout_id = :workoutId AND sw.status = 'COMPLETED' " +
+            "GROUP BY sw.user_id, wel.exercise_id " +
+            "ON CONFLICT (user_id, exercise_id) DO UPDATE SET " +
+            "times_performed = user_exercise_stats.times_performed + EXCLUDED.times_performed, " +
+            "weight_sum = user_exercise_stats.weight_sum + EXCLUDED.weight_sum, " +
+            "reps_sum = user_exercise_stats.reps_sum + EXCLUDED.reps_sum, " +
+            "reps_count = user_exercise_stats.reps_count + EXCLUDED.reps_count, " +
+            "sets_sum = user_exercise_stats.sets_sum + EXCLUDED.sets_sum, " +
+            "sets_count = user_exercise_stats.sets_count + EXCLUDED.sets_count, " +
+            "difficulty_sum = user_exercise_stats.difficulty_sum + EXCLUDED.difficulty_sum, " +
+            "difficulty_count = user_exercise_stats.difficulty_count + EXCLUDED.difficulty_count, " +
+            "last_performed_at = GREATEST(user_exercise_stats.last_performed_at, EXCLUDED.last_performed_at), " +
+            "updated_at = CURRENT_TIMESTAMP",
+            nativeQuery = true)
+    int applyCompletedWorkout(@Param("workoutId") Long workoutId);
+
+    /**
+     * Removes the rollup rows of one user, or of everyone when userId is null
+     */
+    @Modifying
+    @Query(value = "DELETE FROM user_exercise_stats WHERE CAST(:userId AS BIGINT) IS NULL OR user_id = CAST(:userId AS BIGINT)",
+            nativeQuery = true)
+    int deleteForUser(@Param("userId") Long userId);
+
+    /**
+     * Regenerates the rollup from all completed workout history, for one user or everyone when userId is null
+     */
+    @Modifying
+    @Query(value = "INSERT INTO user_exercise_stats (user_id, exercise_id, times_performed, weight_sum, " +
+            "reps_sum, reps_count, sets_sum, sets_count, difficulty_sum, difficulty_count, last_performed_at, updated_at) " +
+            "SELECT sw.user_id, wel.exercise_id, COUNT(*), COALESCE(SUM(wel.weight_used_kg), 0), " +
+            "COALESCE(SUM(wel.reps_completed), 0), COUNT(wel.reps_completed), " +
+            "COALESCE(SUM(wel.sets_completed), 0), COUNT(wel.sets_completed), " +
+            "COALESCE(SUM(wel.difficulty_rating), 0), COUNT(wel.difficulty_rating), " +
+            "MAX(sw.actual_start_time), CURRENT_TIMESTAMP " +
+            "FROM workout_exercise_logs wel " +
+            "JOIN scheduled_workouts sw ON sw.scheduled_workout_id = wel.scheduled_workout_id " +
+            "WHERE sw.status = 'COMPLETED' " +
+            "AND (CAST(:userId AS BIGINT) IS NULL OR sw.user_id = CAST(:userId AS BIGINT)) " +
+            STATS_APPLIED +
+            "GROUP BY sw.user_id, wel.exercise_id",
+            nativeQuery = true)
+    int rebuildFromHistory(@Param("userId") Long userId);
+
+    /**
+     * Compares the rollup with a fresh aggregate of the log table
+     * returns user_id, exercise_id for every row that is missing or differs on either side
+     */
+    @Query(value = "SELECT COALESCE(s.user_id, h.user_id), COALESCE(s.exercise_id, h.exercise_id) " +
+            "FROM (SELECT * FROM user_exercise_stats " +
+            "      WHERE CAST(:userId AS BIGINT) IS NULL OR user_id = CAST(:userId AS BIGINT)) s " +
+            "FULL OUTER JOIN (" +
+            "    SELECT sw.user_id, wel.exercise_id, COUNT(*) AS times_performed, " +
+            "    COALESCE(SUM(wel.weight_used_kg), 0) AS weight_sum, " +
+            "    COALESCE(SUM(wel.reps_completed), 0) AS reps_sum, COUNT(wel.reps_completed) AS reps_count, " +
+            "    COALESCE(SUM(wel.sets_completed), 0) AS sets_sum, COUNT(wel.sets_completed) AS sets_count, " +
+            "    COALESCE(SUM(wel.difficulty_rating), 0) AS difficulty_sum, COUNT(wel.difficulty_rating) AS difficulty_count, " +
+            "    MAX(sw.actual_start_time) AS last_performed_at " +
+            "    FROM workout_exercise_logs wel " +
+            "    JOIN scheduled_workouts sw ON sw.scheduled_workout_id = wel.scheduled_workout_id " +
+            "    WHERE sw.status = 'COMPLETED' " +
+            "    AND (CAST(:userId AS BIGINT) IS NULL OR sw.user_id = CAST(:userId AS BIGINT)) " +
+            "    " + STATS_APPLIED +
+            "    GROUP BY sw.user_id, wel.exercise_id" +
+            ") h ON h.user_id = s.user_id AND h.exercise_id = s.exercise_id " +
+            "WHERE s.user_id IS NULL OR h.user_id IS NULL " +
+            "OR s.times_performed <> h.times_performed " +
+            "OR s.weight_sum <> h.weight_sum " +
+            "OR s.reps_sum <> h.reps_sum OR s.reps_count <> h.reps_count " +
+            "OR s.sets_sum <> h.sets_sum OR s.sets_count <> h.sets_count " +
+            "OR s.difficulty_sum <> h.difficulty_sum OR s.difficulty_count <> h.difficulty_count " +
+            "OR s.last_performed_at IS DISTINCT FROM h.last_performed_at " +
+            "ORDER BY 1, 2",
+            nativeQuery = true)
+    List<Object[]> findInconsistentStats(@Param("userId") Long userId);
+}
@@ -1,8 +1,15 @@
 package com.marecca.workoutTracker.repository;
 
 import com.marecca.workoutTracker.entity.User;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
 import java.util.Optional;
 
 
@@ -13,4 +20,22 @@ public interface UserRepository extends JpaRepository<User, Long> {
     boolean existsById(Long userId);
     boolean existsByUsername(String username);
     boolean existsByEmail(String email);
-}
\ No newline at end of file
+
+    /**
+     * Next chunk of active user ids after the given id (keyset paging)
+     */
+    @Query("SELECT u.userId FROM User u WHERE u.isActive = true AND u.userId > :afterUserId ORDER BY u.userId")
+    List<Long> findActiveUserIdsAfter(@Param("afterUserId") Long afterUserId, Pageable pageable);
+
+    long countByIsActiveTrue();
+
+    /**
+     * replaces the password hash only if it is still the expected one (rehash after a cost change)
+     */
+    @Transactional
+    @Modifying
+    @Query("UPDATE User u SET u.passwordHash = :newHash WHERE u.userId = :userId AND u.passwordHash = :expectedHash")
+    int updatePasswordHash(@Param("userId") Long userId,
+                           @Param("expectedHash") String expectedHash,
+                           @Param("newHash") String newHash);
+}
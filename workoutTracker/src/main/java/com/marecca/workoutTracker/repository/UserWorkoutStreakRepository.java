@@ -6,9 +6,26 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDate;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface UserWorkoutStreakRepository extends JpaRepository<UserWorkoutStreak, Long> {
     Optional<UserWorkoutStreak> findByUserId(Long userId);
-}
\ No newline at end of file
+
+    /**
+     * applies a completed workout to the user's streak, returns the current streak
+     * a second call for the same date leaves the streak as it is
+     */
+    @Query(value = "SELECT current_streak FROM update_workout_streak(:userId, CAST(:workoutDate AS DATE))", nativeQuery = true)
+    Integer applyCompletedWorkout(@Param("userId") Long userId, @Param("workoutDate") LocalDate workoutDate);
+
+    /**
+     * user id and longest streak of every active user that ever had a streak
+     */
+    @Query(value = "SELECT s.user_id, s.longest_streak FROM user_workout_streaks s " +
+            "JOIN users u ON u.user_id = s.user_id AND u.is_active = true " +
+            "WHERE s.longest_streak > 0", nativeQuery = true)
+    List<Object[]> findLongestStreaks();
+}
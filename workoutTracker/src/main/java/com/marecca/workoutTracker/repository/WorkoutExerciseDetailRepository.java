@@ -19,4 +19,7 @@ public interface WorkoutExerciseDetailRepository extends JpaRepository<WorkoutEx
     @Transactional
     @Query("DELETE FROM WorkoutExerciseDetail wed WHERE wed.workoutPlan.workoutPlanId = :workoutPlanId")
     void deleteByWorkoutPlanId(@Param("workoutPlanId") Long workoutPlanId);
+
+    @Query("SELECT wed FROM WorkoutExerciseDetail wed WHERE wed.workoutPlan.workoutPlanId = :workoutPlanId ORDER BY wed.exerciseOrder")
+    List<WorkoutExerciseDetail> findByWorkoutPlanId(@Param("workoutPlanId") Long workoutPlanId);
 }
\ No newline at end of file
@@ -0,0 +1,95 @@
+package com.marecca.workoutTracker.repository;
+
+import com.marecca.workoutTracker.entity.WorkoutOutboxEvent;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface WorkoutOutboxEventRepository extends JpaRepository<WorkoutOutboxEvent, Long> {
+
+    /**
+     * takes a transaction level lock on the user, so events of one user are recorded one transaction at a time
+     * and their occurred_at follows the commit order
+     */
+    @Query(value = "SELECT 1 FROM (SELECT pg_advisory_xact_lock(:userId)) l", nativeQuery = true)
+    int lockUser(@Param("userId") Long userId);
+
+    /**
+     * claims up to batchSize due events, oldest first, by moving their next attempt to leaseUntil
+     * only the oldest pending event of each user (by occurred_at, then event_id) can be claimed, so a user has at most
+     * one event leased or in flight and a later one waits until it was processed, also across relays on several nodes
+     * the head is locked and checked again once the lock is held, a head a concurrent relay claimed or processed
+     * after this statement started is skipped instead of moving on to the next event of that user
+     * an event whose relay died is claimed again once the lease ran out, events that failed maxAttempts times are left
+     * for an operator and no longer hold others back
+     */
+    @Query(value = "WITH heads AS (" +
+            "SELECT DISTINCT ON (h.user_id) h.event_id FROM workout_outbox_events h " +
+            "WHERE h.processed_at IS NULL " +
+            "AND h.attempts < :maxAttempts " +
+            "ORDER BY h.user_id, h.occurred_at, h.event_id), " +
+            "due AS (" +
+            "SELECT e.event_id FROM workout_outbox_events e " +
+            "JOIN heads ON heads.event_id = e.event_id " +
+            "WHERE e.processed_at IS NULL " +
+            "AND e.attempts < :maxAttempts " +
+            "AND e.next_attempt_at <= :now " +
+            "ORDER BY e.occurred_at, e.event_id " +
+            "LIMIT :batchSize " +
+            "FOR UPDATE OF e SKIP LOCKED) " +
+            "UPDATE workout_outbox_events e SET next_attempt_at = :leaseUntil " +
+            "FROM due " +
+            "WHERE e.event_id = due.event_id " +
+            "RETURNING e.*",
+            nativeQuery = true)
+    List<WorkoutOutboxEvent> claimDueEvents(
+            @Param("now") LocalDateTime now,
+            @Param("leaseUntil") LocalDateTime leaseUntil,
+            @Param("maxAttempts") int maxAttempts,
+            @Param("batchSize") int batchSize
+    );
+
+    /**
+     * returns 1 when the subscriber had not consumed the event yet, 0 when it already did
+     */
+    @Modifying
+    @Query(value = "INSERT INTO workout_outbox_consumptions (subscriber, event_id) " +
+            "VALUES (:subscriber, :eventId) ON CONFLICT DO NOTHING",
+            nativeQuery = true)
+    int recordConsumption(@Param("subscriber") String subscriber, @Param("eventId") Long eventId);
+
+    @Modifying
+    @Query("UPDATE WorkoutOutboxEvent e SET e.processedAt = :processedAt, e.lastError = NULL " +
+            "WHERE e.eventId = :eventId")
+    int markProcessed(@Param("eventId") Long eventId, @Param("processedAt") LocalDateTime processedAt);
+
+    @Modifying
+    @Query("UPDATE WorkoutOutboxEvent e SET e.attempts = e.attempts + 1, e.lastError = :error, " +
+            "e.nextAttemptAt = :nextAttemptAt WHERE e.eventId = :eventId")
+    int markFailed(@Param("eventId") Long eventId,
+                   @Param("error") String error,
+                   @Param("nextAttemptAt") LocalDateTime nextAttemptAt);
+
+    /**
+     * undelivered events, how many of them gave up after maxAttempts, and when the oldest one occurred
+     */
+    @Query("SELECT COUNT(e), " +
+            "COALESCE(SUM(CASE WHEN e.attempts >= :maxAttempts THEN 1 ELSE 0 END), 0), " +
+            "MIN(e.occurredAt) " +
+            "FROM WorkoutOutboxEvent e WHERE e.processedAt IS NULL")
+    List<Object[]> getBacklog(@Param("maxAttempts") int maxAttempts);
+
+    @Modifying
+    @Query(value = "DELETE FROM workout_outbox_events WHERE event_id IN (" +
+            "SELECT event_id FROM workout_outbox_events " +
+            "WHERE processed_at < :cutoff " +
+            "LIMIT :batchSize)",
+            nativeQuery = true)
+    int deleteProcessedBefore(@Param("cutoff") LocalDateTime cutoff, @Param("batchSize") int batchSize);
+}
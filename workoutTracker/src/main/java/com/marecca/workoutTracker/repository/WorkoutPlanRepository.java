@@ -15,6 +15,12 @@ import java.util.Optional;
 
 @Repository
 public interface WorkoutPlanRepository extends JpaRepository<WorkoutPlan, Long> {
+    @Query("SELECT wp.user.userId FROM WorkoutPlan wp WHERE wp.workoutPlanId = :workoutPlanId")
+    Optional<Long> findOwnerIdByWorkoutPlanId(@Param("workoutPlanId") Long workoutPlanId);
+
+    @Query("SELECT wp FROM WorkoutPlan wp WHERE wp.workoutPlanId = :workoutPlanId AND wp.user.userId = :userId")
+    Optional<WorkoutPlan> findByWorkoutPlanIdAndUserId(@Param("workoutPlanId") Long workoutPlanId, @Param("userId") Long userId);
+
     @Query("SELECT wp FROM WorkoutPlan wp WHERE wp.user.userId = :userId AND wp.planName = :planName")
     Optional<WorkoutPlan> findByUserAndPlanName(@Param("userId") Long userId, @Param("planName") String planName);
 
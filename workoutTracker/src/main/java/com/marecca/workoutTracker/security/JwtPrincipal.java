@@ -0,0 +1,18 @@
+package com.marecca.workoutTracker.security;
+
+import java.time.Instant;
+
+/**
+ * claims of a verified token, stored as the principal of the request's authentication
+ * so controllers read the user without parsing the token again
+ */
+@lombok.Value
+public class JwtPrincipal {
+    Long userId;
+    String email;
+    Instant expiresAt;
+
+    public boolean isExpired() {
+        return expiresAt != null && !expiresAt.isAfter(Instant.now());
+    }
+}
@@ -0,0 +1,99 @@
+package com.marecca.workoutTracker.security;
+
+import com.marecca.workoutTracker.repository.GoalRepository;
+import com.marecca.workoutTracker.repository.ScheduledWorkoutRepository;
+import com.marecca.workoutTracker.repository.WorkoutPlanRepository;
+import com.marecca.workoutTracker.util.BoundedTtlCache;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.function.Function;
+
+/**
+ * answers "does this goal / plan / scheduled workout belong to this user" with a primary key lookup
+ * of the owner id, without loading the resource or the user's other resources
+ * a resource never changes owner, so owner ids are cached, deletes drop their entry
+ */
+@Component
+public class OwnershipGuard {
+
+    public enum Access {
+        OWNED,
+        FORBIDDEN,
+        NOT_FOUND
+    }
+
+    private enum ResourceType {
+        GOAL,
+        WORKOUT_PLAN,
+        SCHEDULED_WORKOUT
+    }
+
+    @lombok.Value
+    private static class Key {
+        ResourceType type;
+        Long id;
+    }
+
+    private final GoalRepository goalRepository;
+    private final WorkoutPlanRepository workoutPlanRepository;
+    private final ScheduledWorkoutRepository scheduledWorkoutRepository;
+    private final BoundedTtlCache<Key, Long> owners;
+
+    @Autowired
+    public OwnershipGuard(GoalRepository goalRepository,
+                          WorkoutPlanRepository workoutPlanRepository,
+                          ScheduledWorkoutRepository scheduledWorkoutRepository,
+                          @Value("${security.ownership-cache.max-size:20000}") int maxSize,
+                          @Value("${security.ownership-cache.ttl-minutes:60}") long ttlMinutes,
+                          MeterRegistry meterRegistry) {
+        this.goalRepository = goalRepository;
+        this.workoutPlanRepository = workoutPlanRepository;
+        this.scheduledWorkoutRepository = scheduledWorkoutRepository;
+        this.owners = new BoundedTtlCache<>(maxSize, Duration.ofMinutes(ttlMinutes));
+        this.owners.registerMetrics(meterRegistry, "resource-owners");
+    }
+
+    public Access goalAccess(Long goalId, Long userId) {
+        return access(ResourceType.GOAL, goalId, userId, goalRepository::findOwnerIdByGoalId);
+    }
+
+    public Access workoutPlanAccess(Long workoutPlanId, Long userId) {
+        return access(ResourceType.WORKOUT_PLAN, workoutPlanId, userId, workoutPlanRepository::findOwnerIdByWorkoutPlanId);
+    }
+
+    public Access scheduledWorkoutAccess(Long scheduledWorkoutId, Long userId) {
+        return access(ResourceType.SCHEDULED_WORKOUT, scheduledWorkoutId, userId, scheduledWorkoutRepository::findOwnerIdByScheduledWorkoutId);
+    }
+
+    public void forgetGoal(Long goalId) {
+        owners.invalidate(new Key(ResourceType.GOAL, goalId));
+    }
+
+    public void forgetWorkoutPlan(Long workoutPlanId) {
+        owners.invalidate(new Key(ResourceType.WORKOUT_PLAN, workoutPlanId));
+    }
+
+    private Access access(ResourceType type, Long id, Long userId, Function<Long, Optional<Long>> ownerLookup) {
+        if (id == null || userId == null) {
+            return Access.NOT_FOUND;
+        }
+
+        Key key = new Key(type, id);
+        Long ownerId = owners.get(key);
+        if (ownerId == null) {
+            //missing rows are not cached, the id may still be created
+            Optional<Long> owner = ownerLookup.apply(id);
+            if (owner.isEmpty()) {
+                return Access.NOT_FOUND;
+            }
+            ownerId = owner.get();
+            owners.put(key, ownerId);
+        }
+        return ownerId.equals(userId) ? Access.OWNED : Access.FORBIDDEN;
+    }
+}
@@ -0,0 +1,232 @@
+package com.marecca.workoutTracker.service;
+
+import com.marecca.workoutTracker.entity.Goal;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * rules that decide which achievements a change earns
+ * milestone rules compare the user's totals before and after the change and award every threshold crossed,
+ * so a workout never has to look at the user's whole history
+ */
+@Component
+public class AchievementRules {
+
+    public static final String COMPLETED_WORKOUT = "COMPLETED_WORKOUT";
+    public static final String WORKOUT_MILESTONE = "WORKOUT_MILESTONE";
+    public static final String STREAK_RECORD = "STREAK_RECORD";
+    public static final String CALORIES_MILESTONE = "CALORIES_MILESTONE";
+    public static final String COMPLETED_GOAL = "COMPLETED_GOAL";
+
+    private static final int COMPLETED_WORKOUT_POINTS = 25;
+    //points of a milestone grow with its level
+    private static final int MILESTONE_POINTS_PER_LEVEL = 50;
+
+    public enum Metric {
+        COMPLETED_WORKOUTS,
+        LONGEST_STREAK,
+        TOTAL_CALORIES
+    }
+
+    /**
+     * totals of a user the milestone rules are evaluated against
+     */
+    @lombok.Value
+    public static class Progress {
+        long completedWorkouts;
+        long longestStreak;
+        long totalCalories;
+
+        long get(Metric metric) {
+            switch (metric) {
+                case COMPLETED_WORKOUTS:
+                    return completedWorkouts;
+                case LONGEST_STREAK:
+                    return longestStreak;
+                default:
+                    return totalCalories;
+            }
+        }
+    }
+
+    @lombok.Value
+    private static class MilestoneRule {
+        Metric metric;
+        String type;
+        String keyPrefix;
+        long[] thresholds;
+        String title;
+        String description;
+        String icon;
+    }
+
+    private static final List<MilestoneRule> MILESTONE_RULES = List.of(
+            new MilestoneRule(Metric.COMPLETED_WORKOUTS, WORKOUT_MILESTONE, "workouts_",
+                    new long[]{5, 10, 25, 50, 100, 250, 500, 1000},
+                    "%d Workouts Completed!", "You have completed %d workouts", "🏋️"),
+            new MilestoneRule(Metric.LONGEST_STREAK, STREAK_RECORD, "streak_",
+                    new long[]{3, 7, 14, 30, 60, 100, 365},
+                    "%d Day Streak!", "You worked out %d days in a row", "🔥"),
+            new MilestoneRule(Metric.TOTAL_CALORIES, CALORIES_MILESTONE, "calories_",
+                    new long[]{1000, 5000, 10000, 25000, 50000, 100000},
+                    "%d Calories Burned!", "You have burned %d calories in your workouts", "⚡")
+    );
+
+    @lombok.Builder
+    @lombok.Data
+    public static class Award {
+        private String type;
+        private String key;
+        private String title;
+        private String description;
+        private String icon;
+        private int points;
+        private Long sourceId;
+        private String details;
+        private LocalDateTime achievedAt;
+    }
+
+    public Award completedWorkout(Long scheduledWorkoutId, Integer durationMinutes, LocalDateTime achievedAt) {
+        return Award.builder()
+                .type(COMPLETED_WORKOUT)
+                .key(workoutKey(scheduledWorkoutId))
+                .title("Workout Completed!")
+                .description("You completed a " +
+                        (durationMinutes != null ? durationMinutes + " minute " : "") +
+                        "workout session")
+                .icon("🏆")
+                .points(COMPLETED_WORKOUT_POINTS)
+                .sourceId(scheduledWorkoutId)
+                .achievedAt(achievedAt)
+                .build();
+    }
+
+    /**
+     * milestones crossed between the two totals, lowest first
+     */
+    public List<Award> milestonesReached(Progress before, Progress after, Long sourceId, LocalDateTime achievedAt) {
+        List<Award> awards = new ArrayList<>();
+        for (MilestoneRule rule : MILESTONE_RULES) {
+            long from = before.get(rule.getMetric());
+            long to = after.get(rule.getMetric());
+            long[] thresholds = rule.getThresholds();
+            for (int level = 0; level < thresholds.length; level++) {
+                long threshold = thresholds[level];
+                if (threshold > from && threshold <= to) {
+                    awards.add(Award.builder()
+                            .type(rule.getType())
+                            .key(rule.getKeyPrefix() + threshold)
+                            .title(String.format(rule.getTitle(), threshold))
+                            .description(String.format(rule.getDescription(), threshold))
+                            .icon(rule.getIcon())
+                            .points(MILESTONE_POINTS_PER_LEVEL * (level + 1))
+                            .sourceId(sourceId)
+                            .achievedAt(achievedAt)
+                            .build());
+                }
+            }
+        }
+        return awards;
+    }
+
+    /**
+     * @param details JSON snapshot of the goal, shown as originalGoal
+     */
+    public Award completedGoal(Goal goal, String details) {
+        return Award.builder()
+                .type(COMPLETED_GOAL)
+                .key(goalKey(goal.getGoalId()))
+                .title(goalTitle(goal))
+                .description(goalDescription(goal))
+                .icon(goalIcon(goal.getGoalType()))
+                .points(goalPoints(goal))
+                .sourceId(goal.getGoalId())
+                .details(details)
+                .achievedAt(goal.getCompletedAt() != null ? goal.getCompletedAt() : LocalDateTime.now())
+                .build();
+    }
+
+    public static String workoutKey(Long scheduledWorkoutId) {
+        return "workout_" + scheduledWorkoutId;
+    }
+
+    public static String goalKey(Long goalId) {
+        return "goal_" + goalId;
+    }
+
+    private String goalTitle(Goal goal) {
+        String goalTypeValue = goal.getGoalType().getValue().toLowerCase();
+
+        if (goalTypeValue.contains("lose_weight")) {
+            return "Weight Loss Goal Achieved!";
+        } else if (goalTypeValue.contains("gain_muscle")) {
+            return "Muscle Gain Goal Achieved!";
+        } else if (goalTypeValue.contains("maintain_health")) {
+            return "Health Maintenance Goal Achieved!";
+        } else {
+            return "Goal Completed!";
+        }
+    }
+
+    private String goalDescription(Goal goal) {
+        String goalTypeValue = goal.getGoalType().getValue().toLowerCase();
+        StringBuilder description = new StringBuilder();
+
+        if (goalTypeValue.contains("lose_weight") && goal.getTargetWeightLoss() != null && goal.getTargetWeightLoss().compareTo(BigDecimal.ZERO) > 0) {
+            description.append("You lost ").append(goal.getTargetWeightLoss()).append(" kg");
+        } else if (goalTypeValue.contains("gain_muscle") && goal.getTargetWeightGain() != null && goal.getTargetWeightGain().compareTo(BigDecimal.ZERO) > 0) {
+            description.append("You gained ").append(goal.getTargetWeightGain()).append(" kg of muscle");
+        } else if (goalTypeValue.contains("maintain_health")) {
+            description.append("You successfully maintained your health goals");
+        } else {
+            description.append("You achieved your fitness goal");
+        }
+
+        if (goal.getTimeframeMonths() != null) {
+            String months = goal.getTimeframeMonths() == 1 ? "month" : "months";
+            description.append(" in ").append(goal.getTimeframeMonths()).append(" ").append(months);
+        }
+
+        description.append("!");
+        return description.toString();
+    }
+
+    private String goalIcon(Goal.GoalType goalType) {
+        String goalTypeValue = goalType.getValue().toLowerCase();
+
+        if (goalTypeValue.contains("lose_weight")) {
+            return "🎯";
+        } else if (goalTypeValue.contains("gain_muscle")) {
+            return "💪";
+        } else if (goalTypeValue.contains("maintain_health")) {
+            return "⚖️";
+        } else {
+            return "🏆";
+        }
+    }
+
+    /**
+     * points based on goal difficulty
+     */
+    private int goalPoints(Goal goal) {
+        int basePoints = 100;
+
+        if (goal.getTargetWeightLoss() != null) {
+            basePoints += goal.getTargetWeightLoss().intValue() * 10;
+        }
+        if (goal.getTargetWeightGain() != null) {
+            basePoints += goal.getTargetWeightGain().intValue() * 10;
+        }
+
+        // Points based on duration
+        if (goal.getTimeframeMonths() != null) {
+            basePoints += Math.max(0, (12 - goal.getTimeframeMonths()) * 5); // More points for faster goals
+        }
+
+        return basePoints;
+    }
+}
@@ -0,0 +1,298 @@
+package com.marecca.workoutTracker.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.marecca.workoutTracker.entity.Goal;
+import com.marecca.workoutTracker.entity.ScheduledWorkout;
+import com.marecca.workoutTracker.entity.UserAchievement;
+import com.marecca.workoutTracker.entity.UserAchievementProgress;
+import com.marecca.workoutTracker.entity.UserWorkoutStreak;
+import com.marecca.workoutTracker.repository.GoalRepository;
+import com.marecca.workoutTracker.repository.ScheduledWorkoutRepository;
+import com.marecca.workoutTracker.repository.UserAchievementProgressRepository;
+import com.marecca.workoutTracker.repository.UserAchievementRepository;
+import com.marecca.workoutTracker.repository.UserRepository;
+import com.marecca.workoutTracker.repository.UserWorkoutStreakRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * stores the achievements earned by the AchievementRules and serves them
+ * workout achievements are awarded from the COMPLETED outbox event (AchievementSubscriber), goal achievements
+ * when the goal is completed, reads are one indexed page of user_achievements
+ */
+@Service
+@RequiredArgsConstructor
+@Transactional
+@Slf4j
+public class AchievementService {
+
+    public static final int MAX_PAGE_SIZE = 200;
+    private static final int REBUILD_PAGE_SIZE = 500;
+
+    private final UserAchievementRepository achievementRepository;
+    private final UserAchievementProgressRepository progressRepository;
+    private final ScheduledWorkoutRepository scheduledWorkoutRepository;
+    private final UserWorkoutStreakRepository streakRepository;
+    private final GoalRepository goalRepository;
+    private final UserRepository userRepository;
+    private final AchievementRules achievementRules;
+    private final ObjectMapper objectMapper;
+
+    /**
+     * awards the completed workout and every milestone it crossed, returns the number of new achievements
+     * the user's totals are updated in the same transaction, the first workout seen for a user
+     * initializes them from the completed workouts this subscriber has already applied
+     */
+    public int onWorkoutCompleted(Long userId, Long scheduledWorkoutId) {
+        ScheduledWorkout workout = scheduledWorkoutRepository.findById(scheduledWorkoutId).orElse(null);
+        if (workout == null) {
+            //deleted since, nothing left to award
+            return 0;
+        }
+        LocalDateTime achievedAt = workout.getActualEndTime() != null ? workout.getActualEndTime() : LocalDateTime.now();
+        long calories = workout.getCaloriesBurned() != null ? workout.getCaloriesBurned() : 0;
+
+        UserAchievementProgress progress = progressRepository.findById(userId).orElse(null);
+        AchievementRules.Progress before;
+        if (progress == null) {
+            //totals of the workouts already applied plus this one, later completions still have their event pending
+            List<Object[]> rows = scheduledWorkoutRepository.getAppliedWorkoutTotals(
+                    userId, scheduledWorkoutId, AchievementSubscriber.NAME);
+            Object[] totals = rows.isEmpty() ? new Object[2] : rows.get(0);
+            long completed = totals[0] != null ? ((Number) totals[0]).longValue() : 0;
+            long totalCalories = totals[1] != null ? ((Number) totals[1]).longValue() : 0;
+            before = new AchievementRules.Progress(Math.max(0, completed - 1), 0, Math.max(0, totalCalories - calories));
+            progress = UserAchievementProgress.builder()
+                    .userId(userId)
+                    .completedWorkouts((int) completed)
+                    .totalCalories(totalCalories)
+                    .build();
+        } else {
+            before = toProgress(progress);
+            progress.setCompletedWorkouts(progress.getCompletedWorkouts() + 1);
+            progress.setTotalCalories(progress.getTotalCalories() + calories);
+        }
+        //the streak subscriber ran before for this event
+        int longestStreak = streakRepository.findByUserId(userId)
+                .map(UserWorkoutStreak::getLongestStreak)
+                .orElse(0);
+        progress.setLongestStreak(Math.max(progress.getLongestStreak(), longestStreak));
+        progressRepository.save(progress);
+
+        List<AchievementRules.Award> awards = new ArrayList<>();
+        awards.add(achievementRules.completedWorkout(scheduledWorkoutId, workout.getActualDurationMinutes(), achievedAt));
+        awards.addAll(achievementRules.milestonesReached(before, toProgress(progress), scheduledWorkoutId, achievedAt));
+        return award(userId, awards);
+    }
+
+    /**
+     * awards a goal that became completed, takes the achievement back from a goal that no longer is
+     */
+    public void onGoalStatusChanged(Goal goal, Goal.GoalStatus previousStatus) {
+        Long userId = goal.getUser().getUserId();
+        if (goal.getStatus() == Goal.GoalStatus.COMPLETED && previousStatus != Goal.GoalStatus.COMPLETED) {
+            award(userId, List.of(achievementRules.completedGoal(goal, goalSnapshot(goal))));
+        } else if (goal.getStatus() != Goal.GoalStatus.COMPLETED && previousStatus == Goal.GoalStatus.COMPLETED) {
+            achievementRepository.revoke(userId, AchievementRules.goalKey(goal.getGoalId()));
+        }
+    }
+
+    public void onGoalDeleted(Long userId, Long goalId) {
+        achievementRepository.revoke(userId, AchievementRules.goalKey(goalId));
+    }
+
+    /**
+     * achievements earned since the given time except completed goals (served by getCompletedGoalAchievements), most recent first
+     */
+    @Transactional(readOnly = true)
+    public List<Map<String, Object>> getRecentAchievements(Long userId, LocalDateTime since, int page, int size) {
+        List<UserAchievement> achievements = achievementRepository.findRecent(
+                userId, since, AchievementRules.COMPLETED_GOAL, pageRequest(page, size));
+        List<Map<String, Object>> result = new ArrayList<>(achievements.size());
+        for (UserAchievement achievement : achievements) {
+            result.add(toResponse(achievement));
+        }
+        return result;
+    }
+
+    /**
+     * goals completed since the given time, most recent first
+     */
+    @Transactional(readOnly = true)
+    public List<Map<String, Object>> getCompletedGoalAchievements(Long userId, LocalDateTime since, int page, int size) {
+        List<UserAchievement> achievements = achievementRepository.findRecentByType(
+                userId, AchievementRules.COMPLETED_GOAL, since, pageRequest(page, size));
+        List<Map<String, Object>> result = new ArrayList<>(achievements.size());
+        for (UserAchievement achievement : achievements) {
+            result.add(toGoalResponse(achievement));
+        }
+        return result;
+    }
+
+    /**
+     * recomputes the achievements and totals of a user, or of every active user when userId is null
+     * @return number of achievements written
+     */
+    public int rebuild(Long userId) {
+        if (userId != null) {
+            return rebuildUser(userId);
+        }
+        int written = 0;
+        long afterUserId = 0;
+        List<Long> userIds;
+        while (!(userIds = userRepository.findActiveUserIdsAfter(afterUserId, PageRequest.of(0, REBUILD_PAGE_SIZE))).isEmpty()) {
+            for (Long id : userIds) {
+                written += rebuildUser(id);
+            }
+            afterUserId = userIds.get(userIds.size() - 1);
+        }
+        log.info("Rebuilt achievements of all active users: wrote {} achievements", written);
+        return written;
+    }
+
+    private int rebuildUser(Long userId) {
+        achievementRepository.deleteByUserId(userId);
+        progressRepository.findById(userId).ifPresent(progressRepository::delete);
+        progressRepository.flush();
+
+        List<AchievementRules.Award> awards = new ArrayList<>();
+        AchievementRules.Progress progress = new AchievementRules.Progress(0, 0, 0);
+        LocalDateTime lastWorkoutAt = null;
+        Long lastWorkoutId = null;
+        //id, end time, calories, duration in completion order, workouts with a pending event are added when it is delivered
+        for (Object[] row : scheduledWorkoutRepository.findCompletedWorkoutFacts(userId, AchievementSubscriber.NAME)) {
+            Long workoutId = ((Number) row[0]).longValue();
+            LocalDateTime achievedAt = row[1] != null ? toLocalDateTime(row[1]) : LocalDateTime.now();
+            long calories = row[2] != null ? ((Number) row[2]).longValue() : 0;
+            Integer duration = row[3] != null ? ((Number) row[3]).intValue() : null;
+
+            AchievementRules.Progress next = new AchievementRules.Progress(
+                    progress.getCompletedWorkouts() + 1, 0, progress.getTotalCalories() + calories);
+            awards.add(achievementRules.completedWorkout(workoutId, duration, achievedAt));
+            awards.addAll(achievementRules.milestonesReached(progress, next, workoutId, achievedAt));
+            progress = next;
+            lastWorkoutAt = achievedAt;
+            lastWorkoutId = workoutId;
+        }
+
+        //the streak history is not kept, its milestones are dated with the last workout
+        int longestStreak = streakRepository.findByUserId(userId).map(UserWorkoutStreak::getLongestStreak).orElse(0);
+        if (longestStreak > 0) {
+            AchievementRules.Progress withStreak = new AchievementRules.Progress(
+                    progress.getCompletedWorkouts(), longestStreak, progress.getTotalCalories());
+            awards.addAll(achievementRules.milestonesReached(progress, withStreak, lastWorkoutId,
+                    lastWorkoutAt != null ? lastWorkoutAt : LocalDateTime.now()));
+        }
+
+        for (Goal goal : goalRepository.findCompletedGoals(userId)) {
+            awards.add(achievementRules.completedGoal(goal, goalSnapshot(goal)));
+        }
+
+        if (progress.getCompletedWorkouts() > 0) {
+            progressRepository.save(UserAchievementProgress.builder()
+                    .userId(userId)
+                    .completedWorkouts((int) progress.getCompletedWorkouts())
+                    .totalCalories(progress.getTotalCalories())
+                    .longestStreak(longestStreak)
+                    .build());
+        }
+        return award(userId, awards);
+    }
+
+    private int award(Long userId, List<AchievementRules.Award> awards) {
+        int awarded = 0;
+        for (AchievementRules.Award award : awards) {
+            awarded += achievementRepository.award(userId, award.getType(), award.getKey(), award.getTitle(),
+                    award.getDescription(), award.getIcon(), award.getPoints(), award.getSourceId(),
+                    award.getDetails(), award.getAchievedAt());
+        }
+        return awarded;
+    }
+
+    private LocalDateTime toLocalDateTime(Object value) {
+        if (value instanceof LocalDateTime) return (LocalDateTime) value;
+        return ((java.sql.Timestamp) value).toLocalDateTime();
+    }
+
+    private AchievementRules.Progress toProgress(UserAchievementProgress progress) {
+        return new AchievementRules.Progress(progress.getCompletedWorkouts(), progress.getLongestStreak(), progress.getTotalCalories());
+    }
+
+    private PageRequest pageRequest(int page, int size) {
+        return PageRequest.of(Math.max(0, page), Math.max(1, Math.min(size, MAX_PAGE_SIZE)));
+    }
+
+    private Map<String, Object> toResponse(UserAchievement achievement) {
+        Map<String, Object> response = new HashMap<>();
+        response.put("id", achievement.getAchievementKey());
+        response.put("type", achievement.getAchievementType());
+        response.put("title", achievement.getTitle());
+        response.put("description", achievement.getDescription());
+        response.put("achievedAt", achievement.getAchievedAt());
+        response.put("points", achievement.getPoints());
+        if (achievement.getIcon() != null) {
+            response.put("icon", achievement.getIcon());
+        }
+        return response;
+    }
+
+    private Map<String, Object> toGoalResponse(UserAchievement achievement) {
+        Map<String, Object> originalGoal = readSnapshot(achievement.getDetails());
+
+        Map<String, Object> response = new HashMap<>();
+        response.put("id", achievement.getSourceId());
+        response.put("type", achievement.getAchievementType());
+        response.put("title", achievement.getTitle());
+        response.put("description", achievement.getDescription());
+        response.put("achievedAt", achievement.getAchievedAt());
+        response.put("goalType", originalGoal.get("goalType"));
+        response.put("originalGoal", originalGoal);
+        response.put("icon", achievement.getIcon());
+        response.put("points", achievement.getPoints());
+        return response;
+    }
+
+    /**
+     * the goal as it was when completed, shown as originalGoal with the achievement
+     */
+    private String goalSnapshot(Goal goal) {
+        Map<String, Object> goalMap = new HashMap<>();
+        goalMap.put("goalId", goal.getGoalId());
+        goalMap.put("goalType", goal.getGoalType().getValue());
+        goalMap.put("targetWeightLoss", goal.getTargetWeightLoss());
+        goalMap.put("targetWeightGain", goal.getTargetWeightGain());
+        goalMap.put("currentWeight", goal.getCurrentWeight());
+        goalMap.put("timeframeMonths", goal.getTimeframeMonths());
+        goalMap.put("status", goal.getStatus().toString());
+        goalMap.put("createdAt", goal.getCreatedAt());
+        goalMap.put("completedAt", goal.getCompletedAt());
+        try {
+            return objectMapper.writeValueAsString(goalMap);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize goal " + goal.getGoalId(), e);
+        }
+    }
+
+    private Map<String, Object> readSnapshot(String details) {
+        if (details == null) {
+            return new HashMap<>();
+        }
+        try {
+            return objectMapper.readValue(details, new TypeReference<Map<String, Object>>() {});
+        } catch (JsonProcessingException e) {
+            log.warn("Could not read achievement details: {}", e.getMessage());
+            return new HashMap<>();
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package com.marecca.workoutTracker.service;
+
+import com.marecca.workoutTracker.entity.WorkoutOutboxEvent;
+import com.marecca.workoutTracker.event.WorkoutEventSubscriber;
+import com.marecca.workoutTracker.event.WorkoutLifecycleEvent;
+import com.marecca.workoutTracker.event.WorkoutProjectionUpdatedEvent;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+/**
+ * awards workout achievements from the COMPLETED outbox events
+ * runs after the WorkoutStreakSubscriber, the streak milestones read the streak it updated
+ */
+@Component
+@Order(2)
+@RequiredArgsConstructor
+public class AchievementSubscriber implements WorkoutEventSubscriber {
+
+    public static final String NAME = "achievements";
+
+    private final AchievementService achievementService;
+    private final ApplicationEventPublisher eventPublisher;
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    @Override
+    public boolean supports(WorkoutLifecycleEvent.Transition transition) {
+        return transition == WorkoutLifecycleEvent.Transition.COMPLETED;
+    }
+
+    @Override
+    public void handle(WorkoutOutboxEvent event) {
+        if (achievementService.onWorkoutCompleted(event.getUserId(), event.getScheduledWorkoutId()) > 0) {
+            eventPublisher.publishEvent(new WorkoutProjectionUpdatedEvent(event.getUserId(), NAME));
+        }
+    }
+}
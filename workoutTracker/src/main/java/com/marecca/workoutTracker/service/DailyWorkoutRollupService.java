@@ -0,0 +1,51 @@
+package com.marecca.workoutTracker.service;
+
+import com.marecca.workoutTracker.repository.ScheduledWorkoutRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * backfill and consistency check of the daily workout rollups
+ * the rollups themselves are kept up to date by trigger_workout_daily_rollup in the database,
+ * the calendar, trends and type breakdown functions read only from them
+ */
+@Service
+@RequiredArgsConstructor
+@Transactional
+@Slf4j
+public class DailyWorkoutRollupService {
+
+    private final ScheduledWorkoutRepository scheduledWorkoutRepository;
+
+    /**
+     * recomputes the rollups from scheduled_workouts
+     * @param userId user to rebuild, or null to rebuild everyone
+     * @return number of daily rows written
+     */
+    public int rebuild(Long userId) {
+        Integer written = scheduledWorkoutRepository.rebuildDailyWorkoutRollups(userId);
+        log.info("Rebuilt daily workout rollups for {}: wrote {} daily rows",
+                userId != null ? "user " + userId : "all users", written);
+        return written != null ? written : 0;
+    }
+
+    /**
+     * compares the rollups with a fresh aggregation of scheduled_workouts
+     * @param userId user to check, or null to check everyone
+     * @return one "rollup:userId:date[:category]" entry per row that is out of sync
+     */
+    @Transactional(readOnly = true)
+    public List<String> findInconsistencies(Long userId) {
+        List<String> mismatches = new ArrayList<>();
+        for (Object[] row : scheduledWorkoutRepository.verifyDailyWorkoutRollups(userId)) {
+            String entry = row[0] + ":" + row[1] + ":" + row[2];
+            mismatches.add(row[3] != null ? entry + ":" + row[3] : entry);
+        }
+        return mismatches;
+    }
+}
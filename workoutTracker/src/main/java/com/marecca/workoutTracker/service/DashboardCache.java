@@ -0,0 +1,87 @@
+package com.marecca.workoutTracker.service;
+
+import com.marecca.workoutTracker.event.WorkoutLifecycleEvent;
+import com.marecca.workoutTracker.event.WorkoutProjectionUpdatedEvent;
+import com.marecca.workoutTracker.util.BoundedTtlCache;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * per user cache of the dashboard views (summary, calendar, trends, breakdown, achievements)
+ * the views only change when a workout changes state, so entries are dropped by the
+ * WorkoutLifecycleEvent of the user once the transaction committed, the TTL is only a safety net
+ */
+@Component
+public class DashboardCache {
+
+    private final BoundedTtlCache<Key, Object> cache;
+
+    //bumped by every invalidation, a value loaded while it moved may be stale and is not stored
+    private final AtomicLong generation = new AtomicLong();
+
+    @lombok.Value
+    public static class Key {
+        Long userId;
+        String view;
+        List<Object> parameters;
+    }
+
+    @Autowired
+    public DashboardCache(@Value("${dashboard.cache.max-size:2000}") int maxSize,
+                          @Value("${dashboard.cache.ttl-minutes:10}") long ttlMinutes,
+                          MeterRegistry meterRegistry) {
+        this.cache = new BoundedTtlCache<>(maxSize, Duration.ofMinutes(ttlMinutes));
+        this.cache.registerMetrics(meterRegistry, "dashboard");
+    }
+
+    /**
+     * cached view or the loader's result, which is cached unless the loader throws
+     * the parameters (dates, period...) are part of the key
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T get(Long userId, String view, Supplier<T> loader, Object... parameters) {
+        Key key = new Key(userId, view, Collections.unmodifiableList(Arrays.asList(parameters)));
+        Object cached = cache.get(key);
+        if (cached != null) {
+            return (T) cached;
+        }
+
+        long loadedAt = generation.get();
+        T value = loader.get();
+        if (value != null && generation.get() == loadedAt) {
+            cache.put(key, value);
+        }
+        return value;
+    }
+
+    public void invalidateUser(Long userId) {
+        if (userId != null) {
+            generation.incrementAndGet();
+            cache.invalidateIf(key -> userId.equals(key.getUserId()));
+        }
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onWorkoutLifecycleEvent(WorkoutLifecycleEvent event) {
+        invalidateUser(event.getUserId());
+    }
+
+    /**
+     * the streak and other derived data change a little after the workout, when the outbox delivered it
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onWorkoutProjectionUpdated(WorkoutProjectionUpdatedEvent event) {
+        invalidateUser(event.getUserId());
+    }
+}
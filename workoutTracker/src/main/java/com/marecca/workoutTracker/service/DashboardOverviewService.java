@@ -0,0 +1,155 @@
+package com.marecca.workoutTracker.service;
+
+import com.marecca.workoutTracker.dto.*;
+import com.marecca.workoutTracker.util.WorkerThreads;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.function.Supplier;
+
+/**
+ * builds the whole dashboard in one call
+ * the sections are independent, so they run concurrently on a small bounded pool, each with its own timeout,
+ * a section that fails, times out or is rejected (pool and queue full) degrades to empty
+ * the pool is kept small because every running section holds a database connection
+ * a section runs in a read-only transaction with the section timeout, so its queries get a statement timeout,
+ * and a timed out section is interrupted, it does not keep its thread and connection after the overview gave up
+ * with virtual threads every section gets its own thread, the connection limit of the DataSource bounds them
+ */
+@Service
+@Slf4j
+public class DashboardOverviewService {
+
+    private final DashboardService dashboardService;
+    private final Executor dashboardExecutor;
+    private final long sectionTimeoutMs;
+    private final TransactionTemplate sectionTransaction;
+    private final Counter timedOutSections;
+    private final Counter rejectedSections;
+    private final Counter failedSections;
+
+    public DashboardOverviewService(DashboardService dashboardService,
+                                    WorkerThreads workerThreads,
+                                    PlatformTransactionManager transactionManager,
+                                    MeterRegistry meterRegistry,
+                                    @Value("${dashboard.overview.threads:4}") int threads,
+                                    @Value("${dashboard.overview.queue-capacity:100}") int queueCapacity,
+                                    @Value("${dashboard.overview.section-timeout-ms:2000}") long sectionTimeoutMs) {
+        this.dashboardService = dashboardService;
+        this.sectionTimeoutMs = sectionTimeoutMs;
+
+        //transaction timeouts are whole seconds, JPA queries inside get the remaining time as query timeout
+        this.sectionTransaction = new TransactionTemplate(transactionManager);
+        this.sectionTransaction.setReadOnly(true);
+        this.sectionTransaction.setTimeout((int) Math.max(1, (sectionTimeoutMs + 999) / 1000));
+
+        this.timedOutSections = unavailableCounter(meterRegistry, "timeout");
+        this.rejectedSections = unavailableCounter(meterRegistry, "rejected");
+        this.failedSections = unavailableCounter(meterRegistry, "failed");
+
+        if (workerThreads.isVirtual()) {
+            this.dashboardExecutor = workerThreads.perTaskExecutor("dashboard");
+        } else {
+            this.dashboardExecutor = new ThreadPoolExecutor(threads, threads, 60L, TimeUnit.SECONDS,
+                    new ArrayBlockingQueue<>(queueCapacity), workerThreads.threadFactory("dashboard"),
+                    new ThreadPoolExecutor.AbortPolicy());
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (dashboardExecutor instanceof ExecutorService executorService) {
+            executorService.shutdownNow();
+        }
+    }
+
+    public DashboardOverviewDTO getOverview(Long userId, LocalDate calendarStart, LocalDate calendarEnd,
+                                            String trendPeriod, LocalDate trendStart, LocalDate trendEnd,
+                                            LocalDate typesStart, LocalDate typesEnd, int achievementsDaysBack) {
+        List<String> unavailable = Collections.synchronizedList(new ArrayList<>());
+
+        CompletableFuture<DashboardSummaryDTO> summary = section("summary", unavailable,
+                () -> dashboardService.getDashboardSummary(userId), null);
+        CompletableFuture<List<WorkoutCalendarDTO>> calendar = section("calendar", unavailable,
+                () -> dashboardService.getWorkoutCalendar(userId, calendarStart, calendarEnd), List.of());
+        CompletableFuture<List<WorkoutTrendDTO>> trends = section("trends", unavailable,
+                () -> dashboardService.getWorkoutTrends(userId, trendPeriod, trendStart, trendEnd), List.of());
+        CompletableFuture<List<WorkoutTypeBreakdownDTO>> workoutTypes = section("workoutTypes", unavailable,
+                () -> dashboardService.getWorkoutTypeBreakdown(userId, typesStart, typesEnd), List.of());
+        CompletableFuture<List<Map<String, Object>>> achievements = section("achievements", unavailable,
+                () -> dashboardService.getRecentAchievements(userId, achievementsDaysBack), List.of());
+
+        CompletableFuture.allOf(summary, calendar, trends, workoutTypes, achievements).join();
+
+        DashboardSummaryDTO summaryValue = summary.join();
+        List<String> unavailableSections = new ArrayList<>(unavailable);
+        Collections.sort(unavailableSections);
+
+        return DashboardOverviewDTO.builder()
+                .summary(summaryValue != null ? summaryValue : dashboardService.emptySummary())
+                .calendar(calendar.join())
+                .trends(trends.join())
+                .workoutTypes(workoutTypes.join())
+                .achievements(achievements.join())
+                .unavailableSections(unavailableSections)
+                .build();
+    }
+
+    /**
+     * runs one section on the executor, never completes exceptionally
+     */
+    private <T> CompletableFuture<T> section(String name, List<String> unavailable, Supplier<T> loader, T fallback) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        FutureTask<Void> task = new FutureTask<>(() -> {
+            try {
+                result.complete(sectionTransaction.execute(status -> loader.get()));
+            } catch (Throwable e) {
+                result.completeExceptionally(e);
+            }
+        }, null);
+        try {
+            dashboardExecutor.execute(task);
+        } catch (RejectedExecutionException e) {
+            //pool and queue full
+            log.warn("Dashboard section {} rejected, executor saturated", name);
+            rejectedSections.increment();
+            unavailable.add(name);
+            return CompletableFuture.completedFuture(fallback);
+        }
+        return result
+                .orTimeout(sectionTimeoutMs, TimeUnit.MILLISECONDS)
+                .exceptionally(e -> {
+                    Throwable cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+                    if (cause instanceof TimeoutException) {
+                        //interrupts the section if it is running, a section still queued is skipped when it comes up
+                        task.cancel(true);
+                        log.warn("Dashboard section {} timed out after {}ms", name, sectionTimeoutMs);
+                        timedOutSections.increment();
+                    } else {
+                        log.warn("Dashboard section {} unavailable: {}", name, cause.toString());
+                        failedSections.increment();
+                    }
+                    unavailable.add(name);
+                    return fallback;
+                });
+    }
+
+    private static Counter unavailableCounter(MeterRegistry meterRegistry, String reason) {
+        return Counter.builder("dashboard.overview.sections.unavailable")
+                .description("Overview sections returned empty")
+                .tag("reason", reason)
+                .register(meterRegistry);
+    }
+}
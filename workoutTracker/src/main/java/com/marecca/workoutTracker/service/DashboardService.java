@@ -1,9 +1,7 @@
 package com.marecca.workoutTracker.service;
 
 import com.marecca.workoutTracker.dto.*;
-import com.marecca.workoutTracker.entity.UserWorkoutStreak;
 import com.marecca.workoutTracker.repository.ScheduledWorkoutRepository;
-import com.marecca.workoutTracker.repository.UserWorkoutStreakRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
@@ -16,14 +14,22 @@ import java.time.LocalDate;
 import java.time.temporal.TemporalAdjusters;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Optional;
+import java.util.Map;
 
+/**
+ * dashboard views, cached per user in DashboardCache until one of the user's workouts changes state
+ * a view that failed to load falls back to empty values and is not cached
+ */
 @Service
 @RequiredArgsConstructor
+@Slf4j
 public class DashboardService {
 
+    public static final int DEFAULT_ACHIEVEMENTS_PAGE_SIZE = 50;
+
     private final ScheduledWorkoutRepository scheduledWorkoutRepository;
-    private final UserWorkoutStreakRepository userWorkoutStreakRepository;
+    private final DashboardCache dashboardCache;
+    private final AchievementService achievementService;
 
     public DashboardSummaryDTO getDashboardSummary(Long userId) {
         return getDashboardSummary(userId, LocalDate.now());
@@ -31,91 +37,55 @@ public class DashboardService {
 
     /**
      * Get dashboard summary for a specific date
+     * weekly, monthly, lifetime and streak figures come from a single aggregate query
      */
     public DashboardSummaryDTO getDashboardSummary(Long userId, LocalDate currentDate) {
         try {
-            LocalDate weekStart, weekEnd;
-            if (currentDate.getDayOfWeek() == DayOfWeek.SUNDAY) {
-                weekStart = currentDate.minusDays(6);
-                weekEnd = currentDate;
-            } else {
-                weekStart = currentDate.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
-                weekEnd = weekStart.plusDays(6);
-            }
-
-            // Calculate month boundaries
-            LocalDate monthStart = currentDate.with(TemporalAdjusters.firstDayOfMonth());
-            LocalDate monthEnd = currentDate.with(TemporalAdjusters.lastDayOfMonth());
-
-            // Get weekly stats
-            List<Object[]> weeklyResult = scheduledWorkoutRepository.getWorkoutStatsForPeriod(userId, weekStart, weekEnd);
-            Object[] weeklyStats = !weeklyResult.isEmpty() ? weeklyResult.get(0) : new Object[5];
-
-            // Get monthly stats
-            List<Object[]> monthlyResult = scheduledWorkoutRepository.getWorkoutStatsForPeriod(userId, monthStart, monthEnd);
-            Object[] monthlyStats = !monthlyResult.isEmpty() ? monthlyResult.get(0) : new Object[5];
-
-            // Get streak info
-            Optional<UserWorkoutStreak> streakInfo = userWorkoutStreakRepository.findByUserId(userId);
-
-            // Get lifetime stats
-            List<Object[]> lifetimeResult = scheduledWorkoutRepository.getLifetimeWorkoutStats(userId);
-            Object[] lifetimeStats = !lifetimeResult.isEmpty() ? lifetimeResult.get(0) : new Object[5];
-
-            return DashboardSummaryDTO.builder()
-                    // Weekly stats
-                    .weeklyWorkouts(safeCastToInteger(weeklyStats[0]))
-                    .weeklyCalories(safeCastToInteger(weeklyStats[1]))
-                    .weeklyAvgDuration(roundToBigDecimal(weeklyStats[2], 1))
-                    .weeklyAvgRating(roundToBigDecimal(weeklyStats[3], 1))
-                    .weeklyWorkoutDays(safeCastToInteger(weeklyStats[4]))
-
-                    // Monthly stats
-                    .monthlyWorkouts(safeCastToInteger(monthlyStats[0]))
-                    .monthlyCalories(safeCastToInteger(monthlyStats[1]))
-                    .monthlyAvgDuration(roundToBigDecimal(monthlyStats[2], 1))
-                    .monthlyAvgRating(roundToBigDecimal(monthlyStats[3], 1))
-                    .monthlyWorkoutDays(safeCastToInteger(monthlyStats[4]))
-
-                    // Streak info
-                    .currentStreak(streakInfo.map(UserWorkoutStreak::getCurrentStreak).orElse(0))
-                    .longestStreak(streakInfo.map(UserWorkoutStreak::getLongestStreak).orElse(0))
-                    .lastWorkoutDate(streakInfo.map(UserWorkoutStreak::getLastWorkoutDate).orElse(null))
-
-                    // Lifetime stats
-                    .totalWorkouts(safeCastToLong(lifetimeStats[0]))
-                    .totalCalories(safeCastToLong(lifetimeStats[1]))
-                    .totalWorkoutDays(safeCastToLong(lifetimeStats[2]))
-                    .lifetimeAvgDuration(roundToBigDecimal(lifetimeStats[3], 1))
-                    .firstWorkoutDate(safeCastToLocalDate(lifetimeStats[4]))
-                    .build();
-
+            return dashboardCache.get(userId, "summary", () -> loadDashboardSummary(userId, currentDate), currentDate);
         } catch (Exception e) {
             return createEmptyDashboard();
         }
     }
 
+    /**
+     * Quick stats with their own, lighter query
+     */
+    public QuickStatsDTO getQuickStats(Long userId) {
+        LocalDate today = LocalDate.now();
+        try {
+            return dashboardCache.get(userId, "quick-stats", () -> loadQuickStats(userId, today), today);
+        } catch (Exception e) {
+            return QuickStatsDTO.builder()
+                    .weeklyWorkouts(0)
+                    .weeklyCalories(0)
+                    .currentStreak(0)
+                    .totalWorkouts(0L)
+                    .build();
+        }
+    }
+
+    /**
+     * monday to sunday week containing the date
+     */
+    private LocalDate[] getWeekBounds(LocalDate currentDate) {
+        LocalDate weekStart, weekEnd;
+        if (currentDate.getDayOfWeek() == DayOfWeek.SUNDAY) {
+            weekStart = currentDate.minusDays(6);
+            weekEnd = currentDate;
+        } else {
+            weekStart = currentDate.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+            weekEnd = weekStart.plusDays(6);
+        }
+        return new LocalDate[]{weekStart, weekEnd};
+    }
+
     /**
      * method for getting workout calendar
+     * served from user_daily_workout_rollup, one row per day with workouts
      */
     public List<WorkoutCalendarDTO> getWorkoutCalendar(Long userId, LocalDate startDate, LocalDate endDate) {
         try {
-            List<Object[]> result = scheduledWorkoutRepository.getWorkoutCalendar(userId, startDate, endDate);
-            List<WorkoutCalendarDTO> calendar = new ArrayList<>();
-
-            for (Object[] row : result) {
-                calendar.add(WorkoutCalendarDTO.builder()
-                        .workoutDate(safeCastToLocalDate(row[0]))
-                        .workoutCount(safeCastToInteger(row[1]))
-                        .totalCalories(safeCastToInteger(row[2]))
-                        .totalDuration(safeCastToInteger(row[3]))
-                        .avgRating(safeCastToBigDecimal(row[4]))
-                        .intensityLevel(safeCastToInteger(row[5]))
-                        .build());
-            }
-
-            return calendar;
-
+            return dashboardCache.get(userId, "calendar", () -> loadWorkoutCalendar(userId, startDate, endDate), startDate, endDate);
         } catch (Exception e) {
             return new ArrayList<>();
         }
@@ -123,53 +93,157 @@ public class DashboardService {
 
     /**
      * method for getting workout trends
+     * served from user_daily_workout_rollup
      */
     public List<WorkoutTrendDTO> getWorkoutTrends(Long userId, String periodType, LocalDate startDate, LocalDate endDate) {
         try {
-            List<Object[]> result = scheduledWorkoutRepository.getWorkoutTrends(userId, periodType, startDate, endDate);
-            List<WorkoutTrendDTO> trends = new ArrayList<>();
-
-            for (Object[] row : result) {
-                trends.add(WorkoutTrendDTO.builder()
-                        .periodDate(safeCastToLocalDate(row[0]))
-                        .periodLabel(safeCastToString(row[1]))
-                        .workoutCount(safeCastToInteger(row[2]))
-                        .totalCalories(safeCastToInteger(row[3]))
-                        .avgDuration(safeCastToBigDecimal(row[4]))
-                        .avgRating(safeCastToBigDecimal(row[5]))
-                        .build());
-            }
-
-            return trends;
-
+            return dashboardCache.get(userId, "trends", () -> loadWorkoutTrends(userId, periodType, startDate, endDate), periodType, startDate, endDate);
         } catch (Exception e) {
             return new ArrayList<>();
         }
     }
 
+    /**
+     * method for getting the workout type breakdown
+     * served from user_daily_category_rollup
+     */
     public List<WorkoutTypeBreakdownDTO> getWorkoutTypeBreakdown(Long userId, LocalDate startDate, LocalDate endDate) {
         try {
-            List<Object[]> result = scheduledWorkoutRepository.getWorkoutTypeBreakdown(userId, startDate, endDate);
-            List<WorkoutTypeBreakdownDTO> breakdown = new ArrayList<>();
-
-            for (Object[] row : result) {
-                breakdown.add(WorkoutTypeBreakdownDTO.builder()
-                        .category(safeCastToString(row[0]))
-                        .workoutCount(safeCastToInteger(row[1]))
-                        .totalDuration(safeCastToInteger(row[2]))
-                        .totalCalories(safeCastToInteger(row[3]))
-                        .avgRating(safeCastToBigDecimal(row[4]))
-                        .percentage(safeCastToBigDecimal(row[5]))
-                        .build());
-            }
-
-            return breakdown;
+            return dashboardCache.get(userId, "workout-types", () -> loadWorkoutTypeBreakdown(userId, startDate, endDate), startDate, endDate);
+        } catch (Exception e) {
+            return new ArrayList<>();
+        }
+    }
 
+    /**
+     * achievements earned in the last daysBack days, most recent first (first page)
+     */
+    public List<Map<String, Object>> getRecentAchievements(Long userId, int daysBack) {
+        return getRecentAchievements(userId, daysBack, 0, DEFAULT_ACHIEVEMENTS_PAGE_SIZE);
+    }
+
+    /**
+     * one page of the achievements earned in the last daysBack days, most recent first
+     * completed goals are served by the goal achievements endpoint
+     */
+    public List<Map<String, Object>> getRecentAchievements(Long userId, int daysBack, int page, int size) {
+        LocalDate today = LocalDate.now();
+        try {
+            return dashboardCache.get(userId, "achievements",
+                    () -> achievementService.getRecentAchievements(userId, today.minusDays(daysBack).atStartOfDay(), page, size),
+                    today, daysBack, page, size);
         } catch (Exception e) {
+            log.warn("Could not load achievements for user {}: {}", userId, e.getMessage());
             return new ArrayList<>();
         }
     }
 
+    private DashboardSummaryDTO loadDashboardSummary(Long userId, LocalDate currentDate) {
+        LocalDate[] week = getWeekBounds(currentDate);
+
+        // Calculate month boundaries
+        LocalDate monthStart = currentDate.with(TemporalAdjusters.firstDayOfMonth());
+        LocalDate monthEnd = currentDate.with(TemporalAdjusters.lastDayOfMonth());
+
+        List<Object[]> result = scheduledWorkoutRepository.getDashboardAggregates(userId, week[0], week[1], monthStart, monthEnd);
+        Object[] stats = !result.isEmpty() ? result.get(0) : new Object[18];
+
+        return DashboardSummaryDTO.builder()
+                // Weekly stats
+                .weeklyWorkouts(safeCastToInteger(stats[0]))
+                .weeklyCalories(safeCastToInteger(stats[1]))
+                .weeklyAvgDuration(roundToBigDecimal(stats[2], 1))
+                .weeklyAvgRating(roundToBigDecimal(stats[3], 1))
+                .weeklyWorkoutDays(safeCastToInteger(stats[4]))
+
+                // Monthly stats
+                .monthlyWorkouts(safeCastToInteger(stats[5]))
+                .monthlyCalories(safeCastToInteger(stats[6]))
+                .monthlyAvgDuration(roundToBigDecimal(stats[7], 1))
+                .monthlyAvgRating(roundToBigDecimal(stats[8], 1))
+                .monthlyWorkoutDays(safeCastToInteger(stats[9]))
+
+                // Lifetime stats
+                .totalWorkouts(safeCastToLong(stats[10]))
+                .totalCalories(safeCastToLong(stats[11]))
+                .totalWorkoutDays(safeCastToLong(stats[12]))
+                .lifetimeAvgDuration(roundToBigDecimal(stats[13], 1))
+                .firstWorkoutDate(safeCastToLocalDate(stats[14]))
+
+                // Streak info
+                .currentStreak(safeCastToInteger(stats[15]))
+                .longestStreak(safeCastToInteger(stats[16]))
+                .lastWorkoutDate(safeCastToLocalDate(stats[17]))
+                .build();
+    }
+
+    private QuickStatsDTO loadQuickStats(Long userId, LocalDate today) {
+        LocalDate[] week = getWeekBounds(today);
+        List<Object[]> result = scheduledWorkoutRepository.getQuickStatsAggregates(userId, week[0], week[1]);
+        Object[] stats = !result.isEmpty() ? result.get(0) : new Object[4];
+
+        return QuickStatsDTO.builder()
+                .weeklyWorkouts(safeCastToInteger(stats[0]))
+                .weeklyCalories(safeCastToInteger(stats[1]))
+                .totalWorkouts(safeCastToLong(stats[2]))
+                .currentStreak(safeCastToInteger(stats[3]))
+                .build();
+    }
+
+    private List<WorkoutCalendarDTO> loadWorkoutCalendar(Long userId, LocalDate startDate, LocalDate endDate) {
+        List<Object[]> result = scheduledWorkoutRepository.getWorkoutCalendar(userId, startDate, endDate);
+        List<WorkoutCalendarDTO> calendar = new ArrayList<>();
+
+        for (Object[] row : result) {
+            calendar.add(WorkoutCalendarDTO.builder()
+                    .workoutDate(safeCastToLocalDate(row[0]))
+                    .workoutCount(safeCastToInteger(row[1]))
+                    .totalCalories(safeCastToInteger(row[2]))
+                    .totalDuration(safeCastToInteger(row[3]))
+                    .avgRating(safeCastToBigDecimal(row[4]))
+                    .intensityLevel(safeCastToInteger(row[5]))
+                    .build());
+        }
+
+        return calendar;
+    }
+
+    private List<WorkoutTrendDTO> loadWorkoutTrends(Long userId, String periodType, LocalDate startDate, LocalDate endDate) {
+        List<Object[]> result = scheduledWorkoutRepository.getWorkoutTrends(userId, periodType, startDate, endDate);
+        List<WorkoutTrendDTO> trends = new ArrayList<>();
+
+        for (Object[] row : result) {
+            trends.add(WorkoutTrendDTO.builder()
+                    .periodDate(safeCastToLocalDate(row[0]))
+                    .periodLabel(safeCastToString(row[1]))
+                    .workoutCount(safeCastToInteger(row[2]))
+                    .totalCalories(safeCastToInteger(row[3]))
+                    .avgDuration(safeCastToBigDecimal(row[4]))
+                    .avgRating(safeCastToBigDecimal(row[5]))
+                    .build());
+        }
+
+        return trends;
+    }
+
+    private List<WorkoutTypeBreakdownDTO> loadWorkoutTypeBreakdown(Long userId, LocalDate startDate, LocalDate endDate) {
+        List<Object[]> result = scheduledWorkoutRepository.getWorkoutTypeBreakdown(userId, startDate, endDate);
+        List<WorkoutTypeBreakdownDTO> breakdown = new ArrayList<>();
+
+        for (Object[] row : result) {
+            breakdown.add(WorkoutTypeBreakdownDTO.builder()
+                    .category(safeCastToString(row[0]))
+                    .workoutCount(safeCastToInteger(row[1]))
+                    .totalDuration(safeCastToInteger(row[2]))
+                    .totalCalories(safeCastToInteger(row[3]))
+                    .avgRating(safeCastToBigDecimal(row[4]))
+                    .percentage(safeCastToBigDecimal(row[5]))
+                    .build());
+        }
+
+        return breakdown;
+    }
+
     private BigDecimal roundToBigDecimal(Object value, int scale) {
         if (value == null) return BigDecimal.ZERO;
 
@@ -179,6 +253,13 @@ public class DashboardService {
         return bd.setScale(scale, RoundingMode.HALF_UP);
     }
 
+    /**
+     * summary with every figure at zero, used when the summary cannot be loaded
+     */
+    public DashboardSummaryDTO emptySummary() {
+        return createEmptyDashboard();
+    }
+
     private DashboardSummaryDTO createEmptyDashboard() {
         return DashboardSummaryDTO.builder()
                 .weeklyWorkouts(0)
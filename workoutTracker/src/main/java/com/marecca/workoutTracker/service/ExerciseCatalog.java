@@ -0,0 +1,214 @@
+package com.marecca.workoutTracker.service;
+
+import com.marecca.workoutTracker.entity.Exercise;
+import com.marecca.workoutTracker.entity.enums.ExerciseCategoryType;
+import com.marecca.workoutTracker.entity.enums.MuscleGroupType;
+import com.marecca.workoutTracker.repository.ExerciseRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Sort;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * in-memory, immutable snapshot of the exercises table
+ * the table is small and almost never changes, so catalog reads are served from memory
+ * a trigger bumps exercise_catalog_version on every change, the catalog polls that
+ * single row and swaps in a freshly built snapshot when it moves
+ * the Exercise instances are shared between requests and must be treated as read only
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ExerciseCatalog {
+
+    private static final int MAX_DIFFICULTY = 5;
+
+    private final ExerciseRepository exerciseRepository;
+    private final RecommendationScoringEngine scoringEngine;
+
+    private final AtomicReference<Snapshot> current = new AtomicReference<>();
+    //not synchronized, a virtual thread blocked on the database inside a monitor would pin its carrier
+    private final ReentrantLock loadLock = new ReentrantLock();
+
+    /**
+     * one version of the catalog, never modified after construction
+     */
+    public static final class Snapshot {
+        private final long version;
+        private final List<Exercise> exercises;
+        private final Map<Long, Exercise> byId;
+        //index d holds the features of the exercises with difficulty <= d
+        private final List<RecommendationScoringEngine.Features> featuresByMaxDifficulty;
+        private final EnumMap<ExerciseCategoryType, List<Exercise>> byCategory;
+        //bit i is set when exercises.get(i) works the muscle group
+        private final EnumMap<MuscleGroupType, BitSet> primaryMuscleGroups;
+        private final EnumMap<MuscleGroupType, BitSet> secondaryMuscleGroups;
+
+        private Snapshot(long version, List<Exercise> source, RecommendationScoringEngine scoringEngine) {
+            this.version = version;
+            this.exercises = List.copyOf(source);
+
+            Map<Long, Exercise> ids = new HashMap<>(exercises.size() * 2);
+            EnumMap<ExerciseCategoryType, List<Exercise>> categories = new EnumMap<>(ExerciseCategoryType.class);
+            primaryMuscleGroups = new EnumMap<>(MuscleGroupType.class);
+            secondaryMuscleGroups = new EnumMap<>(MuscleGroupType.class);
+
+            for (int i = 0; i < exercises.size(); i++) {
+                Exercise exercise = exercises.get(i);
+                ids.put(exercise.getExerciseId(), exercise);
+                categories.computeIfAbsent(exercise.getCategory(), c -> new ArrayList<>()).add(exercise);
+                if (exercise.getPrimaryMuscleGroup() != null) {
+                    primaryMuscleGroups.computeIfAbsent(exercise.getPrimaryMuscleGroup(), m -> new BitSet()).set(i);
+                }
+                if (exercise.getSecondaryMuscleGroups() != null) {
+                    for (MuscleGroupType muscleGroup : exercise.getSecondaryMuscleGroups()) {
+                        secondaryMuscleGroups.computeIfAbsent(muscleGroup, m -> new BitSet()).set(i);
+                    }
+                }
+            }
+
+            List<RecommendationScoringEngine.Features> features = new ArrayList<>(MAX_DIFFICULTY + 1);
+            for (int maxDifficulty = 0; maxDifficulty <= MAX_DIFFICULTY; maxDifficulty++) {
+                List<Exercise> suitable = new ArrayList<>();
+                for (Exercise exercise : exercises) {
+                    if (exercise.getDifficultyLevel() != null && exercise.getDifficultyLevel() <= maxDifficulty) {
+                        suitable.add(exercise);
+                    }
+                }
+                features.add(scoringEngine.extractFeatures(suitable));
+            }
+
+            categories.replaceAll((category, list) -> List.copyOf(list));
+
+            this.byId = Collections.unmodifiableMap(ids);
+            this.featuresByMaxDifficulty = List.copyOf(features);
+            this.byCategory = categories;
+        }
+
+        public long getVersion() {
+            return version;
+        }
+
+        public List<Exercise> getExercises() {
+            return exercises;
+        }
+    }
+
+    /**
+     * current snapshot, loaded on first use
+     */
+    public Snapshot snapshot() {
+        Snapshot snapshot = current.get();
+        return snapshot != null ? snapshot : initialize();
+    }
+
+    private Snapshot initialize() {
+        loadLock.lock();
+        try {
+            Snapshot snapshot = current.get();
+            return snapshot != null ? snapshot : refresh();
+        } finally {
+            loadLock.unlock();
+        }
+    }
+
+    public long getVersion() {
+        return snapshot().version;
+    }
+
+    /**
+     * an unknown id may be an exercise added after the last poll,
+     * so a miss checks the version once before giving up
+     */
+    public Optional<Exercise> findById(Long exerciseId) {
+        Exercise exercise = snapshot().byId.get(exerciseId);
+        if (exercise == null && exerciseId != null) {
+            refreshIfChanged();
+            exercise = snapshot().byId.get(exerciseId);
+        }
+        return Optional.ofNullable(exercise);
+    }
+
+    public boolean exists(Long exerciseId) {
+        return findById(exerciseId).isPresent();
+    }
+
+    /**
+     * precomputed scoring features for the exercises returned by findByMaxDifficulty
+     */
+    public RecommendationScoringEngine.Features featuresForMaxDifficulty(int maxDifficulty) {
+        return snapshot().featuresByMaxDifficulty.get(clampDifficulty(maxDifficulty));
+    }
+
+    public List<Exercise> findByCategory(ExerciseCategoryType category) {
+        return snapshot().byCategory.getOrDefault(category, List.of());
+    }
+
+    /**
+     * exercises working the muscle group as primary, or also as secondary when includeSecondary is set
+     */
+    public List<Exercise> findByMuscleGroup(MuscleGroupType muscleGroup, boolean includeSecondary) {
+        Snapshot snapshot = snapshot();
+        BitSet matches = new BitSet();
+        BitSet primary = snapshot.primaryMuscleGroups.get(muscleGroup);
+        if (primary != null) {
+            matches.or(primary);
+        }
+        BitSet secondary = snapshot.secondaryMuscleGroups.get(muscleGroup);
+        if (includeSecondary && secondary != null) {
+            matches.or(secondary);
+        }
+
+        List<Exercise> result = new ArrayList<>(matches.cardinality());
+        for (int i = matches.nextSetBit(0); i >= 0; i = matches.nextSetBit(i + 1)) {
+            result.add(snapshot.exercises.get(i));
+        }
+        return result;
+    }
+
+    /**
+     * reloads the catalog from the database and swaps it in atomically
+     */
+    public Snapshot refresh() {
+        loadLock.lock();
+        try {
+            Long version = exerciseRepository.getCatalogVersion();
+            List<Exercise> exercises = exerciseRepository.findAll(Sort.by("exerciseId"));
+
+            Snapshot snapshot = new Snapshot(version != null ? version : 0L, exercises, scoringEngine);
+            current.set(snapshot);
+            log.info("Loaded exercise catalog version {} with {} exercises", snapshot.version, exercises.size());
+            return snapshot;
+        } finally {
+            loadLock.unlock();
+        }
+    }
+
+    /**
+     * reloads the catalog when the version in the database moved
+     */
+    @Scheduled(fixedDelayString = "${exercise.catalog.refresh-interval-ms:60000}")
+    public void refreshIfChanged() {
+        Snapshot snapshot = current.get();
+        if (snapshot == null) {
+            return;
+        }
+        try {
+            Long version = exerciseRepository.getCatalogVersion();
+            if (version != null && version != snapshot.version) {
+                refresh();
+            }
+        } catch (Exception e) {
+            log.warn("Could not check exercise catalog version: {}", e.getMessage());
+        }
+    }
+
+    private int clampDifficulty(int maxDifficulty) {
+        return Math.max(0, Math.min(MAX_DIFFICULTY, maxDifficulty));
+    }
+}
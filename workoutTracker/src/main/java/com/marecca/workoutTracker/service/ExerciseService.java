@@ -7,13 +7,17 @@ import com.marecca.workoutTracker.repository.ExerciseRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.util.StringUtils;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
 import java.util.Optional;
 
@@ -24,13 +28,14 @@ import java.util.Optional;
 public class ExerciseService {
 
     private final ExerciseRepository exerciseRepository;
+    private final ExerciseCatalog exerciseCatalog;
 
     /**
-     * finds exercise by id
+     * finds exercise by id, from the in-memory catalog
      */
     @Transactional(readOnly = true)
     public Optional<Exercise> findById(Long exerciseId) {
-        return exerciseRepository.findById(exerciseId);
+        return exerciseCatalog.findById(exerciseId);
     }
 
 
@@ -42,13 +47,21 @@ public class ExerciseService {
 
     @Transactional(readOnly = true)
     public Page<Exercise> findByCategory(ExerciseCategoryType category, Pageable pageable) {
-        return exerciseRepository.findByCategory(category, pageable);
+        Comparator<Exercise> order = catalogOrder(pageable.getSort());
+        if (order == null) {
+            return exerciseRepository.findByCategory(category, pageable);
+        }
+        return page(exerciseCatalog.findByCategory(category), order, pageable);
     }
 
 
     @Transactional(readOnly = true)
     public Page<Exercise> findByPrimaryMuscleGroup(MuscleGroupType muscleGroup, Pageable pageable) {
-        return exerciseRepository.findByPrimaryMuscleGroup(muscleGroup, pageable);
+        Comparator<Exercise> order = catalogOrder(pageable.getSort());
+        if (order == null) {
+            return exerciseRepository.findByPrimaryMuscleGroup(muscleGroup, pageable);
+        }
+        return page(exerciseCatalog.findByMuscleGroup(muscleGroup, false), order, pageable);
     }
 
     /**
@@ -56,7 +69,7 @@ public class ExerciseService {
      */
     @Transactional(readOnly = true)
     public List<Exercise> findByAnyMuscleGroup(MuscleGroupType muscleGroup) {
-        return exerciseRepository.findByAnyMuscleGroup(muscleGroup.name());
+        return exerciseCatalog.findByMuscleGroup(muscleGroup, true);
     }
 
     @Transactional(readOnly = true)
@@ -66,4 +79,42 @@ public class ExerciseService {
         }
         return exerciseRepository.findByExerciseNameContainingIgnoreCase(keyword.trim());
     }
-}
\ No newline at end of file
+
+    /**
+     * order of the catalog lists for sorts by name or id, null for any other sort (served by the database)
+     * ties are broken by id so pages are stable
+     */
+    private static Comparator<Exercise> catalogOrder(Sort sort) {
+        Comparator<Exercise> order = null;
+        for (Sort.Order sortOrder : sort) {
+            Comparator<Exercise> next;
+            switch (sortOrder.getProperty()) {
+                case "exerciseName":
+                    next = Comparator.comparing(Exercise::getExerciseName, Comparator.nullsLast(Comparator.naturalOrder()));
+                    break;
+                case "exerciseId":
+                    next = Comparator.comparing(Exercise::getExerciseId);
+                    break;
+                default:
+                    return null;
+            }
+            if (sortOrder.isDescending()) {
+                next = next.reversed();
+            }
+            order = order == null ? next : order.thenComparing(next);
+        }
+        Comparator<Exercise> byId = Comparator.comparing(Exercise::getExerciseId);
+        return order == null ? byId : order.thenComparing(byId);
+    }
+
+    private static Page<Exercise> page(List<Exercise> exercises, Comparator<Exercise> order, Pageable pageable) {
+        List<Exercise> sorted = new ArrayList<>(exercises);
+        sorted.sort(order);
+        if (pageable.isUnpaged()) {
+            return new PageImpl<>(sorted);
+        }
+        int from = (int) Math.min(pageable.getOffset(), sorted.size());
+        int to = Math.min(from + pageable.getPageSize(), sorted.size());
+        return new PageImpl<>(sorted.subList(from, to), pageable, sorted.size());
+    }
+}
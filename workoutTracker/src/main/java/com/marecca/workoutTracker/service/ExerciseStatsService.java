@@ -0,0 +1,98 @@
+package com.marecca.workoutTracker.service;
+
+import com.marecca.workoutTracker.dto.ExerciseStats;
+import com.marecca.workoutTracker.entity.UserExerciseStats;
+import com.marecca.workoutTracker.repository.UserExerciseStatsRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * maintains the user_exercise_stats rollup used by workout recommendations
+ */
+@Service
+@RequiredArgsConstructor
+@Transactional
+@Slf4j
+public class ExerciseStatsService {
+
+    private final UserExerciseStatsRepository userExerciseStatsRepository;
+
+    /**
+     * adds the logs of a workout that just moved to COMPLETED to the rollup
+     */
+    public void recordCompletedWorkout(Long scheduledWorkoutId) {
+        userExerciseStatsRepository.applyCompletedWorkout(scheduledWorkoutId);
+    }
+
+    /**
+     * stats for every exercise the user has completed, keyed by exercise id
+     * weight is averaged over all completed logs, reps/sets/difficulty only over non-null values
+     */
+    @Transactional(readOnly = true)
+    public Map<Long, ExerciseStats> getStatsForUser(Long userId) {
+        List<UserExerciseStats> rows = userExerciseStatsRepository.findByUserId(userId);
+        Map<Long, ExerciseStats> statsByExercise = new HashMap<>(rows.size() * 2);
+
+        for (UserExerciseStats row : rows) {
+            int timesPerformed = row.getTimesPerformed() != null ? row.getTimesPerformed() : 0;
+            ExerciseStats stats = new ExerciseStats();
+            stats.setTimesPerformed(timesPerformed);
+
+            if (timesPerformed > 0) {
+                BigDecimal weightSum = row.getWeightSum() != null ? row.getWeightSum() : BigDecimal.ZERO;
+                stats.setAvgWeightUsed(weightSum.divide(BigDecimal.valueOf(timesPerformed), 2, RoundingMode.HALF_UP));
+                stats.setAvgReps(average(row.getRepsSum(), row.getRepsCount(), 0.0));
+                stats.setAvgSets(average(row.getSetsSum(), row.getSetsCount(), 0.0));
+                stats.setAvgDifficulty(average(row.getDifficultySum(), row.getDifficultyCount(), 3.0)); //default difficulty 3
+            }
+
+            stats.setLastPerformedAt(row.getLastPerformedAt());
+            statsByExercise.put(row.getExerciseId(), stats);
+        }
+
+        return statsByExercise;
+    }
+
+    /**
+     * regenerates the rollup from workout history
+     * @param userId user to rebuild, or null to rebuild everyone
+     * @return number of rollup rows written
+     */
+    public int rebuild(Long userId) {
+        int removed = userExerciseStatsRepository.deleteForUser(userId);
+        int written = userExerciseStatsRepository.rebuildFromHistory(userId);
+        log.info("Rebuilt user_exercise_stats for {}: removed {} rows, wrote {} rows",
+                userId != null ? "user " + userId : "all users", removed, written);
+        return written;
+    }
+
+    /**
+     * compares the rollup with the log table
+     * @param userId user to check, or null to check everyone
+     * @return one "userId:exerciseId" entry per row that is out of sync
+     */
+    @Transactional(readOnly = true)
+    public List<String> findInconsistencies(Long userId) {
+        List<String> mismatches = new ArrayList<>();
+        for (Object[] row : userExerciseStatsRepository.findInconsistentStats(userId)) {
+            mismatches.add(row[0] + ":" + row[1]);
+        }
+        return mismatches;
+    }
+
+    private double average(Long sum, Integer count, double defaultValue) {
+        if (sum == null || count == null || count == 0) {
+            return defaultValue;
+        }
+        return (double) sum / count;
+    }
+}
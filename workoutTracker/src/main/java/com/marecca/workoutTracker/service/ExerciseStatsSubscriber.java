@@ -0,0 +1,54 @@
+package com.marecca.workoutTracker.service;
+
+import com.marecca.workoutTracker.entity.WorkoutOutboxEvent;
+import com.marecca.workoutTracker.event.WorkoutEventSubscriber;
+import com.marecca.workoutTracker.event.WorkoutLifecycleEvent;
+import com.marecca.workoutTracker.event.WorkoutProjectionUpdatedEvent;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * adds the exercise logs of a completed workout to user_exercise_stats from the COMPLETED outbox events
+ * (this used to run inside the completion write), applying them twice is prevented by the consumption record
+ * recommendations computed from the stats before they moved are dropped once the stats committed
+ */
+@Component
+@Order(3)
+@RequiredArgsConstructor
+public class ExerciseStatsSubscriber implements WorkoutEventSubscriber {
+
+    public static final String NAME = "exercise-stats";
+
+    private final ExerciseStatsService exerciseStatsService;
+    private final PrecomputedRecommendationService precomputedRecommendationService;
+    private final RecommendationCache recommendationCache;
+    private final ApplicationEventPublisher eventPublisher;
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    @Override
+    public boolean supports(WorkoutLifecycleEvent.Transition transition) {
+        return transition == WorkoutLifecycleEvent.Transition.COMPLETED;
+    }
+
+    @Override
+    public void handle(WorkoutOutboxEvent event) {
+        exerciseStatsService.recordCompletedWorkout(event.getScheduledWorkoutId());
+        precomputedRecommendationService.invalidateUser(event.getUserId());
+        eventPublisher.publishEvent(new WorkoutProjectionUpdatedEvent(event.getUserId(), NAME));
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onWorkoutProjectionUpdated(WorkoutProjectionUpdatedEvent event) {
+        if (NAME.equals(event.getProjection())) {
+            recommendationCache.invalidateUser(event.getUserId());
+        }
+    }
+}
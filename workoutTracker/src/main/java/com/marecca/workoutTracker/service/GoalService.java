@@ -4,6 +4,7 @@ import com.marecca.workoutTracker.entity.Goal;
 import com.marecca.workoutTracker.entity.User;
 import com.marecca.workoutTracker.repository.GoalRepository;
 import com.marecca.workoutTracker.repository.UserRepository;
+import com.marecca.workoutTracker.security.OwnershipGuard;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
@@ -23,6 +24,8 @@ public class GoalService {
 
     private final GoalRepository goalRepository;
     private final UserRepository userRepository;
+    private final OwnershipGuard ownershipGuard;
+    private final AchievementService achievementService;
 
     /**
      * Create a new goal for a user
@@ -53,6 +56,14 @@ public class GoalService {
         return goalRepository.findById(goalId);
     }
 
+    /**
+     * the goal when it exists and belongs to the user, in one query
+     */
+    @Transactional(readOnly = true)
+    public Optional<Goal> getUserGoal(Long goalId, Long userId) {
+        return goalRepository.findByGoalIdAndUserId(goalId, userId);
+    }
+
     /**
      * Update goal status
      */
@@ -60,22 +71,26 @@ public class GoalService {
         Goal goal = goalRepository.findById(goalId)
                 .orElseThrow(() -> new RuntimeException("Goal not found with id: " + goalId));
 
+        Goal.GoalStatus previousStatus = goal.getStatus();
         goal.setStatus(status);
         if (status == Goal.GoalStatus.COMPLETED) {
             goal.setCompletedAt(LocalDateTime.now());
         }
 
-        return goalRepository.save(goal);
+        Goal savedGoal = goalRepository.save(goal);
+        achievementService.onGoalStatusChanged(savedGoal, previousStatus);
+        return savedGoal;
     }
 
     /**
      * Delete a goal
      */
     public void deleteGoal(Long goalId) {
-        if (!goalRepository.existsById(goalId)) {
-            throw new RuntimeException("Goal not found with id: " + goalId);
-        }
+        Long userId = goalRepository.findOwnerIdByGoalId(goalId)
+                .orElseThrow(() -> new RuntimeException("Goal not found with id: " + goalId));
         goalRepository.deleteById(goalId);
+        achievementService.onGoalDeleted(userId, goalId);
+        ownershipGuard.forgetGoal(goalId);
     }
 
     /**
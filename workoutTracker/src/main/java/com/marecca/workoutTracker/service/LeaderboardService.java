@@ -0,0 +1,377 @@
+package com.marecca.workoutTracker.service;
+
+import com.marecca.workoutTracker.entity.User;
+import com.marecca.workoutTracker.event.WorkoutLifecycleEvent;
+import com.marecca.workoutTracker.event.WorkoutProjectionUpdatedEvent;
+import com.marecca.workoutTracker.repository.ScheduledWorkoutRepository;
+import com.marecca.workoutTracker.repository.UserRepository;
+import com.marecca.workoutTracker.repository.UserWorkoutStreakRepository;
+import com.marecca.workoutTracker.util.RankedBoard;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.temporal.TemporalAdjusters;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+
+/**
+ * leaderboards of all active users by calories, completed workouts (this week, this month, all time)
+ * and longest streak (all time), kept in memory as ranked boards
+ * the boards are loaded from the daily rollups at startup and again every rebuild-interval (and when a new week
+ * or month starts), in between the user of a completed workout is re-read from the rollups after the commit
+ */
+@Component
+@Slf4j
+public class LeaderboardService {
+
+    public enum Metric {
+        CALORIES,
+        WORKOUTS,
+        STREAK
+    }
+
+    public enum Period {
+        WEEK,
+        MONTH,
+        ALL_TIME
+    }
+
+    @lombok.Builder
+    @lombok.Data
+    public static class Page {
+        private Metric metric;
+        private Period period;
+        //first day of the week or month, null for all time
+        private LocalDate periodStart;
+        private int totalUsers;
+        private List<Entry> entries;
+    }
+
+    @lombok.Builder
+    @lombok.Data
+    public static class Entry {
+        //1 based, users with the same score are ordered by user id
+        private long rank;
+        private Long userId;
+        private String username;
+        private long score;
+    }
+
+    @lombok.Builder
+    @lombok.Data
+    public static class Position {
+        private Metric metric;
+        private Period period;
+        private LocalDate periodStart;
+        //0 when the user is not on the board (no score yet)
+        private long rank;
+        private long score;
+        private int totalUsers;
+    }
+
+    //boards of one week and month, replaced as a whole by a rebuild
+    private static final class Boards {
+        private final LocalDate weekStart;
+        private final LocalDate monthStart;
+        private final Map<Metric, Map<Period, RankedBoard>> boards = new EnumMap<>(Metric.class);
+
+        private Boards(LocalDate weekStart, LocalDate monthStart) {
+            this.weekStart = weekStart;
+            this.monthStart = monthStart;
+        }
+
+        private RankedBoard get(Metric metric, Period period) {
+            return boards.getOrDefault(metric, Map.of()).get(period);
+        }
+
+        private void put(Metric metric, Period period, RankedBoard board) {
+            boards.computeIfAbsent(metric, m -> new EnumMap<>(Period.class)).put(period, board);
+        }
+
+        private boolean isCurrent(LocalDate today) {
+            return weekStart.equals(weekStart(today)) && monthStart.equals(monthStart(today));
+        }
+    }
+
+    public static final int MAX_PAGE_SIZE = 100;
+
+    private final ScheduledWorkoutRepository scheduledWorkoutRepository;
+    private final UserWorkoutStreakRepository userWorkoutStreakRepository;
+    private final UserRepository userRepository;
+
+    private final boolean enabled;
+
+    private volatile Boards boards;
+    private final AtomicBoolean rebuilding = new AtomicBoolean(false);
+    //users re-read while a rebuild was loading, read again once the new boards are in place
+    private final Set<Long> refreshedDuringRebuild = ConcurrentHashMap.newKeySet();
+
+    private final Timer rebuildTimer;
+
+    public LeaderboardService(ScheduledWorkoutRepository scheduledWorkoutRepository,
+                              UserWorkoutStreakRepository userWorkoutStreakRepository,
+                              UserRepository userRepository,
+                              MeterRegistry meterRegistry,
+                              @Value("${leaderboard.enabled:true}") boolean enabled) {
+        this.scheduledWorkoutRepository = scheduledWorkoutRepository;
+        this.userWorkoutStreakRepository = userWorkoutStreakRepository;
+        this.userRepository = userRepository;
+        this.enabled = enabled;
+
+        this.rebuildTimer = Timer.builder("leaderboard.rebuild.duration")
+                .description("Duration of loading all leaderboards from the database")
+                .register(meterRegistry);
+        Gauge.builder("leaderboard.users", this, service -> {
+                    Boards current = service.boards;
+                    return current != null ? current.get(Metric.WORKOUTS, Period.ALL_TIME).size() : 0;
+                })
+                .description("Users on the all time workouts leaderboard")
+                .register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        if (enabled) {
+            rebuild();
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${leaderboard.rebuild-interval-ms:900000}",
+            initialDelayString = "${leaderboard.rebuild-interval-ms:900000}")
+    public void runScheduled() {
+        if (enabled) {
+            rebuild();
+        }
+    }
+
+    /**
+     * page of a leaderboard (0 based), at most MAX_PAGE_SIZE entries
+     */
+    public Page getPage(Metric metric, Period period, int page, int size) {
+        Boards current = currentBoards();
+        RankedBoard board = board(current, metric, period);
+        int limit = Math.min(Math.max(1, size), MAX_PAGE_SIZE);
+        int offset = (int) Math.min((long) Math.max(0, page) * limit, Integer.MAX_VALUE);
+
+        List<RankedBoard.Entry> ranked = board.page(offset, limit);
+        Map<Long, String> usernames = userRepository.findAllById(
+                        ranked.stream().map(RankedBoard.Entry::getMember).collect(Collectors.toList()))
+                .stream()
+                .collect(Collectors.toMap(User::getUserId, User::getUsername));
+
+        List<Entry> entries = ranked.stream()
+                .map(entry -> Entry.builder()
+                        .rank(entry.getRank())
+                        .userId(entry.getMember())
+                        .username(usernames.get(entry.getMember()))
+                        .score(entry.getScore())
+                        .build())
+                .collect(Collectors.toList());
+
+        return Page.builder()
+                .metric(metric)
+                .period(period)
+                .periodStart(periodStart(current, period))
+                .totalUsers(board.size())
+                .entries(entries)
+                .build();
+    }
+
+    public Position getPosition(Metric metric, Period period, Long userId) {
+        Boards current = currentBoards();
+        RankedBoard board = board(current, metric, period);
+
+        return Position.builder()
+                .metric(metric)
+                .period(period)
+                .periodStart(periodStart(current, period))
+                .rank(board.rankOf(userId))
+                .score(board.scoreOf(userId))
+                .totalUsers(board.size())
+                .build();
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onWorkoutLifecycleEvent(WorkoutLifecycleEvent event) {
+        if (event.getTransition() == WorkoutLifecycleEvent.Transition.COMPLETED) {
+            refreshWorkoutTotals(event.getUserId());
+        }
+    }
+
+    /**
+     * the streak is updated by its outbox subscriber, after the workout was completed
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onWorkoutProjectionUpdated(WorkoutProjectionUpdatedEvent event) {
+        if (WorkoutStreakSubscriber.NAME.equals(event.getProjection())) {
+            refreshStreak(event.getUserId());
+        }
+    }
+
+    /**
+     * loads every board from the database and swaps them in
+     * a rebuild already running is not waited for
+     */
+    public void rebuild() {
+        if (!rebuilding.compareAndSet(false, true)) {
+            return;
+        }
+        long started = System.nanoTime();
+        try {
+            LocalDate today = LocalDate.now();
+            Boards loaded = new Boards(weekStart(today), monthStart(today));
+
+            loadWorkoutTotals(loaded, Period.WEEK,
+                    scheduledWorkoutRepository.getWorkoutTotalsPerUser(loaded.weekStart, loaded.weekStart.plusDays(6)));
+            loadWorkoutTotals(loaded, Period.MONTH,
+                    scheduledWorkoutRepository.getWorkoutTotalsPerUser(loaded.monthStart,
+                            loaded.monthStart.with(TemporalAdjusters.lastDayOfMonth())));
+            loadWorkoutTotals(loaded, Period.ALL_TIME,
+                    scheduledWorkoutRepository.getLifetimeWorkoutTotalsPerUser());
+            loaded.put(Metric.STREAK, Period.ALL_TIME,
+                    RankedBoard.of(toScores(userWorkoutStreakRepository.findLongestStreaks())));
+
+            boards = loaded;
+        } catch (Exception e) {
+            log.warn("Leaderboard rebuild failed: {}", e.getMessage());
+        } finally {
+            rebuilding.set(false);
+            rebuildTimer.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+        }
+
+        //changes committed while the rebuild was reading may be missing from the new boards
+        for (Long userId : List.copyOf(refreshedDuringRebuild)) {
+            refreshedDuringRebuild.remove(userId);
+            refreshWorkoutTotals(userId);
+            refreshStreak(userId);
+        }
+    }
+
+    private void refreshWorkoutTotals(Long userId) {
+        Boards current = boards;
+        if (current == null) {
+            return;
+        }
+        if (rebuilding.get()) {
+            refreshedDuringRebuild.add(userId);
+        }
+        try {
+            List<Object[]> rows = scheduledWorkoutRepository.getUserWorkoutTotals(userId,
+                    current.weekStart, current.weekStart.plusDays(6),
+                    current.monthStart, current.monthStart.with(TemporalAdjusters.lastDayOfMonth()));
+            if (rows.isEmpty()) {
+                return;
+            }
+            Object[] row = rows.get(0);
+            current.get(Metric.WORKOUTS, Period.WEEK).set(userId, toLong(row[0]));
+            current.get(Metric.CALORIES, Period.WEEK).set(userId, toLong(row[1]));
+            current.get(Metric.WORKOUTS, Period.MONTH).set(userId, toLong(row[2]));
+            current.get(Metric.CALORIES, Period.MONTH).set(userId, toLong(row[3]));
+            current.get(Metric.WORKOUTS, Period.ALL_TIME).set(userId, toLong(row[4]));
+            current.get(Metric.CALORIES, Period.ALL_TIME).set(userId, toLong(row[5]));
+        } catch (Exception e) {
+            //the next rebuild picks the change up
+            log.warn("Could not update leaderboards for user {}: {}", userId, e.getMessage());
+        }
+    }
+
+    private void refreshStreak(Long userId) {
+        Boards current = boards;
+        if (current == null) {
+            return;
+        }
+        if (rebuilding.get()) {
+            refreshedDuringRebuild.add(userId);
+        }
+        try {
+            userWorkoutStreakRepository.findByUserId(userId).ifPresent(streak ->
+                    current.get(Metric.STREAK, Period.ALL_TIME).set(userId,
+                            streak.getLongestStreak() != null ? streak.getLongestStreak() : 0));
+        } catch (Exception e) {
+            log.warn("Could not update streak leaderboard for user {}: {}", userId, e.getMessage());
+        }
+    }
+
+    private Boards currentBoards() {
+        Boards current = boards;
+        if (current == null || !current.isCurrent(LocalDate.now())) {
+            rebuild();
+            current = boards;
+        }
+        if (current == null) {
+            throw new IllegalStateException("Leaderboards are not loaded yet");
+        }
+        return current;
+    }
+
+    private static RankedBoard board(Boards current, Metric metric, Period period) {
+        RankedBoard board = current.get(metric, period);
+        if (board == null) {
+            throw new IllegalArgumentException("The " + metric.name().toLowerCase()
+                    + " leaderboard is only available for all time");
+        }
+        return board;
+    }
+
+    private static LocalDate periodStart(Boards current, Period period) {
+        switch (period) {
+            case WEEK:
+                return current.weekStart;
+            case MONTH:
+                return current.monthStart;
+            default:
+                return null;
+        }
+    }
+
+    private static void loadWorkoutTotals(Boards loaded, Period period, List<Object[]> rows) {
+        Map<Long, Long> workouts = new HashMap<>();
+        Map<Long, Long> calories = new HashMap<>();
+        for (Object[] row : rows) {
+            Long userId = toLong(row[0]);
+            workouts.put(userId, toLong(row[1]));
+            calories.put(userId, toLong(row[2]));
+        }
+        loaded.put(Metric.WORKOUTS, period, RankedBoard.of(workouts));
+        loaded.put(Metric.CALORIES, period, RankedBoard.of(calories));
+    }
+
+    private static Map<Long, Long> toScores(List<Object[]> rows) {
+        Map<Long, Long> scores = new HashMap<>();
+        for (Object[] row : rows) {
+            scores.put(toLong(row[0]), toLong(row[1]));
+        }
+        return scores;
+    }
+
+    private static long toLong(Object value) {
+        return value != null ? ((Number) value).longValue() : 0;
+    }
+
+    //weeks start on monday, like the weekly trends
+    private static LocalDate weekStart(LocalDate date) {
+        return date.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+    }
+
+    private static LocalDate monthStart(LocalDate date) {
+        return date.withDayOfMonth(1);
+    }
+}
@@ -0,0 +1,113 @@
+package com.marecca.workoutTracker.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * background job that marks overdue planned workouts of every user as MISSED
+ * each batch is one set based update in its own transaction, rows are claimed with
+ * FOR UPDATE SKIP LOCKED so the sweepers of several nodes share the work instead of blocking each other
+ */
+@Component
+@Slf4j
+public class MissedWorkoutSweeper {
+
+    private final ScheduledWorkoutService scheduledWorkoutService;
+
+    private final boolean enabled;
+    private final int batchSize;
+    private final int maxBatches;
+    private final long graceMinutes;
+
+    private final AtomicBoolean running = new AtomicBoolean(false);
+
+    private final Counter sweptCounter;
+    private final DistributionSummary rowsPerRun;
+    private final Timer lagTimer;
+    private final Timer runTimer;
+
+    public MissedWorkoutSweeper(ScheduledWorkoutService scheduledWorkoutService,
+                                MeterRegistry meterRegistry,
+                                @Value("${schedule.missed-sweeper.enabled:true}") boolean enabled,
+                                @Value("${schedule.missed-sweeper.batch-size:500}") int batchSize,
+                                @Value("${schedule.missed-sweeper.max-batches:100}") int maxBatches,
+                                @Value("${schedule.missed-sweeper.grace-minutes:0}") long graceMinutes) {
+        this.scheduledWorkoutService = scheduledWorkoutService;
+        this.enabled = enabled;
+        this.batchSize = Math.max(1, batchSize);
+        this.maxBatches = Math.max(1, maxBatches);
+        this.graceMinutes = Math.max(0, graceMinutes);
+
+        this.sweptCounter = Counter.builder("workouts.missed.swept")
+                .description("Planned workouts marked as missed by the sweeper")
+                .register(meterRegistry);
+        this.rowsPerRun = DistributionSummary.builder("workouts.missed.sweep.rows")
+                .description("Workouts marked as missed per sweep run")
+                .register(meterRegistry);
+        this.lagTimer = Timer.builder("workouts.missed.sweep.lag")
+                .description("Time between a workout becoming overdue and the sweep marking it")
+                .register(meterRegistry);
+        this.runTimer = Timer.builder("workouts.missed.sweep.duration")
+                .description("Duration of a sweep run")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${schedule.missed-sweeper.interval-ms:60000}",
+            initialDelayString = "${schedule.missed-sweeper.initial-delay-ms:30000}")
+    public void runScheduled() {
+        if (enabled) {
+            sweep();
+        }
+    }
+
+    /**
+     * sweeps until no overdue workout is left or max-batches was reached, returns the number of workouts marked
+     */
+    public int sweep() {
+        if (!running.compareAndSet(false, true)) {
+            return 0;
+        }
+        long started = System.nanoTime();
+        int swept = 0;
+        try {
+            for (int batch = 0; batch < maxBatches; batch++) {
+                LocalDateTime now = LocalDateTime.now();
+                List<ScheduledWorkoutService.OverdueWorkout> missed =
+                        scheduledWorkoutService.markOverdueWorkoutsMissed(now.minusMinutes(graceMinutes), batchSize);
+
+                for (ScheduledWorkoutService.OverdueWorkout workout : missed) {
+                    Duration lag = Duration.between(workout.getDueAt(), now);
+                    lagTimer.record(lag.isNegative() ? Duration.ZERO : lag);
+                }
+                swept += missed.size();
+                sweptCounter.increment(missed.size());
+
+                if (missed.size() < batchSize) {
+                    break;
+                }
+            }
+            if (swept > 0) {
+                log.info("Marked {} overdue workouts as missed", swept);
+            }
+        } catch (Exception e) {
+            log.warn("Missed workout sweep stopped after {} workouts: {}", swept, e.getMessage());
+        } finally {
+            rowsPerRun.record(swept);
+            runTimer.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+            running.set(false);
+        }
+        return swept;
+    }
+}
@@ -0,0 +1,85 @@
+package com.marecca.workoutTracker.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.marecca.workoutTracker.dto.WorkoutRecommendationDTO;
+import com.marecca.workoutTracker.entity.PrecomputedRecommendation;
+import com.marecca.workoutTracker.repository.PrecomputedRecommendationRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * reads and writes the recommendations stored by the precompute job
+ * a stored list is only served while it is younger than max-age-hours and was computed
+ * against the current exercise catalog, completing a workout or editing the profile deletes it
+ */
+@Service
+@RequiredArgsConstructor
+@Transactional
+@Slf4j
+public class PrecomputedRecommendationService {
+
+    private static final TypeReference<List<WorkoutRecommendationDTO>> RECOMMENDATION_LIST = new TypeReference<>() {};
+
+    private final PrecomputedRecommendationRepository precomputedRecommendationRepository;
+    private final ExerciseCatalog exerciseCatalog;
+    private final ObjectMapper objectMapper;
+
+    @Value("${recommendation.precompute.max-age-hours:24}")
+    private long maxAgeHours;
+
+    /**
+     * stored recommendations of a user for a goal type, best first, or empty when missing or stale
+     */
+    @Transactional(readOnly = true)
+    public Optional<List<WorkoutRecommendationDTO>> find(Long userId, String goalType) {
+        Optional<PrecomputedRecommendation> stored = precomputedRecommendationRepository.findByUserIdAndGoalType(userId, goalType);
+        if (stored.isEmpty()) {
+            return Optional.empty();
+        }
+
+        PrecomputedRecommendation row = stored.get();
+        if (row.getCatalogVersion() != exerciseCatalog.getVersion()
+                || row.getComputedAt().isBefore(LocalDateTime.now().minusHours(maxAgeHours))) {
+            return Optional.empty();
+        }
+
+        try {
+            return Optional.of(objectMapper.readValue(row.getRecommendations(), RECOMMENDATION_LIST));
+        } catch (JsonProcessingException e) {
+            log.warn("Ignoring unreadable precomputed recommendations for user {} and goal {}: {}", userId, goalType, e.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * stores the recommendations computed at computedAt against the given catalog version
+     */
+    public void store(Long userId, String goalType, List<WorkoutRecommendationDTO> recommendations,
+                      long catalogVersion, LocalDateTime computedAt) {
+        String json;
+        try {
+            json = objectMapper.writeValueAsString(recommendations);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize recommendations for user " + userId, e);
+        }
+        precomputedRecommendationRepository.upsert(userId, goalType, json, recommendations.size(), catalogVersion, computedAt);
+    }
+
+    /**
+     * drops the stored recommendations of a user, e.g. after a completed workout
+     */
+    public void invalidateUser(Long userId) {
+        if (userId != null) {
+            precomputedRecommendationRepository.deleteByUserId(userId);
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package com.marecca.workoutTracker.service;
+
+import com.marecca.workoutTracker.dto.WorkoutRecommendationDTO;
+import com.marecca.workoutTracker.util.BoundedTtlCache;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * cache of computed recommendations
+ * the key holds every input of the calculation that can change, so a new workout,
+ * a new weight or fitness level or a catalog reload simply produce a different key,
+ * explicit invalidation only frees the stale entries early
+ */
+@Component
+public class RecommendationCache {
+
+    private final BoundedTtlCache<Key, List<WorkoutRecommendationDTO>> cache;
+
+    @lombok.Value
+    public static class Key {
+        Long userId;
+        String goalType;
+        int limit;
+        String fitnessLevel;
+        BigDecimal weightKg;
+        //end time of the user's last completed workout
+        LocalDateTime lastCompletedWorkout;
+        long catalogVersion;
+    }
+
+    @Autowired
+    public RecommendationCache(@Value("${recommendation.cache.max-size:1000}") int maxSize,
+                               @Value("${recommendation.cache.ttl-minutes:30}") long ttlMinutes,
+                               MeterRegistry meterRegistry) {
+        this.cache = new BoundedTtlCache<>(maxSize, Duration.ofMinutes(ttlMinutes));
+        this.cache.registerMetrics(meterRegistry, "recommendations");
+    }
+
+    public Key key(Long userId, String goalType, int limit, String fitnessLevel, BigDecimal weightKg,
+                   LocalDateTime lastCompletedWorkout, long catalogVersion) {
+        //75.5 and 75.50 are the same weight
+        BigDecimal weight = weightKg != null ? weightKg.stripTrailingZeros() : null;
+        return new Key(userId, goalType, limit, fitnessLevel, weight, lastCompletedWorkout, catalogVersion);
+    }
+
+    public List<WorkoutRecommendationDTO> get(Key key) {
+        return cache.get(key);
+    }
+
+    public void put(Key key, List<WorkoutRecommendationDTO> recommendations) {
+        cache.put(key, List.copyOf(recommendations));
+    }
+
+    /**
+     * drops all cached recommendations of a user
+     */
+    public void invalidateUser(Long userId) {
+        if (userId != null) {
+            cache.invalidateIf(key -> userId.equals(key.getUserId()));
+        }
+    }
+}
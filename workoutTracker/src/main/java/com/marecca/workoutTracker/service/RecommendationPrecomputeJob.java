@@ -0,0 +1,284 @@
+package com.marecca.workoutTracker.service;
+
+import com.marecca.workoutTracker.dto.WorkoutRecommendationDTO;
+import com.marecca.workoutTracker.entity.RecommendationJobRun;
+import com.marecca.workoutTracker.repository.RecommendationJobRunRepository;
+import com.marecca.workoutTracker.repository.UserRepository;
+import com.marecca.workoutTracker.service.exceptions.InvalidUserDataException;
+import com.marecca.workoutTracker.service.exceptions.UserNotFoundException;
+import com.marecca.workoutTracker.util.ConnectionLimitingDataSource;
+import com.marecca.workoutTracker.util.WorkerThreads;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * off-peak job that precomputes the recommendations of every active user for every goal type
+ * users are walked in keyset pages of chunk-size ids, each chunk is spread over a small worker pool
+ * sized below the Hikari pool, and the job pauses between chunks (longer while requests wait for a
+ * connection). the last user id of every finished chunk is checkpointed in recommendation_job_runs,
+ * a run interrupted by a crash is resumed from there as long as its results are not older than max-age-hours
+ */
+@Component
+@Slf4j
+public class RecommendationPrecomputeJob {
+
+    //connections left for request threads and for the job's own checkpoint writes
+    private static final int RESERVED_CONNECTIONS = 2;
+    private static final int MAX_BACKOFF_ROUNDS = 10;
+
+    private final UserRepository userRepository;
+    private final RecommendationJobRunRepository jobRunRepository;
+    private final WorkoutRecommendationService recommendationService;
+    private final PrecomputedRecommendationService precomputedRecommendationService;
+    private final ExerciseCatalog exerciseCatalog;
+    private final HikariDataSource hikariDataSource;
+    //null unless the connection limit is on, requests then wait for a connection there
+    private final ConnectionLimitingDataSource connectionLimit;
+    private final WorkerThreads workerThreads;
+
+    private final boolean enabled;
+    private final int threads;
+    private final int chunkSize;
+    private final long pauseMs;
+    private final long maxAgeHours;
+
+    private final AtomicBoolean running = new AtomicBoolean(false);
+    private final AtomicLong processedUsers = new AtomicLong();
+    private final AtomicLong totalUsers = new AtomicLong();
+
+    private final Counter succeededCounter;
+    private final Counter skippedCounter;
+    private final Counter failedCounter;
+    private final Timer runTimer;
+
+    public RecommendationPrecomputeJob(UserRepository userRepository,
+                                       RecommendationJobRunRepository jobRunRepository,
+                                       WorkoutRecommendationService recommendationService,
+                                       PrecomputedRecommendationService precomputedRecommendationService,
+                                       ExerciseCatalog exerciseCatalog,
+                                       DataSource dataSource,
+                                       WorkerThreads workerThreads,
+                                       MeterRegistry meterRegistry,
+                                       @Value("${recommendation.precompute.enabled:true}") boolean enabled,
+                                       @Value("${recommendation.precompute.threads:2}") int threads,
+                                       @Value("${recommendation.precompute.chunk-size:100}") int chunkSize,
+                                       @Value("${recommendation.precompute.pause-ms:200}") long pauseMs,
+                                       @Value("${recommendation.precompute.max-age-hours:24}") long maxAgeHours) {
+        this.userRepository = userRepository;
+        this.jobRunRepository = jobRunRepository;
+        this.recommendationService = recommendationService;
+        this.precomputedRecommendationService = precomputedRecommendationService;
+        this.exerciseCatalog = exerciseCatalog;
+        this.enabled = enabled;
+        this.chunkSize = Math.max(1, chunkSize);
+        this.pauseMs = Math.max(0, pauseMs);
+        this.maxAgeHours = maxAgeHours;
+        this.workerThreads = workerThreads;
+
+        this.connectionLimit = dataSource instanceof ConnectionLimitingDataSource limited ? limited : null;
+        DataSource pooled = connectionLimit != null ? connectionLimit.getTargetDataSource() : dataSource;
+        if (pooled instanceof HikariDataSource hikari) {
+            this.hikariDataSource = hikari;
+            this.threads = Math.max(1, Math.min(threads, hikari.getMaximumPoolSize() - RESERVED_CONNECTIONS));
+        } else {
+            this.hikariDataSource = null;
+            this.threads = Math.max(1, threads);
+        }
+
+        this.succeededCounter = Counter.builder("recommendations.precompute.users")
+                .tag("result", "success").description("Users whose recommendations were precomputed")
+                .register(meterRegistry);
+        this.skippedCounter = Counter.builder("recommendations.precompute.users")
+                .tag("result", "skipped").description("Users skipped because their profile is incomplete")
+                .register(meterRegistry);
+        this.failedCounter = Counter.builder("recommendations.precompute.users")
+                .tag("result", "failure").description("Users whose precomputation failed")
+                .register(meterRegistry);
+        this.runTimer = Timer.builder("recommendations.precompute.duration")
+                .description("Duration of a full precompute run").register(meterRegistry);
+        Gauge.builder("recommendations.precompute.processed", processedUsers, AtomicLong::get)
+                .description("Users processed by the current or last run").register(meterRegistry);
+        Gauge.builder("recommendations.precompute.total", totalUsers, AtomicLong::get)
+                .description("Active users to process in the current or last run").register(meterRegistry);
+    }
+
+    @Scheduled(cron = "${recommendation.precompute.cron:0 0 3 * * *}")
+    public void runScheduled() {
+        if (enabled) {
+            run();
+        }
+    }
+
+    /**
+     * runs (or resumes) a precompute pass, returns false when a pass is already running
+     */
+    public boolean run() {
+        if (!running.compareAndSet(false, true)) {
+            log.info("Recommendation precompute job is already running");
+            return false;
+        }
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(), workerThreads.threadFactory("recommendation-precompute"));
+        RecommendationJobRun run = null;
+        long started = System.nanoTime();
+        try {
+            run = startOrResume();
+            processedUsers.set(run.getProcessedUsers());
+            totalUsers.set(run.getTotalUsers() != null ? run.getTotalUsers() : 0);
+
+            long afterUserId = run.getLastUserId();
+            List<Long> userIds;
+            while (!(userIds = userRepository.findActiveUserIdsAfter(afterUserId, PageRequest.of(0, chunkSize))).isEmpty()) {
+                int failures = processChunk(executor, userIds);
+
+                afterUserId = userIds.get(userIds.size() - 1);
+                run.setLastUserId(afterUserId);
+                run.setProcessedUsers(run.getProcessedUsers() + userIds.size());
+                run.setFailedUsers(run.getFailedUsers() + failures);
+                run = jobRunRepository.save(run);
+                processedUsers.set(run.getProcessedUsers());
+
+                throttle();
+            }
+
+            run.setStatus(RecommendationJobRun.COMPLETED);
+            run.setFinishedAt(LocalDateTime.now());
+            jobRunRepository.save(run);
+            log.info("Recommendation precompute run {} finished: {} users, {} failed",
+                    run.getRunId(), run.getProcessedUsers(), run.getFailedUsers());
+            return true;
+
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            //left RUNNING on purpose, the next run resumes from the checkpoint
+            log.warn("Recommendation precompute job interrupted, will resume from the last checkpoint");
+            return false;
+        } catch (RuntimeException e) {
+            log.error("Recommendation precompute job failed: {}", e.getMessage(), e);
+            if (run != null && run.getRunId() != null) {
+                run.setStatus(RecommendationJobRun.FAILED);
+                run.setFinishedAt(LocalDateTime.now());
+                jobRunRepository.save(run);
+            }
+            return false;
+        } finally {
+            executor.shutdownNow();
+            runTimer.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+            running.set(false);
+        }
+    }
+
+    public boolean isRunning() {
+        return running.get();
+    }
+
+    /**
+     * resumes a RUNNING run left behind by a crash unless its checkpoint is too old to be useful
+     */
+    private RecommendationJobRun startOrResume() {
+        LocalDateTime now = LocalDateTime.now();
+        RecommendationJobRun interrupted = jobRunRepository.findFirstByStatusOrderByRunIdDesc(RecommendationJobRun.RUNNING).orElse(null);
+        if (interrupted != null) {
+            LocalDateTime checkpoint = interrupted.getUpdatedAt() != null ? interrupted.getUpdatedAt() : interrupted.getStartedAt();
+            if (checkpoint.isAfter(now.minusHours(maxAgeHours))) {
+                log.info("Resuming recommendation precompute run {} after user {}", interrupted.getRunId(), interrupted.getLastUserId());
+                return interrupted;
+            }
+            interrupted.setStatus(RecommendationJobRun.FAILED);
+            interrupted.setFinishedAt(now);
+            jobRunRepository.save(interrupted);
+        }
+
+        RecommendationJobRun run = RecommendationJobRun.builder()
+                .status(RecommendationJobRun.RUNNING)
+                .totalUsers(userRepository.countByIsActiveTrue())
+                .startedAt(now)
+                .build();
+        run = jobRunRepository.save(run);
+        log.info("Started recommendation precompute run {} for {} active users with {} threads",
+                run.getRunId(), run.getTotalUsers(), threads);
+        return run;
+    }
+
+    /**
+     * precomputes one chunk of users on the worker pool and waits for all of them,
+     * returns the number of failed users
+     */
+    private int processChunk(ExecutorService executor, List<Long> userIds) throws InterruptedException {
+        List<Callable<Void>> tasks = new ArrayList<>(userIds.size());
+        AtomicInteger failures = new AtomicInteger();
+        for (Long userId : userIds) {
+            tasks.add(() -> {
+                if (!precomputeUser(userId)) {
+                    failures.incrementAndGet();
+                }
+                return null;
+            });
+        }
+        executor.invokeAll(tasks);
+        return failures.get();
+    }
+
+    private boolean precomputeUser(Long userId) {
+        try {
+            for (String goalType : WorkoutRecommendationService.GOAL_TYPES) {
+                //taken before computing, the store is skipped if the user changed in the meantime
+                LocalDateTime computedAt = LocalDateTime.now();
+                long catalogVersion = exerciseCatalog.getVersion();
+
+                List<WorkoutRecommendationDTO> recommendations = recommendationService.precomputeRecommendations(userId, goalType);
+                if (!recommendations.isEmpty()) {
+                    precomputedRecommendationService.store(userId, goalType, recommendations, catalogVersion, computedAt);
+                }
+            }
+            succeededCounter.increment();
+            return true;
+        } catch (InvalidUserDataException | UserNotFoundException e) {
+            //no fitness level or weight yet, the endpoint rejects these users as well
+            skippedCounter.increment();
+            return true;
+        } catch (RuntimeException e) {
+            log.warn("Could not precompute recommendations for user {}: {}", userId, e.getMessage());
+            failedCounter.increment();
+            return false;
+        }
+    }
+
+    /**
+     * pauses between chunks and keeps backing off while request threads are waiting for a connection
+     */
+    private void throttle() throws InterruptedException {
+        if (pauseMs == 0) {
+            return;
+        }
+        Thread.sleep(pauseMs);
+        //null until the pool has started
+        HikariPoolMXBean pool = hikariDataSource != null ? hikariDataSource.getHikariPoolMXBean() : null;
+        for (int round = 0; round < MAX_BACKOFF_ROUNDS && requestsWaiting(pool); round++) {
+            Thread.sleep(pauseMs);
+        }
+    }
+
+    private boolean requestsWaiting(HikariPoolMXBean pool) {
+        return (pool != null && pool.getThreadsAwaitingConnection() > 0)
+                || (connectionLimit != null && connectionLimit.getWaitingThreads() > 0);
+    }
+}
@@ -0,0 +1,395 @@
+package com.marecca.workoutTracker.service;
+
+import com.marecca.workoutTracker.dto.ExerciseStats;
+import com.marecca.workoutTracker.entity.Exercise;
+import com.marecca.workoutTracker.entity.enums.ExerciseCategoryType;
+import com.marecca.workoutTracker.entity.enums.MuscleGroupType;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * scoring for workout recommendations on primitive values
+ * all scores are fixed point ints in hundredths (1.25 -> 125), every weight in the
+ * formulas is a multiple of 0.1, so this is exact and ranks exactly like the BigDecimal version
+ * BigDecimal is only created when the final DTO values are produced
+ */
+@Component
+public class RecommendationScoringEngine {
+
+    public enum Goal {
+        WEIGHT_LOSS, MUSCLE_GAIN, MAINTENANCE
+    }
+
+    /**
+     * per-exercise features in flat arrays, index i belongs to exercises[i]
+     */
+    public static final class Features {
+        private final Exercise[] exercises;
+        private final int[] cardioEffectiveness;
+        private final int[] muscleBuildingPotential;
+        private final int[] caloriesPerMinute;
+        private final boolean[] cardio;
+        private final boolean[] strength;
+        private final boolean[] majorMuscleGroup;
+        private final boolean[] lowDifficulty;
+
+        private Features(List<Exercise> source) {
+            int n = source.size();
+            exercises = source.toArray(new Exercise[0]);
+            cardioEffectiveness = new int[n];
+            muscleBuildingPotential = new int[n];
+            caloriesPerMinute = new int[n];
+            cardio = new boolean[n];
+            strength = new boolean[n];
+            majorMuscleGroup = new boolean[n];
+            lowDifficulty = new boolean[n];
+
+            for (int i = 0; i < n; i++) {
+                Exercise exercise = exercises[i];
+                cardioEffectiveness[i] = calculateCardioEffectiveness(exercise);
+                muscleBuildingPotential[i] = calculateMuscleBuildingPotential(exercise);
+                caloriesPerMinute[i] = calculateCaloriesPerMinute(exercise);
+                cardio[i] = exercise.getCategory() == ExerciseCategoryType.CARDIO;
+                strength[i] = exercise.getCategory() == ExerciseCategoryType.STRENGTH;
+                majorMuscleGroup[i] = isMajorMuscleGroup(exercise.getPrimaryMuscleGroup());
+                lowDifficulty[i] = exercise.getDifficultyLevel() != null && exercise.getDifficultyLevel() <= 3;
+            }
+        }
+
+        public int size() {
+            return exercises.length;
+        }
+
+        public Exercise exerciseAt(int index) {
+            return exercises[index];
+        }
+
+        public boolean isCardio(int index) {
+            return cardio[index];
+        }
+
+        public boolean isStrength(int index) {
+            return strength[index];
+        }
+    }
+
+    public Features extractFeatures(List<Exercise> exercises) {
+        return new Features(exercises);
+    }
+
+    public Goal parseGoal(String goalType) {
+        return Goal.valueOf(goalType);
+    }
+
+    /**
+     * priority score of every exercise in hundredths
+     * doneRecently[i] applies the -1 recency penalty
+     */
+    public int[] score(Goal goal, Features features, boolean[] doneRecently) {
+        int n = features.size();
+        int[] scores = new int[n];
+
+        for (int i = 0; i < n; i++) {
+            int recencyPenalty = doneRecently[i] ? -100 : 0;
+            switch (goal) {
+                case WEIGHT_LOSS:
+                    scores[i] = features.cardioEffectiveness[i] * 60
+                            + features.caloriesPerMinute[i] * 30
+                            + (features.cardio[i] ? 200 : 0)
+                            + recencyPenalty;
+                    break;
+                case MUSCLE_GAIN:
+                    scores[i] = features.muscleBuildingPotential[i] * 70
+                            + (features.strength[i] ? 200 : 0)
+                            + (features.majorMuscleGroup[i] ? 100 : 0)
+                            + recencyPenalty;
+                    break;
+                default: // MAINTENANCE
+                    scores[i] = (features.cardioEffectiveness[i] + features.muscleBuildingPotential[i]) * 40
+                            + (features.lowDifficulty[i] ? 100 : 0)
+                            + recencyPenalty;
+                    break;
+            }
+        }
+
+        return scores;
+    }
+
+    /**
+     * indices of the k best scores above minScore, best first
+     * uses a bounded min-heap, so ranking is O(n log k) and only k indices are kept
+     * equal scores keep catalog order, like the stable sort used before
+     */
+    public int[] selectTopK(int[] scores, int k, int minScore) {
+        int[] heap = new int[Math.max(0, Math.min(k, scores.length))];
+        int size = 0;
+
+        for (int i = 0; i < scores.length && heap.length > 0; i++) {
+            if (scores[i] <= minScore) {
+                continue;
+            }
+            if (size < heap.length) {
+                heap[size] = i;
+                siftUp(heap, size, scores);
+                size++;
+            } else if (scores[i] > scores[heap[0]]) {
+                //a later index only wins with a strictly higher score
+                heap[0] = i;
+                siftDown(heap, size, scores);
+            }
+        }
+
+        //pop the worst first and fill the result from the back
+        int[] ranked = new int[size];
+        for (int last = size - 1; last >= 0; last--) {
+            ranked[last] = heap[0];
+            heap[0] = heap[last];
+            siftDown(heap, last, scores);
+        }
+        return ranked;
+    }
+
+    /**
+     * true when index a ranks below index b
+     */
+    private static boolean ranksBelow(int a, int b, int[] scores) {
+        return scores[a] < scores[b] || (scores[a] == scores[b] && a > b);
+    }
+
+    private static void siftUp(int[] heap, int position, int[] scores) {
+        while (position > 0) {
+            int parent = (position - 1) >>> 1;
+            if (!ranksBelow(heap[position], heap[parent], scores)) {
+                return;
+            }
+            int tmp = heap[parent];
+            heap[parent] = heap[position];
+            heap[position] = tmp;
+            position = parent;
+        }
+    }
+
+    private static void siftDown(int[] heap, int size, int[] scores) {
+        int position = 0;
+        while (true) {
+            int left = 2 * position + 1;
+            if (left >= size) {
+                return;
+            }
+            int right = left + 1;
+            int worst = right < size && ranksBelow(heap[right], heap[left], scores) ? right : left;
+            if (!ranksBelow(heap[worst], heap[position], scores)) {
+                return;
+            }
+            int tmp = heap[worst];
+            heap[worst] = heap[position];
+            heap[position] = tmp;
+            position = worst;
+        }
+    }
+
+    /**
+     * converts a score to the value returned to clients
+     * weight loss scores carry two decimals, the other goals one (same scale as before)
+     */
+    public BigDecimal toPriorityScore(Goal goal, int score) {
+        if (goal == Goal.WEIGHT_LOSS) {
+            return BigDecimal.valueOf(score, 2);
+        }
+        return BigDecimal.valueOf(score / 10, 1);
+    }
+
+    /**
+     * strength multiplier in hundredths, based on completed workouts in the last 90 days
+     */
+    public int strengthMultiplier(int workoutCount) {
+        if (workoutCount > 50) return 130; // very advanced
+        if (workoutCount > 20) return 115; // advanced
+        if (workoutCount > 5) return 100; // medium
+        return 80; // beginner
+    }
+
+    public int recommendedSets(Goal goal, Features features, int index, int strengthMultiplier) {
+        switch (goal) {
+            case WEIGHT_LOSS:
+                if (features.cardio[index]) {
+                    return 1;
+                } else if (features.strength[index]) {
+                    return Math.max(2, strengthMultiplier * 3 / 100);
+                } else {
+                    return 2;
+                }
+            case MUSCLE_GAIN:
+                if (features.strength[index]) {
+                    return Math.max(3, strengthMultiplier * 4 / 100);
+                } else if (features.cardio[index]) {
+                    return 1;
+                } else {
+                    return 3;
+                }
+            default:
+                return 3;
+        }
+    }
+
+    public int[] recommendedReps(Goal goal, Features features, int index, ExerciseStats stats) {
+        int minReps, maxReps;
+
+        if (stats.getTimesPerformed() > 0 && stats.getAvgReps() > 0) {
+            minReps = Math.max(1, (int) Math.round(stats.getAvgReps() * 0.8));
+            maxReps = (int) Math.round(stats.getAvgReps() * 1.2);
+        } else {
+            switch (goal) {
+                case WEIGHT_LOSS:
+                    if (features.cardio[index]) {
+                        minReps = maxReps = 1;
+                    } else if (features.strength[index]) {
+                        minReps = 12;
+                        maxReps = 15;
+                    } else {
+                        minReps = 10;
+                        maxReps = 15;
+                    }
+                    break;
+                case MUSCLE_GAIN:
+                    if (features.strength[index]) {
+                        minReps = 6;
+                        maxReps = 12;
+                    } else if (features.cardio[index]) {
+                        minReps = maxReps = 1;
+                    } else {
+                        minReps = 8;
+                        maxReps = 12;
+                    }
+                    break;
+                default:
+                    minReps = 10;
+                    maxReps = 15;
+                    break;
+            }
+        }
+
+        return new int[]{minReps, maxReps};
+    }
+
+    /**
+     * recommended weight as a percentage of body weight
+     * avgWeightHundredths and userWeightHundredths are kg * 100, the user weight is already floored at 50kg
+     * values and scales are identical to the previous BigDecimal calculation
+     */
+    public BigDecimal recommendedWeightPercentage(Goal goal, ExerciseStats stats, long avgWeightHundredths,
+                                                  long userWeightHundredths, int strengthMultiplier) {
+        if (stats.getTimesPerformed() > 0 && avgWeightHundredths > 0) {
+            //avg weight / user weight rounded half up to 4 decimals, in units of 0.0001
+            long ratio = (2 * avgWeightHundredths * 10_000 + userWeightHundredths) / (2 * userWeightHundredths);
+
+            switch (goal) {
+                case MUSCLE_GAIN:
+                    // ratio * 100 * 1.1, capped at 100.0
+                    return ratio * 1_100 <= 10_000_000 ? BigDecimal.valueOf(ratio * 1_100, 5) : BigDecimal.valueOf(1_000, 1);
+                case WEIGHT_LOSS:
+                    // ratio * 100 * 0.9, capped at 90.0
+                    return ratio * 900 <= 9_000_000 ? BigDecimal.valueOf(ratio * 900, 5) : BigDecimal.valueOf(900, 1);
+                default:
+                    // ratio * 100, capped at 95.0
+                    return ratio * 100 <= 950_000 ? BigDecimal.valueOf(ratio * 100, 4) : BigDecimal.valueOf(950, 1);
+            }
+        }
+
+        int base;
+        switch (goal) {
+            case MUSCLE_GAIN:
+                base = 80;
+                break;
+            case WEIGHT_LOSS:
+                base = 65;
+                break;
+            default:
+                base = 70;
+                break;
+        }
+        //multipliers like 1.3 keep one decimal, 1.15 keeps two
+        return strengthMultiplier % 10 == 0
+                ? BigDecimal.valueOf((long) base * strengthMultiplier / 10, 1)
+                : BigDecimal.valueOf((long) base * strengthMultiplier, 2);
+    }
+
+    public int restTimeSeconds(Goal goal, Features features, int index) {
+        if (features.cardio[index]) {
+            return 30;
+        } else if (features.strength[index]) {
+            switch (goal) {
+                case MUSCLE_GAIN:
+                    return 120;
+                case WEIGHT_LOSS:
+                    return 45;
+                default:
+                    return 90;
+            }
+        } else {
+            return 60;
+        }
+    }
+
+    /**
+     * estimates how many calories are burned per minute for a given exercise
+     */
+    private static int calculateCaloriesPerMinute(Exercise exercise) {
+        switch (exercise.getCategory()) {
+            case CARDIO:
+                return 12; //12 calories per minute
+            case STRENGTH:
+                MuscleGroupType muscleGroup = exercise.getPrimaryMuscleGroup();
+                if (muscleGroup == MuscleGroupType.FULL_BODY) {
+                    return 8;
+                } else if (muscleGroup == MuscleGroupType.BACK) {
+                    return 6;
+                } else if (muscleGroup == MuscleGroupType.QUADRICEPS) {
+                    return 7;
+                } else {
+                    return 5;
+                }
+            default:
+                return 4;
+        }
+    }
+
+    /**
+     * calculates a muscle-building score
+     */
+    private static int calculateMuscleBuildingPotential(Exercise exercise) {
+        if (ExerciseCategoryType.STRENGTH.equals(exercise.getCategory())) {
+            MuscleGroupType muscleGroup = exercise.getPrimaryMuscleGroup();
+            if (muscleGroup == MuscleGroupType.FULL_BODY) {
+                return 5;
+            } else if (muscleGroup == MuscleGroupType.BACK ||
+                    muscleGroup == MuscleGroupType.CHEST ||
+                    muscleGroup == MuscleGroupType.QUADRICEPS) {
+                return 4;
+            } else {
+                return 3;
+            }
+        }
+        return 2;
+    }
+
+    private static int calculateCardioEffectiveness(Exercise exercise) {
+        switch (exercise.getCategory()) {
+            case CARDIO:
+                return 5;
+            case STRENGTH:
+                return MuscleGroupType.FULL_BODY.equals(exercise.getPrimaryMuscleGroup()) ? 3 : 2;
+            default:
+                return 3;
+        }
+    }
+
+    private static boolean isMajorMuscleGroup(MuscleGroupType muscleGroup) {
+        return muscleGroup == MuscleGroupType.FULL_BODY
+                || muscleGroup == MuscleGroupType.BACK
+                || muscleGroup == MuscleGroupType.CHEST
+                || muscleGroup == MuscleGroupType.QUADRICEPS;
+    }
+}
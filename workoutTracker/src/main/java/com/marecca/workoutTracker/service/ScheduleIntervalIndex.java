@@ -0,0 +1,87 @@
+package com.marecca.workoutTracker.service;
+
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.List;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+/**
+ * time slots taken by active (planned, in progress) workouts, kept in a map ordered by start
+ * the overlap constraint guarantees that the slots of a user never overlap, so ordered by start they
+ * are ordered by end too and an overlap check only has to look at the slots starting before
+ * the end of the asked one, walking back until a slot ends before it starts
+ * single availability checks go to the gist index of the constraint instead (one probe, and never stale
+ * when another node booked or cancelled), this serves checks of many slots against one loaded range
+ */
+public final class ScheduleIntervalIndex {
+
+    public static final int DEFAULT_DURATION_MINUTES = 60;
+
+    /**
+     * time taken by a workout, start inclusive and end exclusive like the tsrange in the database
+     */
+    @lombok.Value
+    public static class Slot {
+        Long scheduledWorkoutId;
+        LocalDateTime start;
+        LocalDateTime end;
+
+        public boolean overlaps(LocalDateTime otherStart, LocalDateTime otherEnd) {
+            return start.isBefore(otherEnd) && otherStart.isBefore(end);
+        }
+    }
+
+    private ScheduleIntervalIndex() {
+    }
+
+    /**
+     * slot of a workout, the same expression as the generated scheduled_slot column:
+     * a workout without a time takes the whole day
+     */
+    public static Slot slotOf(Long scheduledWorkoutId, LocalDate date, LocalTime time, Integer durationMinutes) {
+        if (time == null) {
+            return new Slot(scheduledWorkoutId, date.atStartOfDay(), date.plusDays(1).atStartOfDay());
+        }
+        LocalDateTime start = date.atTime(time);
+        int minutes = durationMinutes != null && durationMinutes > 0 ? durationMinutes : DEFAULT_DURATION_MINUTES;
+        return new Slot(scheduledWorkoutId, start, start.plusMinutes(minutes));
+    }
+
+    /**
+     * the slot overlapping the given one, other than excludeWorkoutId, or null
+     * slotsByStart must hold disjoint slots keyed by their start
+     */
+    public static Slot findOverlap(NavigableMap<LocalDateTime, Slot> slotsByStart, Slot slot, Long excludeWorkoutId) {
+        for (Slot existing : slotsByStart.headMap(slot.getEnd(), false).descendingMap().values()) {
+            if (!existing.getEnd().isAfter(slot.getStart())) {
+                //every earlier slot ends even sooner
+                return null;
+            }
+            if (excludeWorkoutId == null || !excludeWorkoutId.equals(existing.getScheduledWorkoutId())) {
+                return existing;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * rows of (id, slot start, slot end) as returned by the slot queries of ScheduledWorkoutRepository
+     */
+    public static NavigableMap<LocalDateTime, Slot> toSlotsByStart(List<Object[]> rows) {
+        NavigableMap<LocalDateTime, Slot> byStart = new TreeMap<>();
+        for (Object[] row : rows) {
+            Slot slot = new Slot(((Number) row[0]).longValue(), toLocalDateTime(row[1]), toLocalDateTime(row[2]));
+            byStart.put(slot.getStart(), slot);
+        }
+        return byStart;
+    }
+
+    private static LocalDateTime toLocalDateTime(Object value) {
+        if (value instanceof LocalDateTime) return (LocalDateTime) value;
+        if (value instanceof Timestamp) return ((Timestamp) value).toLocalDateTime();
+        throw new IllegalStateException("Unexpected slot bound: " + value);
+    }
+}
@@ -1,5 +1,9 @@
 package com.marecca.workoutTracker.service;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.marecca.workoutTracker.dto.ScheduledWorkoutHistoryDTO;
+import com.marecca.workoutTracker.dto.response.WorkoutHistoryPageResponse;
 import com.marecca.workoutTracker.entity.ScheduledWorkout;
 import com.marecca.workoutTracker.entity.User;
 import com.marecca.workoutTracker.entity.WorkoutPlan;
@@ -9,19 +13,34 @@ import com.marecca.workoutTracker.repository.UserRepository;
 import com.marecca.workoutTracker.repository.WorkoutPlanRepository;
 import com.marecca.workoutTracker.service.exceptions.UserNotFoundException;
 import com.marecca.workoutTracker.service.exceptions.WorkoutAlreadyScheduledException;
+import com.marecca.workoutTracker.event.WorkoutLifecycleEvent;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 import com.marecca.workoutTracker.service.exceptions.WorkoutPlanNotFoundException;
 import com.marecca.workoutTracker.service.exceptions.WorkoutNotFoundException;
 import com.marecca.workoutTracker.service.exceptions.InvalidWorkoutStatusException;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.SQLException;
+import java.time.DayOfWeek;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
-import java.util.Arrays;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Base64;
 import java.util.List;
+import java.util.NavigableMap;
 import java.util.Optional;
+import java.util.Set;
 
 @Service
 @RequiredArgsConstructor
@@ -31,6 +50,18 @@ public class ScheduledWorkoutService {
     private final ScheduledWorkoutRepository scheduledWorkoutRepository;
     private final UserRepository userRepository;
     private final WorkoutPlanRepository workoutPlanRepository;
+    private final RecommendationCache recommendationCache;
+    private final PrecomputedRecommendationService precomputedRecommendationService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ObjectMapper objectMapper;
+    private final WorkoutOutboxService workoutOutboxService;
+
+    private static final String EXCLUSION_VIOLATION = "23P01";
+    //longest range a recurring schedule may cover
+    private static final int MAX_RECURRING_DAYS = 366;
+    private static final int MAX_HISTORY_PAGE_SIZE = 200;
+    //rows read per page (each in its own short transaction) when streaming the history
+    private static final int NDJSON_PAGE_SIZE = 200;
 
     @Transactional
     public Long scheduleWorkout(Long userId, Long workoutPlanId, LocalDate scheduledDate, LocalTime scheduledTime) {
@@ -51,45 +82,40 @@ public class ScheduledWorkoutService {
                 throw new UserNotFoundException(String.format("USER_NOT_FOUND: User with ID %s does not exist", userId));
             }
 
-            if (!workoutPlanRepository.existsById(workoutPlanId)) {
-                throw new WorkoutPlanNotFoundException(String.format("WORKOUT_PLAN_NOT_FOUND: Workout plan with ID %s does not exist", workoutPlanId));
-            }
-
-            Optional<WorkoutPlan> workoutPlanOpt = workoutPlanRepository.findById(workoutPlanId);
-            if (workoutPlanOpt.isPresent() && !workoutPlanOpt.get().getUser().getUserId().equals(userId)) {
-                throw new IllegalArgumentException(String.format("WORKOUT_PLAN_NOT_OWNED: Workout plan with ID %s does not belong to user %s", workoutPlanId, userId));
-            }
-
-            List<WorkoutStatusType> activeStatuses = Arrays.asList(WorkoutStatusType.PLANNED, WorkoutStatusType.IN_PROGRESS);
-
-            boolean hasConflict = false;
+            WorkoutPlan workoutPlan = findOwnedWorkoutPlan(userId, workoutPlanId);
+            Integer durationMinutes = workoutPlan.getEstimatedDurationMinutes() != null
+                    ? workoutPlan.getEstimatedDurationMinutes()
+                    : ScheduleIntervalIndex.DEFAULT_DURATION_MINUTES;
+            ScheduleIntervalIndex.Slot slot = ScheduleIntervalIndex.slotOf(null, scheduledDate, scheduledTime, durationMinutes);
 
-            if (scheduledTime == null) {
-                hasConflict = scheduledWorkoutRepository.hasWorkoutScheduledOnDate(userId, scheduledDate, activeStatuses);
-            } else {
-                hasConflict = scheduledWorkoutRepository.hasWorkoutScheduledAtSpecificTime(userId, scheduledDate, scheduledTime, activeStatuses);
+            if (hasOverlappingWorkout(userId, slot, null)) {
+                throw scheduleConflict(scheduledDate, scheduledTime, null);
             }
 
-            if (hasConflict) {
-                String timeInfo = scheduledTime != null ? scheduledTime.toString() : "no specific time";
-                throw new WorkoutAlreadyScheduledException(
-                        String.format("WORKOUT_ALREADY_SCHEDULED: User already has a workout scheduled at %s %s",
-                                scheduledDate, timeInfo));
-            }
-
-            User user = userRepository.findById(userId).get();
-            WorkoutPlan workoutPlan = workoutPlanRepository.findById(workoutPlanId).get();
+            //the user was checked above, the reference only supplies the foreign key
+            User user = userRepository.getReferenceById(userId);
             ScheduledWorkout scheduledWorkout = ScheduledWorkout.builder()
                     .user(user)
                     .workoutPlan(workoutPlan)
                     .scheduledDate(scheduledDate)
                     .scheduledTime(scheduledTime)
+                    .plannedDurationMinutes(durationMinutes)
                     .status(WorkoutStatusType.PLANNED)
                     .createdAt(LocalDateTime.now())
                     .updatedAt(LocalDateTime.now())
                     .build();
 
-            ScheduledWorkout savedWorkout = scheduledWorkoutRepository.save(scheduledWorkout);
+            ScheduledWorkout savedWorkout;
+            try {
+                //flushed here so a concurrent booking that won the overlap constraint is reported as a conflict
+                savedWorkout = scheduledWorkoutRepository.saveAndFlush(scheduledWorkout);
+            } catch (DataIntegrityViolationException e) {
+                if (isOverlapViolation(e)) {
+                    throw scheduleConflict(scheduledDate, scheduledTime, e);
+                }
+                throw e;
+            }
+            publishTransition(userId, savedWorkout.getScheduledWorkoutId(), WorkoutLifecycleEvent.Transition.SCHEDULED, scheduledDate);
 
             return savedWorkout.getScheduledWorkoutId();
 
@@ -106,19 +132,132 @@ public class ScheduledWorkoutService {
         }
     }
 
+    /**
+     * schedules a plan on every matching day of week between startDate and endDate (inclusive)
+     * ownership is checked once, the conflicts of all dates come from one range query and the free dates
+     * are inserted as one batch, a date that overlaps an active workout is skipped and reported
+     * so is today when the time has already passed
+     */
+    @Transactional
+    public RecurringScheduleResult scheduleRecurringWorkouts(Long userId, Long workoutPlanId, LocalDate startDate, LocalDate endDate,
+                                                             Set<DayOfWeek> daysOfWeek, LocalTime scheduledTime) {
+        if (userId == null || userId <= 0) {
+            throw new IllegalArgumentException("INVALID_USER_ID: User ID must be a positive number");
+        }
+        if (workoutPlanId == null || workoutPlanId <= 0) {
+            throw new IllegalArgumentException("INVALID_WORKOUT_PLAN_ID: Workout plan ID must be a positive number");
+        }
+        if (startDate == null || endDate == null || startDate.isBefore(LocalDate.now())) {
+            throw new IllegalArgumentException("INVALID_SCHEDULED_DATE: Start date cannot be null or in the past");
+        }
+        if (endDate.isBefore(startDate) || ChronoUnit.DAYS.between(startDate, endDate) >= MAX_RECURRING_DAYS) {
+            throw new IllegalArgumentException(String.format(
+                    "INVALID_DATE_RANGE: End date must be after the start date and at most %d days later", MAX_RECURRING_DAYS - 1));
+        }
+        if (daysOfWeek == null || daysOfWeek.isEmpty()) {
+            throw new IllegalArgumentException("INVALID_DAYS_OF_WEEK: At least one day of week is required");
+        }
+        if (!userRepository.existsById(userId)) {
+            throw new UserNotFoundException(String.format("USER_NOT_FOUND: User with ID %s does not exist", userId));
+        }
+
+        WorkoutPlan workoutPlan = findOwnedWorkoutPlan(userId, workoutPlanId);
+        Integer durationMinutes = workoutPlan.getEstimatedDurationMinutes() != null
+                ? workoutPlan.getEstimatedDurationMinutes()
+                : ScheduleIntervalIndex.DEFAULT_DURATION_MINUTES;
+
+        List<ScheduleIntervalIndex.Slot> requested = new ArrayList<>();
+        List<LocalDate> alreadyStarted = new ArrayList<>();
+        LocalDateTime now = LocalDateTime.now();
+        for (LocalDate date = startDate; !date.isAfter(endDate); date = date.plusDays(1)) {
+            if (!daysOfWeek.contains(date.getDayOfWeek())) {
+                continue;
+            }
+            //today at a time already gone, the missed workout sweeper would mark it right away
+            if (scheduledTime != null && !date.atTime(scheduledTime).isAfter(now)) {
+                alreadyStarted.add(date);
+                continue;
+            }
+            requested.add(ScheduleIntervalIndex.slotOf(null, date, scheduledTime, durationMinutes));
+        }
+        if (requested.isEmpty()) {
+            return RecurringScheduleResult.builder()
+                    .scheduled(List.of())
+                    .conflicts(List.of())
+                    .alreadyStarted(alreadyStarted)
+                    .build();
+        }
+
+        //one query for the existing slots of the whole range
+        NavigableMap<LocalDateTime, ScheduleIntervalIndex.Slot> taken = ScheduleIntervalIndex.toSlotsByStart(
+                scheduledWorkoutRepository.findActiveSlotsOverlapping(userId,
+                        requested.get(0).getStart(), requested.get(requested.size() - 1).getEnd()));
+
+        User user = userRepository.getReferenceById(userId);
+        List<ScheduledWorkout> toInsert = new ArrayList<>(requested.size());
+        List<ScheduleConflict> conflicts = new ArrayList<>();
+        for (ScheduleIntervalIndex.Slot slot : requested) {
+            LocalDate date = slot.getStart().toLocalDate();
+            ScheduleIntervalIndex.Slot overlap = ScheduleIntervalIndex.findOverlap(taken, slot, null);
+            if (overlap != null) {
+                conflicts.add(ScheduleConflict.builder()
+                        .date(date)
+                        .conflictingWorkoutId(overlap.getScheduledWorkoutId())
+                        .conflictingStart(overlap.getStart())
+                        .conflictingEnd(overlap.getEnd())
+                        .build());
+                continue;
+            }
+            //occurrences longer than the gap to the next one must not collide with each other either
+            taken.put(slot.getStart(), slot);
+            toInsert.add(ScheduledWorkout.builder()
+                    .user(user)
+                    .workoutPlan(workoutPlan)
+                    .scheduledDate(date)
+                    .scheduledTime(scheduledTime)
+                    .plannedDurationMinutes(durationMinutes)
+                    .status(WorkoutStatusType.PLANNED)
+                    .build());
+        }
+
+        List<ScheduledWorkout> saved;
+        try {
+            saved = scheduledWorkoutRepository.saveAll(toInsert);
+            scheduledWorkoutRepository.flush();
+        } catch (DataIntegrityViolationException e) {
+            if (isOverlapViolation(e)) {
+                //another request booked part of the range meanwhile, nothing was kept
+                throw new WorkoutAlreadyScheduledException(
+                        "WORKOUT_ALREADY_SCHEDULED: The schedule changed while the workouts were being created, please retry", e);
+            }
+            throw e;
+        }
+
+        List<ScheduledOccurrence> scheduled = new ArrayList<>(saved.size());
+        for (ScheduledWorkout workout : saved) {
+            scheduled.add(ScheduledOccurrence.builder()
+                    .date(workout.getScheduledDate())
+                    .scheduledWorkoutId(workout.getScheduledWorkoutId())
+                    .build());
+            publishTransition(userId, workout.getScheduledWorkoutId(), WorkoutLifecycleEvent.Transition.SCHEDULED, workout.getScheduledDate());
+        }
+
+        return RecurringScheduleResult.builder()
+                .scheduled(scheduled)
+                .conflicts(conflicts)
+                .alreadyStarted(alreadyStarted)
+                .build();
+    }
+
     /**
      * checks if a user can schedule a workout at a specific hour/date
+     * a workout without a time takes the whole day, durationMinutes defaults to one hour
      */
     @Transactional(readOnly = true)
-    public boolean canScheduleWorkoutAt(Long userId, LocalDate scheduledDate, LocalTime scheduledTime) {
+    public boolean canScheduleWorkoutAt(Long userId, LocalDate scheduledDate, LocalTime scheduledTime, Integer durationMinutes) {
         try {
-            List<WorkoutStatusType> activeStatuses = Arrays.asList(WorkoutStatusType.PLANNED, WorkoutStatusType.IN_PROGRESS);
-
-            if (scheduledTime == null) {
-                return !scheduledWorkoutRepository.hasWorkoutScheduledOnDate(userId, scheduledDate, activeStatuses);
-            } else {
-                return !scheduledWorkoutRepository.hasWorkoutScheduledAtSpecificTime(userId, scheduledDate, scheduledTime, activeStatuses);
-            }
+            ScheduleIntervalIndex.Slot slot = ScheduleIntervalIndex.slotOf(null, scheduledDate, scheduledTime, durationMinutes);
+            return !hasOverlappingWorkout(userId, slot, null);
         } catch (Exception e) {
             return false;
         }
@@ -143,41 +282,106 @@ public class ScheduledWorkoutService {
         return scheduledWorkoutRepository.findById(scheduledWorkoutId);
     }
 
+    /**
+     * the whole history of a user, newest first, for clients that do not page
+     */
     @Transactional(readOnly = true)
-    public List<ScheduledWorkout> findByUserId(Long userId) {
+    public List<ScheduledWorkoutHistoryDTO> findHistory(Long userId) {
         validateUserExists(userId);
-        return scheduledWorkoutRepository.findByUserUserIdOrderByScheduledDateDesc(userId);
+        return scheduledWorkoutRepository.findHistoryFirstPage(userId, Pageable.unpaged());
     }
 
-
-    @Transactional
-    public List<ScheduledWorkout> MissedWorkouts(Long userId) {
+    /**
+     * one page of a user's history, newest first
+     * the cursor is the nextCursor of the previous page, null for the first page
+     */
+    @Transactional(readOnly = true)
+    public WorkoutHistoryPageResponse getHistoryPage(Long userId, String cursor, int limit) {
         validateUserExists(userId);
+        if (limit < 1 || limit > MAX_HISTORY_PAGE_SIZE) {
+            throw new IllegalArgumentException("Limit must be between 1 and " + MAX_HISTORY_PAGE_SIZE);
+        }
 
-        List<ScheduledWorkout> workouts = scheduledWorkoutRepository.findTodaysWorkoutsForUser(userId);
-
-        LocalTime currentTime = LocalTime.now();
-
-        for (ScheduledWorkout workout : workouts) {
-            if (workout.getStatus() == WorkoutStatusType.PLANNED &&
-                    workout.getScheduledTime() != null &&
-                    currentTime.isAfter(workout.getScheduledTime())) {
+        //one row more than asked tells whether there is a next page
+        Pageable pageable = PageRequest.of(0, limit + 1);
+        List<ScheduledWorkoutHistoryDTO> rows;
+        if (cursor == null || cursor.isBlank()) {
+            rows = scheduledWorkoutRepository.findHistoryFirstPage(userId, pageable);
+        } else {
+            HistoryCursor after = HistoryCursor.decode(cursor);
+            rows = scheduledWorkoutRepository.findHistoryPageAfter(userId, after.getScheduledDate(), after.getScheduledWorkoutId(), pageable);
+        }
 
-                try {
-                    scheduledWorkoutRepository.updateWorkoutStatus(workout.getScheduledWorkoutId(), WorkoutStatusType.MISSED);
+        boolean hasMore = rows.size() > limit;
+        List<ScheduledWorkoutHistoryDTO> items = hasMore ? rows.subList(0, limit) : rows;
+        ScheduledWorkoutHistoryDTO last = items.isEmpty() ? null : items.get(items.size() - 1);
 
-                    // Update the workout object status for the response
-                    workout.setStatus(WorkoutStatusType.MISSED);
+        return WorkoutHistoryPageResponse.builder()
+                .items(new ArrayList<>(items))
+                .nextCursor(hasMore ? new HistoryCursor(last.getScheduledDate(), last.getScheduledWorkoutId()).encode() : null)
+                .hasMore(hasMore)
+                .build();
+    }
 
-                } catch (Exception e) {
-                    System.err.println("Warning: Failed to mark workout as MISSED. ID: "
-                            + workout.getScheduledWorkoutId() + " — " + e.getMessage());
-                }
+    /**
+     * writes the whole history of a user as newline delimited json, one keyset page at a time
+     * no transaction spans the method: every page is read in its own short one and the connection is back
+     * in the pool while the rows are written to a (maybe slow) client, memory stays at one page
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void writeHistoryNdjson(Long userId, OutputStream outputStream) throws IOException {
+        validateUserExists(userId);
+        ObjectWriter writer = objectMapper.writerFor(ScheduledWorkoutHistoryDTO.class);
+        Pageable pageable = PageRequest.of(0, NDJSON_PAGE_SIZE);
+
+        List<ScheduledWorkoutHistoryDTO> page = scheduledWorkoutRepository.findHistoryFirstPage(userId, pageable);
+        while (!page.isEmpty()) {
+            for (ScheduledWorkoutHistoryDTO row : page) {
+                outputStream.write(writer.writeValueAsBytes(row));
+                outputStream.write('\n');
+            }
+            outputStream.flush();
+            if (page.size() < NDJSON_PAGE_SIZE) {
+                break;
             }
+            ScheduledWorkoutHistoryDTO last = page.get(page.size() - 1);
+            page = scheduledWorkoutRepository.findHistoryPageAfter(userId, last.getScheduledDate(), last.getScheduledWorkoutId(), pageable);
         }
+        outputStream.flush();
+    }
 
-        return workouts;
-}
+
+    /**
+     * today's workouts of a user, overdue ones are marked MISSED by the MissedWorkoutSweeper
+     */
+    @Transactional(readOnly = true)
+    public List<ScheduledWorkout> findTodaysWorkouts(Long userId) {
+        validateUserExists(userId);
+        return scheduledWorkoutRepository.findTodaysWorkoutsForUser(userId);
+    }
+
+    /**
+     * marks one batch of planned workouts whose slot ended by the cutoff as MISSED, across all users
+     * rows locked by another node's sweep are skipped, so several nodes can sweep at the same time
+     */
+    @Transactional
+    public List<OverdueWorkout> markOverdueWorkoutsMissed(LocalDateTime cutoff, int batchSize) {
+        List<Object[]> rows = scheduledWorkoutRepository.markOverdueWorkoutsMissed(cutoff, batchSize);
+
+        List<OverdueWorkout> missed = new ArrayList<>(rows.size());
+        for (Object[] row : rows) {
+            OverdueWorkout workout = OverdueWorkout.builder()
+                    .scheduledWorkoutId(((Number) row[0]).longValue())
+                    .userId(((Number) row[1]).longValue())
+                    .scheduledDate(toLocalDate(row[2]))
+                    .scheduledTime(toLocalTime(row[3]))
+                    .dueAt(toLocalDateTime(row[4]))
+                    .build();
+            missed.add(workout);
+            publishTransition(workout.getUserId(), workout.getScheduledWorkoutId(), WorkoutLifecycleEvent.Transition.MISSED, workout.getScheduledDate());
+        }
+        return missed;
+    }
 
     /**
      * start a workout( status IN_PROGRESS)
@@ -192,6 +396,7 @@ public class ScheduledWorkoutService {
 
             LocalDateTime startTime = LocalDateTime.now();
             scheduledWorkoutRepository.startWorkout(scheduledWorkoutId, startTime);
+            publishTransition(workout.getUser().getUserId(), scheduledWorkoutId, WorkoutLifecycleEvent.Transition.STARTED, workout.getScheduledDate());
 
             return findScheduledWorkoutById(scheduledWorkoutId);
 
@@ -217,6 +422,9 @@ public class ScheduledWorkoutService {
 
             LocalDateTime endTime = LocalDateTime.now();
             scheduledWorkoutRepository.completeWorkout(scheduledWorkoutId, endTime, caloriesBurned, rating);
+            recommendationCache.invalidateUser(workout.getUser().getUserId());
+            precomputedRecommendationService.invalidateUser(workout.getUser().getUserId());
+            publishTransition(workout.getUser().getUserId(), scheduledWorkoutId, WorkoutLifecycleEvent.Transition.COMPLETED, workout.getScheduledDate());
 
             return findScheduledWorkoutById(scheduledWorkoutId);
 
@@ -240,6 +448,7 @@ public class ScheduledWorkoutService {
         }
 
         scheduledWorkoutRepository.updateWorkoutStatus(scheduledWorkoutId, WorkoutStatusType.CANCELLED);
+        publishTransition(workout.getUser().getUserId(), scheduledWorkoutId, WorkoutLifecycleEvent.Transition.CANCELLED, workout.getScheduledDate());
 
         return findScheduledWorkoutById(scheduledWorkoutId);
     }
@@ -277,8 +486,11 @@ public class ScheduledWorkoutService {
             boolean timeChanged = (newTime != null && !newTime.equals(scheduledWorkout.getScheduledTime())) ||
                     (newTime == null && scheduledWorkout.getScheduledTime() != null);
 
-            if (dateChanged || timeChanged) {
-                if (!isTimeSlotAvailable(scheduledWorkout.getUser().getUserId(), newDate, newTime, scheduledWorkoutId)) {
+            //a cancelled or missed workout becomes planned again and takes its slot back, so it is checked even when nothing moved
+            if (dateChanged || timeChanged || scheduledWorkout.getStatus() != WorkoutStatusType.PLANNED) {
+                ScheduleIntervalIndex.Slot slot = ScheduleIntervalIndex.slotOf(
+                        scheduledWorkoutId, newDate, newTime, scheduledWorkout.getPlannedDurationMinutes());
+                if (hasOverlappingWorkout(scheduledWorkout.getUser().getUserId(), slot, scheduledWorkoutId)) {
                     throw new WorkoutAlreadyScheduledException("The selected time slot is not available – a workout is already scheduled");
                 }
             }
@@ -299,7 +511,15 @@ public class ScheduledWorkoutService {
                     scheduledWorkout.setStatus(WorkoutStatusType.PLANNED);
             }
 
-            scheduledWorkoutRepository.save(scheduledWorkout);
+            try {
+                scheduledWorkoutRepository.saveAndFlush(scheduledWorkout);
+            } catch (DataIntegrityViolationException e) {
+                if (isOverlapViolation(e)) {
+                    throw new WorkoutAlreadyScheduledException("The selected time slot is not available – a workout is already scheduled", e);
+                }
+                throw e;
+            }
+            publishTransition(scheduledWorkout.getUser().getUserId(), scheduledWorkoutId, WorkoutLifecycleEvent.Transition.RESCHEDULED, newDate);
         } catch (WorkoutNotFoundException | InvalidWorkoutStatusException |
                  WorkoutAlreadyScheduledException e) {
             throw e;
@@ -310,58 +530,66 @@ public class ScheduledWorkoutService {
         }
     }
 
-    private boolean isTimeSlotAvailable(Long userId, LocalDate date, LocalTime time, Long excludeWorkoutId) {
-        List<WorkoutStatusType> activeStatuses = Arrays.asList(
-                WorkoutStatusType.PLANNED,
-                WorkoutStatusType.IN_PROGRESS
-        );
-
-        try {
-            if (time == null) {
-                List<ScheduledWorkout> dayWorkouts = scheduledWorkoutRepository
-                        .findWorkoutsForDateExcluding(userId, date, excludeWorkoutId, activeStatuses);
-                return dayWorkouts.isEmpty();
-            }
-
-            List<ScheduledWorkout> exactConflicts = scheduledWorkoutRepository
-                    .findExactTimeConflictsForReschedule(userId, date, time, excludeWorkoutId, activeStatuses);
-
-            if (!exactConflicts.isEmpty()) {
-                return false;
-            }
-
-            List<ScheduledWorkout> dayWorkouts = scheduledWorkoutRepository
-                    .findWorkoutsForDateExcluding(userId, date, excludeWorkoutId, activeStatuses);
-
-            LocalTime newWorkoutStart = time;
-            LocalTime newWorkoutEnd = time.plusHours(1);
-
-            for (ScheduledWorkout existingWorkout : dayWorkouts) {
-                LocalTime existingStart = existingWorkout.getScheduledTime();
+    /**
+     * tells in-memory caches (dashboard...) that a workout of the user changed state, listeners run after the transaction commits
+     * the change is also recorded in the outbox, derived data (streaks...) is updated from there once it committed
+     */
+    private void publishTransition(Long userId, Long scheduledWorkoutId, WorkoutLifecycleEvent.Transition transition, LocalDate scheduledDate) {
+        workoutOutboxService.record(userId, scheduledWorkoutId, transition, scheduledDate);
+        eventPublisher.publishEvent(new WorkoutLifecycleEvent(userId, scheduledWorkoutId, transition, scheduledDate));
+    }
 
-                if (existingStart == null) {
-                    continue;
-                }
+    /**
+     * one lookup on the gist index of the overlap constraint, in the current transaction
+     * never stale, a booking or cancel committed by another request (or node) is seen right away
+     */
+    private boolean hasOverlappingWorkout(Long userId, ScheduleIntervalIndex.Slot slot, Long excludeWorkoutId) {
+        return scheduledWorkoutRepository.existsOverlappingWorkout(userId, slot.getStart(), slot.getEnd(), excludeWorkoutId);
+    }
 
-                LocalTime existingEnd = existingStart.plusHours(1);
+    private WorkoutPlan findOwnedWorkoutPlan(Long userId, Long workoutPlanId) {
+        WorkoutPlan workoutPlan = workoutPlanRepository.findById(workoutPlanId)
+                .orElseThrow(() -> new WorkoutPlanNotFoundException(
+                        String.format("WORKOUT_PLAN_NOT_FOUND: Workout plan with ID %s does not exist", workoutPlanId)));
+        if (!workoutPlan.getUser().getUserId().equals(userId)) {
+            throw new IllegalArgumentException(String.format("WORKOUT_PLAN_NOT_OWNED: Workout plan with ID %s does not belong to user %s", workoutPlanId, userId));
+        }
+        return workoutPlan;
+    }
 
-                boolean hasOverlap = !(newWorkoutEnd.isBefore(existingStart) ||
-                        newWorkoutStart.isAfter(existingEnd) ||
-                        newWorkoutEnd.equals(existingStart) ||
-                        newWorkoutStart.equals(existingEnd));
+    private WorkoutAlreadyScheduledException scheduleConflict(LocalDate scheduledDate, LocalTime scheduledTime, Throwable cause) {
+        String timeInfo = scheduledTime != null ? scheduledTime.toString() : "no specific time";
+        return new WorkoutAlreadyScheduledException(
+                String.format("WORKOUT_ALREADY_SCHEDULED: User already has a workout scheduled at %s %s",
+                        scheduledDate, timeInfo), cause);
+    }
 
-                if (hasOverlap) {
-                    return false;
-                }
+    /**
+     * exclusion_violation, raised by ex_scheduled_workouts_no_overlap
+     */
+    private boolean isOverlapViolation(Throwable error) {
+        for (Throwable cause = error; cause != null; cause = cause.getCause()) {
+            if (cause instanceof SQLException && EXCLUSION_VIOLATION.equals(((SQLException) cause).getSQLState())) {
+                return true;
             }
+        }
+        return false;
+    }
 
-            return true;
+    private LocalDate toLocalDate(Object value) {
+        if (value instanceof LocalDate) return (LocalDate) value;
+        return ((java.sql.Date) value).toLocalDate();
+    }
 
-        } catch (Exception e) {
-            return true;
-        }
+    private LocalTime toLocalTime(Object value) {
+        if (value == null || value instanceof LocalTime) return (LocalTime) value;
+        return ((java.sql.Time) value).toLocalTime();
     }
 
+    private LocalDateTime toLocalDateTime(Object value) {
+        if (value instanceof LocalDateTime) return (LocalDateTime) value;
+        return ((java.sql.Timestamp) value).toLocalDateTime();
+    }
 
     private void validateCompletionData(Integer caloriesBurned, Integer rating) {
         if (caloriesBurned != null && caloriesBurned < 0) {
@@ -390,4 +618,64 @@ public class ScheduledWorkoutService {
         private Long completedWorkouts;
         private Double averageDurationMinutes;
     }
+
+    /**
+     * (date, id) of the last row of a history page, handed to the client as an opaque string
+     */
+    @lombok.Value
+    static class HistoryCursor {
+        LocalDate scheduledDate;
+        Long scheduledWorkoutId;
+
+        String encode() {
+            String raw = scheduledDate + ":" + scheduledWorkoutId;
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+        }
+
+        static HistoryCursor decode(String cursor) {
+            try {
+                String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+                int separator = raw.indexOf(':');
+                return new HistoryCursor(LocalDate.parse(raw.substring(0, separator)), Long.parseLong(raw.substring(separator + 1)));
+            } catch (RuntimeException e) {
+                throw new IllegalArgumentException("Invalid cursor: " + cursor);
+            }
+        }
+    }
+
+    @lombok.Builder
+    @lombok.Data
+    public static class OverdueWorkout {
+        private Long scheduledWorkoutId;
+        private Long userId;
+        private LocalDate scheduledDate;
+        private LocalTime scheduledTime;
+        //when the workout counted as missed: the end of its slot
+        private LocalDateTime dueAt;
+    }
+
+    @lombok.Builder
+    @lombok.Data
+    public static class RecurringScheduleResult {
+        private List<ScheduledOccurrence> scheduled;
+        private List<ScheduleConflict> conflicts;
+        //dates skipped because their time had already passed (only today can be)
+        private List<LocalDate> alreadyStarted;
+    }
+
+    @lombok.Builder
+    @lombok.Data
+    public static class ScheduledOccurrence {
+        private LocalDate date;
+        private Long scheduledWorkoutId;
+    }
+
+    @lombok.Builder
+    @lombok.Data
+    public static class ScheduleConflict {
+        private LocalDate date;
+        private Long conflictingWorkoutId;
+        private LocalDateTime conflictingStart;
+        private LocalDateTime conflictingEnd;
+    }
 }
\ No newline at end of file
@@ -4,8 +4,9 @@ import com.marecca.workoutTracker.entity.User;
 import com.marecca.workoutTracker.repository.UserRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.security.crypto.password.PasswordEncoder;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
@@ -14,11 +15,15 @@ import java.util.Optional;
 
 @Service
 @RequiredArgsConstructor
+@Slf4j
 @Transactional
 public class UserService {
 
     private final UserRepository userRepository;
-    private final PasswordEncoder passwordEncoder;
+    private final PasswordHashingService passwordHashingService;
+    private final RecommendationCache recommendationCache;
+    private final PrecomputedRecommendationService precomputedRecommendationService;
+    private final MeterRegistry meterRegistry;
 
     @Transactional(readOnly = true)
     public Optional<User> findById(Long id) {
@@ -49,19 +54,24 @@ public class UserService {
             existingUser.setFitnessLevel(updatedUser.getFitnessLevel());
         }
 
+        //weight and fitness level feed the recommendations
+        recommendationCache.invalidateUser(userId);
+        precomputedRecommendationService.invalidateUser(userId);
+
         return userRepository.save(existingUser);
     }
 
     /**
      * Register a new user with encrypted password
+     * the password is hashed before the insert, outside of any transaction
      * @param user
      * @param plainPassword
      * @return
      */
-    @Transactional
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public User registerUser(User user, String plainPassword) {
         // Encrypt password
-        user.setPasswordHash(passwordEncoder.encode(plainPassword));
+        user.setPasswordHash(passwordHashingService.encode(plainPassword));
         user.setIsActive(true);
 
         return userRepository.save(user);
@@ -69,10 +79,13 @@ public class UserService {
 
     /**
      * Authenticates user based on email and password
+     * runs without a transaction, so no connection is held while the password is checked,
+     * a hash made with another cost than the configured one is replaced after a successful login
      * @param email
      * @param plainPassword
      * @return
      */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public Optional<User> authenticateUser(String email, String plainPassword) {
         Optional<User> userOptional = userRepository.findByEmail(email.toLowerCase());
 
@@ -80,13 +93,36 @@ public class UserService {
             User user = userOptional.get();
 
             // Check password
-            if (passwordEncoder.matches(plainPassword, user.getPasswordHash())) {
+            if (passwordHashingService.matches(plainPassword, user.getPasswordHash())) {
+                rehashIfNeeded(user, plainPassword);
+                countLogin("success");
                 return Optional.of(user);
             }
         }
+        countLogin("failure");
         return Optional.empty();
     }
 
+    private void rehashIfNeeded(User user, String plainPassword) {
+        if (!passwordHashingService.needsRehash(user.getPasswordHash())) {
+            return;
+        }
+        try {
+            String newHash = passwordHashingService.encode(plainPassword);
+            //only replaces the hash that was verified, a password changed meanwhile wins
+            if (userRepository.updatePasswordHash(user.getUserId(), user.getPasswordHash(), newHash) == 1) {
+                user.setPasswordHash(newHash);
+            }
+        } catch (RuntimeException e) {
+            //the login itself succeeded, the rehash is retried next time
+            log.warn("Could not rehash the password of user {}: {}", user.getUserId(), e.getMessage());
+        }
+    }
+
+    private void countLogin(String result) {
+        meterRegistry.counter("auth.logins", "result", result).increment();
+    }
+
     /**
      * Checks if a user exists with a given email
      */
@@ -0,0 +1,240 @@
+package com.marecca.workoutTracker.service;
+
+import com.marecca.workoutTracker.entity.WorkoutOutboxEvent;
+import com.marecca.workoutTracker.event.WorkoutEventSubscriber;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * background job that delivers the workout outbox to the WorkoutEventSubscribers
+ * events are claimed in batches with FOR UPDATE SKIP LOCKED and a lease, so relays on several nodes share
+ * the work and an event claimed by a node that died is picked up again once its lease ran out
+ * a batch holds only the oldest pending event of each user, so a user's events are never delivered concurrently
+ * delivery is at least once, subscribers are kept idempotent by the consumption record written with their changes
+ * a failed event is retried with exponential backoff, later events of the same user wait for it so they
+ * are applied in order
+ */
+@Component
+@Slf4j
+public class WorkoutOutboxRelay {
+
+    private final WorkoutOutboxService outboxService;
+    private final List<WorkoutEventSubscriber> subscribers;
+
+    private final boolean enabled;
+    private final int batchSize;
+    private final int maxBatches;
+    private final long leaseSeconds;
+    private final int maxAttempts;
+    private final long retryDelayMs;
+    private final long maxRetryDelayMs;
+    private final long retentionHours;
+
+    private final AtomicBoolean running = new AtomicBoolean(false);
+    private final AtomicLong pendingEvents = new AtomicLong();
+    private final AtomicLong abandonedEvents = new AtomicLong();
+    private final AtomicLong oldestPendingAgeSeconds = new AtomicLong();
+
+    private final Counter deliveredCounter;
+    private final Counter failedCounter;
+    private final Counter duplicateCounter;
+    private final DistributionSummary eventsPerRun;
+    private final Timer lagTimer;
+    private final Timer runTimer;
+
+    public WorkoutOutboxRelay(WorkoutOutboxService outboxService,
+                              List<WorkoutEventSubscriber> subscribers,
+                              MeterRegistry meterRegistry,
+                              @Value("${outbox.relay.enabled:true}") boolean enabled,
+                              @Value("${outbox.relay.batch-size:100}") int batchSize,
+                              @Value("${outbox.relay.max-batches:20}") int maxBatches,
+                              @Value("${outbox.relay.lease-seconds:60}") long leaseSeconds,
+                              @Value("${outbox.relay.max-attempts:10}") int maxAttempts,
+                              @Value("${outbox.relay.retry-delay-ms:1000}") long retryDelayMs,
+                              @Value("${outbox.relay.max-retry-delay-ms:600000}") long maxRetryDelayMs,
+                              @Value("${outbox.retention-hours:72}") long retentionHours) {
+        this.outboxService = outboxService;
+        this.subscribers = List.copyOf(subscribers);
+        this.enabled = enabled;
+        this.batchSize = Math.max(1, batchSize);
+        this.maxBatches = Math.max(1, maxBatches);
+        this.leaseSeconds = Math.max(1, leaseSeconds);
+        this.maxAttempts = Math.max(1, maxAttempts);
+        this.retryDelayMs = Math.max(1, retryDelayMs);
+        this.maxRetryDelayMs = Math.max(this.retryDelayMs, maxRetryDelayMs);
+        this.retentionHours = Math.max(1, retentionHours);
+
+        this.deliveredCounter = Counter.builder("outbox.events.delivered")
+                .description("Outbox events delivered to every subscriber")
+                .register(meterRegistry);
+        this.failedCounter = Counter.builder("outbox.events.failed")
+                .description("Outbox event deliveries that failed and will be retried")
+                .register(meterRegistry);
+        this.duplicateCounter = Counter.builder("outbox.events.duplicates")
+                .description("Redelivered events skipped by a subscriber that had already consumed them")
+                .register(meterRegistry);
+        this.eventsPerRun = DistributionSummary.builder("outbox.relay.events")
+                .description("Outbox events delivered per relay run")
+                .register(meterRegistry);
+        this.lagTimer = Timer.builder("outbox.relay.lag")
+                .description("Time between an event being recorded and its delivery")
+                .register(meterRegistry);
+        this.runTimer = Timer.builder("outbox.relay.duration")
+                .description("Duration of a relay run")
+                .register(meterRegistry);
+        Gauge.builder("outbox.events.pending", pendingEvents, AtomicLong::get)
+                .description("Outbox events not delivered yet, as of the last relay run")
+                .register(meterRegistry);
+        Gauge.builder("outbox.events.abandoned", abandonedEvents, AtomicLong::get)
+                .description("Outbox events that gave up after max-attempts, as of the last relay run")
+                .register(meterRegistry);
+        Gauge.builder("outbox.events.oldest.age", oldestPendingAgeSeconds, AtomicLong::get)
+                .baseUnit("seconds")
+                .description("Age of the oldest undelivered outbox event, as of the last relay run")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${outbox.relay.interval-ms:1000}",
+            initialDelayString = "${outbox.relay.initial-delay-ms:10000}")
+    public void runScheduled() {
+        if (enabled) {
+            relay();
+        }
+    }
+
+    @Scheduled(cron = "${outbox.purge.cron:0 15 * * * *}")
+    public void purgeScheduled() {
+        if (enabled) {
+            purge();
+        }
+    }
+
+    /**
+     * delivers due events until none is left or max-batches was reached, returns the number of events delivered
+     */
+    public int relay() {
+        if (!running.compareAndSet(false, true)) {
+            return 0;
+        }
+        long started = System.nanoTime();
+        int delivered = 0;
+        try {
+            for (int batch = 0; batch < maxBatches; batch++) {
+                //one event per user, the next event of a user becomes claimable once this one was processed
+                List<WorkoutOutboxEvent> events = outboxService.claimDueEvents(batchSize, leaseSeconds, maxAttempts);
+                if (events.isEmpty()) {
+                    break;
+                }
+                for (WorkoutOutboxEvent event : events) {
+                    if (deliver(event) == null) {
+                        delivered++;
+                    }
+                }
+            }
+            updateBacklog();
+        } catch (Exception e) {
+            log.warn("Outbox relay stopped after {} events: {}", delivered, e.getMessage());
+        } finally {
+            eventsPerRun.record(delivered);
+            runTimer.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+            running.set(false);
+        }
+        return delivered;
+    }
+
+    /**
+     * deletes delivered events older than retention-hours, returns how many were deleted
+     */
+    public int purge() {
+        LocalDateTime cutoff = LocalDateTime.now().minusHours(retentionHours);
+        int purged = 0;
+        try {
+            int deleted;
+            do {
+                deleted = outboxService.purgeProcessedBefore(cutoff, batchSize * 10);
+                purged += deleted;
+            } while (deleted >= batchSize * 10);
+            if (purged > 0) {
+                log.info("Purged {} delivered outbox events", purged);
+            }
+        } catch (Exception e) {
+            log.warn("Outbox purge stopped after {} events: {}", purged, e.getMessage());
+        }
+        return purged;
+    }
+
+    /**
+     * hands the event to every interested subscriber, each in its own transaction
+     * @return null once delivered, the time of the retry when a subscriber failed
+     */
+    private LocalDateTime deliver(WorkoutOutboxEvent event) {
+        String subscriberName = null;
+        try {
+            for (WorkoutEventSubscriber subscriber : subscribers) {
+                if (subscriber.supports(event.getTransition())) {
+                    subscriberName = subscriber.getName();
+                    if (!outboxService.deliver(subscriber, event)) {
+                        duplicateCounter.increment();
+                    }
+                }
+            }
+            LocalDateTime now = LocalDateTime.now();
+            outboxService.markProcessed(event.getEventId(), now);
+
+            Duration lag = Duration.between(event.getOccurredAt(), now);
+            lagTimer.record(lag.isNegative() ? Duration.ZERO : lag);
+            deliveredCounter.increment();
+            return null;
+
+        } catch (Exception e) {
+            failedCounter.increment();
+            int attempts = event.getAttempts() + 1;
+            String error = subscriberName + ": " + e.getMessage();
+            LocalDateTime retryAt = nextAttemptAt(event.getAttempts());
+            try {
+                outboxService.markFailed(event.getEventId(), error, retryAt);
+            } catch (Exception markException) {
+                //the lease runs out and the event is claimed again
+                log.warn("Could not record the failure of outbox event {}: {}", event.getEventId(), markException.getMessage());
+            }
+            if (attempts >= maxAttempts) {
+                log.error("Outbox event {} ({} of workout {}) failed {} times and will not be retried: {}",
+                        event.getEventId(), event.getTransition(), event.getScheduledWorkoutId(), attempts, error);
+            } else {
+                log.warn("Outbox event {} failed (attempt {}): {}", event.getEventId(), attempts, error);
+            }
+            return retryAt;
+        }
+    }
+
+    /**
+     * retry-delay-ms doubled for every earlier attempt, capped at max-retry-delay-ms
+     */
+    private LocalDateTime nextAttemptAt(int previousAttempts) {
+        long delay = retryDelayMs << Math.min(previousAttempts, 20);
+        return LocalDateTime.now().plus(Duration.ofMillis(Math.min(delay, maxRetryDelayMs)));
+    }
+
+    private void updateBacklog() {
+        WorkoutOutboxService.Backlog backlog = outboxService.getBacklog(maxAttempts);
+        pendingEvents.set(backlog.getPending());
+        abandonedEvents.set(backlog.getAbandoned());
+        oldestPendingAgeSeconds.set(backlog.getOldestOccurredAt() != null
+                ? Math.max(0, Duration.between(backlog.getOldestOccurredAt(), LocalDateTime.now()).getSeconds())
+                : 0);
+    }
+}
@@ -0,0 +1,107 @@
+package com.marecca.workoutTracker.service;
+
+import com.marecca.workoutTracker.entity.WorkoutOutboxEvent;
+import com.marecca.workoutTracker.event.WorkoutEventSubscriber;
+import com.marecca.workoutTracker.event.WorkoutLifecycleEvent;
+import com.marecca.workoutTracker.repository.WorkoutOutboxEventRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * transactional outbox of the workout lifecycle
+ * events are recorded in the caller's transaction, every other method runs in a short transaction of its own
+ * and is used by the WorkoutOutboxRelay
+ */
+@Service
+@RequiredArgsConstructor
+@Transactional
+public class WorkoutOutboxService {
+
+    private static final int MAX_ERROR_LENGTH = 500;
+
+    private final WorkoutOutboxEventRepository outboxEventRepository;
+
+    /**
+     * records a state change, commits or rolls back with it
+     * holds the user's lock until then, so a concurrent change of the same user gets the later occurred_at
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void record(Long userId, Long scheduledWorkoutId, WorkoutLifecycleEvent.Transition transition, LocalDate scheduledDate) {
+        WorkoutOutboxEvent event = WorkoutOutboxEvent.builder()
+                .userId(userId)
+                .scheduledWorkoutId(scheduledWorkoutId)
+                .transition(transition)
+                .scheduledDate(scheduledDate)
+                .build();
+        outboxEventRepository.lockUser(userId);
+        outboxEventRepository.save(event);
+    }
+
+    /**
+     * claims up to batchSize due events for leaseSeconds, at most one per user, ordered by occurred_at and event id
+     */
+    public List<WorkoutOutboxEvent> claimDueEvents(int batchSize, long leaseSeconds, int maxAttempts) {
+        LocalDateTime now = LocalDateTime.now();
+        List<WorkoutOutboxEvent> events = outboxEventRepository.claimDueEvents(
+                now, now.plusSeconds(leaseSeconds), maxAttempts, batchSize);
+        //RETURNING does not keep the order of the claim
+        events.sort(Comparator.comparing(WorkoutOutboxEvent::getOccurredAt)
+                .thenComparing(WorkoutOutboxEvent::getEventId));
+        return events;
+    }
+
+    /**
+     * hands the event to the subscriber unless it already consumed it, in one transaction with the consumption record
+     * @return false when the event had been consumed before
+     */
+    public boolean deliver(WorkoutEventSubscriber subscriber, WorkoutOutboxEvent event) {
+        if (outboxEventRepository.recordConsumption(subscriber.getName(), event.getEventId()) == 0) {
+            return false;
+        }
+        subscriber.handle(event);
+        return true;
+    }
+
+    public void markProcessed(Long eventId, LocalDateTime processedAt) {
+        outboxEventRepository.markProcessed(eventId, processedAt);
+    }
+
+    public void markFailed(Long eventId, String error, LocalDateTime nextAttemptAt) {
+        String message = error != null && error.length() > MAX_ERROR_LENGTH ? error.substring(0, MAX_ERROR_LENGTH) : error;
+        outboxEventRepository.markFailed(eventId, message, nextAttemptAt);
+    }
+
+    @Transactional(readOnly = true)
+    public Backlog getBacklog(int maxAttempts) {
+        List<Object[]> rows = outboxEventRepository.getBacklog(maxAttempts);
+        Object[] row = rows.isEmpty() ? new Object[3] : rows.get(0);
+        return Backlog.builder()
+                .pending(row[0] != null ? ((Number) row[0]).longValue() : 0)
+                .abandoned(row[1] != null ? ((Number) row[1]).longValue() : 0)
+                .oldestOccurredAt((LocalDateTime) row[2])
+                .build();
+    }
+
+    /**
+     * deletes up to batchSize events delivered before the cutoff, returns how many were deleted
+     */
+    public int purgeProcessedBefore(LocalDateTime cutoff, int batchSize) {
+        return outboxEventRepository.deleteProcessedBefore(cutoff, batchSize);
+    }
+
+    @lombok.Builder
+    @lombok.Data
+    public static class Backlog {
+        private long pending;
+        //events that gave up after max-attempts, included in pending
+        private long abandoned;
+        private LocalDateTime oldestOccurredAt;
+    }
+}
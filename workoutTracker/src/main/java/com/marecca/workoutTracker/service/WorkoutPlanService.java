@@ -9,6 +9,7 @@ import com.marecca.workoutTracker.repository.ExerciseRepository;
 import com.marecca.workoutTracker.repository.WorkoutPlanRepository;
 import com.marecca.workoutTracker.repository.UserRepository;
 import com.marecca.workoutTracker.repository.WorkoutExerciseDetailRepository;
+import com.marecca.workoutTracker.security.OwnershipGuard;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
@@ -18,6 +19,7 @@ import org.springframework.transaction.annotation.Transactional;
 import org.springframework.util.StringUtils;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 
@@ -31,6 +33,8 @@ public class WorkoutPlanService {
     private final UserRepository userRepository;
     private final ExerciseRepository exerciseRepository;
     private final WorkoutExerciseDetailRepository workoutExerciseDetailRepository;
+    private final ExerciseCatalog exerciseCatalog;
+    private final OwnershipGuard ownershipGuard;
     /**
      * creates a workout plan with exercises
      */
@@ -42,15 +46,25 @@ public class WorkoutPlanService {
 
         workoutPlan.setUser(user);
 
+        //checks all exercises against the catalog before writing anything
+        if (exerciseRequests != null) {
+            for (ExerciseDetailRequest exerciseRequest : exerciseRequests) {
+                if (!exerciseCatalog.exists(exerciseRequest.getExerciseId())) {
+                    throw new IllegalArgumentException("Exercise with ID " + exerciseRequest.getExerciseId() + " was not found");
+                }
+            }
+        }
+
         //saves workout plan
         WorkoutPlan savedPlan = workoutPlanRepository.save(workoutPlan);
 
         if (exerciseRequests != null && !exerciseRequests.isEmpty()) {
+            List<WorkoutExerciseDetail> details = new ArrayList<>(exerciseRequests.size());
             for (ExerciseDetailRequest exerciseRequest : exerciseRequests) {
-                Exercise exercise = exerciseRepository.findById(exerciseRequest.getExerciseId())
-                        .orElseThrow(() -> new IllegalArgumentException("Exercise with ID " + exerciseRequest.getExerciseId() + " was not found"));
+                //proxy, the id was checked above so no select is needed
+                Exercise exercise = exerciseRepository.getReferenceById(exerciseRequest.getExerciseId());
 
-                WorkoutExerciseDetail exerciseDetail = WorkoutExerciseDetail.builder()
+                details.add(WorkoutExerciseDetail.builder()
                         .workoutPlan(savedPlan)
                         .exercise(exercise)
                         .exerciseOrder(exerciseRequest.getExerciseOrder())
@@ -62,10 +76,10 @@ public class WorkoutPlanService {
                         .targetDistanceMeters(exerciseRequest.getTargetDistanceMeters())
                         .restTimeSeconds(exerciseRequest.getRestTimeSeconds())
                         .notes(exerciseRequest.getNotes())
-                        .build();
-
-                workoutExerciseDetailRepository.save(exerciseDetail);
+                        .build());
             }
+            //written as one JDBC batch on flush
+            workoutExerciseDetailRepository.saveAll(details);
         }
         return savedPlan;
     }
@@ -79,6 +93,14 @@ public class WorkoutPlanService {
         return workoutPlanRepository.findById(workoutPlanId);
     }
 
+    /**
+     * finds a plan when it exists and belongs to the user, in one query
+     */
+    @Transactional(readOnly = true)
+    public Optional<WorkoutPlan> findUserPlan(Long workoutPlanId, Long userId) {
+        return workoutPlanRepository.findByWorkoutPlanIdAndUserId(workoutPlanId, userId);
+    }
+
     /**
      * finds all plans for a user
      * @param userId
@@ -127,6 +149,7 @@ public class WorkoutPlanService {
 
             //delets plan
             workoutPlanRepository.deleteById(workoutPlanId);
+            ownershipGuard.forgetWorkoutPlan(workoutPlanId);
         } catch (Exception e) {
             throw new IllegalStateException("You can't delete the plan.It is used in scheduled workouts", e);
         }
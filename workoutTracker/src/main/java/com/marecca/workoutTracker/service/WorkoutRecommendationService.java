@@ -2,9 +2,8 @@ package com.marecca.workoutTracker.service;
 
 import com.marecca.workoutTracker.dto.ExerciseStats;
 import com.marecca.workoutTracker.dto.WorkoutRecommendationDTO;
+import com.marecca.workoutTracker.dto.request.WorkoutRecommendationRequest;
 import com.marecca.workoutTracker.entity.*;
-import com.marecca.workoutTracker.entity.enums.ExerciseCategoryType;
-import com.marecca.workoutTracker.entity.enums.MuscleGroupType;
 import com.marecca.workoutTracker.entity.enums.WorkoutStatusType;
 import com.marecca.workoutTracker.repository.*;
 import com.marecca.workoutTracker.service.exceptions.*;
@@ -16,7 +15,6 @@ import java.math.BigDecimal;
 import java.math.RoundingMode;
 import java.time.LocalDateTime;
 import java.util.*;
-import java.util.stream.Collectors;
 
 @Service
 @Transactional
@@ -32,7 +30,7 @@ public class WorkoutRecommendationService {
     private ScheduledWorkoutRepository scheduledWorkoutRepository;
 
     @Autowired
-    private WorkoutExerciseLogRepository workoutExerciseLogRepository;
+    private ExerciseStatsService exerciseStatsService;
 
     @Autowired
     private WorkoutPlanRepository workoutPlanRepository;
@@ -43,40 +41,70 @@ public class WorkoutRecommendationService {
     @Autowired
     private GoalRepository goalRepository;
 
+    @Autowired
+    private RecommendationScoringEngine scoringEngine;
+
+    @Autowired
+    private ExerciseCatalog exerciseCatalog;
+
+    @Autowired
+    private RecommendationCache recommendationCache;
+
+    @Autowired
+    private PrecomputedRecommendationService precomputedRecommendationService;
+
+    private static final ExerciseStats EMPTY_STATS = new ExerciseStats(0, BigDecimal.ZERO, 0.0, 0.0, 3.0);
+
+    //priority score has to be above 1.0 (in hundredths)
+    private static final int MIN_PRIORITY_SCORE = 100;
+
+    public static final List<String> GOAL_TYPES = List.of("WEIGHT_LOSS", "MUSCLE_GAIN", "MAINTENANCE");
+
+    private static final Set<String> VALID_GOAL_TYPES = Set.copyOf(GOAL_TYPES);
+
     /**
      * Workout recommendation
      */
     public List<WorkoutRecommendationDTO> getRecommendations(Long userId, String goalType) {
+        return getRecommendations(userId, goalType, null);
+    }
+
+    /**
+     * Workout recommendation, returns at most limit exercises (default 8, capped at 20)
+     */
+    public List<WorkoutRecommendationDTO> getRecommendations(Long userId, String goalType, Integer limit) {
         try {
             // Validate input parameters
             validateInputParameters(userId, goalType);
+            RecommendationScoringEngine.Goal goal = scoringEngine.parseGoal(goalType);
+            int resolvedLimit = resolveLimit(limit);
+
+            //Serve the list stored by the precompute job, a single lookup
+            Optional<List<WorkoutRecommendationDTO>> precomputed = precomputedRecommendationService.find(userId, goalType);
+            if (precomputed.isPresent() && !precomputed.get().isEmpty()) {
+                List<WorkoutRecommendationDTO> stored = precomputed.get();
+                return List.copyOf(stored.subList(0, Math.min(resolvedLimit, stored.size())));
+            }
 
             //Get user data
             User user = getUserAndValidate(userId);
 
-            //Count completed workouts in the last 90 days
-            int workoutCount = getCompletedWorkoutCount(userId);
-
-            //Calculate strength multiplier based on experience
-            BigDecimal strengthMultiplier = calculateStrengthMultiplier(workoutCount);
-
-            //Get exercises suitable for user's fitness level
-            List<Exercise> suitableExercises = getSuitableExercises(user.getFitnessLevel());
-
-            //Calculate exercise statistics and scores
-            List<WorkoutRecommendationDTO> recommendations = calculateRecommendations(userId, goalType, user, strengthMultiplier, suitableExercises);
+            //Serve from cache while none of the inputs changed
+            RecommendationCache.Key cacheKey = recommendationCache.key(userId, goalType, resolvedLimit,
+                    user.getFitnessLevel(), user.getWeightKg(),
+                    scheduledWorkoutRepository.findLastCompletedWorkoutTime(userId), exerciseCatalog.getVersion());
+            List<WorkoutRecommendationDTO> cached = recommendationCache.get(cacheKey);
+            if (cached != null) {
+                return cached;
+            }
 
-            //Filter and sort by priority score
-            List<WorkoutRecommendationDTO> filteredRecommendations = recommendations.stream()
-                    .filter(rec -> rec.getPriorityScore().compareTo(BigDecimal.valueOf(1.0)) > 0) //keep recommendations with a priority score >1
-                    .sorted((r1, r2) -> r2.getPriorityScore().compareTo(r1.getPriorityScore())) //sort in descending order
-                    .limit(8) //take the first 8 exercises
-                    .collect(Collectors.toList()); //collect the final results into a list
+            List<WorkoutRecommendationDTO> recommendations = computeRecommendations(user, goal, resolvedLimit);
 
-            if (filteredRecommendations.isEmpty()) {
+            if (recommendations.isEmpty()) {
                 throw new NoExercisesFoundException("No suitable exercises found for user " + userId + " with goal type " + goalType + " and fitness level " + user.getFitnessLevel());
             }
-            return filteredRecommendations;
+            recommendationCache.put(cacheKey, recommendations);
+            return recommendations;
 
         } catch (UserNotFoundException | InvalidGoalTypeException |
                  InvalidUserDataException | NoExercisesFoundException |
@@ -87,6 +115,30 @@ public class WorkoutRecommendationService {
         }
     }
 
+    /**
+     * Recommendations for the precompute job: always computed from the database, the maximum number
+     * of exercises (callers slice them to the requested limit), empty when nothing qualifies
+     */
+    public List<WorkoutRecommendationDTO> precomputeRecommendations(Long userId, String goalType) {
+        validateInputParameters(userId, goalType);
+        User user = getUserAndValidate(userId);
+        return computeRecommendations(user, scoringEngine.parseGoal(goalType), WorkoutRecommendationRequest.MAX_LIMIT);
+    }
+
+    private List<WorkoutRecommendationDTO> computeRecommendations(User user, RecommendationScoringEngine.Goal goal, int limit) {
+        //Count completed workouts in the last 90 days
+        int workoutCount = getCompletedWorkoutCount(user.getUserId());
+
+        //Calculate strength multiplier based on experience
+        int strengthMultiplier = scoringEngine.strengthMultiplier(workoutCount);
+
+        //Get exercises suitable for user's fitness level
+        RecommendationScoringEngine.Features suitableExercises = getSuitableExercises(user.getFitnessLevel());
+
+        //Score all exercises, keep the best ones with a priority score > 1 and build their recommendations
+        return calculateRecommendations(user.getUserId(), goal, user, strengthMultiplier, suitableExercises, limit);
+    }
+
     private void validateInputParameters(Long userId, String goalType) {
         if (userId == null || userId <= 0) {
             throw new IllegalArgumentException("User ID must be a positive number, received: " + userId);
@@ -96,11 +148,21 @@ public class WorkoutRecommendationService {
             throw new IllegalArgumentException("Goal type cannot be null");
         }
 
-        if (!Arrays.asList("WEIGHT_LOSS", "MUSCLE_GAIN", "MAINTENANCE").contains(goalType)) {
+        if (!VALID_GOAL_TYPES.contains(goalType)) {
             throw new InvalidGoalTypeException("Invalid goal type: " + goalType + ". Valid options are: WEIGHT_LOSS, MUSCLE_GAIN, MAINTENANCE");
         }
     }
 
+    private int resolveLimit(Integer limit) {
+        if (limit == null) {
+            return WorkoutRecommendationRequest.DEFAULT_LIMIT;
+        }
+        if (limit <= 0) {
+            throw new IllegalArgumentException("Limit must be a positive number, received: " + limit);
+        }
+        return Math.min(limit, WorkoutRecommendationRequest.MAX_LIMIT);
+    }
+
     private User getUserAndValidate(Long userId) {
         User user = userRepository.findById(userId).orElseThrow(() -> new UserNotFoundException("User not found with ID: " + userId));
 
@@ -120,14 +182,10 @@ public class WorkoutRecommendationService {
         return (int) scheduledWorkoutRepository.countWorkoutsByUserStatusAndDate(userId, WorkoutStatusType.COMPLETED, startDate);
     }
 
-    private BigDecimal calculateStrengthMultiplier(int workoutCount) {
-        if (workoutCount > 50) return BigDecimal.valueOf(1.3); // very advanced
-        if (workoutCount > 20) return BigDecimal.valueOf(1.15); // advanced
-        if (workoutCount > 5) return BigDecimal.valueOf(1.0); // medium
-        return BigDecimal.valueOf(0.8); // beginner
-    }
-
-    private List<Exercise> getSuitableExercises(String fitnessLevel) {
+    /**
+     * feature vectors of the exercises suitable for the fitness level, precomputed by the catalog
+     */
+    private RecommendationScoringEngine.Features getSuitableExercises(String fitnessLevel) {
         int maxDifficulty;
         switch (fitnessLevel) {
             case "BEGINNER":
@@ -141,319 +199,74 @@ public class WorkoutRecommendationService {
                 break;
         }
 
-        return exerciseRepository.findByDifficultyLevelLessThanEqual(maxDifficulty);
+        return exerciseCatalog.featuresForMaxDifficulty(maxDifficulty);
     }
 
     /**
-     * for each suitable exercise, computes user stats for that exercise
-     * checks if the exersise was done in the last 7 days
-     * calculates priority score
-     * gets final recommendation
+     * reads the user's stats for all exercises from the user_exercise_stats rollup
+     * checks which exercises were done in the last 7 days
+     * scores every exercise on primitives and selects the top k with a score > 1
+     * builds recommendations only for those k exercises, best first
      */
-    private List<WorkoutRecommendationDTO> calculateRecommendations(Long userId, String goalType, User user, BigDecimal strengthMultiplier, List<Exercise> exercises) {
+    private List<WorkoutRecommendationDTO> calculateRecommendations(Long userId, RecommendationScoringEngine.Goal goal, User user,
+                                                                    int strengthMultiplier, RecommendationScoringEngine.Features features, int limit) {
 
-        List<WorkoutRecommendationDTO> recommendations = new ArrayList<>();
         LocalDateTime recentDate = LocalDateTime.now().minusDays(7);
+        Map<Long, ExerciseStats> statsByExercise = exerciseStatsService.getStatsForUser(userId);
 
-        for (Exercise exercise : exercises) {
-            //Get exercise statistics
-            ExerciseStats stats = calculateExerciseStats(userId, exercise);
-
-            // Check if exercise was done recently
-            boolean doneRecently = workoutExerciseLogRepository.existsRecentExerciseLog(userId, exercise.getExerciseId(), recentDate);
-
-
-            // Calculate priority score
-            BigDecimal priorityScore = calculatePriorityScore(goalType, exercise, stats, doneRecently);
-
-            // Create recommendation
-            WorkoutRecommendationDTO recommendation = createRecommendation(exercise, stats, goalType, user, strengthMultiplier, priorityScore);
-
-            recommendations.add(recommendation);
-        }
-
-        return recommendations;
-    }
+        int n = features.size();
 
-    private ExerciseStats calculateExerciseStats(Long userId, Exercise exercise) {
-        List<WorkoutExerciseLog> logs = workoutExerciseLogRepository.findLogsByUserExerciseAndStatus(userId, exercise.getExerciseId(), WorkoutStatusType.COMPLETED);
-
-        ExerciseStats stats = new ExerciseStats();
-        stats.setTimesPerformed(logs.size());
-
-        if (!logs.isEmpty()) {
-            //avg weight used
-            stats.setAvgWeightUsed(logs.stream()
-                    .filter(log -> log.getWeightUsedKg() != null) //eliminates null values
-                    .map(WorkoutExerciseLog::getWeightUsedKg)
-                    .reduce(BigDecimal.ZERO, BigDecimal::add)//adds all weights into one value
-                    .divide(BigDecimal.valueOf(logs.size()), 2, RoundingMode.HALF_UP)); //avg
-
-            //avg reps
-            stats.setAvgReps(logs.stream()
-                    .filter(log -> log.getRepsCompleted() != null)
-                    .mapToInt(WorkoutExerciseLog::getRepsCompleted)
-                    .average()
-                    .orElse(0.0));
-
-            //avg sets
-            stats.setAvgSets(logs.stream()
-                    .filter(log -> log.getSetsCompleted() != null)
-                    .mapToInt(WorkoutExerciseLog::getSetsCompleted)
-                    .average()
-                    .orElse(0.0));
-
-            //avg difficulty
-            stats.setAvgDifficulty(logs.stream()
-                    .filter(log -> log.getDifficultyRating() != null)
-                    .mapToInt(WorkoutExerciseLog::getDifficultyRating)
-                    .average()
-                    .orElse(3.0)); //default difficulty 3
-        } else {
-            stats.setAvgWeightUsed(BigDecimal.ZERO);
-            stats.setAvgReps(0.0);
-            stats.setAvgSets(0.0);
-            stats.setAvgDifficulty(3.0);
+        // Check which exercises were done recently
+        boolean[] doneRecently = new boolean[n];
+        for (int i = 0; i < n; i++) {
+            ExerciseStats stats = statsByExercise.get(features.exerciseAt(i).getExerciseId());
+            doneRecently[i] = stats != null && stats.wasPerformedSince(recentDate);
         }
 
-        return stats;
-    }
-
-    /**
-     * method for calculating priority score
-     */
-    private BigDecimal calculatePriorityScore(String goalType, Exercise exercise, ExerciseStats stats, boolean doneRecently) {
-        // Calculate estimated calories per minute
-        BigDecimal caloriesPerMinute = calculateCaloriesPerMinute(exercise);
-
-        // Calculate muscle building potential
-        int muscleBuildingPotential = calculateMuscleBuildingPotential(exercise);
-
-        // Calculate cardio effectiveness
-        int cardioEffectiveness = calculateCardioEffectiveness(exercise);
-
-        //if the exercise was done in the past 7 days -> -1
-        BigDecimal recencyPenalty = doneRecently ? BigDecimal.valueOf(-1.0) : BigDecimal.ZERO;
-
-        //priority score based on goal type
-        BigDecimal priorityScore;
-        switch (goalType) {
-            case "WEIGHT_LOSS":
-                priorityScore = BigDecimal.valueOf(cardioEffectiveness)
-                        .multiply(BigDecimal.valueOf(0.6))
-                        .add(caloriesPerMinute.multiply(BigDecimal.valueOf(0.3)))
-                        .add(ExerciseCategoryType.CARDIO.equals(exercise.getCategory()) ? BigDecimal.valueOf(2.0) : BigDecimal.ZERO)
-                        .add(recencyPenalty);
-                break;
+        // Calculate priority scores and rank
+        int[] scores = scoringEngine.score(goal, features, doneRecently);
+        int[] winners = scoringEngine.selectTopK(scores, limit, MIN_PRIORITY_SCORE);
 
-            case "MUSCLE_GAIN":
-                priorityScore = BigDecimal.valueOf(muscleBuildingPotential)
-                        .multiply(BigDecimal.valueOf(0.7))
-                        .add(ExerciseCategoryType.STRENGTH.equals(exercise.getCategory()) ? BigDecimal.valueOf(2.0) : BigDecimal.ZERO)
-                        .add(Arrays.asList(MuscleGroupType.FULL_BODY, MuscleGroupType.BACK, MuscleGroupType.CHEST, MuscleGroupType.QUADRICEPS)
-                                .contains(exercise.getPrimaryMuscleGroup()) ? BigDecimal.valueOf(1.0) : BigDecimal.ZERO)
-                        .add(recencyPenalty);
-                break;
+        long userWeightHundredths = toHundredths(user.getWeightKg().max(BigDecimal.valueOf(50)));
 
-            default: // MAINTENANCE
-                priorityScore = BigDecimal.valueOf(cardioEffectiveness + muscleBuildingPotential)
-                        .multiply(BigDecimal.valueOf(0.4))
-                        .add(exercise.getDifficultyLevel() <= 3 ? BigDecimal.valueOf(1.0) : BigDecimal.ZERO)
-                        .add(recencyPenalty);
-                break;
+        List<WorkoutRecommendationDTO> recommendations = new ArrayList<>(winners.length);
+        for (int index : winners) {
+            ExerciseStats stats = statsByExercise.getOrDefault(features.exerciseAt(index).getExerciseId(), EMPTY_STATS);
+            recommendations.add(createRecommendation(goal, features, index, stats, scores[index], userWeightHundredths, strengthMultiplier));
         }
 
-        return priorityScore;
-    }
-
-    /**
-     * estimates how many calories are burned per minute for a given exercise
-     *
-     * @param exercise
-     * @return
-     */
-    private BigDecimal calculateCaloriesPerMinute(Exercise exercise) {
-        switch (exercise.getCategory()) {
-            case CARDIO:
-                return BigDecimal.valueOf(12.0); //12 calories per minute
-            case STRENGTH:
-                MuscleGroupType muscleGroup = exercise.getPrimaryMuscleGroup();
-                if (muscleGroup == MuscleGroupType.FULL_BODY) {
-                    return BigDecimal.valueOf(8.0);
-                } else if (muscleGroup == MuscleGroupType.BACK) {
-                    return BigDecimal.valueOf(6.0);
-                } else if (muscleGroup == MuscleGroupType.QUADRICEPS) {
-                    return BigDecimal.valueOf(7.0);
-                } else {
-                    return BigDecimal.valueOf(5.0);
-                }
-            default:
-                return BigDecimal.valueOf(4.0);
-        }
-    }
-
-    /**
-     * calculates a muscle-building score
-     *
-     * @param exercise
-     * @return
-     */
-    private int calculateMuscleBuildingPotential(Exercise exercise) {
-        if (ExerciseCategoryType.STRENGTH.equals(exercise.getCategory())) {
-            MuscleGroupType muscleGroup = exercise.getPrimaryMuscleGroup();
-            if (muscleGroup == MuscleGroupType.FULL_BODY) {
-                return 5;
-            } else if (muscleGroup == MuscleGroupType.BACK ||
-                    muscleGroup == MuscleGroupType.CHEST ||
-                    muscleGroup == MuscleGroupType.QUADRICEPS) {
-                return 4;
-            } else {
-                return 3;
-            }
-        }
-        return 2;
-    }
-
-    private int calculateCardioEffectiveness(Exercise exercise) {
-        switch (exercise.getCategory()) {
-            case CARDIO:
-                return 5;
-            case STRENGTH:
-                return MuscleGroupType.FULL_BODY.equals(exercise.getPrimaryMuscleGroup()) ? 3 : 2;
-            default:
-                return 3;
-        }
+        return recommendations;
     }
 
-    private WorkoutRecommendationDTO createRecommendation(Exercise exercise, ExerciseStats stats, String goalType, User user, BigDecimal strengthMultiplier, BigDecimal priorityScore) {
+    private WorkoutRecommendationDTO createRecommendation(RecommendationScoringEngine.Goal goal, RecommendationScoringEngine.Features features, int index,
+                                                          ExerciseStats stats, int score, long userWeightHundredths, int strengthMultiplier) {
+        Exercise exercise = features.exerciseAt(index);
         WorkoutRecommendationDTO recommendation = new WorkoutRecommendationDTO();
 
         recommendation.setExerciseId(exercise.getExerciseId());
         recommendation.setExerciseName(exercise.getExerciseName());
-        recommendation.setPriorityScore(priorityScore);
+        recommendation.setPriorityScore(scoringEngine.toPriorityScore(goal, score));
 
         //calculate recommended sets
-        recommendation.setRecommendedSets(calculateRecommendedSets(goalType, exercise, strengthMultiplier));
+        recommendation.setRecommendedSets(scoringEngine.recommendedSets(goal, features, index, strengthMultiplier));
 
         //calculate recommended reps
-        int[] repsRange = calculateRecommendedReps(goalType, exercise, stats);
+        int[] repsRange = scoringEngine.recommendedReps(goal, features, index, stats);
         recommendation.setRecommendedRepsMin(repsRange[0]);
         recommendation.setRecommendedRepsMax(repsRange[1]);
 
         //calculate recommended weight percentage
-        recommendation.setRecommendedWeightPercentage(calculateRecommendedWeightPercentage(goalType, stats, user, strengthMultiplier));
+        recommendation.setRecommendedWeightPercentage(scoringEngine.recommendedWeightPercentage(
+                goal, stats, toHundredths(stats.getAvgWeightUsed()), userWeightHundredths, strengthMultiplier));
 
         //calculate rest time
-        recommendation.setRestTimeSeconds(calculateRestTime(goalType, exercise));
+        recommendation.setRestTimeSeconds(scoringEngine.restTimeSeconds(goal, features, index));
 
         return recommendation;
     }
 
-    private Integer calculateRecommendedSets(String goalType, Exercise exercise, BigDecimal strengthMultiplier) {
-        switch (goalType) {
-            case "WEIGHT_LOSS":
-                if (exercise.getCategory() == ExerciseCategoryType.CARDIO) {
-                    return 1;
-                } else if (exercise.getCategory() == ExerciseCategoryType.STRENGTH) {
-                    return Math.max(2, strengthMultiplier.multiply(BigDecimal.valueOf(3)).intValue());
-                } else {
-                    return 2;
-                }
-            case "MUSCLE_GAIN":
-                if (exercise.getCategory() == ExerciseCategoryType.STRENGTH) {
-                    return Math.max(3, strengthMultiplier.multiply(BigDecimal.valueOf(4)).intValue());
-                } else if (exercise.getCategory() == ExerciseCategoryType.CARDIO) {
-                    return 1;
-                } else {
-                    return 3;
-                }
-            default:
-                return 3;
-        }
-    }
-
-    private int[] calculateRecommendedReps(String goalType, Exercise exercise, ExerciseStats stats) {
-        int minReps, maxReps;
-
-        if (stats.getTimesPerformed() > 0 && stats.getAvgReps() > 0) {
-            minReps = Math.max(1, (int) Math.round(stats.getAvgReps() * 0.8));
-            maxReps = (int) Math.round(stats.getAvgReps() * 1.2);
-        } else {
-            switch (goalType) {
-                case "WEIGHT_LOSS":
-                    if (exercise.getCategory() == ExerciseCategoryType.CARDIO) {
-                        minReps = maxReps = 1;
-                    } else if (exercise.getCategory() == ExerciseCategoryType.STRENGTH) {
-                        minReps = 12;
-                        maxReps = 15;
-                    } else {
-                        minReps = 10;
-                        maxReps = 15;
-                    }
-                    break;
-                case "MUSCLE_GAIN":
-                    if (exercise.getCategory() == ExerciseCategoryType.STRENGTH) {
-                        minReps = 6;
-                        maxReps = 12;
-                    } else if (exercise.getCategory() == ExerciseCategoryType.CARDIO) {
-                        minReps = maxReps = 1;
-                    } else {
-                        minReps = 8;
-                        maxReps = 12;
-                    }
-                    break;
-                default:
-                    minReps = 10;
-                    maxReps = 15;
-                    break;
-            }
-        }
-
-        return new int[]{minReps, maxReps};
-    }
-
-    private BigDecimal calculateRecommendedWeightPercentage(String goalType, ExerciseStats stats, User user, BigDecimal strengthMultiplier) {
-        if (stats.getTimesPerformed() > 0 && stats.getAvgWeightUsed().compareTo(BigDecimal.ZERO) > 0) {
-            BigDecimal userWeight = user.getWeightKg().max(BigDecimal.valueOf(50));
-            BigDecimal basePercentage = stats.getAvgWeightUsed()
-                    .divide(userWeight, 4, RoundingMode.HALF_UP)
-                    .multiply(BigDecimal.valueOf(100));
-
-            switch (goalType) {
-                case "MUSCLE_GAIN":
-                    return basePercentage.multiply(BigDecimal.valueOf(1.1)).min(BigDecimal.valueOf(100.0));
-                case "WEIGHT_LOSS":
-                    return basePercentage.multiply(BigDecimal.valueOf(0.9)).min(BigDecimal.valueOf(90.0));
-                default:
-                    return basePercentage.min(BigDecimal.valueOf(95.0));
-            }
-        } else {
-            switch (goalType) {
-                case "MUSCLE_GAIN":
-                    return BigDecimal.valueOf(80).multiply(strengthMultiplier);
-                case "WEIGHT_LOSS":
-                    return BigDecimal.valueOf(65).multiply(strengthMultiplier);
-                default:
-                    return BigDecimal.valueOf(70).multiply(strengthMultiplier);
-            }
-        }
-    }
-
-    private Integer calculateRestTime(String goalType, Exercise exercise) {
-        if (exercise.getCategory() == ExerciseCategoryType.CARDIO) {
-            return 30;
-        } else if (exercise.getCategory() == ExerciseCategoryType.STRENGTH) {
-            switch (goalType) {
-                case "MUSCLE_GAIN":
-                    return 120;
-                case "WEIGHT_LOSS":
-                    return 45;
-                default:
-                    return 90;
-            }
-        } else {
-            return 60;
-        }
+    private long toHundredths(BigDecimal value) {
+        return value.setScale(2, RoundingMode.HALF_UP).unscaledValue().longValue();
     }
 
     public Map<String, Object> saveWorkoutPlan(Long userId, List<WorkoutRecommendationDTO> recommendations, Long goalId, String planName) {
@@ -575,31 +388,116 @@ public class WorkoutRecommendationService {
         return 1;
     }
 
+    /**
+     * inserts the details of a plan with a single batched statement
+     * exercise ids are checked against the catalog and referenced through proxies, so no selects are issued
+     */
     private void insertWorkoutExerciseDetails(WorkoutPlan workoutPlan, List<WorkoutRecommendationDTO> recommendations) {
+        List<WorkoutExerciseDetail> details = new ArrayList<>(recommendations.size());
+        for (int i = 0; i < recommendations.size(); i++) {
+            details.add(createWorkoutExerciseDetail(workoutPlan, recommendations.get(i), i + 1));
+        }
+
+        workoutExerciseDetailRepository.saveAll(details);
+    }
+
+    private WorkoutExerciseDetail createWorkoutExerciseDetail(WorkoutPlan workoutPlan, WorkoutRecommendationDTO rec, int exerciseOrder) {
+        if (!exerciseCatalog.exists(rec.getExerciseId())) {
+            throw new RuntimeException("Exercise not found with ID: " + rec.getExerciseId());
+        }
+        Exercise exercise = exerciseRepository.getReferenceById(rec.getExerciseId());
+
+        return WorkoutExerciseDetail.builder()
+                .workoutPlan(workoutPlan)
+                .exercise(exercise)
+                .exerciseOrder(exerciseOrder)
+                .targetSets(rec.getRecommendedSets())
+                .targetRepsMin(rec.getRecommendedRepsMin())
+                .targetRepsMax(rec.getRecommendedRepsMax())
+                .targetWeightKg(null)
+                .restTimeSeconds(rec.getRestTimeSeconds())
+                .notes(recommendationNotes(rec))
+                .build();
+    }
+
+    private String recommendationNotes(WorkoutRecommendationDTO rec) {
+        return String.format("Recommendation - Priority Score: %.2f, Weight: %s%%",
+                rec.getPriorityScore() != null ? rec.getPriorityScore().doubleValue() : 0.0,
+                rec.getRecommendedWeightPercentage() != null ? rec.getRecommendedWeightPercentage().toString() : "N/A");
+    }
+
+    /**
+     * brings the details of an existing plan in line with the recommendations, touching only what changed
+     * details are matched by exercise id (unique within a plan), a different position or target is an update,
+     * exercises no longer recommended are deleted and new ones inserted, each group as one batch
+     * returns the number of inserted, updated, deleted and unchanged details
+     */
+    private Map<String, Integer> syncWorkoutExerciseDetails(WorkoutPlan workoutPlan, List<WorkoutRecommendationDTO> recommendations) {
+        Map<Long, WorkoutExerciseDetail> existing = new HashMap<>();
+        for (WorkoutExerciseDetail detail : workoutExerciseDetailRepository.findByWorkoutPlanId(workoutPlan.getWorkoutPlanId())) {
+            existing.put(detail.getExercise().getExerciseId(), detail);
+        }
+
+        Set<Long> seen = new HashSet<>();
+        List<WorkoutExerciseDetail> toInsert = new ArrayList<>();
+        int updated = 0;
+        int unchanged = 0;
+
         for (int i = 0; i < recommendations.size(); i++) {
             WorkoutRecommendationDTO rec = recommendations.get(i);
+            if (!seen.add(rec.getExerciseId())) {
+                throw new IllegalArgumentException("Exercise " + rec.getExerciseId() + " appears more than once in the recommendations");
+            }
 
-            Exercise exercise = exerciseRepository.findById(rec.getExerciseId())
-                    .orElseThrow(() -> new RuntimeException("Exercise not found with ID: " + rec.getExerciseId()));
-
-            String notes = String.format("Recommendation - Priority Score: %.2f, Weight: %s%%",
-                    rec.getPriorityScore() != null ? rec.getPriorityScore().doubleValue() : 0.0,
-                    rec.getRecommendedWeightPercentage() != null ? rec.getRecommendedWeightPercentage().toString() : "N/A");
-
-            WorkoutExerciseDetail detail = WorkoutExerciseDetail.builder()
-                    .workoutPlan(workoutPlan)
-                    .exercise(exercise)
-                    .exerciseOrder(i + 1)
-                    .targetSets(rec.getRecommendedSets())
-                    .targetRepsMin(rec.getRecommendedRepsMin())
-                    .targetRepsMax(rec.getRecommendedRepsMax())
-                    .targetWeightKg(null)
-                    .restTimeSeconds(rec.getRestTimeSeconds())
-                    .notes(notes)
-                    .build();
+            WorkoutExerciseDetail detail = existing.remove(rec.getExerciseId());
+            if (detail == null) {
+                toInsert.add(createWorkoutExerciseDetail(workoutPlan, rec, i + 1));
+            } else if (applyRecommendation(detail, rec, i + 1)) {
+                //flushed as a batched update by dirty checking
+                updated++;
+            } else {
+                unchanged++;
+            }
+        }
+
+        //whatever is left over is no longer recommended
+        if (!existing.isEmpty()) {
+            workoutExerciseDetailRepository.deleteAllInBatch(existing.values());
+        }
+        if (!toInsert.isEmpty()) {
+            workoutExerciseDetailRepository.saveAll(toInsert);
+        }
+
+        Map<String, Integer> changes = new HashMap<>();
+        changes.put("inserted", toInsert.size());
+        changes.put("updated", updated);
+        changes.put("deleted", existing.size());
+        changes.put("unchanged", unchanged);
+        return changes;
+    }
 
-            workoutExerciseDetailRepository.save(detail);
+    /**
+     * copies the recommendation onto an existing detail, returns true when any field changed
+     */
+    private boolean applyRecommendation(WorkoutExerciseDetail detail, WorkoutRecommendationDTO rec, int exerciseOrder) {
+        String notes = recommendationNotes(rec);
+        boolean changed = !Objects.equals(detail.getExerciseOrder(), exerciseOrder)
+                || !Objects.equals(detail.getTargetSets(), rec.getRecommendedSets())
+                || !Objects.equals(detail.getTargetRepsMin(), rec.getRecommendedRepsMin())
+                || !Objects.equals(detail.getTargetRepsMax(), rec.getRecommendedRepsMax())
+                || detail.getTargetWeightKg() != null
+                || !Objects.equals(detail.getRestTimeSeconds(), rec.getRestTimeSeconds())
+                || !Objects.equals(detail.getNotes(), notes);
+        if (changed) {
+            detail.setExerciseOrder(exerciseOrder);
+            detail.setTargetSets(rec.getRecommendedSets());
+            detail.setTargetRepsMin(rec.getRecommendedRepsMin());
+            detail.setTargetRepsMax(rec.getRecommendedRepsMax());
+            detail.setTargetWeightKg(null);
+            detail.setRestTimeSeconds(rec.getRestTimeSeconds());
+            detail.setNotes(notes);
         }
+        return changed;
     }
 
     private Map<String, Object> updateExistingWorkoutPlan(WorkoutPlan workoutPlan,
@@ -620,11 +518,8 @@ public class WorkoutRecommendationService {
 
             workoutPlan = workoutPlanRepository.save(workoutPlan);
 
-            // Delete existing exercise details for this workout plan
-            workoutExerciseDetailRepository.deleteByWorkoutPlanId(workoutPlan.getWorkoutPlanId());
-
-            // Insert new exercise details
-            insertWorkoutExerciseDetails(workoutPlan, recommendations);
+            // Apply only the differences to the existing exercise details
+            Map<String, Integer> changes = syncWorkoutExerciseDetails(workoutPlan, recommendations);
 
             // Prepare result
             Map<String, Object> result = new HashMap<>();
@@ -636,6 +531,7 @@ public class WorkoutRecommendationService {
             result.put("updatedAt", workoutPlan.getUpdatedAt());
             result.put("userId", workoutPlan.getUser().getUserId());
             result.put("isUpdated", true);
+            result.put("exerciseChanges", changes);
 
             return result;
 
@@ -0,0 +1,42 @@
+package com.marecca.workoutTracker.service;
+
+import com.marecca.workoutTracker.entity.WorkoutOutboxEvent;
+import com.marecca.workoutTracker.event.WorkoutEventSubscriber;
+import com.marecca.workoutTracker.event.WorkoutLifecycleEvent;
+import com.marecca.workoutTracker.event.WorkoutProjectionUpdatedEvent;
+import com.marecca.workoutTracker.repository.UserWorkoutStreakRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+/**
+ * keeps user_workout_streaks up to date from the COMPLETED outbox events
+ * (this used to be trigger_update_streak_on_workout_completion, inside the completion write)
+ */
+@Component
+@Order(1)
+@RequiredArgsConstructor
+public class WorkoutStreakSubscriber implements WorkoutEventSubscriber {
+
+    public static final String NAME = "workout-streak";
+
+    private final UserWorkoutStreakRepository streakRepository;
+    private final ApplicationEventPublisher eventPublisher;
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    @Override
+    public boolean supports(WorkoutLifecycleEvent.Transition transition) {
+        return transition == WorkoutLifecycleEvent.Transition.COMPLETED;
+    }
+
+    @Override
+    public void handle(WorkoutOutboxEvent event) {
+        streakRepository.applyCompletedWorkout(event.getUserId(), event.getScheduledDate());
+        eventPublisher.publishEvent(new WorkoutProjectionUpdatedEvent(event.getUserId(), NAME));
+    }
+}
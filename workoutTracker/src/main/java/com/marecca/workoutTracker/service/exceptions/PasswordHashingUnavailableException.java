@@ -0,0 +1,15 @@
+package com.marecca.workoutTracker.service.exceptions;
+
+/**
+ * the password hashing pool is saturated, the request should be retried later
+ */
+public class PasswordHashingUnavailableException extends RuntimeException {
+
+    public PasswordHashingUnavailableException(String message) {
+        super(message);
+    }
+
+    public PasswordHashingUnavailableException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
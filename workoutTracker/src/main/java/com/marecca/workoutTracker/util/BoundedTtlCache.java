@@ -0,0 +1,174 @@
+package com.marecca.workoutTracker.util;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Predicate;
+
+/**
+ * small in-memory cache with LRU eviction once maxSize is reached and a per-entry TTL
+ * all operations are synchronized, entries are expected to be few (thousands) and cheap to compare
+ * keeps hit/miss/eviction counters that can be published to Micrometer
+ */
+public class BoundedTtlCache<K, V> {
+
+    private final int maxSize;
+    private final long ttlNanos;
+    private final LinkedHashMap<K, Entry<V>> entries;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder expirations = new LongAdder();
+    private final LongAdder invalidations = new LongAdder();
+
+    private static final class Entry<V> {
+        private final V value;
+        private final long expiresAt;
+
+        private Entry(V value, long expiresAt) {
+            this.value = value;
+            this.expiresAt = expiresAt;
+        }
+    }
+
+    public BoundedTtlCache(int maxSize, Duration ttl) {
+        if (maxSize <= 0) {
+            throw new IllegalArgumentException("Cache size must be positive, received: " + maxSize);
+        }
+        this.maxSize = maxSize;
+        this.ttlNanos = ttl.toNanos();
+        //access order, so the eldest entry is the least recently used one
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, Entry<V>> eldest) {
+                if (size() > BoundedTtlCache.this.maxSize) {
+                    evictions.increment();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * cached value or null when missing or expired
+     */
+    public synchronized V get(K key) {
+        Entry<V> entry = entries.get(key);
+        if (entry == null) {
+            misses.increment();
+            return null;
+        }
+        if (System.nanoTime() - entry.expiresAt >= 0) {
+            entries.remove(key);
+            expirations.increment();
+            misses.increment();
+            return null;
+        }
+        hits.increment();
+        return entry.value;
+    }
+
+    public synchronized void put(K key, V value) {
+        put(key, value, ttlNanos);
+    }
+
+    /**
+     * stores a value with a shorter lifetime than the default TTL, never a longer one
+     */
+    public synchronized void put(K key, V value, Duration ttl) {
+        put(key, value, Math.min(ttl.toNanos(), ttlNanos));
+    }
+
+    private void put(K key, V value, long lifetimeNanos) {
+        entries.put(key, new Entry<>(value, System.nanoTime() + lifetimeNanos));
+    }
+
+    public synchronized void invalidate(K key) {
+        if (entries.remove(key) != null) {
+            invalidations.increment();
+        }
+    }
+
+    /**
+     * removes every entry whose key matches, e.g. all entries of one user
+     */
+    public synchronized int invalidateIf(Predicate<K> predicate) {
+        int removed = 0;
+        Iterator<K> iterator = entries.keySet().iterator();
+        while (iterator.hasNext()) {
+            if (predicate.test(iterator.next())) {
+                iterator.remove();
+                removed++;
+            }
+        }
+        invalidations.add(removed);
+        return removed;
+    }
+
+    public synchronized void clear() {
+        invalidations.add(entries.size());
+        entries.clear();
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    public long getHits() {
+        return hits.sum();
+    }
+
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    public long getEvictions() {
+        return evictions.sum();
+    }
+
+    public long getExpirations() {
+        return expirations.sum();
+    }
+
+    public long getInvalidations() {
+        return invalidations.sum();
+    }
+
+    /**
+     * publishes the counters with the usual cache.* meter names, tagged with the cache name
+     */
+    public void registerMetrics(MeterRegistry registry, String cacheName) {
+        FunctionCounter.builder("cache.gets", this, BoundedTtlCache::getHits)
+                .tag("cache", cacheName).tag("result", "hit")
+                .description("Cache lookups that returned a value")
+                .register(registry);
+        FunctionCounter.builder("cache.gets", this, BoundedTtlCache::getMisses)
+                .tag("cache", cacheName).tag("result", "miss")
+                .description("Cache lookups that found nothing or an expired entry")
+                .register(registry);
+        FunctionCounter.builder("cache.evictions", this, BoundedTtlCache::getEvictions)
+                .tag("cache", cacheName)
+                .description("Entries evicted because the cache was full")
+                .register(registry);
+        FunctionCounter.builder("cache.expirations", this, BoundedTtlCache::getExpirations)
+                .tag("cache", cacheName)
+                .description("Entries dropped because their TTL passed")
+                .register(registry);
+        FunctionCounter.builder("cache.invalidations", this, BoundedTtlCache::getInvalidations)
+                .tag("cache", cacheName)
+                .description("Entries removed explicitly")
+                .register(registry);
+        Gauge.builder("cache.size", this, BoundedTtlCache::size)
+                .tag("cache", cacheName)
+                .description("Entries currently in the cache")
+                .register(registry);
+    }
+}
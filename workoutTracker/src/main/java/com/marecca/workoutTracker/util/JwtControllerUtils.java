@@ -1,5 +1,6 @@
 package com.marecca.workoutTracker.util;
 
+import com.marecca.workoutTracker.security.JwtPrincipal;
 import com.marecca.workoutTracker.service.exceptions.InvalidJwtTokenException;
 import com.marecca.workoutTracker.service.exceptions.JwtTokenException;
 import com.marecca.workoutTracker.service.exceptions.JwtTokenExpiredException;
@@ -8,6 +9,8 @@ import io.jsonwebtoken.JwtException;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Component;
 
 import jakarta.servlet.http.HttpServletRequest;
@@ -21,7 +24,19 @@ public class JwtControllerUtils {
 
     private final JwtUtil jwtUtil;
 
+    /**
+     * user id of the authenticated request
+     * the token was already verified by JwtAuthenticationFilter, its principal is read from the security context
+     */
     public Long getUserIdFromToken(HttpServletRequest request) throws JwtTokenException {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && authentication.getPrincipal() instanceof JwtPrincipal principal) {
+            if (principal.isExpired()) {
+                throw new JwtTokenExpiredException("Token has expired");
+            }
+            return principal.getUserId();
+        }
+
         String authHeader = request.getHeader("Authorization");
         if (authHeader == null || !authHeader.startsWith("Bearer ")) {
             throw new InvalidJwtTokenException("Missing or invalid Authorization header");
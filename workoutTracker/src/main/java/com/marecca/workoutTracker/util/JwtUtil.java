@@ -1,25 +1,46 @@
 package com.marecca.workoutTracker.util;
 
+import com.marecca.workoutTracker.security.JwtPrincipal;
 import io.jsonwebtoken.*;
 import io.jsonwebtoken.security.Keys;
-import lombok.extern.slf4j.Slf4j;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
 import javax.crypto.SecretKey;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
 import java.util.Date;
 
+/**
+ * issues and verifies the HS256 tokens
+ * the key and the parser are built once, both are immutable and thread safe
+ * recently verified tokens are kept in a small cache keyed by the token's SHA-256, never longer than they are valid
+ */
 @Component
 public class JwtUtil {
 
-    @Value("${jwt.secret:mySecretKey12345678901234567890123456789012345678901234567890}")
-    private String jwtSecret;
+    private final long jwtExpiration;
+    private final SecretKey signingKey;
+    private final JwtParser parser;
+    private final BoundedTtlCache<String, JwtPrincipal> verifiedTokens;
 
-    @Value("${jwt.expiration:86400000}") // 24 hours
-    private long jwtExpiration;
-
-    private SecretKey getSigningKey() {
-        return Keys.hmacShaKeyFor(jwtSecret.getBytes());
+    public JwtUtil(@Value("${jwt.secret:mySecretKey12345678901234567890123456789012345678901234567890}") String jwtSecret,
+                   @Value("${jwt.expiration:86400000}") long jwtExpiration, // 24 hours
+                   @Value("${jwt.verified-cache.max-size:10000}") int verifiedCacheSize,
+                   @Value("${jwt.verified-cache.ttl-minutes:5}") long verifiedCacheTtlMinutes,
+                   MeterRegistry meterRegistry) {
+        this.jwtExpiration = jwtExpiration;
+        this.signingKey = Keys.hmacShaKeyFor(jwtSecret.getBytes());
+        this.parser = Jwts.parserBuilder()
+                .setSigningKey(signingKey)
+                .build();
+        this.verifiedTokens = new BoundedTtlCache<>(verifiedCacheSize, Duration.ofMinutes(verifiedCacheTtlMinutes));
+        this.verifiedTokens.registerMetrics(meterRegistry, "jwt-verified-tokens");
     }
 
     public String generateToken(String email, Long userId) {
@@ -31,34 +52,48 @@ public class JwtUtil {
                 .claim("userId", userId)
                 .setIssuedAt(now)
                 .setExpiration(expiryDate)
-                .signWith(getSigningKey(), SignatureAlgorithm.HS256)
+                .signWith(signingKey, SignatureAlgorithm.HS256)
                 .compact();
     }
 
+    /**
+     * verifies the signature and expiry once and returns the claims the app uses
+     * throws ExpiredJwtException for an expired token and another JwtException for an invalid one
+     */
+    public JwtPrincipal verify(String token) {
+        if (token == null || token.isBlank()) {
+            throw new MalformedJwtException("Empty token");
+        }
+
+        String cacheKey = hash(token);
+        JwtPrincipal cached = verifiedTokens.get(cacheKey);
+        if (cached != null && !cached.isExpired()) {
+            return cached;
+        }
+
+        Claims claims = parser.parseClaimsJws(token).getBody();
+        Instant expiresAt = claims.getExpiration() != null ? claims.getExpiration().toInstant() : null;
+        JwtPrincipal principal = new JwtPrincipal(claims.get("userId", Long.class), claims.getSubject(), expiresAt);
+
+        if (expiresAt != null) {
+            verifiedTokens.put(cacheKey, principal, Duration.between(Instant.now(), expiresAt));
+        } else {
+            verifiedTokens.put(cacheKey, principal);
+        }
+        return principal;
+    }
+
     public String getEmailFromToken(String token) {
-        Claims claims = Jwts.parserBuilder()
-                .setSigningKey(getSigningKey())
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
-        return claims.getSubject();
+        return verify(token).getEmail();
     }
 
     public Long getUserIdFromToken(String token) {
-        Claims claims = Jwts.parserBuilder()
-                .setSigningKey(getSigningKey())
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
-        return claims.get("userId", Long.class);
+        return verify(token).getUserId();
     }
 
     public boolean validateToken(String token) {
         try {
-            Jwts.parserBuilder()
-                    .setSigningKey(getSigningKey())
-                    .build()
-                    .parseClaimsJws(token);
+            verify(token);
             return true;
         } catch (JwtException | IllegalArgumentException e) {
             return false;
@@ -67,14 +102,19 @@ public class JwtUtil {
 
     public boolean isTokenExpired(String token) {
         try {
-            Claims claims = Jwts.parserBuilder()
-                    .setSigningKey(getSigningKey())
-                    .build()
-                    .parseClaimsJws(token)
-                    .getBody();
-            return claims.getExpiration().before(new Date());
+            return verify(token).isExpired();
         } catch (JwtException e) {
             return true;
         }
     }
-}
\ No newline at end of file
+
+    private String hash(String token) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+            return Base64.getEncoder().encodeToString(digest);
+        } catch (NoSuchAlgorithmException e) {
+            //every JVM ships SHA-256
+            throw new IllegalStateException(e);
+        }
+    }
+}
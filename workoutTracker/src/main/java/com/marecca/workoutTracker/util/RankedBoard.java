@@ -0,0 +1,242 @@
+package com.marecca.workoutTracker.util;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * scores of many members kept in rank order, highest score first, equal scores by the smaller member id
+ * an order statistic treap (every node knows the size of its subtree) finds the rank of a member and the
+ * entry at any position in O(log n), a map from member to score finds the node to move when a score changes
+ * guarded by a read-write lock, readers do not block each other
+ * members with a score of 0 or less are not kept
+ */
+public class RankedBoard {
+
+    private static final class Node {
+        private final long member;
+        private final long score;
+        private final int priority = ThreadLocalRandom.current().nextInt();
+        private Node left;
+        private Node right;
+        private int size = 1;
+
+        private Node(long member, long score) {
+            this.member = member;
+            this.score = score;
+        }
+    }
+
+    @lombok.Value
+    public static class Entry {
+        //1 based
+        long rank;
+        long member;
+        long score;
+    }
+
+    private final Map<Long, Long> scores = new HashMap<>();
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private Node root;
+
+    /**
+     * board filled with the given scores, built before it is shared
+     */
+    public static RankedBoard of(Map<Long, Long> memberScores) {
+        RankedBoard board = new RankedBoard();
+        memberScores.forEach(board::set);
+        return board;
+    }
+
+    public void set(long member, long score) {
+        lock.writeLock().lock();
+        try {
+            Long current = scores.get(member);
+            if (current != null) {
+                if (current == score) {
+                    return;
+                }
+                root = delete(root, member, current);
+                scores.remove(member);
+            }
+            if (score > 0) {
+                root = insert(root, new Node(member, score));
+                scores.put(member, score);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * score of the member, 0 when not on the board
+     */
+    public long scoreOf(long member) {
+        lock.readLock().lock();
+        try {
+            return scores.getOrDefault(member, 0L);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 1 based rank of the member, 0 when not on the board
+     */
+    public long rankOf(long member) {
+        lock.readLock().lock();
+        try {
+            Long score = scores.get(member);
+            if (score == null) {
+                return 0;
+            }
+            long before = 0;
+            Node node = root;
+            while (node != null) {
+                int compared = compare(member, score, node.member, node.score);
+                if (compared < 0) {
+                    node = node.left;
+                } else if (compared > 0) {
+                    before += size(node.left) + 1;
+                    node = node.right;
+                } else {
+                    return before + size(node.left) + 1;
+                }
+            }
+            return 0;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * up to limit entries starting at the 0 based position offset
+     */
+    public List<Entry> page(int offset, int limit) {
+        lock.readLock().lock();
+        try {
+            int from = Math.max(0, offset);
+            int to = (int) Math.min((long) from + Math.max(0, limit), size(root));
+            List<Entry> entries = new ArrayList<>(Math.max(0, to - from));
+            for (int position = from; position < to; position++) {
+                Node node = select(position);
+                entries.add(new Entry(position + 1L, node.member, node.score));
+            }
+            return entries;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return size(root);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    //higher score first, then smaller member id
+    private static int compare(long member, long score, long otherMember, long otherScore) {
+        return score != otherScore ? Long.compare(otherScore, score) : Long.compare(member, otherMember);
+    }
+
+    private static int size(Node node) {
+        return node != null ? node.size : 0;
+    }
+
+    private static void resize(Node node) {
+        node.size = size(node.left) + size(node.right) + 1;
+    }
+
+    private Node select(int position) {
+        Node node = root;
+        int remaining = position;
+        while (true) {
+            int leftSize = size(node.left);
+            if (remaining < leftSize) {
+                node = node.left;
+            } else if (remaining > leftSize) {
+                remaining -= leftSize + 1;
+                node = node.right;
+            } else {
+                return node;
+            }
+        }
+    }
+
+    private static Node insert(Node node, Node inserted) {
+        if (node == null) {
+            return inserted;
+        }
+        if (compare(inserted.member, inserted.score, node.member, node.score) < 0) {
+            node.left = insert(node.left, inserted);
+            if (node.left.priority > node.priority) {
+                node = rotateRight(node);
+            }
+        } else {
+            node.right = insert(node.right, inserted);
+            if (node.right.priority > node.priority) {
+                node = rotateLeft(node);
+            }
+        }
+        resize(node);
+        return node;
+    }
+
+    private static Node delete(Node node, long member, long score) {
+        if (node == null) {
+            return null;
+        }
+        int compared = compare(member, score, node.member, node.score);
+        if (compared < 0) {
+            node.left = delete(node.left, member, score);
+        } else if (compared > 0) {
+            node.right = delete(node.right, member, score);
+        } else {
+            return merge(node.left, node.right);
+        }
+        resize(node);
+        return node;
+    }
+
+    //every node of left ranks before every node of right
+    private static Node merge(Node left, Node right) {
+        if (left == null) {
+            return right;
+        }
+        if (right == null) {
+            return left;
+        }
+        if (left.priority > right.priority) {
+            left.right = merge(left.right, right);
+            resize(left);
+            return left;
+        }
+        right.left = merge(left, right.left);
+        resize(right);
+        return right;
+    }
+
+    private static Node rotateRight(Node node) {
+        Node left = node.left;
+        node.left = left.right;
+        left.right = node;
+        resize(node);
+        resize(left);
+        return left;
+    }
+
+    private static Node rotateLeft(Node node) {
+        Node right = node.right;
+        node.right = right.left;
+        right.left = node;
+        resize(node);
+        resize(right);
+        return right;
+    }
+}
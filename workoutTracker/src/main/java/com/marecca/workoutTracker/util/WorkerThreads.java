@@ -0,0 +1,63 @@
+package com.marecca.workoutTracker.util;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.core.env.Environment;
+import org.springframework.core.task.VirtualThreadTaskExecutor;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * threads of the app's own executors, virtual when spring.threads.virtual.enabled is set and the JVM is 21 or
+ * newer, platform daemon threads otherwise
+ * the build targets Java 17, so on the supported runtime the setting is ignored with a warning and everything
+ * stays on platform threads, the virtual mode is only reachable when the app is run on a Java 21 JVM
+ * CPU bound work (password hashing) keeps its platform pool, virtual threads only help work that waits
+ */
+@Component
+@Slf4j
+public class WorkerThreads {
+
+    private final boolean virtual;
+
+    public WorkerThreads(Environment environment) {
+        this.virtual = Threading.VIRTUAL.isActive(environment);
+        if (!virtual && environment.getProperty("spring.threads.virtual.enabled", Boolean.class, false)) {
+            log.warn("Virtual threads need Java 21 or newer, running on platform threads (Java {})",
+                    Runtime.version().feature());
+        }
+    }
+
+    public boolean isVirtual() {
+        return virtual;
+    }
+
+    /**
+     * threads named prefix-1, prefix-2...
+     */
+    public ThreadFactory threadFactory(String prefix) {
+        if (virtual) {
+            return new VirtualThreadTaskExecutor(prefix + "-").getVirtualThreadFactory();
+        }
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, prefix + "-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    /**
+     * a new virtual thread per task, only in virtual mode
+     * nothing bounds it, whatever the tasks wait on (connections...) has to
+     */
+    public Executor perTaskExecutor(String prefix) {
+        if (!virtual) {
+            throw new IllegalStateException("Virtual threads are not enabled");
+        }
+        return new VirtualThreadTaskExecutor(prefix + "-");
+    }
+}
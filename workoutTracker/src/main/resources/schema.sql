@@ -7,17 +7,33 @@ DROP TABLE IF EXISTS workout_plans CASCADE;
 DROP TABLE IF EXISTS exercises CASCADE;
 DROP TABLE IF EXISTS users CASCADE;
 DROP TABLE IF EXISTS goals;
+DROP TABLE IF EXISTS user_exercise_stats CASCADE;
+DROP TABLE IF EXISTS exercise_catalog_version CASCADE;
+DROP TABLE IF EXISTS precomputed_recommendations CASCADE;
+DROP TABLE IF EXISTS recommendation_job_runs CASCADE;
+DROP TABLE IF EXISTS user_daily_workout_rollup CASCADE;
+DROP TABLE IF EXISTS user_daily_category_rollup CASCADE;
+DROP TABLE IF EXISTS scheduled_workout_categories CASCADE;
+DROP TABLE IF EXISTS workout_outbox_consumptions CASCADE;
+DROP TABLE IF EXISTS user_achievements CASCADE;
+DROP TABLE IF EXISTS user_achievement_progress CASCADE;
+DROP TABLE IF EXISTS workout_outbox_events CASCADE;
 
 DROP FUNCTION IF EXISTS update_updated_at_column() CASCADE;
 DROP FUNCTION IF EXISTS calculate_workout_duration() CASCADE;
 DROP FUNCTION IF EXISTS get_user_workout_stats(BIGINT, DATE, DATE) CASCADE;
 DROP FUNCTION IF EXISTS create_workout_plan_with_exercises(BIGINT, VARCHAR, TEXT, INTEGER, INTEGER, JSON) CASCADE;
 DROP FUNCTION IF EXISTS schedule_workout(BIGINT, BIGINT, DATE, TIME) CASCADE;
+DROP FUNCTION IF EXISTS trigger_update_streak_on_workout_completion() CASCADE;
+DROP FUNCTION IF EXISTS apply_workout_to_daily_rollup(BIGINT, DATE, BIGINT, INTEGER, INTEGER, INTEGER, INTEGER) CASCADE;
 
 DROP TYPE IF EXISTS exercise_category_type CASCADE;
 DROP TYPE IF EXISTS muscle_group_type CASCADE;
 DROP TYPE IF EXISTS workout_status_type CASCADE;
 
+--gist operator classes for plain columns, needed by the schedule overlap constraint
+CREATE EXTENSION IF NOT EXISTS btree_gist;
+
 
 CREATE TYPE exercise_category_type AS ENUM (
     'CARDIO',
@@ -107,6 +123,13 @@ CREATE TABLE goals (
                            FOREIGN KEY (user_id) REFERENCES users(user_id) ON DELETE CASCADE
 );
 
+--single row version of the exercise catalog, bumped by a trigger on every change to exercises
+--the application keeps the catalog in memory and reloads it when this value moves
+CREATE TABLE exercise_catalog_version (
+                                          version BIGINT NOT NULL DEFAULT 0
+);
+INSERT INTO exercise_catalog_version (version) VALUES (0);
+
 --workout plans table
 CREATE TABLE workout_plans (
                                workout_plan_id BIGSERIAL PRIMARY KEY,
@@ -171,6 +194,15 @@ CREATE TABLE scheduled_workouts (
                                     energy_level_before INTEGER CHECK (energy_level_before BETWEEN 1 AND 5),
                                     energy_level_after INTEGER CHECK (energy_level_after BETWEEN 1 AND 5),
                                     notes TEXT,
+                                    planned_duration_minutes INTEGER NOT NULL DEFAULT 60 CHECK (planned_duration_minutes > 0),
+                                    --time the workout occupies, a workout without a time takes the whole day
+                                    scheduled_slot TSRANGE GENERATED ALWAYS AS (
+                                        CASE WHEN scheduled_time IS NULL
+                                                 THEN tsrange(scheduled_date::TIMESTAMP, (scheduled_date + 1)::TIMESTAMP)
+                                             ELSE tsrange(scheduled_date + scheduled_time,
+                                                          scheduled_date + scheduled_time + planned_duration_minutes * INTERVAL '1 minute')
+                                            END
+                                        ) STORED,
                                     created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
                                     updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
 
@@ -182,7 +214,11 @@ CREATE TABLE scheduled_workouts (
                                         actual_end_time IS NULL OR
                                         actual_start_time IS NULL OR
                                         actual_end_time > actual_start_time
-                                        )
+                                        ),
+                                    --two active workouts of a user can not overlap, the gist index behind it also serves the availability lookups
+                                    CONSTRAINT ex_scheduled_workouts_no_overlap
+                                        EXCLUDE USING gist (user_id WITH =, scheduled_slot WITH &&)
+                                        WHERE (status IN ('PLANNED', 'IN_PROGRESS'))
 );
 
 --workout exercise logs table
@@ -227,6 +263,176 @@ CREATE TABLE user_workout_streaks (
                                       CONSTRAINT uk_user_streak UNIQUE (user_id)
 );
 
+--running totals of completed exercise logs per user and exercise
+--updated when a workout is completed, read by the recommendation engine
+CREATE TABLE user_exercise_stats (
+                                     stats_id BIGSERIAL PRIMARY KEY,
+                                     user_id BIGINT NOT NULL,
+                                     exercise_id BIGINT NOT NULL,
+                                     times_performed INTEGER NOT NULL DEFAULT 0,
+                                     weight_sum DECIMAL(12,2) NOT NULL DEFAULT 0,
+                                     reps_sum BIGINT NOT NULL DEFAULT 0,
+                                     reps_count INTEGER NOT NULL DEFAULT 0,
+                                     sets_sum BIGINT NOT NULL DEFAULT 0,
+                                     sets_count INTEGER NOT NULL DEFAULT 0,
+                                     difficulty_sum BIGINT NOT NULL DEFAULT 0,
+                                     difficulty_count INTEGER NOT NULL DEFAULT 0,
+                                     last_performed_at TIMESTAMP,
+                                     updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+
+                                     CONSTRAINT fk_user_exercise_stats_user_id
+                                         FOREIGN KEY (user_id) REFERENCES users(user_id) ON DELETE CASCADE,
+                                     CONSTRAINT fk_user_exercise_stats_exercise_id
+                                         FOREIGN KEY (exercise_id) REFERENCES exercises(exercise_id) ON DELETE CASCADE,
+    --one row per user and exercise, also the upsert target
+                                     CONSTRAINT uk_user_exercise_stats UNIQUE (user_id, exercise_id)
+);
+
+--per user and day totals of the COMPLETED workouts, read by the calendar, trends and breakdown functions
+--maintained by trigger_workout_daily_rollup, duration and rating keep sum and count of the non null values
+CREATE TABLE user_daily_workout_rollup (
+                                     user_id BIGINT NOT NULL,
+                                     workout_date DATE NOT NULL,
+                                     workout_count INTEGER NOT NULL DEFAULT 0,
+                                     calories_sum BIGINT NOT NULL DEFAULT 0,
+                                     duration_sum BIGINT NOT NULL DEFAULT 0,
+                                     duration_count INTEGER NOT NULL DEFAULT 0,
+                                     rating_sum BIGINT NOT NULL DEFAULT 0,
+                                     rating_count INTEGER NOT NULL DEFAULT 0,
+                                     updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+
+    --also serves the per user date range reads
+                                     CONSTRAINT pk_user_daily_workout_rollup PRIMARY KEY (user_id, workout_date),
+                                     CONSTRAINT fk_user_daily_workout_rollup_user_id
+                                         FOREIGN KEY (user_id) REFERENCES users(user_id) ON DELETE CASCADE
+);
+
+--per user, day and exercise category of the completed workout's plan
+--detail_count and the sums count every plan exercise of the category (a workout with 3 strength
+--exercises adds its duration 3 times), the same weighting the type breakdown always used
+--the categories are taken from scheduled_workout_categories, not from the plan as it is now
+CREATE TABLE user_daily_category_rollup (
+                                     user_id BIGINT NOT NULL,
+                                     workout_date DATE NOT NULL,
+                                     category exercise_category_type NOT NULL,
+                                     workout_count INTEGER NOT NULL DEFAULT 0,
+                                     detail_count INTEGER NOT NULL DEFAULT 0,
+                                     calories_sum BIGINT NOT NULL DEFAULT 0,
+                                     duration_sum BIGINT NOT NULL DEFAULT 0,
+                                     rating_sum BIGINT NOT NULL DEFAULT 0,
+                                     rating_count INTEGER NOT NULL DEFAULT 0,
+
+                                     CONSTRAINT pk_user_daily_category_rollup PRIMARY KEY (user_id, workout_date, category),
+                                     CONSTRAINT fk_user_daily_category_rollup_user_id
+                                         FOREIGN KEY (user_id) REFERENCES users(user_id) ON DELETE CASCADE
+);
+
+--plan exercises per category of a completed workout, taken from its plan when it was completed
+--the category rollup adds and removes workouts with these counts, so editing the plan afterwards does not
+--make the rollup drift, maintained by apply_workout_to_daily_rollup (no foreign key: the rows are read by
+--the rollup trigger after the workout is deleted and removed by it)
+CREATE TABLE scheduled_workout_categories (
+                                     scheduled_workout_id BIGINT NOT NULL,
+                                     category exercise_category_type NOT NULL,
+                                     detail_count INTEGER NOT NULL,
+
+                                     CONSTRAINT pk_scheduled_workout_categories PRIMARY KEY (scheduled_workout_id, category)
+);
+
+--recommendations computed off-peak by the precompute job, one row per user and goal type
+--recommendations holds the JSON list (best first), rows of an older catalog version are ignored
+CREATE TABLE precomputed_recommendations (
+                                     precomputed_recommendation_id BIGSERIAL PRIMARY KEY,
+                                     user_id BIGINT NOT NULL,
+                                     goal_type VARCHAR(20) NOT NULL,
+                                     recommendations TEXT NOT NULL,
+                                     recommendation_count INTEGER NOT NULL,
+                                     catalog_version BIGINT NOT NULL,
+                                     computed_at TIMESTAMP NOT NULL,
+
+                                     CONSTRAINT fk_precomputed_recommendations_user_id
+                                         FOREIGN KEY (user_id) REFERENCES users(user_id) ON DELETE CASCADE,
+    --single lookup by user and goal, also the upsert target
+                                     CONSTRAINT uk_precomputed_recommendations UNIQUE (user_id, goal_type)
+);
+
+--progress of the precompute job, last_user_id is the checkpoint a crashed run resumes from
+CREATE TABLE recommendation_job_runs (
+                                     run_id BIGSERIAL PRIMARY KEY,
+                                     status VARCHAR(20) NOT NULL,
+                                     last_user_id BIGINT NOT NULL DEFAULT 0,
+                                     processed_users INTEGER NOT NULL DEFAULT 0,
+                                     failed_users INTEGER NOT NULL DEFAULT 0,
+                                     total_users BIGINT,
+                                     started_at TIMESTAMP NOT NULL,
+                                     updated_at TIMESTAMP,
+                                     finished_at TIMESTAMP,
+
+                                     CONSTRAINT chk_recommendation_job_runs_status
+                                         CHECK (status IN ('RUNNING', 'COMPLETED', 'FAILED'))
+);
+
+--workout lifecycle events written in the same transaction as the state change (transactional outbox)
+--the relay claims pending rows with SKIP LOCKED, next_attempt_at is the claim lease and the retry time
+CREATE TABLE workout_outbox_events (
+                                     event_id BIGSERIAL PRIMARY KEY,
+                                     user_id BIGINT NOT NULL,
+                                     scheduled_workout_id BIGINT NOT NULL,
+                                     transition VARCHAR(20) NOT NULL,
+                                     scheduled_date DATE NOT NULL,
+                                     occurred_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+                                     next_attempt_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+                                     attempts INTEGER NOT NULL DEFAULT 0,
+                                     last_error VARCHAR(500),
+                                     processed_at TIMESTAMP,
+
+                                     CONSTRAINT chk_workout_outbox_events_transition
+                                         CHECK (transition IN ('SCHEDULED', 'STARTED', 'COMPLETED', 'CANCELLED', 'RESCHEDULED', 'MISSED'))
+);
+
+--one row per subscriber and delivered event, makes a redelivered event a no-op for that subscriber
+CREATE TABLE workout_outbox_consumptions (
+                                     subscriber VARCHAR(50) NOT NULL,
+                                     event_id BIGINT NOT NULL,
+                                     consumed_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+
+                                     CONSTRAINT pk_workout_outbox_consumptions PRIMARY KEY (subscriber, event_id),
+                                     CONSTRAINT fk_workout_outbox_consumptions_event_id
+                                         FOREIGN KEY (event_id) REFERENCES workout_outbox_events(event_id) ON DELETE CASCADE
+);
+
+--achievements awarded by the achievement rules, achievement_key identifies what was earned
+--(workout_42, workouts_10, streak_7, goal_3...) so an achievement is awarded only once
+CREATE TABLE user_achievements (
+                                     achievement_id BIGSERIAL PRIMARY KEY,
+                                     user_id BIGINT NOT NULL,
+                                     achievement_type VARCHAR(30) NOT NULL,
+                                     achievement_key VARCHAR(100) NOT NULL,
+                                     title VARCHAR(100) NOT NULL,
+                                     description VARCHAR(500),
+                                     icon VARCHAR(20),
+                                     points INTEGER NOT NULL DEFAULT 0,
+                                     source_id BIGINT,
+                                     details TEXT,
+                                     achieved_at TIMESTAMP NOT NULL,
+
+                                     CONSTRAINT fk_user_achievements_user_id
+                                         FOREIGN KEY (user_id) REFERENCES users(user_id) ON DELETE CASCADE,
+                                     CONSTRAINT uk_user_achievements_key UNIQUE (user_id, achievement_key)
+);
+
+--running totals the achievement rules compare against, one row per user
+CREATE TABLE user_achievement_progress (
+                                     user_id BIGINT PRIMARY KEY,
+                                     completed_workouts INTEGER NOT NULL DEFAULT 0,
+                                     total_calories BIGINT NOT NULL DEFAULT 0,
+                                     longest_streak INTEGER NOT NULL DEFAULT 0,
+                                     updated_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+
+                                     CONSTRAINT fk_user_achievement_progress_user_id
+                                         FOREIGN KEY (user_id) REFERENCES users(user_id) ON DELETE CASCADE
+);
+
 
 --efficient search after email/username
 CREATE INDEX idx_users_email ON users(email);
@@ -250,7 +456,8 @@ CREATE INDEX idx_workout_exercise_details_exercise_id ON workout_exercise_detail
 CREATE INDEX idx_scheduled_workouts_user_id ON scheduled_workouts(user_id);
 CREATE INDEX idx_scheduled_workouts_date ON scheduled_workouts(scheduled_date);
 CREATE INDEX idx_scheduled_workouts_status ON scheduled_workouts(status);
-CREATE INDEX idx_scheduled_workouts_user_date ON scheduled_workouts(user_id, scheduled_date);
+--also the keyset order of the workout history pages
+CREATE INDEX idx_scheduled_workouts_user_date ON scheduled_workouts(user_id, scheduled_date, scheduled_workout_id);
 CREATE INDEX idx_scheduled_workouts_user_status ON scheduled_workouts(user_id, status);
 
 --for generating reports
@@ -258,8 +465,26 @@ CREATE INDEX idx_workout_exercise_logs_scheduled_workout_id ON workout_exercise_
 CREATE INDEX idx_workout_exercise_logs_exercise_id ON workout_exercise_logs(exercise_id);
 
 CREATE INDEX idx_user_workout_streaks_user_id ON user_workout_streaks(user_id);
+
+--keyset walk over active users by the precompute job
+CREATE INDEX idx_users_active_user_id ON users(user_id) WHERE is_active = true;
 CREATE INDEX idx_scheduled_workouts_completed_date ON scheduled_workouts(user_id, scheduled_date)
     WHERE status = 'COMPLETED';
+--overdue planned workouts picked up by the missed workout sweeper
+CREATE INDEX idx_scheduled_workouts_planned_due ON scheduled_workouts((upper(scheduled_slot)))
+    WHERE status = 'PLANNED';
+--pending events in delivery order (overall and the oldest of each user) for the outbox relay, processed ones by age for the purge
+CREATE INDEX idx_workout_outbox_events_pending ON workout_outbox_events(occurred_at, event_id)
+    WHERE processed_at IS NULL;
+CREATE INDEX idx_workout_outbox_events_pending_user ON workout_outbox_events(user_id, occurred_at, event_id)
+    WHERE processed_at IS NULL;
+CREATE INDEX idx_workout_outbox_events_processed_at ON workout_outbox_events(processed_at)
+    WHERE processed_at IS NOT NULL;
+--leaderboards of a week or a month (all users)
+CREATE INDEX idx_user_daily_workout_rollup_date ON user_daily_workout_rollup(workout_date);
+--achievement pages, most recent first (all types, and completed goals only)
+CREATE INDEX idx_user_achievements_user_achieved ON user_achievements(user_id, achieved_at DESC, achievement_id DESC);
+CREATE INDEX idx_user_achievements_user_type_achieved ON user_achievements(user_id, achievement_type, achieved_at DESC, achievement_id DESC);
 
 
 --FUNCTIONS OF TYPE TRIGGER (called by the triggers below)
@@ -314,6 +539,21 @@ CREATE TRIGGER trigger_calculate_workout_duration
                          EXECUTE FUNCTION calculate_workout_duration();
 
 
+--bumps the catalog version once per statement that changes exercises
+CREATE OR REPLACE FUNCTION bump_exercise_catalog_version()
+RETURNS TRIGGER AS $$
+BEGIN
+UPDATE exercise_catalog_version SET version = version + 1;
+RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE TRIGGER trigger_exercises_catalog_version
+    AFTER INSERT OR UPDATE OR DELETE OR TRUNCATE ON exercises
+    FOR EACH STATEMENT
+    EXECUTE FUNCTION bump_exercise_catalog_version();
+
+
 --FUNCTION get_user_workout_stats
 CREATE OR REPLACE FUNCTION get_user_workout_stats(
     p_user_id BIGINT,
@@ -362,6 +602,7 @@ CREATE OR REPLACE FUNCTION schedule_workout(
 ) RETURNS BIGINT AS $$ --id of new scheduled workout
 DECLARE
 v_scheduled_workout_id BIGINT;
+v_duration_minutes INTEGER;
 BEGIN
     -- Validate input parameters
     IF p_user_id IS NULL OR p_user_id <= 0 THEN
@@ -407,16 +648,19 @@ END IF;
                 p_workout_plan_id, p_user_id);
 END IF;
 
-    -- Check if user already has a workout scheduled at the same date and time
+    SELECT COALESCE(estimated_duration_minutes, 60) INTO v_duration_minutes
+    FROM workout_plans WHERE workout_plan_id = p_workout_plan_id;
+
+    -- Check if user already has a workout overlapping the new one
     IF EXISTS (
         SELECT 1 FROM scheduled_workouts
         WHERE user_id = p_user_id
-          AND scheduled_date = p_scheduled_date
-          AND (
-              (p_scheduled_time IS NULL AND scheduled_time IS NULL) OR
-              (p_scheduled_time IS NOT NULL AND scheduled_time = p_scheduled_time)
-          )
           AND status IN ('PLANNED', 'IN_PROGRESS')
+          AND scheduled_slot && CASE WHEN p_scheduled_time IS NULL
+                                         THEN tsrange(p_scheduled_date::TIMESTAMP, (p_scheduled_date + 1)::TIMESTAMP)
+                                     ELSE tsrange(p_scheduled_date + p_scheduled_time,
+                                                  p_scheduled_date + p_scheduled_time + v_duration_minutes * INTERVAL '1 minute')
+                                END
     ) THEN
         RAISE EXCEPTION USING
             ERRCODE = '00007',
@@ -426,9 +670,9 @@ END IF;
 
     -- Insert the scheduled workout
 INSERT INTO scheduled_workouts (
-    user_id, workout_plan_id, scheduled_date, scheduled_time, status
+    user_id, workout_plan_id, scheduled_date, scheduled_time, status, planned_duration_minutes
 ) VALUES (
-             p_user_id, p_workout_plan_id, p_scheduled_date, p_scheduled_time, 'PLANNED'
+             p_user_id, p_workout_plan_id, p_scheduled_date, p_scheduled_time, 'PLANNED', v_duration_minutes
          ) RETURNING scheduled_workout_id INTO v_scheduled_workout_id;
 
 RETURN v_scheduled_workout_id;
@@ -438,6 +682,12 @@ EXCEPTION
         -- If it's already one of our custom exceptions, re-raise it
         IF SQLSTATE IN ('00001', '00002', '00003', '00004', '00005', '00006', '00007') THEN
             RAISE;
+        -- a concurrent booking won the overlap constraint
+        ELSIF SQLSTATE = '23P01' THEN
+            RAISE EXCEPTION USING
+                ERRCODE = '00007',
+                MESSAGE = format('WORKOUT_ALREADY_SCHEDULED: User already has a workout scheduled at %s %s',
+                    p_scheduled_date, COALESCE(p_scheduled_time::TEXT, 'no specific time'));
 ELSE
             -- For any other unexpected errors, use the general database error code
             RAISE EXCEPTION USING
@@ -959,16 +1209,14 @@ RETURN QUERY
     ),
     daily_workouts AS (
         SELECT
-            sw.scheduled_date,
-            COUNT(*)::INTEGER as workout_count,
-            COALESCE(SUM(sw.calories_burned), 0)::INTEGER as total_calories,
-            COALESCE(SUM(sw.actual_duration_minutes), 0)::INTEGER as total_duration,
-            ROUND(AVG(sw.overall_rating), 1) as avg_rating
-        FROM scheduled_workouts sw
-        WHERE sw.user_id = p_user_id
-          AND sw.status = 'COMPLETED'
-          AND sw.scheduled_date BETWEEN p_start_date AND p_end_date
-        GROUP BY sw.scheduled_date
+            r.workout_date as scheduled_date,
+            r.workout_count,
+            r.calories_sum::INTEGER as total_calories,
+            r.duration_sum::INTEGER as total_duration,
+            ROUND(r.rating_sum::NUMERIC / NULLIF(r.rating_count, 0), 1) as avg_rating
+        FROM user_daily_workout_rollup r
+        WHERE r.user_id = p_user_id
+          AND r.workout_date BETWEEN p_start_date AND p_end_date
     )
 SELECT
     ds.date as workout_date,
@@ -1013,50 +1261,46 @@ BEGIN
     IF p_period_type = 'daily' THEN
         RETURN QUERY
 SELECT
-    sw.scheduled_date as period_date,
-    TO_CHAR(sw.scheduled_date, 'Mon DD')::VARCHAR(20) as period_label, -- Cast to VARCHAR
-        COUNT(*)::INTEGER as workout_count,
-        COALESCE(SUM(sw.calories_burned), 0)::INTEGER as total_calories,
-        ROUND(AVG(sw.actual_duration_minutes), 1) as avg_duration,
-    ROUND(AVG(sw.overall_rating), 1) as avg_rating
-FROM scheduled_workouts sw
-WHERE sw.user_id = p_user_id
-  AND sw.status = 'COMPLETED'
-  AND sw.scheduled_date BETWEEN p_start_date AND p_end_date
-GROUP BY sw.scheduled_date
-ORDER BY sw.scheduled_date;
+    r.workout_date as period_date,
+    TO_CHAR(r.workout_date, 'Mon DD')::VARCHAR(20) as period_label, -- Cast to VARCHAR
+        r.workout_count as workout_count,
+        r.calories_sum::INTEGER as total_calories,
+        ROUND(r.duration_sum::NUMERIC / NULLIF(r.duration_count, 0), 1) as avg_duration,
+    ROUND(r.rating_sum::NUMERIC / NULLIF(r.rating_count, 0), 1) as avg_rating
+FROM user_daily_workout_rollup r
+WHERE r.user_id = p_user_id
+  AND r.workout_date BETWEEN p_start_date AND p_end_date
+ORDER BY r.workout_date;
 
 ELSIF p_period_type = 'weekly' THEN
         RETURN QUERY
 SELECT
-    DATE_TRUNC('week', sw.scheduled_date)::DATE as period_date,
-        ('Week ' || TO_CHAR(DATE_TRUNC('week', sw.scheduled_date), 'MM/DD'))::VARCHAR(20) as period_label, -- Cast to VARCHAR
-        COUNT(*)::INTEGER as workout_count,
-        COALESCE(SUM(sw.calories_burned), 0)::INTEGER as total_calories,
-        ROUND(AVG(sw.actual_duration_minutes), 1) as avg_duration,
-    ROUND(AVG(sw.overall_rating), 1) as avg_rating
-FROM scheduled_workouts sw
-WHERE sw.user_id = p_user_id
-  AND sw.status = 'COMPLETED'
-  AND sw.scheduled_date BETWEEN p_start_date AND p_end_date
-GROUP BY DATE_TRUNC('week', sw.scheduled_date)
-ORDER BY DATE_TRUNC('week', sw.scheduled_date);
+    DATE_TRUNC('week', r.workout_date)::DATE as period_date,
+        ('Week ' || TO_CHAR(DATE_TRUNC('week', r.workout_date), 'MM/DD'))::VARCHAR(20) as period_label, -- Cast to VARCHAR
+        SUM(r.workout_count)::INTEGER as workout_count,
+        SUM(r.calories_sum)::INTEGER as total_calories,
+        ROUND(SUM(r.duration_sum)::NUMERIC / NULLIF(SUM(r.duration_count), 0), 1) as avg_duration,
+    ROUND(SUM(r.rating_sum)::NUMERIC / NULLIF(SUM(r.rating_count), 0), 1) as avg_rating
+FROM user_daily_workout_rollup r
+WHERE r.user_id = p_user_id
+  AND r.workout_date BETWEEN p_start_date AND p_end_date
+GROUP BY DATE_TRUNC('week', r.workout_date)
+ORDER BY DATE_TRUNC('week', r.workout_date);
 
 ELSIF p_period_type = 'monthly' THEN
         RETURN QUERY
 SELECT
-    DATE_TRUNC('month', sw.scheduled_date)::DATE as period_date,
-        TO_CHAR(DATE_TRUNC('month', sw.scheduled_date), 'Mon YYYY')::VARCHAR(20) as period_label,
-        COUNT(*)::INTEGER as workout_count,
-        COALESCE(SUM(sw.calories_burned), 0)::INTEGER as total_calories,
-        ROUND(AVG(sw.actual_duration_minutes), 1) as avg_duration,
-    ROUND(AVG(sw.overall_rating), 1) as avg_rating
-FROM scheduled_workouts sw
-WHERE sw.user_id = p_user_id
-  AND sw.status = 'COMPLETED'
-  AND sw.scheduled_date BETWEEN p_start_date AND p_end_date
-GROUP BY DATE_TRUNC('month', sw.scheduled_date)
-ORDER BY DATE_TRUNC('month', sw.scheduled_date);
+    DATE_TRUNC('month', r.workout_date)::DATE as period_date,
+        TO_CHAR(DATE_TRUNC('month', r.workout_date), 'Mon YYYY')::VARCHAR(20) as period_label,
+        SUM(r.workout_count)::INTEGER as workout_count,
+        SUM(r.calories_sum)::INTEGER as total_calories,
+        ROUND(SUM(r.duration_sum)::NUMERIC / NULLIF(SUM(r.duration_count), 0), 1) as avg_duration,
+    ROUND(SUM(r.rating_sum)::NUMERIC / NULLIF(SUM(r.rating_count), 0), 1) as avg_rating
+FROM user_daily_workout_rollup r
+WHERE r.user_id = p_user_id
+  AND r.workout_date BETWEEN p_start_date AND p_end_date
+GROUP BY DATE_TRUNC('month', r.workout_date)
+ORDER BY DATE_TRUNC('month', r.workout_date);
 END IF;
 END;
 $$;
@@ -1082,15 +1326,11 @@ DECLARE
 v_total_workouts INTEGER;
 BEGIN
 
-SELECT COUNT(*) INTO v_total_workouts
-FROM scheduled_workouts sw
-         JOIN workout_plans wp ON sw.workout_plan_id = wp.workout_plan_id
-         JOIN workout_exercise_details wed ON wp.workout_plan_id = wed.workout_plan_id
-         JOIN exercises e ON wed.exercise_id = e.exercise_id
-WHERE sw.user_id = p_user_id
-  AND sw.status = 'COMPLETED'
-  AND (p_start_date IS NULL OR sw.scheduled_date >= p_start_date)
-  AND (p_end_date IS NULL OR sw.scheduled_date <= p_end_date);
+SELECT COALESCE(SUM(c.detail_count), 0) INTO v_total_workouts
+FROM user_daily_category_rollup c
+WHERE c.user_id = p_user_id
+  AND (p_start_date IS NULL OR c.workout_date >= p_start_date)
+  AND (p_end_date IS NULL OR c.workout_date <= p_end_date);
 
 IF v_total_workouts = 0 THEN
         v_total_workouts := 1;
@@ -1098,40 +1338,291 @@ END IF;
 
 RETURN QUERY
 SELECT
-    e.category,
-    COUNT(DISTINCT sw.scheduled_workout_id)::INTEGER as workout_count,
-        COALESCE(SUM(sw.actual_duration_minutes), 0)::INTEGER as total_duration,
-        COALESCE(SUM(sw.calories_burned), 0)::INTEGER as total_calories,
-        ROUND(AVG(sw.overall_rating), 1) as avg_rating,
-    ROUND((COUNT(DISTINCT sw.scheduled_workout_id)::NUMERIC / v_total_workouts::NUMERIC) * 100, 1) as percentage
-FROM scheduled_workouts sw
-         JOIN workout_plans wp ON sw.workout_plan_id = wp.workout_plan_id
-         JOIN workout_exercise_details wed ON wp.workout_plan_id = wed.workout_plan_id
-         JOIN exercises e ON wed.exercise_id = e.exercise_id
-WHERE sw.user_id = p_user_id
-  AND sw.status = 'COMPLETED'
-  AND (p_start_date IS NULL OR sw.scheduled_date >= p_start_date)
-  AND (p_end_date IS NULL OR sw.scheduled_date <= p_end_date)
-GROUP BY e.category
-ORDER BY workout_count DESC;
+    c.category,
+    SUM(c.workout_count)::INTEGER as workout_count,
+        SUM(c.duration_sum)::INTEGER as total_duration,
+        SUM(c.calories_sum)::INTEGER as total_calories,
+        ROUND(SUM(c.rating_sum)::NUMERIC / NULLIF(SUM(c.rating_count), 0), 1) as avg_rating,
+    ROUND((SUM(c.workout_count)::NUMERIC / v_total_workouts::NUMERIC) * 100, 1) as percentage
+FROM user_daily_category_rollup c
+WHERE c.user_id = p_user_id
+  AND (p_start_date IS NULL OR c.workout_date >= p_start_date)
+  AND (p_end_date IS NULL OR c.workout_date <= p_end_date)
+GROUP BY c.category
+ORDER BY 2 DESC;
 END;
 $$;
 
-CREATE OR REPLACE FUNCTION trigger_update_streak_on_workout_completion()
+--streaks are no longer updated by a trigger on scheduled_workouts, the COMPLETED outbox event
+--calls update_workout_streak after the completion committed (WorkoutStreakSubscriber)
+
+
+--FUNCTION apply_workout_to_daily_rollup
+--adds (p_sign = 1) or removes (p_sign = -1) one completed workout from the daily and category rollups
+--adding takes the category snapshot of the workout from its plan unless it already has one, both
+--directions use the snapshot, so the counts removed are the counts added
+--removal only updates existing rows, so it is safe while a user delete cascades
+CREATE OR REPLACE FUNCTION apply_workout_to_daily_rollup(
+    p_scheduled_workout_id BIGINT,
+    p_user_id BIGINT,
+    p_workout_date DATE,
+    p_workout_plan_id BIGINT,
+    p_calories INTEGER,
+    p_duration INTEGER,
+    p_rating INTEGER,
+    p_sign INTEGER
+)
+RETURNS VOID
+LANGUAGE plpgsql
+AS $$
+BEGIN
+    IF p_sign > 0 THEN
+        INSERT INTO user_daily_workout_rollup (user_id, workout_date, workout_count, calories_sum,
+                                               duration_sum, duration_count, rating_sum, rating_count)
+        VALUES (p_user_id, p_workout_date, 1, COALESCE(p_calories, 0),
+                COALESCE(p_duration, 0), CASE WHEN p_duration IS NULL THEN 0 ELSE 1 END,
+                COALESCE(p_rating, 0), CASE WHEN p_rating IS NULL THEN 0 ELSE 1 END)
+        ON CONFLICT (user_id, workout_date) DO UPDATE SET
+            workout_count = user_daily_workout_rollup.workout_count + EXCLUDED.workout_count,
+            calories_sum = user_daily_workout_rollup.calories_sum + EXCLUDED.calories_sum,
+            duration_sum = user_daily_workout_rollup.duration_sum + EXCLUDED.duration_sum,
+            duration_count = user_daily_workout_rollup.duration_count + EXCLUDED.duration_count,
+            rating_sum = user_daily_workout_rollup.rating_sum + EXCLUDED.rating_sum,
+            rating_count = user_daily_workout_rollup.rating_count + EXCLUDED.rating_count,
+            updated_at = CURRENT_TIMESTAMP;
+
+        IF NOT EXISTS (SELECT 1 FROM scheduled_workout_categories swc
+                       WHERE swc.scheduled_workout_id = p_scheduled_workout_id) THEN
+            INSERT INTO scheduled_workout_categories (scheduled_workout_id, category, detail_count)
+            SELECT p_scheduled_workout_id, e.category, COUNT(*)
+            FROM workout_exercise_details wed
+                     JOIN exercises e ON wed.exercise_id = e.exercise_id
+            WHERE wed.workout_plan_id = p_workout_plan_id
+            GROUP BY e.category;
+        END IF;
+
+        INSERT INTO user_daily_category_rollup (user_id, workout_date, category, workout_count, detail_count,
+                                                calories_sum, duration_sum, rating_sum, rating_count)
+        SELECT p_user_id, p_workout_date, swc.category, 1, swc.detail_count,
+               swc.detail_count * COALESCE(p_calories, 0), swc.detail_count * COALESCE(p_duration, 0),
+               swc.detail_count * COALESCE(p_rating, 0), CASE WHEN p_rating IS NULL THEN 0 ELSE swc.detail_count END
+        FROM scheduled_workout_categories swc
+        WHERE swc.scheduled_workout_id = p_scheduled_workout_id
+        ON CONFLICT (user_id, workout_date, category) DO UPDATE SET
+            workout_count = user_daily_category_rollup.workout_count + EXCLUDED.workout_count,
+            detail_count = user_daily_category_rollup.detail_count + EXCLUDED.detail_count,
+            calories_sum = user_daily_category_rollup.calories_sum + EXCLUDED.calories_sum,
+            duration_sum = user_daily_category_rollup.duration_sum + EXCLUDED.duration_sum,
+            rating_sum = user_daily_category_rollup.rating_sum + EXCLUDED.rating_sum,
+            rating_count = user_daily_category_rollup.rating_count + EXCLUDED.rating_count;
+    ELSE
+        UPDATE user_daily_workout_rollup
+        SET workout_count = workout_count - 1,
+            calories_sum = calories_sum - COALESCE(p_calories, 0),
+            duration_sum = duration_sum - COALESCE(p_duration, 0),
+            duration_count = duration_count - CASE WHEN p_duration IS NULL THEN 0 ELSE 1 END,
+            rating_sum = rating_sum - COALESCE(p_rating, 0),
+            rating_count = rating_count - CASE WHEN p_rating IS NULL THEN 0 ELSE 1 END,
+            updated_at = CURRENT_TIMESTAMP
+        WHERE user_id = p_user_id AND workout_date = p_workout_date;
+
+        UPDATE user_daily_category_rollup c
+        SET workout_count = c.workout_count - 1,
+            detail_count = c.detail_count - swc.detail_count,
+            calories_sum = c.calories_sum - swc.detail_count * COALESCE(p_calories, 0),
+            duration_sum = c.duration_sum - swc.detail_count * COALESCE(p_duration, 0),
+            rating_sum = c.rating_sum - swc.detail_count * COALESCE(p_rating, 0),
+            rating_count = c.rating_count - CASE WHEN p_rating IS NULL THEN 0 ELSE swc.detail_count END
+        FROM scheduled_workout_categories swc
+        WHERE swc.scheduled_workout_id = p_scheduled_workout_id
+          AND c.user_id = p_user_id AND c.workout_date = p_workout_date AND c.category = swc.category;
+
+        DELETE FROM user_daily_workout_rollup
+        WHERE user_id = p_user_id AND workout_date = p_workout_date AND workout_count <= 0;
+        DELETE FROM user_daily_category_rollup
+        WHERE user_id = p_user_id AND workout_date = p_workout_date AND workout_count <= 0;
+    END IF;
+END;
+$$;
+
+--keeps the daily rollups in step with completion, cancellation, rescheduling and deletion of workouts
+--the category snapshot stays while the workout stays completed with the same plan (an edit of calories,
+--duration or rating removes and adds it again with the same categories), otherwise it is dropped
+CREATE OR REPLACE FUNCTION trigger_update_daily_rollup()
 RETURNS TRIGGER AS $$
 BEGIN
-    IF NEW.status = 'COMPLETED' AND (OLD.status IS NULL OR OLD.status != 'COMPLETED') THEN
-        PERFORM update_workout_streak(NEW.user_id, NEW.scheduled_date);
+    IF TG_OP = 'UPDATE'
+        AND OLD.status IS NOT DISTINCT FROM NEW.status
+        AND OLD.user_id = NEW.user_id
+        AND OLD.scheduled_date = NEW.scheduled_date
+        AND OLD.workout_plan_id IS NOT DISTINCT FROM NEW.workout_plan_id
+        AND OLD.calories_burned IS NOT DISTINCT FROM NEW.calories_burned
+        AND OLD.actual_duration_minutes IS NOT DISTINCT FROM NEW.actual_duration_minutes
+        AND OLD.overall_rating IS NOT DISTINCT FROM NEW.overall_rating THEN
+        RETURN NULL;
 END IF;
 
-RETURN NEW;
+    IF TG_OP IN ('UPDATE', 'DELETE') THEN
+        IF OLD.status = 'COMPLETED' THEN
+            PERFORM apply_workout_to_daily_rollup(OLD.scheduled_workout_id, OLD.user_id, OLD.scheduled_date,
+                OLD.workout_plan_id, OLD.calories_burned, OLD.actual_duration_minutes, OLD.overall_rating, -1);
+END IF;
+        IF TG_OP = 'DELETE'
+            OR NEW.status IS DISTINCT FROM 'COMPLETED'
+            OR NEW.workout_plan_id IS DISTINCT FROM OLD.workout_plan_id THEN
+            DELETE FROM scheduled_workout_categories WHERE scheduled_workout_id = OLD.scheduled_workout_id;
+END IF;
+END IF;
+
+    IF TG_OP IN ('INSERT', 'UPDATE') THEN
+        IF NEW.status = 'COMPLETED' THEN
+            PERFORM apply_workout_to_daily_rollup(NEW.scheduled_workout_id, NEW.user_id, NEW.scheduled_date,
+                NEW.workout_plan_id, NEW.calories_burned, NEW.actual_duration_minutes, NEW.overall_rating, 1);
+END IF;
+END IF;
+
+RETURN NULL;
 END;
 $$ LANGUAGE plpgsql;
 
-CREATE TRIGGER trigger_workout_completion_streak_update
-    AFTER INSERT OR UPDATE ON scheduled_workouts
-                        FOR EACH ROW
-                        EXECUTE FUNCTION trigger_update_streak_on_workout_completion();
+CREATE TRIGGER trigger_workout_daily_rollup
+    AFTER INSERT OR UPDATE OR DELETE ON scheduled_workouts
+    FOR EACH ROW
+    EXECUTE FUNCTION trigger_update_daily_rollup();
+
+
+--FUNCTION rebuild_daily_workout_rollups
+--recomputes the rollups from scheduled_workouts for one user (or everybody when p_user_id is NULL)
+--categories come from the snapshots, a completed workout without one gets it from its current plan
+--returns the number of daily rows written
+CREATE OR REPLACE FUNCTION rebuild_daily_workout_rollups(
+    p_user_id BIGINT DEFAULT NULL
+)
+RETURNS INTEGER
+LANGUAGE plpgsql
+AS $$
+DECLARE
+v_rows INTEGER;
+BEGIN
+DELETE FROM user_daily_workout_rollup r WHERE p_user_id IS NULL OR r.user_id = p_user_id;
+DELETE FROM user_daily_category_rollup c WHERE p_user_id IS NULL OR c.user_id = p_user_id;
+
+INSERT INTO scheduled_workout_categories (scheduled_workout_id, category, detail_count)
+SELECT sw.scheduled_workout_id, e.category, COUNT(*)
+FROM scheduled_workouts sw
+         JOIN workout_exercise_details wed ON sw.workout_plan_id = wed.workout_plan_id
+         JOIN exercises e ON wed.exercise_id = e.exercise_id
+WHERE sw.status = 'COMPLETED'
+  AND (p_user_id IS NULL OR sw.user_id = p_user_id)
+  AND NOT EXISTS (SELECT 1 FROM scheduled_workout_categories swc
+                  WHERE swc.scheduled_workout_id = sw.scheduled_workout_id)
+GROUP BY sw.scheduled_workout_id, e.category;
+
+INSERT INTO user_daily_workout_rollup (user_id, workout_date, workout_count, calories_sum,
+                                       duration_sum, duration_count, rating_sum, rating_count)
+SELECT sw.user_id, sw.scheduled_date, COUNT(*), COALESCE(SUM(sw.calories_burned), 0),
+       COALESCE(SUM(sw.actual_duration_minutes), 0), COUNT(sw.actual_duration_minutes),
+       COALESCE(SUM(sw.overall_rating), 0), COUNT(sw.overall_rating)
+FROM scheduled_workouts sw
+WHERE sw.status = 'COMPLETED'
+  AND (p_user_id IS NULL OR sw.user_id = p_user_id)
+GROUP BY sw.user_id, sw.scheduled_date;
+
+GET DIAGNOSTICS v_rows = ROW_COUNT;
+
+INSERT INTO user_daily_category_rollup (user_id, workout_date, category, workout_count, detail_count,
+                                        calories_sum, duration_sum, rating_sum, rating_count)
+SELECT sw.user_id, sw.scheduled_date, swc.category, COUNT(*), SUM(swc.detail_count),
+       COALESCE(SUM(swc.detail_count * sw.calories_burned), 0),
+       COALESCE(SUM(swc.detail_count * sw.actual_duration_minutes), 0),
+       COALESCE(SUM(swc.detail_count * sw.overall_rating), 0),
+       COALESCE(SUM(swc.detail_count) FILTER (WHERE sw.overall_rating IS NOT NULL), 0)
+FROM scheduled_workouts sw
+         JOIN scheduled_workout_categories swc ON swc.scheduled_workout_id = sw.scheduled_workout_id
+WHERE sw.status = 'COMPLETED'
+  AND (p_user_id IS NULL OR sw.user_id = p_user_id)
+GROUP BY sw.user_id, sw.scheduled_date, swc.category;
+
+RETURN v_rows;
+END;
+$$;
+
+
+--FUNCTION verify_daily_workout_rollups
+--lists the rollup rows that differ from a fresh aggregation of scheduled_workouts
+--and their category snapshots
+CREATE OR REPLACE FUNCTION verify_daily_workout_rollups(
+    p_user_id BIGINT DEFAULT NULL
+)
+RETURNS TABLE(
+    rollup_name VARCHAR(20),
+    mismatch_user_id BIGINT,
+    mismatch_date DATE,
+    mismatch_category VARCHAR(20)
+)
+LANGUAGE plpgsql
+AS $$
+BEGIN
+RETURN QUERY
+    WITH raw_daily AS (
+        SELECT sw.user_id, sw.scheduled_date as workout_date, COUNT(*) as workout_count,
+               COALESCE(SUM(sw.calories_burned), 0) as calories_sum,
+               COALESCE(SUM(sw.actual_duration_minutes), 0) as duration_sum,
+               COUNT(sw.actual_duration_minutes) as duration_count,
+               COALESCE(SUM(sw.overall_rating), 0) as rating_sum,
+               COUNT(sw.overall_rating) as rating_count
+        FROM scheduled_workouts sw
+        WHERE sw.status = 'COMPLETED'
+          AND (p_user_id IS NULL OR sw.user_id = p_user_id)
+        GROUP BY sw.user_id, sw.scheduled_date
+    ),
+    rollup_daily AS (
+        SELECT r.* FROM user_daily_workout_rollup r
+        WHERE p_user_id IS NULL OR r.user_id = p_user_id
+    ),
+    raw_category AS (
+        SELECT sw.user_id, sw.scheduled_date as workout_date, swc.category,
+               COUNT(*) as workout_count, SUM(swc.detail_count) as detail_count,
+               COALESCE(SUM(swc.detail_count * sw.calories_burned), 0) as calories_sum,
+               COALESCE(SUM(swc.detail_count * sw.actual_duration_minutes), 0) as duration_sum,
+               COALESCE(SUM(swc.detail_count * sw.overall_rating), 0) as rating_sum,
+               COALESCE(SUM(swc.detail_count) FILTER (WHERE sw.overall_rating IS NOT NULL), 0) as rating_count
+        FROM scheduled_workouts sw
+                 JOIN scheduled_workout_categories swc ON swc.scheduled_workout_id = sw.scheduled_workout_id
+        WHERE sw.status = 'COMPLETED'
+          AND (p_user_id IS NULL OR sw.user_id = p_user_id)
+        GROUP BY sw.user_id, sw.scheduled_date, swc.category
+    ),
+    rollup_category AS (
+        SELECT c.* FROM user_daily_category_rollup c
+        WHERE p_user_id IS NULL OR c.user_id = p_user_id
+    )
+SELECT 'daily'::VARCHAR(20), COALESCE(rd.user_id, xd.user_id), COALESCE(rd.workout_date, xd.workout_date), NULL::VARCHAR(20)
+FROM rollup_daily rd
+         FULL OUTER JOIN raw_daily xd ON xd.user_id = rd.user_id AND xd.workout_date = rd.workout_date
+WHERE rd.user_id IS NULL OR xd.user_id IS NULL
+   OR rd.workout_count <> xd.workout_count
+   OR rd.calories_sum <> xd.calories_sum
+   OR rd.duration_sum <> xd.duration_sum
+   OR rd.duration_count <> xd.duration_count
+   OR rd.rating_sum <> xd.rating_sum
+   OR rd.rating_count <> xd.rating_count
+UNION ALL
+SELECT 'category'::VARCHAR(20), COALESCE(rc.user_id, xc.user_id), COALESCE(rc.workout_date, xc.workout_date),
+       COALESCE(rc.category, xc.category)::VARCHAR(20)
+FROM rollup_category rc
+         FULL OUTER JOIN raw_category xc
+                         ON xc.user_id = rc.user_id AND xc.workout_date = rc.workout_date AND xc.category = rc.category
+WHERE rc.user_id IS NULL OR xc.user_id IS NULL
+   OR rc.workout_count <> xc.workout_count
+   OR rc.detail_count <> xc.detail_count
+   OR rc.calories_sum <> xc.calories_sum
+   OR rc.duration_sum <> xc.duration_sum
+   OR rc.rating_sum <> xc.rating_sum
+   OR rc.rating_count <> xc.rating_count
+ORDER BY 2, 3, 1;
+END;
+$$;
 
 COMMIT;
 
@@ -1227,7 +1718,44 @@ INSERT INTO workout_exercise_logs (scheduled_workout_id, exercise_id, exercise_o
 
 
 -- USER_WORKOUT_STREAKS TABLE
--- This table is automatically populated by triggers when workouts are completed
+-- Filled from the COMPLETED outbox events at runtime, the seed workouts are applied here in date order
+SELECT s.*
+FROM (SELECT DISTINCT user_id, scheduled_date
+      FROM scheduled_workouts
+      WHERE status = 'COMPLETED'
+      ORDER BY user_id, scheduled_date) completed
+         CROSS JOIN LATERAL update_workout_streak(completed.user_id, completed.scheduled_date) s;
+
+-- USER_ACHIEVEMENTS / USER_ACHIEVEMENT_PROGRESS TABLES
+-- Awarded from the outbox and on goal completion at runtime,
+-- achievements of existing data are built with --maintenance.achievements=rebuild
+
+-- USER_DAILY_WORKOUT_ROLLUP / USER_DAILY_CATEGORY_ROLLUP / SCHEDULED_WORKOUT_CATEGORIES TABLES
+-- Also populated by trigger, the seed details are inserted before the seed workouts
+
+
+-- USER_EXERCISE_STATS TABLE
+-- seed logs are inserted directly, so build the rollup from them here
+INSERT INTO user_exercise_stats (user_id, exercise_id, times_performed, weight_sum,
+                                 reps_sum, reps_count, sets_sum, sets_count,
+                                 difficulty_sum, difficulty_count, last_performed_at)
+SELECT sw.user_id, wel.exercise_id, COUNT(*), COALESCE(SUM(wel.weight_used_kg), 0),
+       COALESCE(SUM(wel.reps_completed), 0), COUNT(wel.reps_completed),
+       COALESCE(SUM(wel.sets_completed), 0), COUNT(wel.sets_completed),
+       COALESCE(SUM(wel.difficulty_rating), 0), COUNT(wel.difficulty_rating),
+       MAX(sw.actual_start_time)
+FROM workout_exercise_logs wel
+         JOIN scheduled_workouts sw ON sw.scheduled_workout_id = wel.scheduled_workout_id
+WHERE sw.status = 'COMPLETED'
+GROUP BY sw.user_id, wel.exercise_id;
+
+
+-- ID SEQUENCES
+-- Hibernate allocates workout_exercise_details and scheduled_workouts ids 50 at a time (pooled optimizer) to batch the inserts,
+-- the sequence has to step by the same amount, changed after the seed so the seed ids stay 1..n
+-- workout_outbox_events keeps a step of 1, its events are recorded one per transaction
+ALTER SEQUENCE workout_exercise_details_workout_exercise_detail_id_seq INCREMENT BY 50;
+ALTER SEQUENCE scheduled_workouts_scheduled_workout_id_seq INCREMENT BY 50;
 
 
-COMMIT;
\ No newline at end of file
+COMMIT;
@@ -0,0 +1,130 @@
+package com.marecca.workoutTracker.service;
+
+import com.marecca.workoutTracker.dto.ExerciseStats;
+import com.marecca.workoutTracker.entity.Exercise;
+import com.marecca.workoutTracker.entity.enums.ExerciseCategoryType;
+import com.marecca.workoutTracker.entity.enums.MuscleGroupType;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Arrays;
+
+/**
+ * the BigDecimal formulas WorkoutRecommendationService used before RecommendationScoringEngine,
+ * kept as the reference the engine is checked and benchmarked against
+ */
+final class LegacyRecommendationScoring {
+
+    private LegacyRecommendationScoring() {
+    }
+
+    static BigDecimal strengthMultiplier(int workoutCount) {
+        if (workoutCount > 50) return BigDecimal.valueOf(1.3); // very advanced
+        if (workoutCount > 20) return BigDecimal.valueOf(1.15); // advanced
+        if (workoutCount > 5) return BigDecimal.valueOf(1.0); // medium
+        return BigDecimal.valueOf(0.8); // beginner
+    }
+
+    static BigDecimal priorityScore(String goalType, Exercise exercise, boolean doneRecently) {
+        BigDecimal caloriesPerMinute = caloriesPerMinute(exercise);
+        int muscleBuildingPotential = muscleBuildingPotential(exercise);
+        int cardioEffectiveness = cardioEffectiveness(exercise);
+
+        //if the exercise was done in the past 7 days -> -1
+        BigDecimal recencyPenalty = doneRecently ? BigDecimal.valueOf(-1.0) : BigDecimal.ZERO;
+
+        switch (goalType) {
+            case "WEIGHT_LOSS":
+                return BigDecimal.valueOf(cardioEffectiveness)
+                        .multiply(BigDecimal.valueOf(0.6))
+                        .add(caloriesPerMinute.multiply(BigDecimal.valueOf(0.3)))
+                        .add(ExerciseCategoryType.CARDIO.equals(exercise.getCategory()) ? BigDecimal.valueOf(2.0) : BigDecimal.ZERO)
+                        .add(recencyPenalty);
+            case "MUSCLE_GAIN":
+                return BigDecimal.valueOf(muscleBuildingPotential)
+                        .multiply(BigDecimal.valueOf(0.7))
+                        .add(ExerciseCategoryType.STRENGTH.equals(exercise.getCategory()) ? BigDecimal.valueOf(2.0) : BigDecimal.ZERO)
+                        .add(Arrays.asList(MuscleGroupType.FULL_BODY, MuscleGroupType.BACK, MuscleGroupType.CHEST, MuscleGroupType.QUADRICEPS)
+                                .contains(exercise.getPrimaryMuscleGroup()) ? BigDecimal.valueOf(1.0) : BigDecimal.ZERO)
+                        .add(recencyPenalty);
+            default: // MAINTENANCE
+                return BigDecimal.valueOf(cardioEffectiveness + muscleBuildingPotential)
+                        .multiply(BigDecimal.valueOf(0.4))
+                        .add(exercise.getDifficultyLevel() <= 3 ? BigDecimal.valueOf(1.0) : BigDecimal.ZERO)
+                        .add(recencyPenalty);
+        }
+    }
+
+    static BigDecimal weightPercentage(String goalType, ExerciseStats stats, BigDecimal userWeightKg, BigDecimal strengthMultiplier) {
+        if (stats.getTimesPerformed() > 0 && stats.getAvgWeightUsed().compareTo(BigDecimal.ZERO) > 0) {
+            BigDecimal userWeight = userWeightKg.max(BigDecimal.valueOf(50));
+            BigDecimal basePercentage = stats.getAvgWeightUsed()
+                    .divide(userWeight, 4, RoundingMode.HALF_UP)
+                    .multiply(BigDecimal.valueOf(100));
+
+            switch (goalType) {
+                case "MUSCLE_GAIN":
+                    return basePercentage.multiply(BigDecimal.valueOf(1.1)).min(BigDecimal.valueOf(100.0));
+                case "WEIGHT_LOSS":
+                    return basePercentage.multiply(BigDecimal.valueOf(0.9)).min(BigDecimal.valueOf(90.0));
+                default:
+                    return basePercentage.min(BigDecimal.valueOf(95.0));
+            }
+        }
+        switch (goalType) {
+            case "MUSCLE_GAIN":
+                return BigDecimal.valueOf(80).multiply(strengthMultiplier);
+            case "WEIGHT_LOSS":
+                return BigDecimal.valueOf(65).multiply(strengthMultiplier);
+            default:
+                return BigDecimal.valueOf(70).multiply(strengthMultiplier);
+        }
+    }
+
+    private static BigDecimal caloriesPerMinute(Exercise exercise) {
+        switch (exercise.getCategory()) {
+            case CARDIO:
+                return BigDecimal.valueOf(12.0);
+            case STRENGTH:
+                MuscleGroupType muscleGroup = exercise.getPrimaryMuscleGroup();
+                if (muscleGroup == MuscleGroupType.FULL_BODY) {
+                    return BigDecimal.valueOf(8.0);
+                } else if (muscleGroup == MuscleGroupType.BACK) {
+                    return BigDecimal.valueOf(6.0);
+                } else if (muscleGroup == MuscleGroupType.QUADRICEPS) {
+                    return BigDecimal.valueOf(7.0);
+                } else {
+                    return BigDecimal.valueOf(5.0);
+                }
+            default:
+                return BigDecimal.valueOf(4.0);
+        }
+    }
+
+    private static int muscleBuildingPotential(Exercise exercise) {
+        if (ExerciseCategoryType.STRENGTH.equals(exercise.getCategory())) {
+            MuscleGroupType muscleGroup = exercise.getPrimaryMuscleGroup();
+            if (muscleGroup == MuscleGroupType.FULL_BODY) {
+                return 5;
+            } else if (muscleGroup == MuscleGroupType.BACK ||
+                    muscleGroup == MuscleGroupType.CHEST ||
+                    muscleGroup == MuscleGroupType.QUADRICEPS) {
+                return 4;
+            } else {
+                return 3;
+            }
+        }
+        return 2;
+    }
+
+    private static int cardioEffectiveness(Exercise exercise) {
+        switch (exercise.getCategory()) {
+            case CARDIO:
+                return 5;
+            case STRENGTH:
+                return MuscleGroupType.FULL_BODY.equals(exercise.getPrimaryMuscleGroup()) ? 3 : 2;
+            default:
+                return 3;
+        }
+    }
+}
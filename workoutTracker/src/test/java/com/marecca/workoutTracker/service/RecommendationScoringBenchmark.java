@@ -0,0 +1,98 @@
+package com.marecca.workoutTracker.service;
+
+import com.marecca.workoutTracker.entity.Exercise;
+import com.marecca.workoutTracker.entity.enums.ExerciseCategoryType;
+import com.marecca.workoutTracker.entity.enums.MuscleGroupType;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * scoring a catalog with the old BigDecimal formulas vs RecommendationScoringEngine, calls per ms and bytes
+ * allocated per call (gc.alloc.rate.norm from the GC profiler), not run by mvn test
+ * run from workoutTracker/ with:
+ *   mvn -q test-compile dependency:build-classpath -Dmdep.outputFile=target/test-classpath.txt
+ *   java -cp target/test-classes:target/classes:$(cat target/test-classpath.txt) com.marecca.workoutTracker.service.RecommendationScoringBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RecommendationScoringBenchmark {
+
+    @Param({"100", "1000"})
+    private int catalogSize;
+
+    @Param({"WEIGHT_LOSS", "MUSCLE_GAIN", "MAINTENANCE"})
+    private String goalType;
+
+    private final RecommendationScoringEngine engine = new RecommendationScoringEngine();
+    private List<Exercise> exercises;
+    private boolean[] doneRecently;
+    private RecommendationScoringEngine.Goal goal;
+    private RecommendationScoringEngine.Features features;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Random random = new Random(7);
+        ExerciseCategoryType[] categories = ExerciseCategoryType.values();
+        MuscleGroupType[] muscleGroups = MuscleGroupType.values();
+        exercises = new ArrayList<>(catalogSize);
+        doneRecently = new boolean[catalogSize];
+        for (int i = 0; i < catalogSize; i++) {
+            exercises.add(RecommendationScoringEngineTest.exercise(categories[random.nextInt(categories.length)],
+                    muscleGroups[random.nextInt(muscleGroups.length)], 1 + random.nextInt(5)));
+            doneRecently[i] = random.nextInt(4) == 0;
+        }
+        goal = engine.parseGoal(goalType);
+        features = engine.extractFeatures(exercises);
+    }
+
+    @Benchmark
+    public BigDecimal[] bigDecimalScores() {
+        BigDecimal[] scores = new BigDecimal[exercises.size()];
+        for (int i = 0; i < scores.length; i++) {
+            scores[i] = LegacyRecommendationScoring.priorityScore(goalType, exercises.get(i), doneRecently[i]);
+        }
+        return scores;
+    }
+
+    @Benchmark
+    public int[] engineScores() {
+        return engine.score(goal, engine.extractFeatures(exercises), doneRecently);
+    }
+
+    //features are cached with the catalog snapshot, this is the per-request cost
+    @Benchmark
+    public int[] engineScoresPrecomputedFeatures() {
+        return engine.score(goal, features, doneRecently);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(RecommendationScoringBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build()).run();
+    }
+}
@@ -0,0 +1,188 @@
+package com.marecca.workoutTracker.service;
+
+import com.marecca.workoutTracker.dto.ExerciseStats;
+import com.marecca.workoutTracker.entity.Exercise;
+import com.marecca.workoutTracker.entity.enums.ExerciseCategoryType;
+import com.marecca.workoutTracker.entity.enums.MuscleGroupType;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * the fixed point engine has to return the same values, with the same scales, as the BigDecimal formulas
+ * in LegacyRecommendationScoring, BigDecimal.equals compares both
+ * selectTopK has to rank like the stable sort it replaced
+ */
+class RecommendationScoringEngineTest {
+
+    private final RecommendationScoringEngine engine = new RecommendationScoringEngine();
+
+    @Test
+    void priorityScoresMatchBigDecimalFormulas() {
+        List<Exercise> exercises = new ArrayList<>();
+        for (ExerciseCategoryType category : ExerciseCategoryType.values()) {
+            for (MuscleGroupType muscleGroup : MuscleGroupType.values()) {
+                for (int difficulty = 1; difficulty <= 5; difficulty++) {
+                    exercises.add(exercise(category, muscleGroup, difficulty));
+                }
+            }
+        }
+        RecommendationScoringEngine.Features features = engine.extractFeatures(exercises);
+
+        for (RecommendationScoringEngine.Goal goal : RecommendationScoringEngine.Goal.values()) {
+            for (boolean recent : new boolean[]{false, true}) {
+                boolean[] doneRecently = new boolean[exercises.size()];
+                Arrays.fill(doneRecently, recent);
+                int[] scores = engine.score(goal, features, doneRecently);
+
+                for (int i = 0; i < exercises.size(); i++) {
+                    BigDecimal expected = LegacyRecommendationScoring.priorityScore(goal.name(), exercises.get(i), recent);
+                    assertThat(engine.toPriorityScore(goal, scores[i]))
+                            .as("%s %s recent=%s", goal, describe(exercises.get(i)), recent)
+                            .isEqualTo(expected);
+                }
+            }
+        }
+    }
+
+    @Test
+    void priorityScoreScalesFollowTheGoal() {
+        //5 * 0.6 + 12.0 * 0.3 + 2.0
+        assertThat(engine.toPriorityScore(RecommendationScoringEngine.Goal.WEIGHT_LOSS, 860)).hasToString("8.60");
+        //4 * 0.7 + 2.0 + 1.0
+        assertThat(engine.toPriorityScore(RecommendationScoringEngine.Goal.MUSCLE_GAIN, 580)).hasToString("5.8");
+        //(2 + 3) * 0.4 + 1.0 - 1.0
+        assertThat(engine.toPriorityScore(RecommendationScoringEngine.Goal.MAINTENANCE, 200)).hasToString("2.0");
+    }
+
+    @Test
+    void strengthMultiplierMatchesBigDecimalFormula() {
+        for (int workoutCount = 0; workoutCount <= 60; workoutCount++) {
+            BigDecimal expected = LegacyRecommendationScoring.strengthMultiplier(workoutCount);
+            assertThat(engine.strengthMultiplier(workoutCount))
+                    .as("workouts=%d", workoutCount)
+                    .isEqualTo(expected.movePointRight(2).intValueExact());
+        }
+    }
+
+    @Test
+    void weightPercentageWithoutHistoryMatchesBigDecimalFormula() {
+        ExerciseStats noHistory = new ExerciseStats(0, BigDecimal.ZERO, 0.0, 0.0, 3.0);
+        for (RecommendationScoringEngine.Goal goal : RecommendationScoringEngine.Goal.values()) {
+            for (int workoutCount : new int[]{0, 6, 21, 51}) {
+                BigDecimal expected = LegacyRecommendationScoring.weightPercentage(goal.name(), noHistory,
+                        BigDecimal.valueOf(70), LegacyRecommendationScoring.strengthMultiplier(workoutCount));
+                assertThat(engine.recommendedWeightPercentage(goal, noHistory, 0, 7_000, engine.strengthMultiplier(workoutCount)))
+                        .as("%s workouts=%d", goal, workoutCount)
+                        .isEqualTo(expected);
+            }
+        }
+    }
+
+    @Test
+    void weightPercentageWithHistoryMatchesBigDecimalFormula() {
+        Random random = new Random(42);
+        List<BigDecimal[]> weights = new ArrayList<>();
+        //the caps are reached exactly, and rounding to 4 decimals ties at .5
+        weights.add(new BigDecimal[]{new BigDecimal("100.00"), new BigDecimal("100.00")});
+        weights.add(new BigDecimal[]{new BigDecimal("95.00"), new BigDecimal("100.00")});
+        weights.add(new BigDecimal[]{new BigDecimal("90.91"), new BigDecimal("100.00")});
+        weights.add(new BigDecimal[]{new BigDecimal("0.01"), new BigDecimal("50.00")});
+        weights.add(new BigDecimal[]{new BigDecimal("60.00"), new BigDecimal("40.00")});
+        for (int i = 0; i < 20_000; i++) {
+            //stats averages and user weights carry two decimals
+            BigDecimal avgWeight = BigDecimal.valueOf(1 + random.nextInt(30_000), 2);
+            BigDecimal userWeight = BigDecimal.valueOf(3_000 + random.nextInt(12_000), 2);
+            weights.add(new BigDecimal[]{avgWeight, userWeight});
+        }
+
+        for (BigDecimal[] pair : weights) {
+            ExerciseStats stats = new ExerciseStats(3, pair[0], 10.0, 3.0, 3.0);
+            long avgHundredths = toHundredths(pair[0]);
+            long userHundredths = toHundredths(pair[1].max(BigDecimal.valueOf(50)));
+            for (RecommendationScoringEngine.Goal goal : RecommendationScoringEngine.Goal.values()) {
+                BigDecimal expected = LegacyRecommendationScoring.weightPercentage(goal.name(), stats, pair[1],
+                        LegacyRecommendationScoring.strengthMultiplier(10));
+                assertThat(engine.recommendedWeightPercentage(goal, stats, avgHundredths, userHundredths, engine.strengthMultiplier(10)))
+                        .as("%s avg=%s user=%s", goal, pair[0], pair[1])
+                        .isEqualTo(expected);
+            }
+        }
+    }
+
+    @Test
+    void selectTopKKeepsTheLowerIndexFirstOnTies() {
+        int[] scores = {300, 500, 300, 500, 300};
+        assertThat(engine.selectTopK(scores, 3, 100)).containsExactly(1, 3, 0);
+        //a later equal score does not push out a kept one
+        assertThat(engine.selectTopK(new int[]{200, 200, 200, 200}, 2, 100)).containsExactly(0, 1);
+    }
+
+    @Test
+    void selectTopKReturnsEverythingAboveTheCutoffWhenKExceedsN() {
+        assertThat(engine.selectTopK(new int[]{150, 400, 120}, 10, 100)).containsExactly(1, 0, 2);
+        assertThat(engine.selectTopK(new int[0], 8, 100)).isEmpty();
+        assertThat(engine.selectTopK(new int[]{500}, 0, 100)).isEmpty();
+    }
+
+    @Test
+    void selectTopKDropsScoresNotAboveOne() {
+        //priority score has to be > 1.0, exactly 1.0 is left out
+        int[] scores = {100, 101, 99, 250, -100, 0};
+        assertThat(engine.selectTopK(scores, 8, 100)).containsExactly(3, 1);
+        assertThat(engine.selectTopK(new int[]{100, 50}, 8, 100)).isEmpty();
+    }
+
+    @Test
+    void selectTopKMatchesAStableSort() {
+        Random random = new Random(11);
+        for (int run = 0; run < 2_000; run++) {
+            //few distinct values, so most runs have ties across the k boundary
+            int[] scores = new int[random.nextInt(40)];
+            for (int i = 0; i < scores.length; i++) {
+                scores[i] = 50 + 50 * random.nextInt(6);
+            }
+            int k = 1 + random.nextInt(12);
+            assertThat(engine.selectTopK(scores, k, 100))
+                    .as("scores=%s k=%d", Arrays.toString(scores), k)
+                    .containsExactly(stableTopK(scores, k, 100));
+        }
+    }
+
+    //the filter, stable descending sort and limit the service used before
+    private static int[] stableTopK(int[] scores, int k, int minScore) {
+        return IntStream.range(0, scores.length)
+                .filter(i -> scores[i] > minScore)
+                .boxed()
+                .sorted((a, b) -> Integer.compare(scores[b], scores[a]))
+                .limit(k)
+                .mapToInt(Integer::intValue)
+                .toArray();
+    }
+
+    static Exercise exercise(ExerciseCategoryType category, MuscleGroupType muscleGroup, int difficulty) {
+        return Exercise.builder()
+                .exerciseName(category + " " + muscleGroup + " " + difficulty)
+                .category(category)
+                .primaryMuscleGroup(muscleGroup)
+                .difficultyLevel(difficulty)
+                .build();
+    }
+
+    private static String describe(Exercise exercise) {
+        return exercise.getCategory() + "/" + exercise.getPrimaryMuscleGroup() + "/" + exercise.getDifficultyLevel();
+    }
+
+    //same conversion as WorkoutRecommendationService
+    private static long toHundredths(BigDecimal value) {
+        return value.setScale(2, RoundingMode.HALF_UP).unscaledValue().longValue();
+    }
+}
@@ -0,0 +1,109 @@
+package com.marecca.workoutTracker.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RankedBoardTest {
+
+    @Test
+    void ranksByScoreThenSmallerMemberId() {
+        RankedBoard board = RankedBoard.of(Map.of(5L, 300L, 3L, 500L, 1L, 300L, 9L, 100L));
+
+        assertThat(board.page(0, 10)).containsExactly(
+                new RankedBoard.Entry(1, 3, 500),
+                new RankedBoard.Entry(2, 1, 300),
+                new RankedBoard.Entry(3, 5, 300),
+                new RankedBoard.Entry(4, 9, 100));
+        assertThat(board.rankOf(1)).isEqualTo(2);
+        assertThat(board.rankOf(5)).isEqualTo(3);
+        assertThat(board.rankOf(42)).isZero();
+        assertThat(board.scoreOf(42)).isZero();
+    }
+
+    @Test
+    void scoreChangeMovesTheMember() {
+        RankedBoard board = RankedBoard.of(Map.of(1L, 300L, 3L, 500L, 9L, 100L));
+
+        board.set(9, 600);
+        assertThat(board.rankOf(9)).isEqualTo(1);
+        assertThat(board.rankOf(3)).isEqualTo(2);
+
+        board.set(3, 50);
+        assertThat(board.rankOf(3)).isEqualTo(3);
+        assertThat(board.scoreOf(3)).isEqualTo(50);
+
+        //same score as member 1, the smaller id ranks first
+        board.set(9, 300);
+        assertThat(board.page(0, 3)).extracting(RankedBoard.Entry::getMember).containsExactly(1L, 9L, 3L);
+        assertThat(board.size()).isEqualTo(3);
+    }
+
+    @Test
+    void scoreOfZeroRemovesTheMember() {
+        RankedBoard board = RankedBoard.of(Map.of(1L, 300L, 3L, 500L, 9L, 100L));
+
+        board.set(3, 0);
+        assertThat(board.rankOf(3)).isZero();
+        assertThat(board.scoreOf(3)).isZero();
+        assertThat(board.rankOf(1)).isEqualTo(1);
+        assertThat(board.size()).isEqualTo(2);
+
+        board.set(7, -5);
+        board.set(8, 0);
+        assertThat(board.size()).isEqualTo(2);
+        assertThat(RankedBoard.of(Map.of(4L, 0L)).size()).isZero();
+    }
+
+    @Test
+    void pagingPastTheEnd() {
+        RankedBoard board = RankedBoard.of(Map.of(1L, 300L, 3L, 500L, 9L, 100L, 5L, 200L));
+
+        assertThat(board.page(3, 10)).containsExactly(new RankedBoard.Entry(4, 9, 100));
+        assertThat(board.page(4, 10)).isEmpty();
+        assertThat(board.page(100, 5)).isEmpty();
+        assertThat(board.page(0, 0)).isEmpty();
+        assertThat(board.page(-1, 2)).extracting(RankedBoard.Entry::getRank).containsExactly(1L, 2L);
+        assertThat(new RankedBoard().page(0, 20)).isEmpty();
+    }
+
+    @Test
+    void matchesASortedListAfterRandomChanges() {
+        Random random = new Random(3);
+        RankedBoard board = new RankedBoard();
+        Map<Long, Long> expected = new HashMap<>();
+
+        for (int step = 0; step < 5_000; step++) {
+            long member = 1 + random.nextInt(200);
+            //few distinct scores and some removals
+            long score = random.nextInt(12) * 10L - 10;
+            board.set(member, score);
+            if (score > 0) {
+                expected.put(member, score);
+            } else {
+                expected.remove(member);
+            }
+        }
+
+        List<Map.Entry<Long, Long>> sorted = new ArrayList<>(expected.entrySet());
+        sorted.sort(Comparator.<Map.Entry<Long, Long>>comparingLong(Map.Entry::getValue).reversed()
+                .thenComparingLong(Map.Entry::getKey));
+        List<RankedBoard.Entry> ranked = new ArrayList<>();
+        for (int i = 0; i < sorted.size(); i++) {
+            ranked.add(new RankedBoard.Entry(i + 1, sorted.get(i).getKey(), sorted.get(i).getValue()));
+        }
+
+        assertThat(board.size()).isEqualTo(sorted.size());
+        assertThat(board.page(0, sorted.size() + 5)).containsExactlyElementsOf(ranked);
+        for (RankedBoard.Entry entry : ranked) {
+            assertThat(board.rankOf(entry.getMember())).isEqualTo(entry.getRank());
+        }
+    }
+}